@@ -0,0 +1,60 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.RentalAmountService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the three {@link RentalAmountService} calculations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalAmountServiceBenchmark {
+
+    private RentalAmountService rentalAmountService;
+    private BigDecimal dailyRentalCharge;
+    private BigDecimal preDiscountCharge;
+    private BigDecimal discountAmount;
+    private Integer chargeDays;
+    private Integer discountPercent;
+
+    @Setup
+    public void setUp() {
+        rentalAmountService = new RentalAmountService();
+        dailyRentalCharge = new BigDecimal("2.99");
+        preDiscountCharge = new BigDecimal("14.95");
+        discountAmount = new BigDecimal("3.74");
+        chargeDays = 5;
+        discountPercent = 25;
+    }
+
+    @Benchmark
+    public BigDecimal calculatePreDiscountCharge() {
+        return rentalAmountService.calculatePreDiscountCharge(chargeDays, dailyRentalCharge);
+    }
+
+    @Benchmark
+    public BigDecimal calculateDiscountAmount() {
+        return rentalAmountService.calculateDiscountAmount(discountPercent, preDiscountCharge);
+    }
+
+    @Benchmark
+    public BigDecimal calculateFinalCharge() {
+        return rentalAmountService.calculateFinalCharge(preDiscountCharge, discountAmount);
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import models.ToolTypeCharge;
+import models.constants.ToolType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.RentalDateService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link RentalDateService#determineNumberOfChargeDays(ToolTypeCharge, LocalDate, Integer)} over rental
+ * lengths from 1 day to 10 years, for checkout dates that cross no holiday, Independence Day and Memorial Day, with
+ * and without the calendar index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalDateServiceBenchmark {
+
+    @Param({"1", "7", "30", "365", "3650"})
+    public int rentalDays;
+
+    @Param({"2015-01-12", "2015-07-02", "2015-09-03"})
+    public String checkoutDate;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private RentalDateService rentalDateService;
+    private ToolTypeCharge toolTypeCharge;
+    private LocalDate checkout;
+
+    @Setup
+    public void setUp() {
+        rentalDateService = indexed ? new RentalDateService() : new RentalDateService(null);
+        toolTypeCharge = new ToolTypeCharge(ToolType.CHAINSAW, new BigDecimal("1.49"), Boolean.TRUE, Boolean.FALSE, Boolean.TRUE);
+        checkout = LocalDate.parse(checkoutDate);
+    }
+
+    @Benchmark
+    public Integer determineNumberOfChargeDays() {
+        return rentalDateService.determineNumberOfChargeDays(toolTypeCharge, checkout, rentalDays);
+    }
+}
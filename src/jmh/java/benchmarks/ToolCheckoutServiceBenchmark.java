@@ -0,0 +1,54 @@
+package benchmarks;
+
+import models.ToolRentalAgreement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.RentalAmountService;
+import services.RentalDateService;
+import services.ToolCheckoutService;
+import services.ToolService;
+import services.ToolTypeChargeService;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ToolCheckoutService#checkoutTool(String, Integer, Integer, LocalDate)} end to end.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolCheckoutServiceBenchmark {
+
+    @Param({"LADW", "CHNS", "JAKR"})
+    public String toolCode;
+
+    @Param({"5", "365"})
+    public int rentalDays;
+
+    private ToolCheckoutService toolCheckoutService;
+    private LocalDate checkoutDate;
+
+    @Setup
+    public void setUp() {
+        toolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+        checkoutDate = LocalDate.of(2015, 7, 2);
+    }
+
+    @Benchmark
+    public ToolRentalAgreement checkoutTool() {
+        return toolCheckoutService.checkoutTool(toolCode, rentalDays, 10, checkoutDate);
+    }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import models.ToolRentalAgreement;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.ToolRentalAgreementRenderer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ToolRentalAgreement#print()}, with System.out discarding its output, against rendering into a
+ * reused string builder and byte buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolRentalAgreementPrintBenchmark {
+
+    private final ToolRentalAgreementRenderer renderer = new ToolRentalAgreementRenderer();
+    private final StringBuilder stringBuilder = new StringBuilder(512);
+    private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(512);
+
+    private ToolRentalAgreement toolRentalAgreement;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() {
+        toolRentalAgreement = ToolRentalAgreement
+                .builder()
+                .toolCode("JAKR")
+                .toolType(ToolType.JACKHAMMER)
+                .toolBrand(ToolBrand.RIDGID)
+                .rentalDays(9)
+                .checkoutDate(LocalDate.of(2015, 7, 2))
+                .dueDate(LocalDate.of(2015, 7, 11))
+                .dailyRentalCharge(new BigDecimal("2.99"))
+                .chargeDays(5)
+                .preDiscountCharge(new BigDecimal("14.95"))
+                .discountPercent(15)
+                .discountAmount(new BigDecimal("2.24"))
+                .finalCharge(new BigDecimal("12.71"))
+                .build();
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void print() {
+        toolRentalAgreement.print();
+    }
+
+    @Benchmark
+    public StringBuilder renderToStringBuilder() {
+        stringBuilder.setLength(0);
+        renderer.render(toolRentalAgreement, stringBuilder);
+        return stringBuilder;
+    }
+
+    @Benchmark
+    public ByteBuffer renderToByteBuffer() {
+        byteBuffer.clear();
+        renderer.render(toolRentalAgreement, byteBuffer);
+        return byteBuffer;
+    }
+}
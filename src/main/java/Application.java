@@ -1,12 +1,23 @@
+import models.BulkCheckoutSummary;
+import models.CheckoutHttpServerConfig;
+import models.LoadTestConfig;
 import models.ToolRentalAgreement;
 import services.*;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 
 public class Application {
 
     /**
      * Simple application to print out the Tool Rental Agreements that are created for Test Scenarios 2 - 6
+     * <p>
+     * Run with {@code --bulk <input> <output>} to check out every request in a CSV or NDJSON file instead, with
+     * {@code --bulk-quote <input> <output>} to quote them without reserving any stock, or with
+     * {@code --serve [port]} to serve checkouts over HTTP until the process is stopped. Run with
+     * {@code --load-test [threads] [seconds] [virtual]} to check out a synthetic workload and report its throughput,
+     * latency and GC pauses.
      *
      * @param args - any application arguments
      */
@@ -14,29 +25,119 @@ public class Application {
 
         ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
 
+        if (args.length > 0 && ("--bulk".equals(args[0]) || "--bulk-quote".equals(args[0]))) {
+            checkoutToolsInBulk(toolCheckoutService, args);
+            return;
+        }
+
+        if (args.length > 0 && "--serve".equals(args[0])) {
+            serveCheckouts(toolCheckoutService, args);
+            return;
+        }
+
+        if (args.length > 0 && "--load-test".equals(args[0])) {
+            runLoadTest(toolCheckoutService, args);
+            return;
+        }
+
         ToolRentalAgreement testScenario2 = toolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
         ToolRentalAgreement testScenario3 = toolCheckoutService.checkoutTool("CHNS", 5, 25, LocalDate.of(2020, 7, 2));
         ToolRentalAgreement testScenario4 = toolCheckoutService.checkoutTool("JAKD", 6, 0, LocalDate.of(2015, 9, 3));
         ToolRentalAgreement testScenario5 = toolCheckoutService.checkoutTool("JAKR", 9, 0, LocalDate.of(2015, 7, 2));
         ToolRentalAgreement testScenario6 = toolCheckoutService.checkoutTool("JAKR", 4, 50, LocalDate.of(2020, 7, 2));
 
+        ToolRentalAgreementRenderer renderer = new ToolRentalAgreementRenderer();
+
         System.out.println("Test Scenario 2\n");
-        testScenario2.print();
+        printToolRentalAgreement(renderer, testScenario2);
         System.out.println();
 
         System.out.println("Test Scenario 3\n");
-        testScenario3.print();
+        printToolRentalAgreement(renderer, testScenario3);
         System.out.println();
 
         System.out.println("Test Scenario 4\n");
-        testScenario4.print();
+        printToolRentalAgreement(renderer, testScenario4);
         System.out.println();
 
         System.out.println("Test Scenario 5\n");
-        testScenario5.print();
+        printToolRentalAgreement(renderer, testScenario5);
         System.out.println();
 
         System.out.println("Test Scenario 6\n");
-        testScenario6.print();
+        printToolRentalAgreement(renderer, testScenario6);
+    }
+
+    /**
+     * Print a rental agreement to console, in the format of {@link ToolRentalAgreement#print()}.
+     *
+     * @param renderer            - renderer to render the rental agreement with
+     * @param toolRentalAgreement - rental agreement to print
+     */
+    private static void printToolRentalAgreement(ToolRentalAgreementRenderer renderer, ToolRentalAgreement toolRentalAgreement) {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        renderer.render(toolRentalAgreement, stringBuilder);
+
+        System.out.println(stringBuilder);
+    }
+
+    /**
+     * Check out every request in the input file and write the results to the output file, or only quote them when run
+     * with --bulk-quote.
+     *
+     * @param toolCheckoutService - tool checkout service to create the rental agreements with
+     * @param args                - application arguments, --bulk or --bulk-quote followed by the input and output file
+     */
+    private static void checkoutToolsInBulk(ToolCheckoutService toolCheckoutService, String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: " + args[0] + " <input.csv|input.ndjson> <output.csv|output.ndjson>");
+            System.exit(1);
+        }
+
+        BulkCheckoutService bulkCheckoutService = new BulkCheckoutService(toolCheckoutService);
+        BulkCheckoutSummary summary = "--bulk-quote".equals(args[0])
+                ? bulkCheckoutService.quoteTools(Path.of(args[1]), Path.of(args[2]))
+                : bulkCheckoutService.checkoutTools(Path.of(args[1]), Path.of(args[2]));
+
+        System.out.println("Checkout requests: " + summary.getCheckoutRequests());
+        System.out.println("Rental agreements: " + summary.getToolRentalAgreements());
+        System.out.println("Failed checkout requests: " + summary.getFailedCheckoutRequests());
+    }
+
+    /**
+     * Serve checkouts over HTTP, draining pending requests when the process is stopped.
+     *
+     * @param toolCheckoutService - tool checkout service to create the rental agreements with
+     * @param args                - application arguments, --serve optionally followed by the port
+     */
+    private static void serveCheckouts(ToolCheckoutService toolCheckoutService, String[] args) {
+        CheckoutHttpServerConfig config = CheckoutHttpServerConfig
+                .builder()
+                .port(args.length > 1 ? Integer.parseInt(args[1]) : 8080)
+                .build();
+
+        CheckoutHttpServer checkoutHttpServer = new CheckoutHttpServer(toolCheckoutService, config);
+        Runtime.getRuntime().addShutdownHook(new Thread(checkoutHttpServer::close));
+
+        System.out.println("Serving checkouts on port " + checkoutHttpServer.getPort());
+    }
+
+    /**
+     * Check out a synthetic workload for a while and print its throughput, latency and GC pauses.
+     *
+     * @param toolCheckoutService - tool checkout service to create the rental agreements with
+     * @param args                - application arguments, --load-test optionally followed by the number of threads,
+     *                            the seconds to measure for and "virtual" to run on virtual threads
+     */
+    private static void runLoadTest(ToolCheckoutService toolCheckoutService, String[] args) {
+        LoadTestConfig config = LoadTestConfig
+                .builder()
+                .threads(args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors())
+                .duration(Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10))
+                .virtualThreads(args.length > 3 && "virtual".equals(args[3]))
+                .build();
+
+        new LoadGenerator(toolCheckoutService).run(config).print();
     }
 }
@@ -0,0 +1,11 @@
+package models;
+
+import lombok.Data;
+
+@Data
+public class BulkCheckoutSummary {
+
+    private final long checkoutRequests;
+    private final long toolRentalAgreements;
+    private final long failedCheckoutRequests;
+}
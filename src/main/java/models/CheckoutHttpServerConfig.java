@@ -0,0 +1,35 @@
+package models;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+@Builder
+public class CheckoutHttpServerConfig {
+
+    // Port to listen on, 0 for any free port
+    @Builder.Default
+    private final int port = 8080;
+
+    // Connections waiting to be accepted before the operating system refuses new ones
+    @Builder.Default
+    private final int backlog = 16_384;
+
+    // Requests queued or in progress before new requests are answered with 503 Service Unavailable
+    @Builder.Default
+    private final int maxPendingRequests = 10_000;
+
+    // Request threads when virtual threads are not available
+    @Builder.Default
+    private final int maxThreads = 256;
+
+    // Largest request body accepted, larger bodies are answered with 413 Payload Too Large
+    @Builder.Default
+    private final int maxRequestBytes = 1 << 20;
+
+    // Time to wait for pending requests to finish when stopping
+    @Builder.Default
+    private final Duration drainTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,48 @@
+package models;
+
+import lombok.Data;
+import models.constants.CheckoutStage;
+import models.constants.ToolType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+public class CheckoutMetricsSnapshot {
+
+    private final long durationNanos;
+    private final long completedCheckouts;
+    private final long failedCheckouts;
+    private final Map<CheckoutStage, LatencyHistogram.Snapshot> stageLatencies;
+    private final Map<ToolType, LatencyHistogram.Snapshot> toolTypeLatencies;
+
+    /**
+     * Determine the checkout throughput over the duration of the snapshot.
+     *
+     * @return - completed and failed checkouts per second
+     */
+    public double getCheckoutsPerSecond() {
+        return durationNanos == 0 ? 0 : (completedCheckouts + failedCheckouts) * 1_000_000_000d / durationNanos;
+    }
+
+    /**
+     * Get the metrics recorded since an earlier snapshot of the same checkout metrics.
+     *
+     * @param earlier - earlier snapshot
+     * @return - snapshot of the metrics recorded after the earlier snapshot
+     */
+    public CheckoutMetricsSnapshot minus(CheckoutMetricsSnapshot earlier) {
+        if (earlier == null) {
+            throw new IllegalArgumentException("Earlier snapshot cannot be null when subtracting a snapshot.");
+        }
+
+        Map<CheckoutStage, LatencyHistogram.Snapshot> intervalStageLatencies = new EnumMap<>(CheckoutStage.class);
+        stageLatencies.forEach((stage, latencies) -> intervalStageLatencies.put(stage, latencies.minus(earlier.stageLatencies.get(stage))));
+
+        Map<ToolType, LatencyHistogram.Snapshot> intervalToolTypeLatencies = new EnumMap<>(ToolType.class);
+        toolTypeLatencies.forEach((toolType, latencies) -> intervalToolTypeLatencies.put(toolType, latencies.minus(earlier.toolTypeLatencies.get(toolType))));
+
+        return new CheckoutMetricsSnapshot(durationNanos - earlier.durationNanos, completedCheckouts - earlier.completedCheckouts,
+                failedCheckouts - earlier.failedCheckouts, intervalStageLatencies, intervalToolTypeLatencies);
+    }
+}
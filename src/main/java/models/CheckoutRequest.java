@@ -0,0 +1,14 @@
+package models;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class CheckoutRequest {
+
+    private final String toolCode;
+    private final Integer rentalDays;
+    private final Integer discountPercent;
+    private final LocalDate checkoutDate;
+}
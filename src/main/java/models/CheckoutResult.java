@@ -0,0 +1,53 @@
+package models;
+
+import lombok.Data;
+import models.constants.CheckoutErrorCode;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Data
+public class CheckoutResult {
+
+    private final CheckoutRequest checkoutRequest;
+    private final ToolRentalAgreement toolRentalAgreement;
+    private final RuntimeException error;
+
+    // Reasons a checkout that reports failures without throwing failed, empty otherwise
+    private final List<CheckoutErrorCode> errorCodes;
+
+    public CheckoutResult(CheckoutRequest checkoutRequest, ToolRentalAgreement toolRentalAgreement, RuntimeException error) {
+        this(checkoutRequest, toolRentalAgreement, error, List.of());
+    }
+
+    public CheckoutResult(CheckoutRequest checkoutRequest, ToolRentalAgreement toolRentalAgreement, RuntimeException error,
+                          List<CheckoutErrorCode> errorCodes) {
+        this.checkoutRequest = checkoutRequest;
+        this.toolRentalAgreement = toolRentalAgreement;
+        this.error = error;
+        this.errorCodes = errorCodes;
+    }
+
+    /**
+     * Determine if the checkout request created a rental agreement.
+     *
+     * @return - true if a rental agreement was created, false if the checkout request failed
+     */
+    public boolean isSuccessful() {
+        return error == null && errorCodes.isEmpty();
+    }
+
+    /**
+     * Get the reason the checkout request failed.
+     *
+     * @return - message of the error, or the messages of the error codes separated by spaces, null if the checkout
+     * request did not fail
+     */
+    public String getErrorMessage() {
+        if (error != null) {
+            return error.getMessage();
+        }
+
+        return errorCodes.isEmpty() ? null : errorCodes.stream().map(CheckoutErrorCode::getMessage).collect(Collectors.joining(" "));
+    }
+}
@@ -0,0 +1,260 @@
+package models;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, with buckets laid out the same way as an HDR histogram: every
+ * value below 64 has its own bucket, and above that each power of two is split into 32 buckets, so any recorded
+ * value is reported within about 3% of its actual value.
+ * <p>
+ * Recording is a single atomic increment of a bucket and an add to a {@link LongAdder}, so concurrent recording
+ * never blocks. The buckets are striped by thread, with each stripe created the first time a thread records into
+ * it, so threads recording the same latencies on different cores do not contend on the same cache lines. A
+ * {@link Snapshot} adds up the stripes without stopping recording.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+    public static final long MAX_TRACKABLE_NANOS = (1L << 44) - 1;
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKET_COUNT = 2 * SUB_BUCKET_COUNT;
+    private static final int BUCKET_COUNT = getBucketIndex(MAX_TRACKABLE_NANOS) + 1;
+    private static final int MAX_STRIPE_COUNT = 64;
+    private static final int STRIPE_COUNT = Math.min(MAX_STRIPE_COUNT, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Record a latency. Negative latencies are recorded as 0 and latencies above {@link #MAX_TRACKABLE_NANOS} as
+     * {@link #MAX_TRACKABLE_NANOS}.
+     *
+     * @param nanos - latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS);
+
+        getStripe().incrementAndGet(getBucketIndex(value));
+        totalNanos.add(value);
+    }
+
+    /**
+     * Copy the recorded latencies.
+     *
+     * @return - snapshot of the latencies recorded so far
+     */
+    public Snapshot getSnapshot() {
+        long[] snapshotCounts = new long[BUCKET_COUNT];
+        long count = 0;
+
+        for (int stripe = 0; stripe < STRIPE_COUNT; stripe++) {
+            AtomicLongArray counts = stripes.get(stripe);
+
+            if (counts == null) {
+                continue;
+            }
+
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long bucketCount = counts.get(i);
+                snapshotCounts[i] += bucketCount;
+                count += bucketCount;
+            }
+        }
+
+        return new Snapshot(snapshotCounts, count, totalNanos.sum());
+    }
+
+    @Override
+    public long getCount() {
+        return getSnapshot().getCount();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return getSnapshot().getMeanNanos();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return getSnapshot().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return getSnapshot().getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return getSnapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return getSnapshot().getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return getSnapshot().getMaxNanos();
+    }
+
+    /**
+     * Private helper method to get the stripe of buckets the current thread records into, creating it on first use.
+     *
+     * @return - buckets of the stripe
+     */
+    private AtomicLongArray getStripe() {
+        long threadId = Thread.currentThread().getId();
+        int stripe = (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPE_COUNT - 1);
+
+        AtomicLongArray counts = stripes.get(stripe);
+
+        if (counts == null) {
+            stripes.compareAndSet(stripe, null, new AtomicLongArray(BUCKET_COUNT));
+            counts = stripes.get(stripe);
+        }
+
+        return counts;
+    }
+
+    /**
+     * Private helper method to get the bucket a value is counted in.
+     *
+     * @param value - value between 0 and {@link #MAX_TRACKABLE_NANOS}
+     * @return - index of the bucket
+     */
+    private static int getBucketIndex(long value) {
+        if (value < LINEAR_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+        return LINEAR_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * Private helper method to get the highest value counted in a bucket.
+     *
+     * @param bucketIndex - index of the bucket
+     * @return - highest value of the bucket
+     */
+    private static long getHighestValue(int bucketIndex) {
+        if (bucketIndex < LINEAR_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+
+        int shift = (bucketIndex - LINEAR_BUCKET_COUNT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (bucketIndex - LINEAR_BUCKET_COUNT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Latencies recorded by a histogram up to a point in time, or between two points in time.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+
+        private Snapshot(long[] counts, long count, long totalNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Get the mean latency.
+         *
+         * @return - mean latency in nanoseconds, 0 if nothing was recorded
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Get the highest recorded latency, to the precision of its bucket.
+         *
+         * @return - highest latency in nanoseconds, 0 if nothing was recorded
+         */
+        public long getMaxNanos() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return getHighestValue(i);
+                }
+            }
+
+            return 0;
+        }
+
+        /**
+         * Get the latency that the given percent of recorded latencies are at or below, to the precision of its
+         * bucket.
+         *
+         * @param percentile - percentile between 0 and 100 (e.g. 99.9)
+         * @return - latency in nanoseconds, 0 if nothing was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100 when getting a latency.");
+            }
+
+            long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long cumulativeCount = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                cumulativeCount += counts[i];
+
+                if (cumulativeCount >= countAtPercentile) {
+                    return getHighestValue(i);
+                }
+            }
+
+            return 0;
+        }
+
+        /**
+         * Get the latencies recorded since an earlier snapshot of the same histogram.
+         *
+         * @param earlier - earlier snapshot
+         * @return - snapshot of the latencies recorded after the earlier snapshot
+         */
+        public Snapshot minus(Snapshot earlier) {
+            if (earlier == null) {
+                throw new IllegalArgumentException("Earlier snapshot cannot be null when subtracting a snapshot.");
+            }
+
+            long[] intervalCounts = new long[counts.length];
+
+            for (int i = 0; i < counts.length; i++) {
+                intervalCounts[i] = counts[i] - earlier.counts[i];
+            }
+
+            return new Snapshot(intervalCounts, count - earlier.count, totalNanos - earlier.totalNanos);
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count
+                    + ", mean=" + Math.round(getMeanNanos()) + "ns"
+                    + ", p50=" + getValueAtPercentile(50) + "ns"
+                    + ", p99=" + getValueAtPercentile(99) + "ns"
+                    + ", p99.9=" + getValueAtPercentile(99.9) + "ns"
+                    + ", max=" + getMaxNanos() + "ns";
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package models;
+
+/**
+ * JMX view of a {@link LatencyHistogram}, all latencies in nanoseconds.
+ */
+public interface LatencyHistogramMXBean {
+
+    long getCount();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+}
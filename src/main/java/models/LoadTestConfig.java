@@ -0,0 +1,61 @@
+package models;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Builder
+public class LoadTestConfig {
+
+    // Threads checking out tools at the same time
+    @Builder.Default
+    private final int threads = 8;
+
+    // Run each thread as a virtual thread when the JVM supports them (Java 21 and later)
+    @Builder.Default
+    private final boolean virtualThreads = false;
+
+    // Time to check out tools before measuring, so the JIT compiler and caches settle
+    @Builder.Default
+    private final Duration warmup = Duration.ofSeconds(2);
+
+    // Time to check out tools while measuring
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(10);
+
+    // Tool codes to check out, picked uniformly, so a repeated code is checked out more often
+    @Builder.Default
+    private final List<String> toolCodes = List.of("CHNS", "LADW", "JAKD", "JAKR");
+
+    // Rental days are picked from a geometric distribution with this mean, capped at the max rental days
+    @Builder.Default
+    private final int meanRentalDays = 5;
+
+    @Builder.Default
+    private final int maxRentalDays = 30;
+
+    // Percent of checkouts with a holiday within the rental days, the rest are checked out on any day of the year
+    @Builder.Default
+    private final int holidayPercent = 25;
+
+    // Percent of checkouts with a discount, picked uniformly from 1 up to the max discount percent
+    @Builder.Default
+    private final int discountedPercent = 30;
+
+    @Builder.Default
+    private final int maxDiscountPercent = 50;
+
+    // Checkout dates are picked from the first checkout year up to and including the last checkout year
+    @Builder.Default
+    private final int firstCheckoutYear = 2015;
+
+    @Builder.Default
+    private final int lastCheckoutYear = 2030;
+
+    // Seed of the random checkouts, so a run can be repeated with the same workload
+    @Builder.Default
+    private final long seed = 42;
+}
@@ -0,0 +1,44 @@
+package models;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+@Data
+public class LoadTestReport {
+
+    private final int threads;
+    private final boolean virtualThreads;
+    private final long durationNanos;
+    private final long toolRentalAgreements;
+    private final long failedCheckouts;
+    private final LatencyHistogram.Snapshot latency;
+    private final long gcPauses;
+    private final long gcPauseMillis;
+    private final long maxGcPauseMillis;
+
+    /**
+     * Get the number of checkouts, successful or not, per second of the measured duration.
+     *
+     * @return - checkouts per second, 0 if nothing was measured
+     */
+    public double getThroughput() {
+        return durationNanos == 0 ? 0 : (double) (toolRentalAgreements + failedCheckouts) * TimeUnit.SECONDS.toNanos(1) / durationNanos;
+    }
+
+    /**
+     * Print the load test report.
+     */
+    public void print() {
+        System.out.println("Threads: " + threads + (virtualThreads ? " virtual" : " platform"));
+        System.out.println("Duration: " + TimeUnit.NANOSECONDS.toMillis(durationNanos) + "ms");
+        System.out.println("Rental agreements: " + toolRentalAgreements);
+        System.out.println("Failed checkouts: " + failedCheckouts);
+        System.out.println("Throughput: " + Math.round(getThroughput()) + " checkouts/s");
+        System.out.println("Latency p50: " + latency.getValueAtPercentile(50) + "ns");
+        System.out.println("Latency p99: " + latency.getValueAtPercentile(99) + "ns");
+        System.out.println("Latency p99.9: " + latency.getValueAtPercentile(99.9) + "ns");
+        System.out.println("Latency max: " + latency.getMaxNanos() + "ns");
+        System.out.println("GC pauses: " + gcPauses + " (" + gcPauseMillis + "ms total, " + maxGcPauseMillis + "ms max)");
+    }
+}
@@ -0,0 +1,43 @@
+package models;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions between amounts and whole cents.
+ */
+public final class Money {
+
+    public static final int CENTS_SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Convert an amount to whole cents.
+     * <p>
+     * ex. 1.99 to 199
+     *
+     * @param amount - amount to convert, must not have fractions of a cent
+     * @return - amount in cents
+     * @throws ArithmeticException if the amount has fractions of a cent or does not fit in a long
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null when converting to cents.");
+        }
+
+        return amount.setScale(CENTS_SCALE).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convert whole cents to an amount with a scale of 2.
+     * <p>
+     * ex. 199 to 1.99
+     *
+     * @param cents - amount in cents
+     * @return - amount with a scale of 2
+     */
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+}
@@ -0,0 +1,56 @@
+package models;
+
+import lombok.Builder;
+import lombok.Data;
+import models.constants.DayClass;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class PricingRuleSet {
+
+    // Daily rental charge of each class of day, a class of day without a charge is not charged
+    @Builder.Default
+    private final Map<DayClass, BigDecimal> dailyRentalCharges = new EnumMap<>(DayClass.class);
+
+    // Seasons charged at a percent of the daily rental charges, seasons cannot overlap
+    @Builder.Default
+    private final List<SeasonalRate> seasonalRates = List.of();
+
+    // Discounts for long rentals, the tier with the most minimum rental days that a rental reaches applies
+    @Builder.Default
+    private final List<RentalDiscountTier> rentalDiscountTiers = List.of();
+
+    /**
+     * Create the rule set that prices a rental the same as a tool type charge: a single daily rental charge for each
+     * class of day the tool type charge charges for.
+     *
+     * @param toolTypeCharge - tool type charge
+     * @return - pricing rule set
+     */
+    public static PricingRuleSet fromToolTypeCharge(ToolTypeCharge toolTypeCharge) {
+        if (toolTypeCharge == null) {
+            throw new IllegalArgumentException("Tool type charge cannot be null when creating a pricing rule set.");
+        }
+
+        Map<DayClass, BigDecimal> dailyRentalCharges = new EnumMap<>(DayClass.class);
+
+        if (Boolean.TRUE.equals(toolTypeCharge.getWeekdayCharge())) {
+            dailyRentalCharges.put(DayClass.WEEKDAY, toolTypeCharge.getDailyRentalCharge());
+        }
+
+        if (Boolean.TRUE.equals(toolTypeCharge.getWeekendCharge())) {
+            dailyRentalCharges.put(DayClass.WEEKEND, toolTypeCharge.getDailyRentalCharge());
+        }
+
+        if (Boolean.TRUE.equals(toolTypeCharge.getHolidayCharge())) {
+            dailyRentalCharges.put(DayClass.HOLIDAY, toolTypeCharge.getDailyRentalCharge());
+        }
+
+        return PricingRuleSet.builder().dailyRentalCharges(dailyRentalCharges).build();
+    }
+}
@@ -0,0 +1,22 @@
+package models;
+
+import lombok.Data;
+
+@Data
+public class QuoteCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long size;
+
+    /**
+     * Determine the share of lookups that were answered from the cache.
+     *
+     * @return - hits divided by hits and misses, 0 if nothing was looked up
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,13 @@
+package models;
+
+import lombok.Data;
+
+@Data
+public class RentalDiscountTier {
+
+    // Fewest rental days the tier applies to
+    private final int minimumRentalDays;
+
+    // Discount percent added to the discount of the customer
+    private final int discountPercent;
+}
@@ -0,0 +1,15 @@
+package models;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class RentalPrice {
+
+    private final int chargeDays;
+    private final BigDecimal preDiscountCharge;
+    private final int discountPercent;
+    private final BigDecimal discountAmount;
+    private final BigDecimal finalCharge;
+}
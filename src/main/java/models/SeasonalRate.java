@@ -0,0 +1,18 @@
+package models;
+
+import lombok.Data;
+
+import java.time.MonthDay;
+
+@Data
+public class SeasonalRate {
+
+    // First day of the season
+    private final MonthDay startDay;
+
+    // Last day of the season, before the first day when the season runs over the end of the year
+    private final MonthDay endDay;
+
+    // Daily rental charges during the season as a percent of the usual charges, e.g. 125 charges 25% more
+    private final int ratePercent;
+}
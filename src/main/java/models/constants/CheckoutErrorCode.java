@@ -0,0 +1,29 @@
+package models.constants;
+
+import java.time.LocalDate;
+
+public enum CheckoutErrorCode {
+
+    BLANK_TOOL_CODE("Tool code cannot be blank when checking out a tool."),
+    INVALID_RENTAL_DAYS("Rental days must be 1 or greater when checking out a tool."),
+    INVALID_DISCOUNT_PERCENT("Discount percent must be between 0 and 100 when checking out a tool."),
+    MISSING_CHECKOUT_DATE("Checkout date cannot be null when when checking out a tool."),
+    RENTAL_PERIOD_OUT_OF_RANGE("Due date of the rental must be on or before " + LocalDate.MAX + " when checking out a tool."),
+    TOOL_NOT_FOUND("Tool code entered must be a valid tool code, could not find matching tool."),
+    TOOL_TYPE_CHARGE_NOT_FOUND("Could not find tool type charge for the specific tool. A tool type charge may not have been setup for its tool type."),
+    OUT_OF_STOCK("Tool is out of stock, every unit is already rented."),
+    STORE_NOT_FOUND("Store ID entered must be a registered store, could not find matching store."),
+
+    ;
+
+
+    private final String message;
+
+    CheckoutErrorCode(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
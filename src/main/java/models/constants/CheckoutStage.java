@@ -0,0 +1,25 @@
+package models.constants;
+
+public enum CheckoutStage {
+
+    VALIDATION("Validation"),
+    TOOL_LOOKUP("Tool lookup"),
+    CHARGE_LOOKUP("Charge lookup"),
+    CHARGE_DAYS("Charge days"),
+    AMOUNTS("Amounts"),
+    AGREEMENT_BUILD("Agreement build"),
+    RESERVATION("Reservation"),
+
+    ;
+
+
+    private final String checkoutStage;
+
+    CheckoutStage(String checkoutStage) {
+        this.checkoutStage = checkoutStage;
+    }
+
+    public String getCheckoutStage() {
+        return checkoutStage;
+    }
+}
@@ -0,0 +1,21 @@
+package models.constants;
+
+public enum DayClass {
+
+    WEEKDAY("Weekday"),
+    WEEKEND("Weekend"),
+    HOLIDAY("Holiday"),
+
+    ;
+
+
+    private final String dayClass;
+
+    DayClass(String dayClass) {
+        this.dayClass = dayClass;
+    }
+
+    public String getDayClass() {
+        return dayClass;
+    }
+}
@@ -0,0 +1,43 @@
+package models.constants;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum FileFormat {
+
+    CSV(".csv"),
+    NDJSON(".ndjson", ".jsonl"),
+
+    ;
+
+
+    private final String[] extensions;
+
+    FileFormat(String... extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     * Get the file format from the extension of a file name.
+     *
+     * @param path - path of the file
+     * @return - file format for the extension of the file
+     */
+    public static FileFormat fromPath(Path path) {
+        if (path == null || path.getFileName() == null) {
+            throw new IllegalArgumentException("Path cannot be null when determining the file format.");
+        }
+
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+
+        for (FileFormat fileFormat : values()) {
+            for (String extension : fileFormat.extensions) {
+                if (fileName.endsWith(extension)) {
+                    return fileFormat;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("File must end with .csv, .ndjson or .jsonl: " + path);
+    }
+}
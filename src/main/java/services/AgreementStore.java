@@ -0,0 +1,412 @@
+package services;
+
+import models.Money;
+import models.ToolRentalAgreement;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Append-only, in-memory store of rental agreements, laid out by column rather than by agreement, for aggregating
+ * large numbers of agreements.
+ * <p>
+ * Each agreement is a row of primitive columns: dates as epoch days, amounts as cents, the tool type and brand as
+ * ordinal bytes and the tool code packed as described by {@link ToolCatalog}, about 60 bytes per agreement. Rows are
+ * stored in fixed size chunks that never move once allocated, so aggregations scan plain arrays in parallel on the
+ * fork join pool while new agreements are appended, and see every agreement added before they started.
+ * <p>
+ * Amounts must be whole cents, and are returned with a scale of 2.
+ */
+public class AgreementStore {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final byte NULL_ORDINAL = -1;
+
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final ToolBrand[] TOOL_BRANDS = ToolBrand.values();
+
+    private final ForkJoinPool forkJoinPool;
+
+    // Tool codes that cannot be packed, by row
+    private final Map<Integer, String> unpackedToolCodes = new HashMap<>();
+
+    // Written before size, so a reader that reads size first sees every chunk it covers
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+
+    public AgreementStore() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public AgreementStore(ForkJoinPool forkJoinPool) {
+        if (forkJoinPool == null) {
+            throw new IllegalArgumentException("Fork join pool cannot be null when creating an agreement store.");
+        }
+
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * Append a rental agreement.
+     *
+     * @param toolRentalAgreement - rental agreement to append, with every date and amount set
+     * @throws ArithmeticException if an amount has fractions of a cent or does not fit in a long
+     */
+    public synchronized void add(ToolRentalAgreement toolRentalAgreement) {
+        validate(toolRentalAgreement);
+
+        // Converted before anything is written, so an amount with fractions of a cent leaves the store unchanged
+        long dailyRentalChargeCents = Money.toCents(toolRentalAgreement.getDailyRentalCharge());
+        long preDiscountChargeCents = Money.toCents(toolRentalAgreement.getPreDiscountCharge());
+        long discountAmountCents = Money.toCents(toolRentalAgreement.getDiscountAmount());
+        long finalChargeCents = Money.toCents(toolRentalAgreement.getFinalCharge());
+        int checkoutEpochDay = Math.toIntExact(toolRentalAgreement.getCheckoutDate().toEpochDay());
+
+        int row = size;
+        int index = row & CHUNK_MASK;
+
+        if (chunks.length == row >>> CHUNK_BITS) {
+            Chunk[] grownChunks = Arrays.copyOf(chunks, chunks.length + 1);
+            grownChunks[grownChunks.length - 1] = new Chunk();
+            chunks = grownChunks;
+        }
+
+        Chunk chunk = chunks[row >>> CHUNK_BITS];
+        long toolCode = toolRentalAgreement.getToolCode() == null ? 0 : ToolCatalog.packToolCode(toolRentalAgreement.getToolCode());
+
+        if (toolCode == 0 && toolRentalAgreement.getToolCode() != null) {
+            unpackedToolCodes.put(row, toolRentalAgreement.getToolCode());
+        }
+
+        chunk.toolCodes[index] = toolCode;
+        chunk.toolTypes[index] = toolRentalAgreement.getToolType() == null ? NULL_ORDINAL : (byte) toolRentalAgreement.getToolType().ordinal();
+        chunk.toolBrands[index] = toolRentalAgreement.getToolBrand() == null ? NULL_ORDINAL : (byte) toolRentalAgreement.getToolBrand().ordinal();
+        chunk.rentalDays[index] = toolRentalAgreement.getRentalDays();
+        chunk.checkoutEpochDays[index] = checkoutEpochDay;
+        chunk.dailyRentalChargeCents[index] = dailyRentalChargeCents;
+        chunk.chargeDays[index] = toolRentalAgreement.getChargeDays();
+        chunk.preDiscountChargeCents[index] = preDiscountChargeCents;
+        chunk.discountPercents[index] = toolRentalAgreement.getDiscountPercent().byteValue();
+        chunk.discountAmountCents[index] = discountAmountCents;
+        chunk.finalChargeCents[index] = finalChargeCents;
+
+        size = row + 1;
+    }
+
+    /**
+     * Append every rental agreement, in order.
+     *
+     * @param toolRentalAgreements - rental agreements to append
+     */
+    public synchronized void addAll(Collection<ToolRentalAgreement> toolRentalAgreements) {
+        if (toolRentalAgreements == null) {
+            throw new IllegalArgumentException("Tool rental agreements cannot be null when adding to an agreement store.");
+        }
+
+        toolRentalAgreements.forEach(this::add);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the rental agreement of a row.
+     *
+     * @param row - row of the agreement, in the order agreements were added
+     * @return - rental agreement, with amounts at a scale of 2
+     */
+    public ToolRentalAgreement get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the " + size + " rows of the agreement store.");
+        }
+
+        Chunk chunk = chunks[row >>> CHUNK_BITS];
+        int index = row & CHUNK_MASK;
+        LocalDate checkoutDate = LocalDate.ofEpochDay(chunk.checkoutEpochDays[index]);
+
+        String toolCode;
+
+        if (chunk.toolCodes[index] != 0) {
+            toolCode = ToolCatalog.unpackToolCode(chunk.toolCodes[index]);
+        } else {
+            synchronized (this) {
+                toolCode = unpackedToolCodes.get(row);
+            }
+        }
+
+        return ToolRentalAgreement
+                .builder()
+                .toolCode(toolCode)
+                .toolType(chunk.toolTypes[index] == NULL_ORDINAL ? null : TOOL_TYPES[chunk.toolTypes[index]])
+                .toolBrand(chunk.toolBrands[index] == NULL_ORDINAL ? null : TOOL_BRANDS[chunk.toolBrands[index]])
+                .rentalDays(chunk.rentalDays[index])
+                .checkoutDate(checkoutDate)
+                .dueDate(checkoutDate.plusDays(chunk.rentalDays[index]))
+                .dailyRentalCharge(Money.fromCents(chunk.dailyRentalChargeCents[index]))
+                .chargeDays(chunk.chargeDays[index])
+                .preDiscountCharge(Money.fromCents(chunk.preDiscountChargeCents[index]))
+                .discountPercent((int) chunk.discountPercents[index])
+                .discountAmount(Money.fromCents(chunk.discountAmountCents[index]))
+                .finalCharge(Money.fromCents(chunk.finalChargeCents[index]))
+                .build();
+    }
+
+    /**
+     * Total the final charges of the agreements checked out within the date range, by tool type.
+     *
+     * @param from - first checkout date of the range
+     * @param to   - last checkout date of the range
+     * @return - revenue of each tool type
+     */
+    public Map<ToolType, BigDecimal> getRevenueByToolType(LocalDate from, LocalDate to) {
+        long[] totals = aggregate(from, to, TOOL_TYPES.length, (chunk, index, epochDay) -> chunk.toolTypes[index], chunk -> chunk.finalChargeCents);
+
+        Map<ToolType, BigDecimal> revenue = new EnumMap<>(ToolType.class);
+        for (ToolType toolType : TOOL_TYPES) {
+            revenue.put(toolType, Money.fromCents(totals[toolType.ordinal()]));
+        }
+
+        return revenue;
+    }
+
+    /**
+     * Total the final charges of the agreements checked out within the date range, by tool brand.
+     *
+     * @param from - first checkout date of the range
+     * @param to   - last checkout date of the range
+     * @return - revenue of each tool brand
+     */
+    public Map<ToolBrand, BigDecimal> getRevenueByToolBrand(LocalDate from, LocalDate to) {
+        long[] totals = aggregate(from, to, TOOL_BRANDS.length, (chunk, index, epochDay) -> chunk.toolBrands[index], chunk -> chunk.finalChargeCents);
+
+        Map<ToolBrand, BigDecimal> revenue = new EnumMap<>(ToolBrand.class);
+        for (ToolBrand toolBrand : TOOL_BRANDS) {
+            revenue.put(toolBrand, Money.fromCents(totals[toolBrand.ordinal()]));
+        }
+
+        return revenue;
+    }
+
+    /**
+     * Total the final charges of the agreements checked out within the date range, by month of the checkout date. The
+     * month of each day of the range is looked up from a table, so the range should span years rather than millennia.
+     *
+     * @param from - first checkout date of the range
+     * @param to   - last checkout date of the range
+     * @return - revenue of each month of the range, in order
+     */
+    public SortedMap<YearMonth, BigDecimal> getRevenueByMonth(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+
+        YearMonth firstMonth = YearMonth.from(from);
+        int numberOfMonths = Math.toIntExact(firstMonth.until(YearMonth.from(to), ChronoUnit.MONTHS) + 1);
+
+        // Month of each day of the range, so rows are grouped without creating a date per row
+        int[] monthOfDay = new int[Math.toIntExact(to.toEpochDay() - from.toEpochDay() + 1)];
+        for (int month = 0; month < numberOfMonths; month++) {
+            YearMonth yearMonth = firstMonth.plusMonths(month);
+            long start = Math.max(yearMonth.atDay(1).toEpochDay(), from.toEpochDay()) - from.toEpochDay();
+            long end = Math.min(yearMonth.atEndOfMonth().toEpochDay(), to.toEpochDay()) - from.toEpochDay();
+            Arrays.fill(monthOfDay, (int) start, (int) end + 1, month);
+        }
+
+        int fromEpochDay = Math.toIntExact(from.toEpochDay());
+        long[] totals = aggregate(from, to, numberOfMonths, (chunk, index, epochDay) -> monthOfDay[epochDay - fromEpochDay], chunk -> chunk.finalChargeCents);
+
+        SortedMap<YearMonth, BigDecimal> revenue = new TreeMap<>();
+        for (int month = 0; month < numberOfMonths; month++) {
+            revenue.put(firstMonth.plusMonths(month), Money.fromCents(totals[month]));
+        }
+
+        return revenue;
+    }
+
+    /**
+     * Total the discount amounts of the agreements checked out within the date range.
+     *
+     * @param from - first checkout date of the range
+     * @param to   - last checkout date of the range
+     * @return - total discount amount
+     */
+    public BigDecimal getDiscountTotal(LocalDate from, LocalDate to) {
+        return Money.fromCents(aggregate(from, to, 1, (chunk, index, epochDay) -> 0, chunk -> chunk.discountAmountCents)[0]);
+    }
+
+    /**
+     * Private helper method to total an amount column by group, over the rows checked out within the date range.
+     *
+     * @param from           - first checkout date of the range
+     * @param to             - last checkout date of the range
+     * @param numberOfGroups - number of groups
+     * @param grouping       - group of a row, a negative group leaves the row out
+     * @param amountColumn   - amount column to total
+     * @return - total cents of each group
+     */
+    private long[] aggregate(LocalDate from, LocalDate to, int numberOfGroups, Grouping grouping, AmountColumn amountColumn) {
+        validateRange(from, to);
+
+        // Dates outside the int range of the epoch day column match no rows either way
+        int fromEpochDay = (int) Math.max(Integer.MIN_VALUE, from.toEpochDay());
+        int toEpochDay = (int) Math.min(Integer.MAX_VALUE, to.toEpochDay());
+
+        int rows = size;
+        Chunk[] chunkSnapshot = chunks;
+
+        return forkJoinPool.invoke(new AggregateTask(chunkSnapshot, 0, rows, fromEpochDay, toEpochDay, numberOfGroups, grouping, amountColumn));
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Date range must have a from date on or before its to date when aggregating agreements.");
+        }
+    }
+
+    private void validate(ToolRentalAgreement toolRentalAgreement) {
+        if (toolRentalAgreement == null
+                || toolRentalAgreement.getRentalDays() == null
+                || toolRentalAgreement.getCheckoutDate() == null
+                || toolRentalAgreement.getDailyRentalCharge() == null
+                || toolRentalAgreement.getChargeDays() == null
+                || toolRentalAgreement.getPreDiscountCharge() == null
+                || toolRentalAgreement.getDiscountPercent() == null
+                || toolRentalAgreement.getDiscountAmount() == null
+                || toolRentalAgreement.getFinalCharge() == null) {
+            throw new IllegalArgumentException("Tool rental agreement must have every date and amount set when adding to an agreement store.");
+        }
+
+        if (toolRentalAgreement.getDiscountPercent() < 0 || toolRentalAgreement.getDiscountPercent() > 100) {
+            throw new IllegalArgumentException("Discount percent must be between 0 and 100 when adding to an agreement store.");
+        }
+    }
+
+    /**
+     * Group of a row for an aggregation.
+     */
+    @FunctionalInterface
+    private interface Grouping {
+
+        int getGroup(Chunk chunk, int index, int epochDay);
+    }
+
+    /**
+     * Amount column totalled by an aggregation.
+     */
+    @FunctionalInterface
+    private interface AmountColumn {
+
+        long[] getColumn(Chunk chunk);
+    }
+
+    /**
+     * Columns of a chunk of rows.
+     */
+    private static final class Chunk {
+
+        private final long[] toolCodes = new long[CHUNK_SIZE];
+        private final byte[] toolTypes = new byte[CHUNK_SIZE];
+        private final byte[] toolBrands = new byte[CHUNK_SIZE];
+        private final int[] rentalDays = new int[CHUNK_SIZE];
+        private final int[] checkoutEpochDays = new int[CHUNK_SIZE];
+        private final long[] dailyRentalChargeCents = new long[CHUNK_SIZE];
+        private final int[] chargeDays = new int[CHUNK_SIZE];
+        private final long[] preDiscountChargeCents = new long[CHUNK_SIZE];
+        private final byte[] discountPercents = new byte[CHUNK_SIZE];
+        private final long[] discountAmountCents = new long[CHUNK_SIZE];
+        private final long[] finalChargeCents = new long[CHUNK_SIZE];
+    }
+
+    /**
+     * Totals a range of rows, splitting it in half until it is within a single chunk.
+     */
+    private static final class AggregateTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Chunk[] chunks;
+        private final int startRow;
+        private final int endRow;
+        private final int fromEpochDay;
+        private final int toEpochDay;
+        private final int numberOfGroups;
+        private final Grouping grouping;
+        private final AmountColumn amountColumn;
+
+        private AggregateTask(Chunk[] chunks, int startRow, int endRow, int fromEpochDay, int toEpochDay,
+                              int numberOfGroups, Grouping grouping, AmountColumn amountColumn) {
+            this.chunks = chunks;
+            this.startRow = startRow;
+            this.endRow = endRow;
+            this.fromEpochDay = fromEpochDay;
+            this.toEpochDay = toEpochDay;
+            this.numberOfGroups = numberOfGroups;
+            this.grouping = grouping;
+            this.amountColumn = amountColumn;
+        }
+
+        @Override
+        protected long[] compute() {
+            int firstChunk = startRow >>> CHUNK_BITS;
+            int lastChunk = (endRow - 1) >>> CHUNK_BITS;
+
+            if (endRow > startRow && firstChunk != lastChunk) {
+                // Split on a chunk boundary, so each leaf scans a single chunk
+                int middleRow = ((firstChunk + lastChunk + 1) >>> 1) << CHUNK_BITS;
+
+                AggregateTask left = new AggregateTask(chunks, startRow, middleRow, fromEpochDay, toEpochDay, numberOfGroups, grouping, amountColumn);
+                AggregateTask right = new AggregateTask(chunks, middleRow, endRow, fromEpochDay, toEpochDay, numberOfGroups, grouping, amountColumn);
+
+                left.fork();
+                long[] totals = right.compute();
+                long[] leftTotals = left.join();
+
+                for (int group = 0; group < numberOfGroups; group++) {
+                    totals[group] += leftTotals[group];
+                }
+
+                return totals;
+            }
+
+            long[] totals = new long[numberOfGroups];
+
+            if (startRow == endRow) {
+                return totals;
+            }
+
+            Chunk chunk = chunks[startRow >>> CHUNK_BITS];
+            int[] checkoutEpochDays = chunk.checkoutEpochDays;
+            long[] amounts = amountColumn.getColumn(chunk);
+            int endIndex = ((endRow - 1) & CHUNK_MASK) + 1;
+
+            for (int index = startRow & CHUNK_MASK; index < endIndex; index++) {
+                int epochDay = checkoutEpochDays[index];
+
+                if (epochDay >= fromEpochDay && epochDay <= toEpochDay) {
+                    int group = grouping.getGroup(chunk, index, epochDay);
+
+                    if (group >= 0) {
+                        totals[group] += amounts[index];
+                    }
+                }
+            }
+
+            return totals;
+        }
+    }
+}
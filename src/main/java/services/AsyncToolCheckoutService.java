@@ -0,0 +1,286 @@
+package services;
+
+import models.CheckoutRequest;
+import models.CheckoutResult;
+import models.ToolRentalAgreement;
+
+import java.time.LocalDate;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous facade over {@link ToolCheckoutService}, for callers that cannot block on a checkout.
+ * <p>
+ * Rental agreements are created on the configured executor, and the number of checkouts in flight is limited so a
+ * fast producer cannot queue up work without bound: {@link #checkoutTool(String, Integer, Integer, LocalDate)}
+ * fails fast with a {@link RejectedExecutionException} once the limit is reached, while
+ * {@link #checkoutTools(Flow.Publisher)} only requests as many checkout requests from its publisher as its
+ * subscriber has asked for, and never more than the limit at a time.
+ */
+public class AsyncToolCheckoutService {
+
+    private final ToolCheckoutService toolCheckoutService;
+    private final Executor executor;
+    private final int maxInFlightCheckouts;
+    private final Semaphore inFlightCheckouts;
+
+    /**
+     * Create an asynchronous tool checkout service.
+     *
+     * @param toolCheckoutService  - tool checkout service to check out tools with
+     * @param executor             - executor to create the rental agreements on
+     * @param maxInFlightCheckouts - maximum number of checkouts in flight, per stream for {@link #checkoutTools(Flow.Publisher)}
+     */
+    public AsyncToolCheckoutService(ToolCheckoutService toolCheckoutService, Executor executor, int maxInFlightCheckouts) {
+        if (toolCheckoutService == null || executor == null || maxInFlightCheckouts < 1) {
+            throw new IllegalArgumentException("Tool checkout service and executor cannot be null and max in flight checkouts must be 1 or greater when creating an async tool checkout service.");
+        }
+
+        this.toolCheckoutService = toolCheckoutService;
+        this.executor = executor;
+        this.maxInFlightCheckouts = maxInFlightCheckouts;
+        this.inFlightCheckouts = new Semaphore(maxInFlightCheckouts);
+    }
+
+    /**
+     * Check out a tool asynchronously.
+     *
+     * @param toolCode        - code of the tool to checkout
+     * @param rentalDays      - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @param discountPercent - discount percent, must be between 0 and 100
+     * @param checkoutDate    - date the tool is checked out
+     * @return - future of the tool rental agreement, completed exceptionally with a {@link RejectedExecutionException}
+     * if too many checkouts are already in flight, or with the reason the checkout failed
+     */
+    public CompletableFuture<ToolRentalAgreement> checkoutTool(String toolCode, Integer rentalDays, Integer discountPercent, LocalDate checkoutDate) {
+        if (!inFlightCheckouts.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Too many checkouts in flight, at most " + maxInFlightCheckouts + " checkouts can be in flight at once."));
+        }
+
+        CompletableFuture<ToolRentalAgreement> toolRentalAgreement;
+
+        try {
+            toolRentalAgreement = toolCheckoutService.checkoutToolAsync(toolCode, rentalDays, discountPercent, checkoutDate, executor);
+        } catch (RuntimeException e) {
+            inFlightCheckouts.release();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return toolRentalAgreement.whenComplete((agreement, e) -> inFlightCheckouts.release());
+    }
+
+    /**
+     * Check out a stream of checkout requests. Results are published in the order the checkouts complete, which may
+     * differ from the order of the requests. A checkout request that fails does not fail the stream, its result
+     * holds the reason instead.
+     * <p>
+     * The returned publisher accepts a single subscriber, and subscribes to the checkout requests once it has one.
+     *
+     * @param checkoutRequests - publisher of the checkout requests
+     * @return - publisher of the checkout results
+     */
+    public Flow.Publisher<CheckoutResult> checkoutTools(Flow.Publisher<CheckoutRequest> checkoutRequests) {
+        if (checkoutRequests == null) {
+            throw new IllegalArgumentException("Checkout requests cannot be null when checking out tools.");
+        }
+
+        AtomicBoolean subscribed = new AtomicBoolean();
+
+        return subscriber -> {
+            if (subscriber == null) {
+                throw new NullPointerException("Subscriber cannot be null when subscribing to checkout results.");
+            }
+
+            if (!subscribed.compareAndSet(false, true)) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("Checkout results can only have one subscriber."));
+                return;
+            }
+
+            checkoutRequests.subscribe(new CheckoutSubscription(subscriber));
+        };
+    }
+
+    /**
+     * Private helper method to check out a single request of a stream.
+     *
+     * @param checkoutRequest - checkout request
+     * @return - future of the checkout result, never completed exceptionally
+     */
+    private CompletableFuture<CheckoutResult> checkoutRequest(CheckoutRequest checkoutRequest) {
+        CompletableFuture<ToolRentalAgreement> toolRentalAgreement;
+
+        try {
+            if (checkoutRequest == null) {
+                throw new IllegalArgumentException("Checkout request cannot be null when checking out a tool.");
+            }
+
+            toolRentalAgreement = toolCheckoutService.checkoutToolAsync(checkoutRequest.getToolCode(), checkoutRequest.getRentalDays(),
+                    checkoutRequest.getDiscountPercent(), checkoutRequest.getCheckoutDate(), executor);
+        } catch (RuntimeException e) {
+            toolRentalAgreement = CompletableFuture.failedFuture(e);
+        }
+
+        return toolRentalAgreement.handle((agreement, e) -> new CheckoutResult(checkoutRequest, agreement, unwrap(e)));
+    }
+
+    private RuntimeException unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+        if (cause == null || cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+
+        return new CompletionException(cause);
+    }
+
+    /**
+     * Subscription to the checkout requests of a stream, and of its subscriber to the checkout results.
+     * <p>
+     * Every signal to the subscriber goes through {@link #drain()}, which only one thread runs at a time. Each checkout
+     * request asked of the publisher counts as in flight until its result is handed to the subscriber, and no more are
+     * asked for than the subscriber has requested or the in flight limit allows.
+     */
+    private final class CheckoutSubscription implements Flow.Subscriber<CheckoutRequest>, Flow.Subscription {
+
+        private final Flow.Subscriber<? super CheckoutResult> subscriber;
+        private final Queue<CheckoutResult> completedResults = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requestedResults = new AtomicLong();
+        private final AtomicLong receivedRequests = new AtomicLong();
+        private final AtomicInteger drainCount = new AtomicInteger();
+
+        private Flow.Subscription requestSubscription;
+
+        // Only changed by the thread running drain()
+        private long askedRequests;
+        private long emittedResults;
+        private boolean terminated;
+
+        private volatile boolean requestsComplete;
+        private volatile Throwable requestsError;
+        private volatile Throwable subscriptionError;
+        private volatile boolean cancelled;
+
+        private CheckoutSubscription(Flow.Subscriber<? super CheckoutResult> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.requestSubscription = subscription;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(CheckoutRequest checkoutRequest) {
+            receivedRequests.incrementAndGet();
+
+            checkoutRequest(checkoutRequest).thenAccept(result -> {
+                completedResults.offer(result);
+                drain();
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            requestsError = throwable;
+            requestsComplete = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            requestsComplete = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Signalled straight away rather than after the pending results, which may never be requested
+                subscriptionError = new IllegalArgumentException("Number of checkout results requested must be greater than 0.");
+                requestSubscription.cancel();
+            } else {
+                requestedResults.accumulateAndGet(n, (requested, added) -> requested + added < 0 ? Long.MAX_VALUE : requested + added);
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            requestSubscription.cancel();
+        }
+
+        /**
+         * Private helper method to hand completed results to the subscriber, ask the publisher for more checkout
+         * requests, and signal the end of the stream once every result has been handed over. An invalid request of
+         * the subscriber ends the stream at once, dropping the pending results.
+         */
+        private void drain() {
+            if (drainCount.getAndIncrement() != 0) {
+                return;
+            }
+
+            do {
+                if (terminated || cancelled) {
+                    completedResults.clear();
+                    continue;
+                }
+
+                if (subscriptionError != null) {
+                    terminated = true;
+                    completedResults.clear();
+                    subscriber.onError(subscriptionError);
+                    continue;
+                }
+
+                CheckoutResult result;
+
+                while (requestedResults.get() > 0 && (result = completedResults.poll()) != null) {
+                    requestedResults.decrementAndGet();
+                    emittedResults++;
+                    subscriber.onNext(result);
+                }
+
+                if (requestsComplete && emittedResults == receivedRequests.get()) {
+                    terminated = true;
+
+                    if (requestsError != null) {
+                        subscriber.onError(requestsError);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    continue;
+                }
+
+                long inFlight = askedRequests - emittedResults;
+                long toAsk = Math.min(requestedResults.get(), maxInFlightCheckouts) - inFlight;
+
+                if (toAsk > 0 && !requestsComplete) {
+                    askedRequests += toAsk;
+                    requestSubscription.request(toAsk);
+                }
+            } while (drainCount.decrementAndGet() != 0);
+        }
+    }
+}
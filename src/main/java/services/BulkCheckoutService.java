@@ -0,0 +1,455 @@
+package services;
+
+import exceptions.SystemErrorException;
+import models.BulkCheckoutSummary;
+import models.CheckoutRequest;
+import models.CheckoutResult;
+import models.constants.FileFormat;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams checkout requests from a CSV or NDJSON file through the {@link ToolCheckoutService} and writes the
+ * results to an output file. The file is processed by a reader, parser, pricer and writer stage, each on its own
+ * thread, handing chunks of lines to each other through bounded queues. At most a few chunks are held in memory at
+ * any time, regardless of the size of the file.
+ * <p>
+ * Checking out a file reserves a unit of the tool of every successful request, the same as
+ * {@link ToolCheckoutService#checkoutTools(java.util.Collection)}. A file that is only being repriced should be run
+ * through {@link #quoteTools(Path, Path)}, which reserves nothing.
+ * <p>
+ * If any stage fails, the run is aborted: the queues are cleared and every other stage stops waiting on its queues
+ * within {@link #HAND_OFF_TIMEOUT_MILLIS}, so a failed run never leaves a stage thread blocked behind it.
+ */
+public class BulkCheckoutService {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+    private static final int DEFAULT_QUEUE_CAPACITY = 8;
+    private static final int IO_BUFFER_SIZE = 1 << 20;
+    private static final long HAND_OFF_TIMEOUT_MILLIS = 100;
+
+    private static final Chunk END_OF_INPUT = new Chunk(0);
+
+    private final ToolCheckoutService toolCheckoutService;
+    private final CheckoutRequestParser checkoutRequestParser;
+    private final ToolRentalAgreementSerializer toolRentalAgreementSerializer;
+    private final int chunkSize;
+    private final int queueCapacity;
+
+    public BulkCheckoutService(ToolCheckoutService toolCheckoutService) {
+        this(toolCheckoutService, DEFAULT_CHUNK_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Create a bulk checkout service.
+     *
+     * @param toolCheckoutService - tool checkout service to create the rental agreements with
+     * @param chunkSize           - number of lines handed from one stage to the next at a time
+     * @param queueCapacity       - number of chunks that can wait between two stages
+     */
+    public BulkCheckoutService(ToolCheckoutService toolCheckoutService, int chunkSize, int queueCapacity) {
+        if (toolCheckoutService == null) {
+            throw new IllegalArgumentException("Tool checkout service cannot be null when creating a bulk checkout service.");
+        }
+
+        if (chunkSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Chunk size and queue capacity must be 1 or greater when creating a bulk checkout service.");
+        }
+
+        this.toolCheckoutService = toolCheckoutService;
+        this.checkoutRequestParser = new CheckoutRequestParser();
+        this.toolRentalAgreementSerializer = new ToolRentalAgreementSerializer();
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Check out every request in the input file and write the results to the output file. The format of each file is
+     * determined by its extension (.csv, .ndjson or .jsonl). Blank lines and a CSV header line are skipped.
+     * <p>
+     * Every output record starts with the line number of its checkout request and holds either the rental agreement or
+     * the reason the checkout request failed, so a bad line does not stop the rest of the file from being processed.
+     * A unit of the tool of every successful request is reserved.
+     *
+     * @param input  - file to read the checkout requests from
+     * @param output - file to write the results to, replaced if it exists
+     * @return - summary of the number of checkout requests, rental agreements and failed requests
+     */
+    public BulkCheckoutSummary checkoutTools(Path input, Path output) {
+        if (input == null || output == null) {
+            throw new IllegalArgumentException("Input and output cannot be null when checking out tools in bulk.");
+        }
+
+        return createToolRentalAgreements(input, output, true);
+    }
+
+    /**
+     * Quote every request in the input file and write the results to the output file, the same as
+     * {@link #checkoutTools(Path, Path)} but without reserving a unit of any tool or counting as checkouts, so a file
+     * can be repriced any number of times.
+     *
+     * @param input  - file to read the checkout requests from
+     * @param output - file to write the results to, replaced if it exists
+     * @return - summary of the number of checkout requests, rental agreements and failed requests
+     */
+    public BulkCheckoutSummary quoteTools(Path input, Path output) {
+        if (input == null || output == null) {
+            throw new IllegalArgumentException("Input and output cannot be null when quoting tools in bulk.");
+        }
+
+        return createToolRentalAgreements(input, output, false);
+    }
+
+    /**
+     * Private helper method to run the reader, parser, pricer and writer stages over a file.
+     *
+     * @param input    - file to read the checkout requests from
+     * @param output   - file to write the results to, replaced if it exists
+     * @param checkout - true to check out the requests, false to only quote them
+     * @return - summary of the number of checkout requests, rental agreements and failed requests
+     */
+    private BulkCheckoutSummary createToolRentalAgreements(Path input, Path output, boolean checkout) {
+        FileFormat inputFormat = FileFormat.fromPath(input);
+        FileFormat outputFormat = FileFormat.fromPath(output);
+
+        BlockingQueue<Chunk> lines = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Chunk> requests = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Chunk> results = new ArrayBlockingQueue<>(queueCapacity);
+
+        AtomicLong checkoutRequests = new AtomicLong();
+        AtomicLong toolRentalAgreements = new AtomicLong();
+
+        AtomicBoolean aborted = new AtomicBoolean();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-checkout-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Void> stages = new ExecutorCompletionService<>(executorService);
+
+        try {
+            stages.submit(() -> read(input, inputFormat, lines, aborted));
+            stages.submit(() -> parse(inputFormat, lines, requests, aborted));
+            stages.submit(() -> price(requests, results, checkout, aborted));
+            stages.submit(() -> write(output, outputFormat, results, checkoutRequests, toolRentalAgreements, aborted));
+
+            for (int i = 0; i < 4; i++) {
+                stages.take().get();
+            }
+        } catch (ExecutionException e) {
+            abort(aborted, lines, requests, results);
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new SystemErrorException("Could not check out tools in bulk: " + cause);
+        } catch (InterruptedException e) {
+            abort(aborted, lines, requests, results);
+            Thread.currentThread().interrupt();
+            throw new SystemErrorException("Interrupted while checking out tools in bulk.");
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        return new BulkCheckoutSummary(checkoutRequests.get(), toolRentalAgreements.get(), checkoutRequests.get() - toolRentalAgreements.get());
+    }
+
+    /**
+     * Private helper method for the reader stage, which reads chunks of non-blank lines from the input file.
+     *
+     * @param input       - file to read
+     * @param inputFormat - format of the file
+     * @param lines       - queue to hand the chunks of lines to
+     * @param aborted     - set once the run is aborted
+     * @return - nothing
+     */
+    private Void read(Path input, FileFormat inputFormat, BlockingQueue<Chunk> lines, AtomicBoolean aborted) throws InterruptedException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(input), StandardCharsets.UTF_8), IO_BUFFER_SIZE)) {
+            Chunk chunk = new Chunk(chunkSize);
+            long lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (line.isBlank() || (lineNumber == 1 && inputFormat == FileFormat.CSV && checkoutRequestParser.isCsvHeader(line))) {
+                    continue;
+                }
+
+                chunk.add(lineNumber, line);
+
+                if (chunk.size() == chunkSize) {
+                    handOff(chunk, lines, aborted);
+                    chunk = new Chunk(chunkSize);
+                }
+            }
+
+            if (chunk.size() > 0) {
+                handOff(chunk, lines, aborted);
+            }
+        } catch (IOException e) {
+            throw new SystemErrorException("Could not read checkout requests from " + input + ": " + e.getMessage());
+        } finally {
+            handOffEndOfInput(lines, aborted);
+        }
+
+        return null;
+    }
+
+    /**
+     * Private helper method for the parser stage, which parses each line of a chunk into a checkout request. Lines
+     * that cannot be parsed are given a failed result straight away.
+     *
+     * @param inputFormat - format of the lines
+     * @param lines       - queue to take the chunks of lines from
+     * @param requests    - queue to hand the parsed chunks to
+     * @param aborted     - set once the run is aborted
+     * @return - nothing
+     */
+    private Void parse(FileFormat inputFormat, BlockingQueue<Chunk> lines, BlockingQueue<Chunk> requests, AtomicBoolean aborted) throws InterruptedException {
+        try {
+            Chunk chunk;
+
+            while ((chunk = take(lines, aborted)) != END_OF_INPUT) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        String line = chunk.lines.get(i);
+                        chunk.requests[i] = inputFormat == FileFormat.CSV ? checkoutRequestParser.parseCsv(line) : checkoutRequestParser.parseJson(line);
+                    } catch (RuntimeException e) {
+                        chunk.results[i] = new CheckoutResult(null, null, e);
+                    }
+                }
+
+                handOff(chunk, requests, aborted);
+            }
+        } finally {
+            handOffEndOfInput(requests, aborted);
+        }
+
+        return null;
+    }
+
+    /**
+     * Private helper method for the pricer stage, which checks out or quotes the parsed requests of a chunk as one
+     * batch.
+     *
+     * @param requests - queue to take the parsed chunks from
+     * @param results  - queue to hand the priced chunks to
+     * @param checkout - true to check out the requests, false to only quote them
+     * @param aborted  - set once the run is aborted
+     * @return - nothing
+     */
+    private Void price(BlockingQueue<Chunk> requests, BlockingQueue<Chunk> results, boolean checkout, AtomicBoolean aborted) throws InterruptedException {
+        try {
+            Chunk chunk;
+
+            while ((chunk = take(requests, aborted)) != END_OF_INPUT) {
+                List<CheckoutRequest> batch = new ArrayList<>(chunk.size());
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (chunk.results[i] == null) {
+                        batch.add(chunk.requests[i]);
+                    }
+                }
+
+                List<CheckoutResult> batchResults = checkout ? toolCheckoutService.checkoutTools(batch) : toolCheckoutService.quoteTools(batch);
+                int batchIndex = 0;
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (chunk.results[i] == null) {
+                        chunk.results[i] = batchResults.get(batchIndex++);
+                    }
+                }
+
+                handOff(chunk, results, aborted);
+            }
+        } finally {
+            handOffEndOfInput(results, aborted);
+        }
+
+        return null;
+    }
+
+    /**
+     * Private helper method for the writer stage, which serializes the results of each chunk to the output file.
+     *
+     * @param output               - file to write
+     * @param outputFormat         - format of the file
+     * @param results              - queue to take the priced chunks from
+     * @param checkoutRequests     - number of checkout requests written
+     * @param toolRentalAgreements - number of rental agreements written
+     * @param aborted              - set once the run is aborted
+     * @return - nothing
+     */
+    private Void write(Path output, FileFormat outputFormat, BlockingQueue<Chunk> results,
+                       AtomicLong checkoutRequests, AtomicLong toolRentalAgreements, AtomicBoolean aborted) throws InterruptedException {
+
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(output), StandardCharsets.UTF_8), IO_BUFFER_SIZE)) {
+            StringBuilder record = new StringBuilder();
+
+            if (outputFormat == FileFormat.CSV) {
+                writer.write("line," + ToolRentalAgreementSerializer.CSV_HEADER + ",error\n");
+            }
+
+            Chunk chunk;
+
+            while ((chunk = take(results, aborted)) != END_OF_INPUT) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    CheckoutResult result = chunk.results[i];
+
+                    record.setLength(0);
+
+                    if (outputFormat == FileFormat.CSV) {
+                        appendCsv(chunk.lineNumbers[i], result, record);
+                    } else {
+                        toolRentalAgreementSerializer.appendJsonResult(chunk.lineNumbers[i], result, record);
+                    }
+
+                    writer.append(record).append('\n');
+
+                    checkoutRequests.incrementAndGet();
+
+                    if (result.isSuccessful()) {
+                        toolRentalAgreements.incrementAndGet();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new SystemErrorException("Could not write rental agreements to " + output + ": " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * Private helper method to hand a chunk to the next stage, waiting while the queue is full unless the run is
+     * aborted.
+     *
+     * @param chunk   - chunk to hand off
+     * @param queue   - queue to the next stage
+     * @param aborted - set once the run is aborted
+     * @throws InterruptedException if the run is aborted while waiting
+     */
+    private void handOff(Chunk chunk, BlockingQueue<Chunk> queue, AtomicBoolean aborted) throws InterruptedException {
+        while (!queue.offer(chunk, HAND_OFF_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (aborted.get()) {
+                throw new InterruptedException("Bulk checkout was aborted.");
+            }
+        }
+    }
+
+    /**
+     * Private helper method to tell the next stage that there are no more chunks. Nothing is handed off once the run
+     * is aborted, as the next stage is stopping anyway and its queue may never drain.
+     *
+     * @param queue   - queue to the next stage
+     * @param aborted - set once the run is aborted
+     */
+    private void handOffEndOfInput(BlockingQueue<Chunk> queue, AtomicBoolean aborted) {
+        try {
+            handOff(END_OF_INPUT, queue, aborted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Private helper method to take the next chunk from the previous stage, waiting while the queue is empty unless
+     * the run is aborted.
+     *
+     * @param queue   - queue from the previous stage
+     * @param aborted - set once the run is aborted
+     * @return - next chunk, or the end of input once the run is aborted
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private Chunk take(BlockingQueue<Chunk> queue, AtomicBoolean aborted) throws InterruptedException {
+        Chunk chunk;
+
+        while ((chunk = queue.poll(HAND_OFF_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            if (aborted.get()) {
+                return END_OF_INPUT;
+            }
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Private helper method to abort a run, releasing the chunks waiting between the stages.
+     *
+     * @param aborted - set once the run is aborted
+     * @param queues  - queues between the stages
+     */
+    @SafeVarargs
+    private static void abort(AtomicBoolean aborted, BlockingQueue<Chunk>... queues) {
+        aborted.set(true);
+
+        for (BlockingQueue<Chunk> queue : queues) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * Private helper method to append a result as a CSV row, either with the rental agreement columns or the error.
+     *
+     * @param lineNumber - line number of the checkout request
+     * @param result     - checkout result
+     * @param record     - string builder to append to
+     */
+    private void appendCsv(long lineNumber, CheckoutResult result, StringBuilder record) {
+        record.append(lineNumber).append(',');
+
+        if (result.isSuccessful()) {
+            toolRentalAgreementSerializer.appendCsv(result.getToolRentalAgreement(), record).append(',');
+        } else {
+            record.append(",,,,,,,,,,,,");
+            toolRentalAgreementSerializer.appendCsvValue(result.getErrorMessage(), record);
+        }
+    }
+
+    /**
+     * Chunk of lines handed between the stages, filled in with the checkout requests and results as it goes.
+     */
+    private static final class Chunk {
+
+        private final long[] lineNumbers;
+        private final List<String> lines;
+        private final CheckoutRequest[] requests;
+        private final CheckoutResult[] results;
+
+        private Chunk(int capacity) {
+            this.lineNumbers = new long[capacity];
+            this.lines = new ArrayList<>(capacity);
+            this.requests = new CheckoutRequest[capacity];
+            this.results = new CheckoutResult[capacity];
+        }
+
+        private void add(long lineNumber, String line) {
+            lineNumbers[lines.size()] = lineNumber;
+            lines.add(line);
+        }
+
+        private int size() {
+            return lines.size();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package services;
+
+import exceptions.SystemErrorException;
+import lombok.NoArgsConstructor;
+import models.Tool;
+import models.ToolTypeCharge;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Parses the tool and tool type charge catalogs from CSV files. Each file starts with its header line, blank lines
+ * are skipped, and tool types, brands and booleans are written by name.
+ * <p>
+ * ex. tools: CHNS,CHAINSAW,STIHL
+ * <p>
+ * ex. tool type charges: LADDER,1.99,true,true,false
+ */
+@NoArgsConstructor
+public class CatalogFileParser {
+
+    public static final String TOOLS_CSV_HEADER = "toolCode,toolType,brand";
+    public static final String TOOL_TYPE_CHARGES_CSV_HEADER = "toolType,dailyRentalCharge,weekdayCharge,weekendCharge,holidayCharge";
+
+    /**
+     * Parse the tools of a tool catalog file.
+     *
+     * @param path - path of the tool catalog file
+     * @return - tools in the order of the file
+     */
+    public List<Tool> parseTools(Path path) {
+        return parseFile(path, TOOLS_CSV_HEADER, columns -> new Tool(
+                parseToolCode(columns[0]),
+                parseEnum(ToolType.class, columns[1], "Tool type"),
+                parseEnum(ToolBrand.class, columns[2], "Brand")));
+    }
+
+    /**
+     * Parse the tool type charges of a tool type charge catalog file.
+     *
+     * @param path - path of the tool type charge catalog file
+     * @return - tool type charges in the order of the file
+     */
+    public List<ToolTypeCharge> parseToolTypeCharges(Path path) {
+        return parseFile(path, TOOL_TYPE_CHARGES_CSV_HEADER, columns -> new ToolTypeCharge(
+                parseEnum(ToolType.class, columns[0], "Tool type"),
+                parseAmount(columns[1]),
+                parseBoolean(columns[2], "Weekday charge"),
+                parseBoolean(columns[3], "Weekend charge"),
+                parseBoolean(columns[4], "Holiday charge")));
+    }
+
+    /**
+     * Private helper method to parse every line of a catalog file after its header.
+     *
+     * @param path       - path of the catalog file
+     * @param csvHeader  - header the file must start with
+     * @param lineParser - parser of the columns of a line
+     * @param <T>        - type of catalog entry
+     * @return - catalog entries in the order of the file
+     */
+    private <T> List<T> parseFile(Path path, String csvHeader, Function<String[], T> lineParser) {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null when parsing a catalog file.");
+        }
+
+        int numberOfColumns = csvHeader.split(",").length;
+        List<T> entries = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+
+            if (header == null || !header.trim().equalsIgnoreCase(csvHeader)) {
+                throw new IllegalArgumentException("Catalog file " + path + " must start with the header " + csvHeader + ".");
+            }
+
+            int lineNumber = 1;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String[] columns = line.split(",", -1);
+
+                try {
+                    if (columns.length != numberOfColumns) {
+                        throw new IllegalArgumentException("Line must have " + numberOfColumns + " columns (" + csvHeader + ") when parsing a catalog file.");
+                    }
+
+                    entries.add(lineParser.apply(columns));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " of " + path + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new SystemErrorException("Could not read catalog file " + path + ": " + e.getMessage());
+        }
+
+        return entries;
+    }
+
+    private String parseToolCode(String value) {
+        if (value.isBlank()) {
+            throw new IllegalArgumentException("Tool code cannot be blank when parsing a catalog file.");
+        }
+
+        return value.trim();
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> enumClass, String value, String name) {
+        try {
+            return Enum.valueOf(enumClass, value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + " must be one of " + List.of(enumClass.getEnumConstants()) + " when parsing a catalog file.");
+        }
+    }
+
+    private BigDecimal parseAmount(String value) {
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Daily rental charge must be a decimal number when parsing a catalog file.");
+        }
+    }
+
+    private Boolean parseBoolean(String value, String name) {
+        if ("true".equalsIgnoreCase(value.trim())) {
+            return Boolean.TRUE;
+        }
+
+        if ("false".equalsIgnoreCase(value.trim())) {
+            return Boolean.FALSE;
+        }
+
+        throw new IllegalArgumentException(name + " must be true or false when parsing a catalog file.");
+    }
+}
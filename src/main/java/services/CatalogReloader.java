@@ -0,0 +1,124 @@
+package services;
+
+import exceptions.SystemErrorException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the tool and tool type charge catalogs from their files, then checks the files on a background thread and
+ * reloads a catalog whenever its file is modified, until closed.
+ * <p>
+ * A file that cannot be parsed leaves the current catalog in place, and the reason is kept in {@link #getLastError()}
+ * until the file is reloaded successfully.
+ */
+public class CatalogReloader implements AutoCloseable {
+
+    private final ToolService toolService;
+    private final Path toolsPath;
+    private final ToolTypeChargeService toolTypeChargeService;
+    private final Path toolTypeChargesPath;
+    private final ScheduledExecutorService executorService;
+
+    private FileTime toolsModifiedTime;
+    private FileTime toolTypeChargesModifiedTime;
+    private volatile RuntimeException lastError;
+
+    /**
+     * Load both catalogs and start checking their files for changes.
+     *
+     * @param toolService           - tool service to load the tool catalog into
+     * @param toolsPath             - path of the tool catalog file
+     * @param toolTypeChargeService - tool type charge service to load the tool type charges into
+     * @param toolTypeChargesPath   - path of the tool type charge catalog file
+     * @param period                - time between checks of the files
+     */
+    public CatalogReloader(ToolService toolService, Path toolsPath, ToolTypeChargeService toolTypeChargeService,
+                           Path toolTypeChargesPath, Duration period) {
+        if (toolService == null || toolsPath == null || toolTypeChargeService == null || toolTypeChargesPath == null) {
+            throw new IllegalArgumentException("Services and paths cannot be null when creating a catalog reloader.");
+        }
+
+        if (period == null || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Period must be positive when creating a catalog reloader.");
+        }
+
+        this.toolService = toolService;
+        this.toolsPath = toolsPath;
+        this.toolTypeChargeService = toolTypeChargeService;
+        this.toolTypeChargesPath = toolTypeChargesPath;
+
+        // The first load fails fast, so a bad file is reported before any checkout uses the default catalogs
+        this.toolsModifiedTime = getModifiedTime(toolsPath);
+        toolService.reloadTools(toolsPath);
+        this.toolTypeChargesModifiedTime = getModifiedTime(toolTypeChargesPath);
+        toolTypeChargeService.reloadToolTypeCharges(toolTypeChargesPath);
+
+        this.executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executorService.scheduleWithFixedDelay(this::reloadModifiedCatalogs, period.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the reason the last reload failed.
+     *
+     * @return - exception of the last failed reload, null if every catalog was reloaded successfully since
+     */
+    public RuntimeException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Reload any catalog whose file was modified since it was last loaded.
+     */
+    public synchronized void reloadModifiedCatalogs() {
+        try {
+            FileTime modifiedTime = getModifiedTime(toolsPath);
+
+            if (!modifiedTime.equals(toolsModifiedTime)) {
+                toolService.reloadTools(toolsPath);
+                toolsModifiedTime = modifiedTime;
+            }
+
+            modifiedTime = getModifiedTime(toolTypeChargesPath);
+
+            if (!modifiedTime.equals(toolTypeChargesModifiedTime)) {
+                toolTypeChargeService.reloadToolTypeCharges(toolTypeChargesPath);
+                toolTypeChargesModifiedTime = modifiedTime;
+            }
+
+            lastError = null;
+        } catch (RuntimeException e) {
+            lastError = e;
+        }
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Private helper method to get the time a catalog file was last modified.
+     *
+     * @param path - path of the catalog file
+     * @return - last modified time of the file
+     */
+    private FileTime getModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            throw new SystemErrorException("Could not read catalog file " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package services;
+
+import exceptions.SystemErrorException;
+import lombok.NoArgsConstructor;
+import models.Tool;
+import models.ToolTypeCharge;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the tool catalog, tool type charges and charge day index to a snapshot file, and loads them back by memory
+ * mapping the file, so a new process is ready to price rentals without parsing catalogs or building calendar tables.
+ * <p>
+ * The tool table and the prefix sums of every charge mask are stored exactly as they are held in memory, and on load
+ * the tool catalog and charge day index read them straight from the mapped file. Processes that load the same
+ * snapshot share its pages in the page cache. A snapshot file is written to a temporary file first, forced to the
+ * storage device and moved into place, so a process never maps a partly written snapshot, even after a crash.
+ * <p>
+ * The prefix sums are written in the native byte order, so reading them never swaps bytes, and the byte order is
+ * recorded in the header. A snapshot copied to a machine of the other byte order still loads, at the cost of swapping
+ * bytes on every read. The tool table is stored in the byte order of {@link ToolCatalog}, and the ordinals of its
+ * tool types and brands are checked on load, as a snapshot written by another build may have other enum constants.
+ * <p>
+ * The snapshot records the observed holidays of the charge day index. Holiday rules are code rather than data, so
+ * a snapshot is only loaded with a holiday calendar that observes exactly the same holidays.
+ */
+@NoArgsConstructor
+public class CatalogSnapshotService {
+
+    // "SC07" followed by the format version
+    private static final int MAGIC = 0x53433037;
+    private static final int FORMAT_VERSION = 2;
+
+    private static final byte BIG_ENDIAN = 0;
+    private static final byte LITTLE_ENDIAN = 1;
+
+    private static final byte NULL_ORDINAL = -1;
+    private static final int NUMBER_OF_CHARGE_MASKS = 8;
+    private static final int HOLIDAY_MASK = ChargeDayIndex.HOLIDAY_CHARGE;
+
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final ToolBrand[] TOOL_BRANDS = ToolBrand.values();
+
+    /**
+     * Write a snapshot of the current tool catalog and tool type charges of the services, and of the charge day
+     * index. The prefix sums of every charge mask are built first if they have not been built yet.
+     *
+     * @param path                  - path of the snapshot file
+     * @param toolService           - tool service holding the tool catalog
+     * @param toolTypeChargeService - tool type charge service holding the tool type charges
+     * @param chargeDayIndex        - charge day index
+     */
+    public void write(Path path, ToolService toolService, ToolTypeChargeService toolTypeChargeService, ChargeDayIndex chargeDayIndex) {
+        if (path == null || toolService == null || toolTypeChargeService == null || chargeDayIndex == null) {
+            throw new IllegalArgumentException("Path, services and charge day index cannot be null when writing a catalog snapshot.");
+        }
+
+        List<ToolTypeCharge> toolTypeCharges = new ArrayList<>();
+
+        for (ToolType toolType : TOOL_TYPES) {
+            toolTypeChargeService.getToolTypeCharge(toolType).ifPresent(toolTypeCharges::add);
+        }
+
+        ToolCatalog toolCatalog = toolService.getToolCatalog();
+        ByteBuffer table = toolCatalog.getTable();
+
+        List<byte[]> unpackedToolCodes = new ArrayList<>();
+        toolCatalog.getUnpackedTools().forEach(tool -> unpackedToolCodes.add(tool.getToolCode().getBytes(StandardCharsets.UTF_8)));
+
+        IntBuffer[] cumulativeChargeDays = new IntBuffer[NUMBER_OF_CHARGE_MASKS];
+        for (int chargeMask = 0; chargeMask < NUMBER_OF_CHARGE_MASKS; chargeMask++) {
+            cumulativeChargeDays[chargeMask] = chargeDayIndex.getCumulativeChargeDays(chargeMask).duplicate().clear();
+        }
+
+        IntBuffer holidayChargeDays = cumulativeChargeDays[HOLIDAY_MASK];
+        int numberOfHolidays = holidayChargeDays.get(chargeDayIndex.getNumberOfDays());
+
+        // Header, tool type charges, tools, holidays, then the tables, each with up to 8 bytes of padding before it
+        long snapshotSize = 9L
+                + 4 + toolTypeCharges.size() * 14L
+                + 8 + unpackedToolCodes.stream().mapToLong(toolCode -> 4L + toolCode.length).sum()
+                + 12 + 4L * numberOfHolidays
+                + 8 + 4 + 8 + table.capacity()
+                + 8L * NUMBER_OF_CHARGE_MASKS + 4L * NUMBER_OF_CHARGE_MASKS * (chargeDayIndex.getNumberOfDays() + 1);
+
+        if (snapshotSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Catalog snapshot cannot be larger than 2 GB.");
+        }
+
+        // The magic number and format version are big endian, everything after them is in the recorded byte order
+        ByteBuffer snapshot = ByteBuffer.allocate((int) snapshotSize);
+        snapshot.putInt(MAGIC).putInt(FORMAT_VERSION);
+        snapshot.put(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? BIG_ENDIAN : LITTLE_ENDIAN);
+        snapshot.order(ByteOrder.nativeOrder());
+
+        snapshot.putInt(toolTypeCharges.size());
+        for (ToolTypeCharge toolTypeCharge : toolTypeCharges) {
+            BigDecimal dailyRentalCharge = toolTypeCharge.getDailyRentalCharge();
+
+            snapshot.put((byte) toolTypeCharge.getToolType().ordinal());
+            snapshot.put((byte) ChargeDayIndex.getChargeMask(toolTypeCharge));
+            snapshot.putInt(dailyRentalCharge.scale());
+            snapshot.putLong(dailyRentalCharge.unscaledValue().longValueExact());
+        }
+
+        snapshot.putInt(toolCatalog.size());
+        snapshot.putInt(unpackedToolCodes.size());
+        for (Tool tool : toolCatalog.getUnpackedTools()) {
+            byte[] toolCode = tool.getToolCode().getBytes(StandardCharsets.UTF_8);
+
+            snapshot.putShort((short) toolCode.length).put(toolCode);
+            snapshot.put(tool.getToolType() == null ? NULL_ORDINAL : (byte) tool.getToolType().ordinal());
+            snapshot.put(tool.getBrand() == null ? NULL_ORDINAL : (byte) tool.getBrand().ordinal());
+        }
+
+        snapshot.putInt(chargeDayIndex.getStartYear()).putInt(chargeDayIndex.getEndYear());
+        snapshot.putInt(numberOfHolidays);
+        for (int day = 0; day < chargeDayIndex.getNumberOfDays(); day++) {
+            if (holidayChargeDays.get(day + 1) != holidayChargeDays.get(day)) {
+                snapshot.putInt(day);
+            }
+        }
+
+        alignTo8(snapshot).putInt(table.capacity());
+        alignTo8(snapshot).put(table);
+
+        for (IntBuffer chargeDays : cumulativeChargeDays) {
+            alignTo8(snapshot).asIntBuffer().put(chargeDays);
+            snapshot.position(snapshot.position() + 4 * chargeDays.limit());
+        }
+
+        snapshot.flip();
+
+        try {
+            Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+            try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (snapshot.hasRemaining()) {
+                    channel.write(snapshot);
+                }
+
+                channel.force(true);
+            }
+
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new SystemErrorException("Could not write catalog snapshot " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load a snapshot into the services, and create the charge day index of the snapshot.
+     *
+     * @param path                  - path of the snapshot file
+     * @param toolService           - tool service to load the tool catalog into
+     * @param toolTypeChargeService - tool type charge service to load the tool type charges into
+     * @param holidayCalendar       - holiday calendar that observes the same holidays as the calendar of the snapshot
+     * @return - charge day index, reading its prefix sums from the snapshot file
+     */
+    public ChargeDayIndex load(Path path, ToolService toolService, ToolTypeChargeService toolTypeChargeService, HolidayCalendar holidayCalendar) {
+        if (path == null || toolService == null || toolTypeChargeService == null || holidayCalendar == null) {
+            throw new IllegalArgumentException("Path, services and holiday calendar cannot be null when loading a catalog snapshot.");
+        }
+
+        MappedByteBuffer snapshot;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid once the channel is closed
+            snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new SystemErrorException("Could not read catalog snapshot " + path + ": " + e.getMessage());
+        }
+
+        try {
+            return load(snapshot, toolService, toolTypeChargeService, holidayCalendar);
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw new IllegalArgumentException("Catalog snapshot " + path + ": " + e.getMessage());
+            }
+
+            throw new IllegalArgumentException("Catalog snapshot " + path + " is truncated or corrupt.");
+        }
+    }
+
+    /**
+     * Private helper method to load a mapped snapshot. Nothing is loaded into the services unless the whole snapshot
+     * is valid.
+     *
+     * @param snapshot              - mapped snapshot file
+     * @param toolService           - tool service to load the tool catalog into
+     * @param toolTypeChargeService - tool type charge service to load the tool type charges into
+     * @param holidayCalendar       - holiday calendar that observes the same holidays as the calendar of the snapshot
+     * @return - charge day index
+     */
+    private ChargeDayIndex load(ByteBuffer snapshot, ToolService toolService, ToolTypeChargeService toolTypeChargeService, HolidayCalendar holidayCalendar) {
+        if (snapshot.getInt() != MAGIC || snapshot.getInt() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("File is not a catalog snapshot of format version " + FORMAT_VERSION + ".");
+        }
+
+        byte byteOrder = snapshot.get();
+
+        if (byteOrder != BIG_ENDIAN && byteOrder != LITTLE_ENDIAN) {
+            throw new IllegalArgumentException("Byte order " + byteOrder + " of the snapshot is not a byte order.");
+        }
+
+        snapshot.order(byteOrder == BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+
+        int numberOfToolTypeCharges = snapshot.getInt();
+        List<ToolTypeCharge> toolTypeCharges = new ArrayList<>();
+
+        for (int i = 0; i < numberOfToolTypeCharges; i++) {
+            ToolType toolType = getToolType(snapshot.get());
+            int chargeMask = snapshot.get();
+            int scale = snapshot.getInt();
+
+            toolTypeCharges.add(new ToolTypeCharge(toolType, new BigDecimal(BigInteger.valueOf(snapshot.getLong()), scale),
+                    (chargeMask & ChargeDayIndex.WEEKDAY_CHARGE) != 0, (chargeMask & ChargeDayIndex.WEEKEND_CHARGE) != 0, (chargeMask & ChargeDayIndex.HOLIDAY_CHARGE) != 0));
+        }
+
+        int numberOfTools = snapshot.getInt();
+        int numberOfUnpackedTools = snapshot.getInt();
+        List<Tool> unpackedTools = new ArrayList<>();
+
+        for (int i = 0; i < numberOfUnpackedTools; i++) {
+            byte[] toolCode = new byte[snapshot.getShort()];
+            snapshot.get(toolCode);
+
+            byte toolType = snapshot.get();
+            byte brand = snapshot.get();
+
+            unpackedTools.add(new Tool(new String(toolCode, StandardCharsets.UTF_8),
+                    toolType == NULL_ORDINAL ? null : getToolType(toolType), brand == NULL_ORDINAL ? null : getToolBrand(brand)));
+        }
+
+        int startYear = snapshot.getInt();
+        int endYear = snapshot.getInt();
+        int numberOfHolidays = snapshot.getInt();
+        long startEpochDay = LocalDate.of(startYear, 1, 1).toEpochDay();
+
+        // The same number of holidays, each of which the calendar observes, is the same set of holidays
+        boolean sameHolidays = holidayCalendar.countHolidays(LocalDate.of(startYear, 1, 1), LocalDate.of(endYear, 12, 31)) == numberOfHolidays;
+
+        for (int i = 0; i < numberOfHolidays; i++) {
+            sameHolidays &= holidayCalendar.isObservedHoliday(LocalDate.ofEpochDay(startEpochDay + snapshot.getInt()));
+        }
+
+        if (!sameHolidays) {
+            throw new IllegalArgumentException("Holiday calendar must observe the same holidays as the calendar the snapshot was written with.");
+        }
+
+        int tableSize = alignTo8(snapshot).getInt();
+        ByteBuffer table = alignTo8(snapshot).slice(snapshot.position(), tableSize);
+        snapshot.position(snapshot.position() + tableSize);
+
+        int numberOfDays = Math.toIntExact(LocalDate.of(endYear, 12, 31).toEpochDay() - startEpochDay + 1);
+        IntBuffer[] cumulativeChargeDays = new IntBuffer[NUMBER_OF_CHARGE_MASKS];
+
+        for (int chargeMask = 0; chargeMask < NUMBER_OF_CHARGE_MASKS; chargeMask++) {
+            cumulativeChargeDays[chargeMask] = alignTo8(snapshot).slice(snapshot.position(), 4 * (numberOfDays + 1)).order(snapshot.order()).asIntBuffer();
+            snapshot.position(snapshot.position() + 4 * (numberOfDays + 1));
+        }
+
+        ChargeDayIndex chargeDayIndex = new ChargeDayIndex(holidayCalendar, startYear, endYear, cumulativeChargeDays);
+        ToolCatalog toolCatalog = new ToolCatalog(table, numberOfTools, unpackedTools);
+
+        toolTypeChargeService.setToolTypeCharges(toolTypeCharges);
+        toolService.setToolCatalog(toolCatalog);
+
+        return chargeDayIndex;
+    }
+
+    /**
+     * Private helper method to get the tool type of an ordinal read from a snapshot.
+     *
+     * @param ordinal - ordinal of the tool type
+     * @return - tool type
+     */
+    private ToolType getToolType(byte ordinal) {
+        if (ordinal < 0 || ordinal >= TOOL_TYPES.length) {
+            throw new IllegalArgumentException("Tool type ordinal " + ordinal + " is not a tool type of this build.");
+        }
+
+        return TOOL_TYPES[ordinal];
+    }
+
+    /**
+     * Private helper method to get the tool brand of an ordinal read from a snapshot.
+     *
+     * @param ordinal - ordinal of the tool brand
+     * @return - tool brand
+     */
+    private ToolBrand getToolBrand(byte ordinal) {
+        if (ordinal < 0 || ordinal >= TOOL_BRANDS.length) {
+            throw new IllegalArgumentException("Tool brand ordinal " + ordinal + " is not a tool brand of this build.");
+        }
+
+        return TOOL_BRANDS[ordinal];
+    }
+
+    private ByteBuffer alignTo8(ByteBuffer buffer) {
+        return buffer.position((buffer.position() + 7) & ~7);
+    }
+}
@@ -0,0 +1,238 @@
+package services;
+
+import models.ToolTypeCharge;
+
+import java.nio.IntBuffer;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Calendar index of cumulative charge days over a span of years. For every combination of weekday, weekend and
+ * holiday charges there is a prefix sum of charge days per epoch day, so the number of charge days in any range
+ * within the span is the difference of two array reads.
+ * <p>
+ * The prefix sums for a combination of charges are only built the first time that combination is queried, unless
+ * they were loaded from a {@link CatalogSnapshotService} snapshot.
+ */
+public class ChargeDayIndex {
+
+    public static final int WEEKDAY_CHARGE = 1;
+    public static final int WEEKEND_CHARGE = 1 << 1;
+    public static final int HOLIDAY_CHARGE = 1 << 2;
+
+    private static final int NUMBER_OF_CHARGE_MASKS = 1 << 3;
+
+    private static final int DEFAULT_START_YEAR = 1950;
+    private static final int DEFAULT_END_YEAR = 2150;
+
+    private static final ChargeDayIndex DEFAULT_INDEX = new ChargeDayIndex(DEFAULT_START_YEAR, DEFAULT_END_YEAR);
+
+    private final HolidayCalendar holidayCalendar;
+    private final int startYear;
+    private final int endYear;
+    private final long startEpochDay;
+    private final long endEpochDay;
+    private final AtomicReferenceArray<CumulativeChargeDays> cumulativeChargeDays;
+
+    /**
+     * Create a calendar index of the default holidays that covers every day from January 1st of the start year to
+     * December 31st of the end year.
+     *
+     * @param startYear - first year covered by the index
+     * @param endYear   - last year covered by the index
+     */
+    public ChargeDayIndex(int startYear, int endYear) {
+        this(HolidayCalendar.getDefaultCalendar(), startYear, endYear);
+    }
+
+    /**
+     * Create a calendar index of the holidays in the holiday calendar that covers every day from January 1st of the
+     * start year to December 31st of the end year. Holidays registered on the calendar later are picked up on the
+     * next query.
+     *
+     * @param holidayCalendar - holiday calendar to use
+     * @param startYear       - first year covered by the index
+     * @param endYear         - last year covered by the index
+     */
+    public ChargeDayIndex(HolidayCalendar holidayCalendar, int startYear, int endYear) {
+        if (holidayCalendar == null) {
+            throw new IllegalArgumentException("Holiday calendar cannot be null when creating a charge day index.");
+        }
+
+        if (endYear < startYear) {
+            throw new IllegalArgumentException("End year cannot be before start year when creating a charge day index.");
+        }
+
+        this.holidayCalendar = holidayCalendar;
+        this.startYear = startYear;
+        this.endYear = endYear;
+        this.startEpochDay = LocalDate.of(startYear, 1, 1).toEpochDay();
+        this.endEpochDay = LocalDate.of(endYear, 12, 31).toEpochDay();
+        this.cumulativeChargeDays = new AtomicReferenceArray<>(NUMBER_OF_CHARGE_MASKS);
+    }
+
+    /**
+     * Create a calendar index with prefix sums already built for every charge mask, e.g. mapped from a snapshot file.
+     * The prefix sums are used until a holiday is registered on the calendar, then rebuilt as usual.
+     *
+     * @param holidayCalendar      - holiday calendar the prefix sums were built from
+     * @param startYear            - first year covered by the index
+     * @param endYear              - last year covered by the index
+     * @param cumulativeChargeDays - prefix sums of each charge mask, by charge mask
+     */
+    ChargeDayIndex(HolidayCalendar holidayCalendar, int startYear, int endYear, IntBuffer[] cumulativeChargeDays) {
+        this(holidayCalendar, startYear, endYear);
+
+        int calendarVersion = holidayCalendar.getVersion();
+
+        for (int chargeMask = 0; chargeMask < NUMBER_OF_CHARGE_MASKS; chargeMask++) {
+            if (cumulativeChargeDays[chargeMask].limit() != getNumberOfDays() + 1) {
+                throw new IllegalArgumentException("Cumulative charge days must have an entry per day of the index and one more when creating a charge day index.");
+            }
+
+            this.cumulativeChargeDays.set(chargeMask, new CumulativeChargeDays(calendarVersion, cumulativeChargeDays[chargeMask]));
+        }
+    }
+
+    /**
+     * Get the shared calendar index that covers the years 1950 - 2150.
+     *
+     * @return - shared default calendar index
+     */
+    public static ChargeDayIndex getDefaultIndex() {
+        return DEFAULT_INDEX;
+    }
+
+    /**
+     * Get the charge mask for the weekday, weekend and holiday charges of a tool type charge.
+     *
+     * @param toolTypeCharge - tool type charge to get the charge mask for
+     * @return - combination of WEEKDAY_CHARGE, WEEKEND_CHARGE and HOLIDAY_CHARGE
+     */
+    public static int getChargeMask(ToolTypeCharge toolTypeCharge) {
+        if (toolTypeCharge == null) {
+            throw new IllegalArgumentException("Tool type charge cannot be null when determining the charge mask.");
+        }
+
+        return (toolTypeCharge.getWeekdayCharge() ? WEEKDAY_CHARGE : 0)
+                | (toolTypeCharge.getWeekendCharge() ? WEEKEND_CHARGE : 0)
+                | (toolTypeCharge.getHolidayCharge() ? HOLIDAY_CHARGE : 0);
+    }
+
+    /**
+     * Determine if the range of epoch days is covered by the index.
+     *
+     * @param firstEpochDay - first epoch day of the range
+     * @param lastEpochDay  - last epoch day of the range
+     * @return - true if every day of the range is covered by the index, false otherwise
+     */
+    public boolean covers(long firstEpochDay, long lastEpochDay) {
+        return firstEpochDay >= startEpochDay && lastEpochDay <= endEpochDay;
+    }
+
+    /**
+     * Count the charge days between two epoch days (inclusive). The range must be covered by the index.
+     *
+     * @param chargeMask    - combination of WEEKDAY_CHARGE, WEEKEND_CHARGE and HOLIDAY_CHARGE
+     * @param firstEpochDay - first epoch day of the range
+     * @param lastEpochDay  - last epoch day of the range
+     * @return - number of charge days in the range
+     */
+    public int countChargeDays(int chargeMask, long firstEpochDay, long lastEpochDay) {
+        if (!covers(firstEpochDay, lastEpochDay)) {
+            throw new IllegalArgumentException("Epoch days must be between " + startYear + " and " + endYear + " when counting charge days from the index.");
+        }
+
+        IntBuffer chargeDays = getCumulativeChargeDays(chargeMask);
+
+        return chargeDays.get((int) (lastEpochDay + 1 - startEpochDay)) - chargeDays.get((int) (firstEpochDay - startEpochDay));
+    }
+
+    public HolidayCalendar getHolidayCalendar() {
+        return holidayCalendar;
+    }
+
+    public int getStartYear() {
+        return startYear;
+    }
+
+    public int getEndYear() {
+        return endYear;
+    }
+
+    int getNumberOfDays() {
+        return (int) (endEpochDay - startEpochDay) + 1;
+    }
+
+    /**
+     * Get the cumulative charge days for a charge mask, building them on first use.
+     *
+     * @param chargeMask - combination of WEEKDAY_CHARGE, WEEKEND_CHARGE and HOLIDAY_CHARGE
+     * @return - cumulative charge days, where entry i is the number of charge days before the i-th day of the index
+     */
+    IntBuffer getCumulativeChargeDays(int chargeMask) {
+        CumulativeChargeDays chargeDays = cumulativeChargeDays.get(chargeMask);
+        int calendarVersion = holidayCalendar.getVersion();
+
+        if (chargeDays == null || chargeDays.calendarVersion != calendarVersion) {
+            // Concurrent builds for the same calendar version produce identical arrays, so either can be kept
+            chargeDays = new CumulativeChargeDays(calendarVersion, IntBuffer.wrap(buildCumulativeChargeDays(chargeMask)));
+            cumulativeChargeDays.set(chargeMask, chargeDays);
+        }
+
+        return chargeDays.chargeDays;
+    }
+
+    /**
+     * Private helper method to build the cumulative charge days for a charge mask.
+     *
+     * @param chargeMask - combination of WEEKDAY_CHARGE, WEEKEND_CHARGE and HOLIDAY_CHARGE
+     * @return - cumulative charge days, where entry i is the number of charge days before the i-th day of the index
+     */
+    private int[] buildCumulativeChargeDays(int chargeMask) {
+        int[] chargeDays = new int[getNumberOfDays() + 1];
+        int index = 0;
+
+        for (long epochDay = startEpochDay; epochDay <= endEpochDay; epochDay++) {
+            int dayCharge;
+
+            if (holidayCalendar.isObservedHoliday(LocalDate.ofEpochDay(epochDay))) {
+                dayCharge = chargeMask & HOLIDAY_CHARGE;
+            } else if (isWeekend(epochDay)) {
+                dayCharge = chargeMask & WEEKEND_CHARGE;
+            } else {
+                dayCharge = chargeMask & WEEKDAY_CHARGE;
+            }
+
+            chargeDays[index + 1] = chargeDays[index] + (dayCharge != 0 ? 1 : 0);
+            index++;
+        }
+
+        return chargeDays;
+    }
+
+    /**
+     * Private helper method to determine if an epoch day is a Saturday or Sunday.
+     *
+     * @param epochDay - epoch day to check
+     * @return - true if the epoch day is a weekend day, false otherwise
+     */
+    private boolean isWeekend(long epochDay) {
+        // 1970-01-01 is a Thursday, shifting by 3 days makes Monday 0 and Saturday 5
+        return Math.floorMod(epochDay + 3, 7) >= 5;
+    }
+
+    /**
+     * Cumulative charge days for a charge mask, along with the version of the holiday calendar they were built from.
+     */
+    private static final class CumulativeChargeDays {
+
+        private final int calendarVersion;
+        private final IntBuffer chargeDays;
+
+        private CumulativeChargeDays(int calendarVersion, IntBuffer chargeDays) {
+            this.calendarVersion = calendarVersion;
+            this.chargeDays = chargeDays;
+        }
+    }
+}
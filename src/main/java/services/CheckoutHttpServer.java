@@ -0,0 +1,389 @@
+package services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exceptions.NotFoundException;
+import exceptions.OutOfStockException;
+import exceptions.SystemErrorException;
+import models.CheckoutHttpServerConfig;
+import models.CheckoutRequest;
+import models.CheckoutResult;
+import models.ToolRentalAgreement;
+import models.constants.CheckoutErrorCode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded HTTP server for checking out and quoting tools, built on the JDK {@link HttpServer}.
+ * <p>
+ * Endpoints, all answered with JSON:
+ * <ul>
+ *     <li>POST /checkout - check out the tool of a JSON checkout request, answered with the rental agreement</li>
+ *     <li>POST /checkouts - check out every NDJSON checkout request of the body, answered with an NDJSON result per
+ *     line in the format of {@link ToolRentalAgreementSerializer#appendJsonResult}</li>
+ *     <li>GET /quote?toolCode=LADW&amp;rentalDays=3&amp;discountPercent=10&amp;checkoutDate=2015-07-02 - quote a
+ *     tool without checking it out, answered with the rental agreement</li>
+ * </ul>
+ * Failed requests are answered with {"error":"..."} and a status of 400 for bad requests, 404 for unknown tools, 409
+ * for tools that are out of stock and 500 for anything else.
+ * <p>
+ * Each request runs on a virtual thread of its own when the JVM supports them, otherwise on a bounded pool of
+ * platform threads. Once the configured number of requests are queued or in progress, further requests are answered
+ * straight away with 503 on the thread that accepted them, rather than being queued without limit. Stopping the server
+ * answers new requests with 503 and waits for pending requests to finish before closing.
+ */
+public class CheckoutHttpServer implements AutoCloseable {
+
+    private static final int OK = 200;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int CONFLICT = 409;
+    private static final int PAYLOAD_TOO_LARGE = 413;
+    private static final int INTERNAL_SERVER_ERROR = 500;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private static final String JSON = "application/json";
+    private static final String NDJSON = "application/x-ndjson";
+
+    // Set while a request that was not admitted is answered on the thread that accepted it
+    private static final ThreadLocal<Boolean> REJECTED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ToolCheckoutService toolCheckoutService;
+    private final CheckoutHttpServerConfig config;
+    private final CheckoutRequestParser checkoutRequestParser = new CheckoutRequestParser();
+    private final ToolRentalAgreementSerializer toolRentalAgreementSerializer = new ToolRentalAgreementSerializer();
+
+    private final HttpServer httpServer;
+    private final ExecutorService requestExecutor;
+    private final AtomicInteger pendingRequests = new AtomicInteger();
+    private volatile boolean draining;
+
+    /**
+     * Create and start an HTTP server.
+     *
+     * @param toolCheckoutService - tool checkout service to check out and quote tools with
+     * @param config              - port, limits and timeouts of the server
+     * @throws SystemErrorException if the server cannot listen on the port
+     */
+    public CheckoutHttpServer(ToolCheckoutService toolCheckoutService, CheckoutHttpServerConfig config) {
+        if (toolCheckoutService == null || config == null) {
+            throw new IllegalArgumentException("Tool checkout service and config cannot be null when creating a checkout HTTP server.");
+        }
+
+        if (config.getMaxPendingRequests() < 1 || config.getMaxThreads() < 1 || config.getMaxRequestBytes() < 1) {
+            throw new IllegalArgumentException("Max pending requests, max threads and max request bytes must be 1 or greater when creating a checkout HTTP server.");
+        }
+
+        this.toolCheckoutService = toolCheckoutService;
+        this.config = config;
+
+        try {
+            this.httpServer = HttpServer.create(new InetSocketAddress(config.getPort()), config.getBacklog());
+        } catch (IOException e) {
+            throw new SystemErrorException("Could not start checkout HTTP server on port " + config.getPort() + ": " + e.getMessage());
+        }
+
+        this.requestExecutor = createRequestExecutor(config.getMaxThreads());
+
+        httpServer.createContext("/checkout", exchange -> handle(exchange, "POST", this::checkout));
+        httpServer.createContext("/checkouts", exchange -> handle(exchange, "POST", this::checkoutBatch));
+        httpServer.createContext("/quote", exchange -> handle(exchange, "GET", this::quote));
+        httpServer.setExecutor(new AdmissionExecutor());
+        httpServer.start();
+    }
+
+    /**
+     * Get the port the server is listening on, useful when the server was configured with port 0.
+     *
+     * @return - port of the server
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Get the number of requests queued or in progress.
+     *
+     * @return - number of pending requests
+     */
+    public int getPendingRequests() {
+        return pendingRequests.get();
+    }
+
+    /**
+     * Stop the server, answering new requests with 503 and waiting up to the drain timeout for pending requests to
+     * finish before closing every connection.
+     */
+    @Override
+    public void close() {
+        draining = true;
+
+        long deadline = System.nanoTime() + config.getDrainTimeout().toNanos();
+
+        try {
+            while (pendingRequests.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            httpServer.stop(0);
+            requestExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Private helper method to check out the tool of a JSON checkout request.
+     *
+     * @param exchange - HTTP exchange
+     * @param body     - request body
+     */
+    private void checkout(HttpExchange exchange, String body) throws IOException {
+        CheckoutRequest checkoutRequest = checkoutRequestParser.parseJson(body.trim());
+
+        ToolRentalAgreement toolRentalAgreement = toolCheckoutService.checkoutTool(checkoutRequest.getToolCode(),
+                checkoutRequest.getRentalDays(), checkoutRequest.getDiscountPercent(), checkoutRequest.getCheckoutDate());
+
+        send(exchange, OK, JSON, toolRentalAgreementSerializer.appendJson(toolRentalAgreement, new StringBuilder()));
+    }
+
+    /**
+     * Private helper method to check out every NDJSON checkout request of the body, skipping blank lines.
+     *
+     * @param exchange - HTTP exchange
+     * @param body     - request body
+     */
+    private void checkoutBatch(HttpExchange exchange, String body) throws IOException {
+        String[] lines = body.split("\n");
+        List<Integer> lineNumbers = new ArrayList<>();
+        List<CheckoutRequest> checkoutRequests = new ArrayList<>();
+        CheckoutResult[] results = new CheckoutResult[lines.length];
+
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+
+            try {
+                checkoutRequests.add(checkoutRequestParser.parseJson(lines[i].trim()));
+                lineNumbers.add(i);
+            } catch (IllegalArgumentException e) {
+                results[i] = new CheckoutResult(null, null, e);
+            }
+        }
+
+        List<CheckoutResult> checkoutResults = toolCheckoutService.checkoutTools(checkoutRequests);
+
+        for (int i = 0; i < checkoutResults.size(); i++) {
+            results[lineNumbers.get(i)] = checkoutResults.get(i);
+        }
+
+        StringBuilder response = new StringBuilder();
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                toolRentalAgreementSerializer.appendJsonResult(i + 1, results[i], response).append('\n');
+            }
+        }
+
+        send(exchange, OK, NDJSON, response);
+    }
+
+    /**
+     * Private helper method to quote a tool from the query string.
+     *
+     * @param exchange - HTTP exchange
+     * @param body     - request body, unused
+     */
+    private void quote(HttpExchange exchange, String body) throws IOException {
+        CheckoutRequest checkoutRequest = checkoutRequestParser.parseQuery(exchange.getRequestURI().getRawQuery());
+
+        // Quotes are public and often invalid, so failures come back as error codes rather than exceptions
+        CheckoutResult result = toolCheckoutService.tryQuote(checkoutRequest.getToolCode(),
+                checkoutRequest.getRentalDays(), checkoutRequest.getDiscountPercent(), checkoutRequest.getCheckoutDate());
+
+        if (!result.isSuccessful()) {
+            sendError(exchange, getStatus(result.getErrorCodes().get(0)), result.getErrorMessage());
+            return;
+        }
+
+        send(exchange, OK, JSON, toolRentalAgreementSerializer.appendJson(result.getToolRentalAgreement(), new StringBuilder()));
+    }
+
+    /**
+     * Private helper method to get the status a checkout error code is answered with, the same as the exception it
+     * stands for.
+     *
+     * @param errorCode - checkout error code
+     * @return - HTTP status
+     */
+    private int getStatus(CheckoutErrorCode errorCode) {
+        switch (errorCode) {
+            case TOOL_NOT_FOUND:
+            case STORE_NOT_FOUND:
+                return NOT_FOUND;
+            case OUT_OF_STOCK:
+                return CONFLICT;
+            case TOOL_TYPE_CHARGE_NOT_FOUND:
+                return INTERNAL_SERVER_ERROR;
+            default:
+                return BAD_REQUEST;
+        }
+    }
+
+    /**
+     * Private helper method to answer a request, turning a rejected request, the wrong method, an oversized body or a
+     * failed checkout into its error response.
+     *
+     * @param exchange - HTTP exchange
+     * @param method   - HTTP method of the endpoint
+     * @param endpoint - endpoint to answer the request with
+     */
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        try (exchange) {
+            if (REJECTED.get() || draining) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, SERVICE_UNAVAILABLE, "Checkout service is busy, try again later.");
+                return;
+            }
+
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                sendError(exchange, METHOD_NOT_ALLOWED, "Method must be " + method + ".");
+                return;
+            }
+
+            String body = readBody(exchange.getRequestBody());
+
+            if (body == null) {
+                sendError(exchange, PAYLOAD_TOO_LARGE, "Request body cannot be larger than " + config.getMaxRequestBytes() + " bytes.");
+                return;
+            }
+
+            try {
+                endpoint.handle(exchange, body);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, BAD_REQUEST, e.getMessage());
+            } catch (NotFoundException e) {
+                sendError(exchange, NOT_FOUND, e.getMessage());
+            } catch (OutOfStockException e) {
+                sendError(exchange, CONFLICT, e.getMessage());
+            } catch (RuntimeException e) {
+                sendError(exchange, INTERNAL_SERVER_ERROR, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Private helper method to read a request body as UTF-8.
+     *
+     * @param requestBody - request body stream
+     * @return - request body, null if it is larger than the configured maximum
+     */
+    private String readBody(InputStream requestBody) throws IOException {
+        byte[] bytes = requestBody.readNBytes(config.getMaxRequestBytes() + 1);
+
+        if (bytes.length > config.getMaxRequestBytes()) {
+            return null;
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder response = new StringBuilder("{\"error\":");
+        toolRentalAgreementSerializer.appendJsonString(message, response).append('}');
+        send(exchange, status, JSON, response);
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, CharSequence response) throws IOException {
+        byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    /**
+     * Private helper method to create the executor that runs requests, with a virtual thread per request when the
+     * JVM supports them.
+     *
+     * @param maxThreads - number of platform threads when virtual threads are not available
+     * @return - request executor
+     */
+    private static ExecutorService createRequestExecutor(int maxThreads) {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor().orElseGet(() -> {
+            AtomicInteger threadNumber = new AtomicInteger();
+
+            return Executors.newFixedThreadPool(maxThreads, runnable -> {
+                Thread thread = new Thread(runnable, "checkout-http-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        });
+    }
+
+    /**
+     * Endpoint answering a request with its body read.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+
+        void handle(HttpExchange exchange, String body) throws IOException;
+    }
+
+    /**
+     * Executor that hands requests to the request executor while fewer than the configured number are pending, and
+     * otherwise answers them with 503 on the calling thread, so a burst of requests cannot queue without limit.
+     */
+    private final class AdmissionExecutor implements Executor {
+
+        @Override
+        public void execute(Runnable exchangeTask) {
+            if (pendingRequests.incrementAndGet() > config.getMaxPendingRequests()) {
+                pendingRequests.decrementAndGet();
+                reject(exchangeTask);
+                return;
+            }
+
+            try {
+                requestExecutor.execute(() -> {
+                    try {
+                        exchangeTask.run();
+                    } finally {
+                        pendingRequests.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pendingRequests.decrementAndGet();
+                reject(exchangeTask);
+            }
+        }
+
+        private void reject(Runnable exchangeTask) {
+            REJECTED.set(Boolean.TRUE);
+
+            try {
+                exchangeTask.run();
+            } finally {
+                REJECTED.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package services;
+
+import exceptions.SystemErrorException;
+import models.CheckoutMetricsSnapshot;
+import models.LatencyHistogram;
+import models.constants.CheckoutStage;
+import models.constants.ToolType;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Records the latency of each stage of a checkout, the latency of whole checkouts by tool type, and the number of
+ * completed and failed checkouts.
+ * <p>
+ * Recording only updates {@link LatencyHistogram}s and {@link LongAdder}s, so it is lock-free and the threads
+ * checking out tools never wait on each other to record. The metrics can be read with {@link #getSnapshot()},
+ * at a fixed rate with {@link #scheduleSnapshots(Duration, Consumer)}, or through JMX once
+ * {@link #registerMBeans(String)} is called.
+ * <p>
+ * Recording can be turned off by checking out with {@link #disabled()} metrics, which record nothing and do not read
+ * the clock.
+ */
+public class CheckoutMetrics implements CheckoutMetricsMXBean {
+
+    private static final String OBJECT_NAME_DOMAIN = "sc0623";
+
+    private final LatencyHistogram[] stageLatencies = new LatencyHistogram[CheckoutStage.values().length];
+    private final LatencyHistogram[] toolTypeLatencies = new LatencyHistogram[ToolType.values().length];
+    private final LongAdder completedCheckouts = new LongAdder();
+    private final LongAdder failedCheckouts = new LongAdder();
+    private final long createdNanos = System.nanoTime();
+    private final boolean enabled;
+
+    private final List<ObjectName> registeredObjectNames = new ArrayList<>();
+
+    public CheckoutMetrics() {
+        this(true);
+    }
+
+    private CheckoutMetrics(boolean enabled) {
+        this.enabled = enabled;
+
+        for (int i = 0; i < stageLatencies.length; i++) {
+            stageLatencies[i] = new LatencyHistogram();
+        }
+
+        for (int i = 0; i < toolTypeLatencies.length; i++) {
+            toolTypeLatencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Create checkout metrics that record nothing, for checkouts that should not pay for recording them.
+     *
+     * @return - disabled checkout metrics
+     */
+    public static CheckoutMetrics disabled() {
+        return new CheckoutMetrics(false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record the latency of a stage of a checkout that ends now.
+     *
+     * @param checkoutStage - stage of the checkout
+     * @param startNanos    - {@link System#nanoTime()} at the start of the stage
+     * @return - {@link System#nanoTime()} at the end of the stage, to start the next stage from, or the start of the
+     * stage if the metrics are disabled
+     */
+    public long recordStage(CheckoutStage checkoutStage, long startNanos) {
+        if (!enabled) {
+            return startNanos;
+        }
+
+        long endNanos = System.nanoTime();
+        stageLatencies[checkoutStage.ordinal()].record(endNanos - startNanos);
+        return endNanos;
+    }
+
+    /**
+     * Record a completed checkout that ends now.
+     *
+     * @param toolType   - type of the tool checked out
+     * @param startNanos - {@link System#nanoTime()} at the start of the checkout
+     */
+    public void recordCompletedCheckout(ToolType toolType, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+
+        toolTypeLatencies[toolType.ordinal()].record(System.nanoTime() - startNanos);
+        completedCheckouts.increment();
+    }
+
+    /**
+     * Record a checkout that failed.
+     */
+    public void recordFailedCheckout() {
+        if (!enabled) {
+            return;
+        }
+
+        failedCheckouts.increment();
+    }
+
+    /**
+     * Get the latencies of a stage of a checkout.
+     *
+     * @param checkoutStage - stage of the checkout
+     * @return - histogram of the stage latencies
+     */
+    public LatencyHistogram getStageLatencies(CheckoutStage checkoutStage) {
+        return stageLatencies[checkoutStage.ordinal()];
+    }
+
+    /**
+     * Get the latencies of completed checkouts of a tool type.
+     *
+     * @param toolType - type of tool
+     * @return - histogram of the checkout latencies
+     */
+    public LatencyHistogram getToolTypeLatencies(ToolType toolType) {
+        return toolTypeLatencies[toolType.ordinal()];
+    }
+
+    @Override
+    public long getCompletedCheckouts() {
+        return completedCheckouts.sum();
+    }
+
+    @Override
+    public long getFailedCheckouts() {
+        return failedCheckouts.sum();
+    }
+
+    @Override
+    public double getCheckoutsPerSecond() {
+        return getSnapshot().getCheckoutsPerSecond();
+    }
+
+    /**
+     * Copy the metrics recorded since the checkout metrics were created.
+     *
+     * @return - snapshot of the metrics
+     */
+    public CheckoutMetricsSnapshot getSnapshot() {
+        long durationNanos = System.nanoTime() - createdNanos;
+
+        Map<CheckoutStage, LatencyHistogram.Snapshot> stageSnapshots = new EnumMap<>(CheckoutStage.class);
+        for (CheckoutStage checkoutStage : CheckoutStage.values()) {
+            stageSnapshots.put(checkoutStage, stageLatencies[checkoutStage.ordinal()].getSnapshot());
+        }
+
+        Map<ToolType, LatencyHistogram.Snapshot> toolTypeSnapshots = new EnumMap<>(ToolType.class);
+        for (ToolType toolType : ToolType.values()) {
+            toolTypeSnapshots.put(toolType, toolTypeLatencies[toolType.ordinal()].getSnapshot());
+        }
+
+        return new CheckoutMetricsSnapshot(durationNanos, completedCheckouts.sum(), failedCheckouts.sum(), stageSnapshots, toolTypeSnapshots);
+    }
+
+    /**
+     * Pass a snapshot of the metrics recorded during each period to the listener, on a background thread, until the
+     * returned schedule is closed.
+     *
+     * @param period   - time between snapshots
+     * @param listener - listener to pass each snapshot to
+     * @return - schedule of the snapshots
+     */
+    public SnapshotSchedule scheduleSnapshots(Duration period, Consumer<CheckoutMetricsSnapshot> listener) {
+        if (period == null || period.isNegative() || period.isZero() || listener == null) {
+            throw new IllegalArgumentException("Period must be positive and listener cannot be null when scheduling checkout metrics snapshots.");
+        }
+
+        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkout-metrics-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CheckoutMetricsSnapshot[] previousSnapshot = {getSnapshot()};
+
+        executorService.scheduleAtFixedRate(() -> {
+            CheckoutMetricsSnapshot snapshot = getSnapshot();
+            CheckoutMetricsSnapshot intervalSnapshot = snapshot.minus(previousSnapshot[0]);
+            previousSnapshot[0] = snapshot;
+            listener.accept(intervalSnapshot);
+        }, period.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+
+        return new SnapshotSchedule(executorService);
+    }
+
+    /**
+     * Register the checkout metrics with the platform MBean server, along with the latencies of each stage and tool
+     * type.
+     * <p>
+     * ex. sc0623:type=CheckoutMetrics,name=checkout,stage=TOOL_LOOKUP
+     *
+     * @param name - name to register the checkout metrics under
+     */
+    public synchronized void registerMBeans(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Name cannot be blank when registering checkout metrics MBeans.");
+        }
+
+        if (!registeredObjectNames.isEmpty()) {
+            throw new IllegalStateException("Checkout metrics MBeans are already registered.");
+        }
+
+        String objectNamePrefix = OBJECT_NAME_DOMAIN + ":type=CheckoutMetrics,name=" + ObjectName.quote(name);
+
+        try {
+            registerMBean(this, objectNamePrefix);
+
+            for (CheckoutStage checkoutStage : CheckoutStage.values()) {
+                registerMBean(stageLatencies[checkoutStage.ordinal()], objectNamePrefix + ",stage=" + checkoutStage.name());
+            }
+
+            for (ToolType toolType : ToolType.values()) {
+                registerMBean(toolTypeLatencies[toolType.ordinal()], objectNamePrefix + ",toolType=" + toolType.name());
+            }
+        } catch (JMException e) {
+            unregisterMBeans();
+            throw new SystemErrorException("Could not register checkout metrics MBeans: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Unregister the checkout metrics from the platform MBean server.
+     */
+    public synchronized void unregisterMBeans() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        for (ObjectName objectName : registeredObjectNames) {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (JMException e) {
+                // Already unregistered
+            }
+        }
+
+        registeredObjectNames.clear();
+    }
+
+    /**
+     * Private helper method to register an MBean with the platform MBean server.
+     *
+     * @param mBean      - MBean to register
+     * @param objectName - object name to register the MBean under
+     * @throws JMException if the MBean could not be registered
+     */
+    private void registerMBean(Object mBean, String objectName) throws JMException {
+        ObjectName registeredObjectName = ManagementFactory.getPlatformMBeanServer().registerMBean(mBean, new ObjectName(objectName)).getObjectName();
+        registeredObjectNames.add(registeredObjectName);
+    }
+
+    /**
+     * Periodic snapshots of the checkout metrics, stopped by closing it.
+     */
+    public static final class SnapshotSchedule implements AutoCloseable {
+
+        private final ScheduledExecutorService executorService;
+
+        private SnapshotSchedule(ScheduledExecutorService executorService) {
+            this.executorService = executorService;
+        }
+
+        @Override
+        public void close() {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package services;
+
+/**
+ * JMX view of the {@link CheckoutMetrics} counters. The latencies of each stage and tool type are registered as
+ * their own {@link models.LatencyHistogramMXBean}.
+ */
+public interface CheckoutMetricsMXBean {
+
+    long getCompletedCheckouts();
+
+    long getFailedCheckouts();
+
+    double getCheckoutsPerSecond();
+}
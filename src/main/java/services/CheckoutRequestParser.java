@@ -0,0 +1,288 @@
+package services;
+
+import lombok.NoArgsConstructor;
+import models.CheckoutRequest;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+@NoArgsConstructor
+public class CheckoutRequestParser {
+
+    public static final String CSV_HEADER = "toolCode,rentalDays,discountPercent,checkoutDate";
+
+    private static final String TOOL_CODE = "toolCode";
+    private static final String RENTAL_DAYS = "rentalDays";
+    private static final String DISCOUNT_PERCENT = "discountPercent";
+    private static final String CHECKOUT_DATE = "checkoutDate";
+
+    /**
+     * Determine if a CSV line is the header line.
+     *
+     * @param line - CSV line
+     * @return - true if the line is the CSV header, false otherwise
+     */
+    public boolean isCsvHeader(String line) {
+        return line != null && line.trim().regionMatches(true, 0, TOOL_CODE, 0, TOOL_CODE.length());
+    }
+
+    /**
+     * Parse a checkout request from a CSV line, with the columns in the order of {@link #CSV_HEADER}. Dates are
+     * formatted as yyyy-MM-dd and empty columns are parsed as null.
+     * <p>
+     * ex. LADW,3,10,2015-07-02
+     *
+     * @param line - CSV line
+     * @return - checkout request parsed from the line
+     */
+    public CheckoutRequest parseCsv(String line) {
+        if (line == null) {
+            throw new IllegalArgumentException("Line cannot be null when parsing a checkout request.");
+        }
+
+        String[] columns = line.split(",", -1);
+
+        if (columns.length != 4) {
+            throw new IllegalArgumentException("Line must have 4 columns (" + CSV_HEADER + ") when parsing a checkout request.");
+        }
+
+        return createCheckoutRequest(columns[0], columns[1], columns[2], columns[3]);
+    }
+
+    /**
+     * Parse a checkout request from a JSON object on a single line. Dates are formatted as yyyy-MM-dd and missing
+     * fields are parsed as null.
+     * <p>
+     * ex. {"toolCode":"LADW","rentalDays":3,"discountPercent":10,"checkoutDate":"2015-07-02"}
+     *
+     * @param line - JSON line
+     * @return - checkout request parsed from the line
+     */
+    public CheckoutRequest parseJson(String line) {
+        if (line == null) {
+            throw new IllegalArgumentException("Line cannot be null when parsing a checkout request.");
+        }
+
+        Map<String, String> fields = new JsonObjectReader(line).readObject();
+
+        return createCheckoutRequest(fields.get(TOOL_CODE), fields.get(RENTAL_DAYS), fields.get(DISCOUNT_PERCENT), fields.get(CHECKOUT_DATE));
+    }
+
+    /**
+     * Parse a checkout request from a URL query string. Dates are formatted as yyyy-MM-dd and missing parameters are
+     * parsed as null.
+     * <p>
+     * ex. toolCode=LADW&amp;rentalDays=3&amp;discountPercent=10&amp;checkoutDate=2015-07-02
+     *
+     * @param query - URL encoded query string, without the leading ?
+     * @return - checkout request parsed from the query string
+     */
+    public CheckoutRequest parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+
+        if (query != null && !query.isEmpty()) {
+            for (String parameter : query.split("&")) {
+                int separator = parameter.indexOf('=');
+
+                if (separator > 0) {
+                    parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                            URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        return createCheckoutRequest(parameters.get(TOOL_CODE), parameters.get(RENTAL_DAYS), parameters.get(DISCOUNT_PERCENT), parameters.get(CHECKOUT_DATE));
+    }
+
+    /**
+     * Private helper method to create a checkout request from its text values.
+     *
+     * @param toolCode        - code of the tool
+     * @param rentalDays      - number of rental days
+     * @param discountPercent - discount percent
+     * @param checkoutDate    - checkout date, formatted as yyyy-MM-dd
+     * @return - checkout request
+     */
+    private CheckoutRequest createCheckoutRequest(String toolCode, String rentalDays, String discountPercent, String checkoutDate) {
+        return new CheckoutRequest(
+                toolCode == null ? null : toolCode.trim(),
+                parseInteger(rentalDays, "Rental days"),
+                parseInteger(discountPercent, "Discount percent"),
+                parseDate(checkoutDate));
+    }
+
+    /**
+     * Private helper method to parse a whole number.
+     *
+     * @param value - text to parse
+     * @param name  - name of the value, for the error message
+     * @return - parsed whole number, null if the text is blank
+     */
+    private Integer parseInteger(String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number when parsing a checkout request.");
+        }
+    }
+
+    /**
+     * Private helper method to parse a date formatted as yyyy-MM-dd.
+     *
+     * @param value - text to parse
+     * @return - parsed date, null if the text is blank
+     */
+    private LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Checkout date must be formatted as yyyy-MM-dd when parsing a checkout request.");
+        }
+    }
+
+    /**
+     * Minimal reader for a flat JSON object of string, number, boolean and null values.
+     */
+    private static final class JsonObjectReader {
+
+        private final String json;
+        private int position;
+
+        private JsonObjectReader(String json) {
+            this.json = json;
+        }
+
+        private Map<String, String> readObject() {
+            Map<String, String> fields = new HashMap<>();
+
+            expect('{');
+
+            if (peek() == '}') {
+                position++;
+                return fields;
+            }
+
+            do {
+                String name = readString();
+                expect(':');
+                fields.put(name, readValue());
+            } while (next() == ',');
+
+            position--;
+            expect('}');
+
+            if (peek() != 0) {
+                throw malformed();
+            }
+
+            return fields;
+        }
+
+        private String readValue() {
+            char c = peek();
+
+            if (c == '"') {
+                return readString();
+            }
+
+            int start = position;
+
+            while (position < json.length() && ",}".indexOf(json.charAt(position)) < 0 && !Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+
+            String value = json.substring(start, position);
+
+            if (value.isEmpty() || value.charAt(0) == '{' || value.charAt(0) == '[') {
+                throw malformed();
+            }
+
+            return "null".equals(value) ? null : value;
+        }
+
+        private String readString() {
+            expect('"');
+
+            StringBuilder value = new StringBuilder();
+
+            while (position < json.length()) {
+                char c = json.charAt(position++);
+
+                if (c == '"') {
+                    return value.toString();
+                }
+
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+
+                if (position >= json.length()) {
+                    break;
+                }
+
+                char escaped = json.charAt(position++);
+
+                switch (escaped) {
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > json.length()) {
+                            throw malformed();
+                        }
+
+                        try {
+                            value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw malformed();
+                        }
+
+                        position += 4;
+                    }
+                    default -> value.append(escaped);
+                }
+            }
+
+            throw malformed();
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw malformed();
+            }
+        }
+
+        private char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        private char peek() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+
+            return position < json.length() ? json.charAt(position) : 0;
+        }
+
+        private IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Line must be a JSON object when parsing a checkout request.");
+        }
+    }
+}
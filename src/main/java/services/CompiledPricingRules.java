@@ -0,0 +1,83 @@
+package services;
+
+import models.Money;
+import models.RentalPrice;
+
+import java.time.LocalDate;
+
+/**
+ * Pricing rule set compiled by a {@link PricingRuleEngine}. Compiled rules are immutable and can be shared between
+ * threads.
+ */
+public class CompiledPricingRules {
+
+    private final RentalDateService rentalDateService;
+    private final RentalAmountService rentalAmountService;
+    private final int chargeMask;
+    private final ChargeCalculator chargeCalculator;
+    private final int[] tierMinimumRentalDays;
+    private final int[] tierDiscountPercents;
+
+    CompiledPricingRules(RentalDateService rentalDateService, RentalAmountService rentalAmountService, int chargeMask,
+                         ChargeCalculator chargeCalculator, int[] tierMinimumRentalDays, int[] tierDiscountPercents) {
+        this.rentalDateService = rentalDateService;
+        this.rentalAmountService = rentalAmountService;
+        this.chargeMask = chargeMask;
+        this.chargeCalculator = chargeCalculator;
+        this.tierMinimumRentalDays = tierMinimumRentalDays;
+        this.tierDiscountPercents = tierDiscountPercents;
+    }
+
+    /**
+     * Price a rental. The discount of the rental discount tier the rental reaches is added to the discount of the
+     * customer, up to 100 percent.
+     *
+     * @param checkoutDate    - date the tool is checked out
+     * @param rentalDays      - number of days for which the customer wants to rent the tool, must be 1 or greater
+     * @param discountPercent - discount percent of the customer, must be between 0 and 100
+     * @return - price of the rental, with amounts at a scale of 2
+     */
+    public RentalPrice price(LocalDate checkoutDate, int rentalDays, int discountPercent) {
+        if (checkoutDate == null || rentalDays < 1 || discountPercent < 0 || discountPercent > 100) {
+            throw new IllegalArgumentException("Checkout date cannot be null, rental days must be 1 or greater and discount percent must be between 0 and 100 when pricing a rental.");
+        }
+
+        LocalDate firstRentalDate = checkoutDate.plusDays(1);
+        LocalDate lastRentalDate = checkoutDate.plusDays(rentalDays);
+
+        int chargeDays = rentalDateService.countChargeDays(chargeMask, checkoutDate, rentalDays);
+        long preDiscountChargeCents = chargeCalculator.calculatePreDiscountChargeCents(firstRentalDate, lastRentalDate);
+
+        int totalDiscountPercent = Math.min(100, discountPercent + getTierDiscountPercent(rentalDays));
+        long discountAmountCents = rentalAmountService.calculateDiscountAmountCents(totalDiscountPercent, preDiscountChargeCents);
+        long finalChargeCents = rentalAmountService.calculateFinalChargeCents(preDiscountChargeCents, discountAmountCents);
+
+        return new RentalPrice(chargeDays, Money.fromCents(preDiscountChargeCents), totalDiscountPercent,
+                Money.fromCents(discountAmountCents), Money.fromCents(finalChargeCents));
+    }
+
+    /**
+     * Get the discount of the rental discount tier a rental reaches.
+     *
+     * @param rentalDays - number of rental days
+     * @return - discount percent of the tier, 0 if the rental reaches no tier
+     */
+    public int getTierDiscountPercent(int rentalDays) {
+        for (int tier = 0; tier < tierMinimumRentalDays.length; tier++) {
+            if (rentalDays >= tierMinimumRentalDays[tier]) {
+                return tierDiscountPercents[tier];
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Pre-discount charge of the rental days from the first to the last rental date, both included.
+     */
+    @FunctionalInterface
+    interface ChargeCalculator {
+
+        long calculatePreDiscountChargeCents(LocalDate firstRentalDate, LocalDate lastRentalDate);
+    }
+}
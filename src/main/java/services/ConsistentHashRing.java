@@ -0,0 +1,114 @@
+package services;
+
+import java.util.Arrays;
+
+/**
+ * Consistent hash ring that maps keys, such as store IDs, onto a number of shards.
+ * <p>
+ * Each shard is placed on the ring at a number of virtual node points, and a key belongs to the shard of the first
+ * point at or after the hash of the key, wrapping around. Adding a shard only moves the keys that land on its new
+ * points, about one in every {@code shards + 1} keys, so the rest of the keys stay on the shard they were on. The
+ * points are kept in a sorted array, so looking up a key is a binary search that allocates nothing. A ring is
+ * immutable, adding a shard creates a new ring.
+ */
+public class ConsistentHashRing {
+
+    private final int shards;
+    private final int virtualNodes;
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * Create a consistent hash ring.
+     *
+     * @param shards       - number of shards
+     * @param virtualNodes - points on the ring for each shard, more points spread the keys more evenly
+     */
+    public ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("Shards and virtual nodes must be 1 or greater when creating a consistent hash ring.");
+        }
+
+        this.shards = shards;
+        this.virtualNodes = virtualNodes;
+
+        long[] hashes = new long[shards * virtualNodes];
+        Integer[] sortedIndexes = new Integer[hashes.length];
+
+        for (int index = 0; index < hashes.length; index++) {
+            hashes[index] = hash("shard-" + index / virtualNodes + "-" + index % virtualNodes);
+            sortedIndexes[index] = index;
+        }
+
+        Arrays.sort(sortedIndexes, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+        this.points = new long[hashes.length];
+        this.owners = new int[hashes.length];
+
+        for (int i = 0; i < sortedIndexes.length; i++) {
+            points[i] = hashes[sortedIndexes[i]];
+            owners[i] = sortedIndexes[i] / virtualNodes;
+        }
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Create a ring with one more shard, with the same points for the existing shards.
+     *
+     * @return - consistent hash ring with one more shard
+     */
+    public ConsistentHashRing withAddedShard() {
+        return new ConsistentHashRing(shards + 1, virtualNodes);
+    }
+
+    /**
+     * Get the shard a key belongs to.
+     *
+     * @param key - key to look up, e.g. a store ID
+     * @return - shard of the key, between 0 and the number of shards - 1
+     */
+    public int getShard(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null when looking up the shard of a key.");
+        }
+
+        int index = Arrays.binarySearch(points, hash(key));
+
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Private helper method to hash a key with 64 bit FNV-1a, mixed with the MurmurHash3 finalizer so similar keys
+     * such as "store-1" and "store-2" are spread around the ring.
+     *
+     * @param key - key to hash
+     * @return - 64 bit hash of the key
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
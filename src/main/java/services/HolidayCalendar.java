@@ -0,0 +1,285 @@
+package services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calendar of observed holidays. The holiday rules are evaluated once per year into a bitset indexed by the day of
+ * the year, which is cached, so checking or counting holidays does not re-evaluate the rules.
+ */
+public class HolidayCalendar {
+
+    /**
+     * If the 4th of July falls on the weekend, the holiday rental day will be observed on the closest weekday.
+     * Friday if 4th of July falls on Saturday
+     * Monday if 4th of July falls on Sunday
+     */
+    public static final HolidayRule OBSERVED_INDEPENDENCE_DAY = HolidayCalendar::getObservedIndependenceDay;
+
+    /**
+     * Memorial Day is defined as the first Monday in September.
+     */
+    public static final HolidayRule MEMORIAL_DAY = HolidayCalendar::getMemorialDay;
+
+    private static final int WORDS_PER_YEAR = 6;
+
+    private static final HolidayCalendar DEFAULT_CALENDAR = new HolidayCalendar(List.of(OBSERVED_INDEPENDENCE_DAY, MEMORIAL_DAY), true);
+
+    private final boolean immutable;
+    private volatile List<HolidayRule> holidayRules;
+    private volatile Map<Integer, HolidayYear> holidayYears;
+    private volatile int version;
+
+    /**
+     * Create a holiday calendar from a list of holiday rules.
+     *
+     * @param holidayRules - rules for the observed holidays
+     */
+    public HolidayCalendar(List<HolidayRule> holidayRules) {
+        this(holidayRules, false);
+    }
+
+    private HolidayCalendar(List<HolidayRule> holidayRules, boolean immutable) {
+        if (holidayRules == null || holidayRules.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Holiday rules cannot be null when creating a holiday calendar.");
+        }
+
+        this.immutable = immutable;
+        this.holidayRules = List.copyOf(holidayRules);
+        this.holidayYears = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the shared holiday calendar that observes Independence Day and Memorial Day. The shared calendar is used by
+     * every rental date service and charge day index that is not given a calendar, so it cannot be changed; create a
+     * holiday calendar to register additional holidays.
+     *
+     * @return - shared default holiday calendar
+     */
+    public static HolidayCalendar getDefaultCalendar() {
+        return DEFAULT_CALENDAR;
+    }
+
+    /**
+     * Register an additional holiday. Years that were already cached are evaluated again on next use.
+     *
+     * @param holidayRule - rule for the additional holiday
+     * @throws UnsupportedOperationException if this is the shared default calendar
+     */
+    public synchronized void registerHoliday(HolidayRule holidayRule) {
+        if (holidayRule == null) {
+            throw new IllegalArgumentException("Holiday rule cannot be null when registering a holiday.");
+        }
+
+        if (immutable) {
+            throw new UnsupportedOperationException("The default holiday calendar cannot be changed, create a holiday calendar to register a holiday.");
+        }
+
+        List<HolidayRule> rules = new ArrayList<>(holidayRules);
+        rules.add(holidayRule);
+
+        holidayRules = Collections.unmodifiableList(rules);
+        holidayYears = new ConcurrentHashMap<>();
+        version++;
+    }
+
+    /**
+     * Get the version of the calendar, which changes every time a holiday is registered.
+     *
+     * @return - version of the calendar
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Determine if the date is observed as a holiday.
+     *
+     * @param date - date to check
+     * @return - true if the date is an observed holiday, false otherwise
+     */
+    public boolean isObservedHoliday(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null when determining if date is a holiday.");
+        }
+
+        int dayIndex = date.getDayOfYear() - 1;
+
+        return (getHolidayYear(date.getYear()).holidays[dayIndex >> 6] & (1L << dayIndex)) != 0;
+    }
+
+    /**
+     * Count the observed holidays between two dates (inclusive).
+     *
+     * @param startDate - first date of the range
+     * @param endDate   - last date of the range
+     * @return - number of observed holidays between the start date and end date
+     */
+    public long countHolidays(LocalDate startDate, LocalDate endDate) {
+        return countHolidays(startDate, endDate, false);
+    }
+
+    /**
+     * Count the observed holidays between two dates (inclusive) that fall on a Saturday or Sunday.
+     *
+     * @param startDate - first date of the range
+     * @param endDate   - last date of the range
+     * @return - number of observed holidays on the weekend between the start date and end date
+     */
+    public long countWeekendHolidays(LocalDate startDate, LocalDate endDate) {
+        return countHolidays(startDate, endDate, true);
+    }
+
+    /**
+     * Private helper method to count the observed holidays between two dates (inclusive). Only the first and last
+     * years are counted bit by bit, every year in between contributes its cached total.
+     *
+     * @param startDate    - first date of the range
+     * @param endDate      - last date of the range
+     * @param weekendsOnly - true to only count holidays on the weekend
+     * @return - number of observed holidays between the start date and end date
+     */
+    private long countHolidays(LocalDate startDate, LocalDate endDate, boolean weekendsOnly) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null when counting holidays.");
+        }
+
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+
+        int startYear = startDate.getYear();
+        int endYear = endDate.getYear();
+
+        if (startYear == endYear) {
+            return getHolidayYear(startYear).count(startDate.getDayOfYear() - 1, endDate.getDayOfYear() - 1, weekendsOnly);
+        }
+
+        long holidays = getHolidayYear(startYear).count(startDate.getDayOfYear() - 1, WORDS_PER_YEAR * Long.SIZE - 1, weekendsOnly);
+
+        for (int year = startYear + 1; year < endYear; year++) {
+            HolidayYear holidayYear = getHolidayYear(year);
+            holidays += weekendsOnly ? holidayYear.weekendHolidayCount : holidayYear.holidayCount;
+        }
+
+        return holidays + getHolidayYear(endYear).count(0, endDate.getDayOfYear() - 1, weekendsOnly);
+    }
+
+    /**
+     * Private helper method to get the cached holidays for a year, evaluating the holiday rules on first use.
+     *
+     * @param year - year of the holidays
+     * @return - holidays observed in the year
+     */
+    private HolidayYear getHolidayYear(int year) {
+        Map<Integer, HolidayYear> years = holidayYears;
+        HolidayYear holidayYear = years.get(year);
+
+        if (holidayYear == null) {
+            holidayYear = years.computeIfAbsent(year, key -> new HolidayYear(key, holidayRules));
+        }
+
+        return holidayYear;
+    }
+
+    /**
+     * Private helper method to get the date Independence Day is observed on.
+     *
+     * @param year - year of the holiday
+     * @return - date Independence Day is observed on for the year
+     */
+    private static LocalDate getObservedIndependenceDay(int year) {
+        LocalDate fourthOfJuly = LocalDate.of(year, Month.JULY, 4);
+
+        if (fourthOfJuly.getDayOfWeek() == DayOfWeek.SATURDAY) {
+            return fourthOfJuly.minusDays(1);
+        }
+
+        if (fourthOfJuly.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            return fourthOfJuly.plusDays(1);
+        }
+
+        return fourthOfJuly;
+    }
+
+    /**
+     * Private helper method to get the date of Memorial Day.
+     *
+     * @param year - year of the holiday
+     * @return - date of Memorial Day for the year
+     */
+    private static LocalDate getMemorialDay(int year) {
+        return LocalDate.of(year, Month.SEPTEMBER, 1).with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Observed holidays of a single year as bitsets indexed by the day of the year (0 - 365).
+     */
+    private static final class HolidayYear {
+
+        private final long[] holidays = new long[WORDS_PER_YEAR];
+        private final long[] weekendHolidays = new long[WORDS_PER_YEAR];
+        private final int holidayCount;
+        private final int weekendHolidayCount;
+
+        private HolidayYear(int year, List<HolidayRule> holidayRules) {
+            // A rule may observe a holiday in a neighbouring year (e.g. January 1st observed on December 31st), as long
+            // as that year is still a supported year
+            for (int ruleYear = Math.max(year - 1, Year.MIN_VALUE); ruleYear <= Math.min(year + 1, Year.MAX_VALUE); ruleYear++) {
+                for (HolidayRule holidayRule : holidayRules) {
+                    LocalDate observedDate = holidayRule.getObservedDate(ruleYear);
+
+                    if (observedDate != null && observedDate.getYear() == year) {
+                        int dayIndex = observedDate.getDayOfYear() - 1;
+                        holidays[dayIndex >> 6] |= 1L << dayIndex;
+
+                        if (observedDate.getDayOfWeek() == DayOfWeek.SATURDAY || observedDate.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                            weekendHolidays[dayIndex >> 6] |= 1L << dayIndex;
+                        }
+                    }
+                }
+            }
+
+            this.holidayCount = count(0, WORDS_PER_YEAR * Long.SIZE - 1, false);
+            this.weekendHolidayCount = count(0, WORDS_PER_YEAR * Long.SIZE - 1, true);
+        }
+
+        /**
+         * Count the holidays between two days of the year (inclusive, zero based).
+         *
+         * @param fromDayIndex - first day of the range
+         * @param toDayIndex   - last day of the range
+         * @param weekendsOnly - true to only count holidays on the weekend
+         * @return - number of holidays in the range
+         */
+        private int count(int fromDayIndex, int toDayIndex, boolean weekendsOnly) {
+            long[] bits = weekendsOnly ? weekendHolidays : holidays;
+            int fromWord = fromDayIndex >> 6;
+            int toWord = toDayIndex >> 6;
+
+            long fromMask = -1L << fromDayIndex;
+            long toMask = -1L >>> (Long.SIZE - 1 - (toDayIndex & 63));
+
+            if (fromWord == toWord) {
+                return Long.bitCount(bits[fromWord] & fromMask & toMask);
+            }
+
+            int count = Long.bitCount(bits[fromWord] & fromMask);
+
+            for (int word = fromWord + 1; word < toWord; word++) {
+                count += Long.bitCount(bits[word]);
+            }
+
+            return count + Long.bitCount(bits[toWord] & toMask);
+        }
+    }
+}
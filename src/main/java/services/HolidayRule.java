@@ -0,0 +1,19 @@
+package services;
+
+import java.time.LocalDate;
+
+/**
+ * Rule for the date a holiday is observed on in a given year. Rules are evaluated once per year by the
+ * {@link HolidayCalendar}, so they do not need to be fast.
+ */
+@FunctionalInterface
+public interface HolidayRule {
+
+    /**
+     * Get the date the holiday is observed on for the year.
+     *
+     * @param year - year of the holiday
+     * @return - date the holiday is observed on, null if the holiday is not observed in the year
+     */
+    LocalDate getObservedDate(int year);
+}
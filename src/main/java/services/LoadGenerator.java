@@ -0,0 +1,274 @@
+package services;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import exceptions.SystemErrorException;
+import models.CheckoutRequest;
+import models.CheckoutResult;
+import models.LatencyHistogram;
+import models.LoadTestConfig;
+import models.LoadTestReport;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a synthetic checkout workload through a {@link ToolCheckoutService} and reports its throughput, latency
+ * percentiles and GC pauses.
+ * <p>
+ * Each thread checks out tools back to back for the warmup and then the measured duration, with checkout requests
+ * drawn from its own random generator split from the seed of the {@link LoadTestConfig}. Checkouts go through
+ * {@link ToolCheckoutService#tryCheckout(String, Integer, Integer, LocalDate)}, so a failed checkout is counted
+ * rather than thrown. The threads can be platform threads or, when the JVM supports them, virtual threads.
+ */
+public class LoadGenerator {
+
+    private static final List<HolidayRule> DEFAULT_HOLIDAY_RULES = List.of(HolidayCalendar.OBSERVED_INDEPENDENCE_DAY, HolidayCalendar.MEMORIAL_DAY);
+
+    private final ToolCheckoutService toolCheckoutService;
+    private final List<HolidayRule> holidayRules;
+
+    public LoadGenerator(ToolCheckoutService toolCheckoutService) {
+        this(toolCheckoutService, DEFAULT_HOLIDAY_RULES);
+    }
+
+    /**
+     * Create a load generator.
+     *
+     * @param toolCheckoutService - tool checkout service to check out tools with
+     * @param holidayRules        - holidays that holiday heavy checkouts are rented over
+     */
+    public LoadGenerator(ToolCheckoutService toolCheckoutService, List<HolidayRule> holidayRules) {
+        if (toolCheckoutService == null || holidayRules == null || holidayRules.isEmpty() || holidayRules.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Tool checkout service and holiday rules cannot be null or empty when creating a load generator.");
+        }
+
+        this.toolCheckoutService = toolCheckoutService;
+        this.holidayRules = List.copyOf(holidayRules);
+    }
+
+    /**
+     * Run a load test, blocking for its warmup and duration.
+     *
+     * @param config - workload and threads of the load test
+     * @return - report of the checkouts, latencies and GC pauses during the measured duration
+     */
+    public LoadTestReport run(LoadTestConfig config) {
+        validateConfig(config);
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder toolRentalAgreements = new LongAdder();
+        LongAdder failedCheckouts = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        SplittableRandom random = new SplittableRandom(config.getSeed());
+
+        ExecutorService virtualThreadExecutor = config.isVirtualThreads() ? VirtualThreads.newVirtualThreadPerTaskExecutor().orElse(null) : null;
+        ExecutorService executor = virtualThreadExecutor != null ? virtualThreadExecutor : createPlatformThreadExecutor(config.getThreads());
+        GcPauseListener gcPauseListener = new GcPauseListener();
+
+        try {
+            for (int i = 0; i < config.getThreads(); i++) {
+                SplittableRandom threadRandom = random.split();
+                executor.execute(() -> checkoutTools(config, threadRandom, running, latencies, toolRentalAgreements, failedCheckouts));
+            }
+
+            TimeUnit.NANOSECONDS.sleep(config.getWarmup().toNanos());
+
+            LatencyHistogram.Snapshot startLatency = latencies.getSnapshot();
+            long startToolRentalAgreements = toolRentalAgreements.sum();
+            long startFailedCheckouts = failedCheckouts.sum();
+            gcPauseListener.start();
+            long startNanos = System.nanoTime();
+
+            TimeUnit.NANOSECONDS.sleep(config.getDuration().toNanos());
+
+            long durationNanos = System.nanoTime() - startNanos;
+            LatencyHistogram.Snapshot latency = latencies.getSnapshot().minus(startLatency);
+            long measuredToolRentalAgreements = toolRentalAgreements.sum() - startToolRentalAgreements;
+            long measuredFailedCheckouts = failedCheckouts.sum() - startFailedCheckouts;
+            gcPauseListener.stop();
+
+            return new LoadTestReport(config.getThreads(), virtualThreadExecutor != null, durationNanos,
+                    measuredToolRentalAgreements, measuredFailedCheckouts, latency,
+                    gcPauseListener.pauses.get(), gcPauseListener.pauseMillis.get(), gcPauseListener.maxPauseMillis.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemErrorException("Interrupted while running a load test.");
+        } finally {
+            running.set(false);
+            gcPauseListener.stop();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Create a random checkout request of the workload.
+     *
+     * @param config - workload of the load test
+     * @param random - random generator of the calling thread
+     * @return - checkout request
+     */
+    CheckoutRequest nextCheckoutRequest(LoadTestConfig config, SplittableRandom random) {
+        String toolCode = config.getToolCodes().get(random.nextInt(config.getToolCodes().size()));
+        int rentalDays = nextRentalDays(config, random);
+        int discountPercent = random.nextInt(100) < config.getDiscountedPercent() && config.getMaxDiscountPercent() > 0
+                ? 1 + random.nextInt(config.getMaxDiscountPercent())
+                : 0;
+        int year = config.getFirstCheckoutYear() + random.nextInt(config.getLastCheckoutYear() - config.getFirstCheckoutYear() + 1);
+
+        LocalDate checkoutDate = null;
+
+        if (random.nextInt(100) < config.getHolidayPercent()) {
+            LocalDate holiday = holidayRules.get(random.nextInt(holidayRules.size())).getObservedDate(year);
+
+            // Rental days start the day after checkout, so checking out up to the rental days before the holiday
+            // rents the tool over the holiday
+            if (holiday != null) {
+                checkoutDate = holiday.minusDays(1 + random.nextInt(rentalDays));
+            }
+        }
+
+        if (checkoutDate == null) {
+            checkoutDate = LocalDate.ofYearDay(year, 1 + random.nextInt(Year.of(year).length()));
+        }
+
+        return new CheckoutRequest(toolCode, rentalDays, discountPercent, checkoutDate);
+    }
+
+    /**
+     * Private helper method to check out tools back to back until the load test stops.
+     */
+    private void checkoutTools(LoadTestConfig config, SplittableRandom random, AtomicBoolean running, LatencyHistogram latencies,
+                               LongAdder toolRentalAgreements, LongAdder failedCheckouts) {
+
+        while (running.get()) {
+            CheckoutRequest checkoutRequest = nextCheckoutRequest(config, random);
+
+            long startNanos = System.nanoTime();
+            CheckoutResult checkoutResult = toolCheckoutService.tryCheckout(checkoutRequest.getToolCode(),
+                    checkoutRequest.getRentalDays(), checkoutRequest.getDiscountPercent(), checkoutRequest.getCheckoutDate());
+            latencies.record(System.nanoTime() - startNanos);
+
+            if (checkoutResult.isSuccessful()) {
+                toolRentalAgreements.increment();
+            } else {
+                failedCheckouts.increment();
+            }
+        }
+    }
+
+    /**
+     * Private helper method to pick the rental days from a geometric distribution, so most rentals are short and a
+     * few are long.
+     *
+     * @param config - workload of the load test
+     * @param random - random generator of the calling thread
+     * @return - rental days between 1 and the max rental days
+     */
+    private int nextRentalDays(LoadTestConfig config, SplittableRandom random) {
+        if (config.getMeanRentalDays() <= 1) {
+            return 1;
+        }
+
+        double extraDays = Math.log(1 - random.nextDouble()) / Math.log(1 - 1.0 / config.getMeanRentalDays());
+
+        return (int) Math.min(config.getMaxRentalDays(), 1 + (long) extraDays);
+    }
+
+    /**
+     * Private helper method to validate the load test config.
+     *
+     * @param config - load test config to validate
+     */
+    private void validateConfig(LoadTestConfig config) {
+        if (config == null || config.getWarmup() == null || config.getDuration() == null || config.getToolCodes() == null) {
+            throw new IllegalArgumentException("Load test config, warmup, duration and tool codes cannot be null when running a load test.");
+        }
+
+        if (config.getThreads() < 1 || config.getToolCodes().isEmpty() || config.getMeanRentalDays() < 1
+                || config.getMaxRentalDays() < 1 || config.getLastCheckoutYear() < config.getFirstCheckoutYear()
+                || config.getWarmup().isNegative() || config.getDuration().isNegative()) {
+            throw new IllegalArgumentException("Load test config must have at least one thread, tool code and rental day, and the last checkout year cannot be before the first.");
+        }
+
+        if (config.getMaxDiscountPercent() < 0 || config.getMaxDiscountPercent() > 100) {
+            throw new IllegalArgumentException("Max discount percent must be between 0 and 100 when running a load test.");
+        }
+    }
+
+    private static ExecutorService createPlatformThreadExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "load-generator-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Counts the stop-the-world collections reported by the garbage collectors while it is listening. Collectors that
+     * report concurrent cycles rather than pauses (e.g. G1 Concurrent GC or ZGC Cycles) are left out.
+     */
+    private static final class GcPauseListener implements NotificationListener {
+
+        private final List<NotificationEmitter> emitters = new ArrayList<>();
+        private final AtomicLong pauses = new AtomicLong();
+        private final AtomicLong pauseMillis = new AtomicLong();
+        private final AtomicLong maxPauseMillis = new AtomicLong();
+
+        private void start() {
+            for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                String name = garbageCollector.getName();
+
+                if (garbageCollector instanceof NotificationEmitter && !name.contains("Concurrent") && !name.contains("Cycles")) {
+                    NotificationEmitter emitter = (NotificationEmitter) garbageCollector;
+                    emitter.addNotificationListener(this, null, null);
+                    emitters.add(emitter);
+                }
+            }
+        }
+
+        private void stop() {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(this);
+                } catch (ListenerNotFoundException e) {
+                    // Already removed
+                }
+            }
+
+            emitters.clear();
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+
+            long durationMillis = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()).getGcInfo().getDuration();
+
+            pauses.incrementAndGet();
+            pauseMillis.addAndGet(durationMillis);
+            maxPauseMillis.accumulateAndGet(durationMillis, Math::max);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package services;
+
+import models.Money;
+import models.PricingRuleSet;
+import models.RentalDiscountTier;
+import models.SeasonalRate;
+import models.ToolTypeCharge;
+import models.constants.DayClass;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles pricing rule sets into {@link CompiledPricingRules} that price a rental without visiting its days.
+ * <p>
+ * A rule set is validated and turned into rate tables in cents once, and the evaluator is picked by the shape of the
+ * rules: a single count of charge days times one daily charge when every charged class of day has the same charge,
+ * as for a rule set made from a {@link ToolTypeCharge}; a count per class of day when the charges differ; and a
+ * correction per season that a rental overlaps when the rules have seasons. The days are counted by the rental date
+ * service and the discount by the rental amount service, so a rule set is priced the same way a tool type charge is.
+ */
+public class PricingRuleEngine {
+
+    // Any leap year, to check every day of the year for overlapping seasons
+    private static final int LEAP_YEAR = 2000;
+
+    private final RentalDateService rentalDateService;
+    private final RentalAmountService rentalAmountService;
+
+    public PricingRuleEngine(RentalDateService rentalDateService, RentalAmountService rentalAmountService) {
+        if (rentalDateService == null || rentalAmountService == null) {
+            throw new IllegalArgumentException("Rental date service and rental amount service cannot be null when creating a pricing rule engine.");
+        }
+
+        this.rentalDateService = rentalDateService;
+        this.rentalAmountService = rentalAmountService;
+    }
+
+    /**
+     * Compile a pricing rule set.
+     *
+     * @param pricingRuleSet - pricing rule set, with charges in whole cents of 0 or more
+     * @return - compiled pricing rules
+     */
+    public CompiledPricingRules compile(PricingRuleSet pricingRuleSet) {
+        validate(pricingRuleSet);
+
+        long[] dailyRentalChargeCents = new long[DayClass.values().length];
+        boolean[] chargedDayClasses = new boolean[DayClass.values().length];
+
+        for (Map.Entry<DayClass, BigDecimal> dailyRentalCharge : pricingRuleSet.getDailyRentalCharges().entrySet()) {
+            dailyRentalChargeCents[dailyRentalCharge.getKey().ordinal()] = Money.toCents(dailyRentalCharge.getValue());
+            chargedDayClasses[dailyRentalCharge.getKey().ordinal()] = true;
+        }
+
+        int chargeMask = 0;
+
+        for (DayClass dayClass : DayClass.values()) {
+            chargeMask |= chargedDayClasses[dayClass.ordinal()] ? getChargeMask(dayClass) : 0;
+        }
+
+        CompiledPricingRules.ChargeCalculator chargeCalculator = compileDayClassRates(dailyRentalChargeCents, chargedDayClasses, chargeMask);
+
+        if (!pricingRuleSet.getSeasonalRates().isEmpty()) {
+            chargeCalculator = compileSeasonalRates(pricingRuleSet.getSeasonalRates(), dailyRentalChargeCents, chargedDayClasses, chargeMask, chargeCalculator);
+        }
+
+        // Longest tier first, so the first tier a rental reaches is the one that applies
+        List<RentalDiscountTier> rentalDiscountTiers = new ArrayList<>(pricingRuleSet.getRentalDiscountTiers());
+        rentalDiscountTiers.sort(Comparator.comparingInt(RentalDiscountTier::getMinimumRentalDays).reversed());
+
+        int[] tierMinimumRentalDays = rentalDiscountTiers.stream().mapToInt(RentalDiscountTier::getMinimumRentalDays).toArray();
+        int[] tierDiscountPercents = rentalDiscountTiers.stream().mapToInt(RentalDiscountTier::getDiscountPercent).toArray();
+
+        return new CompiledPricingRules(rentalDateService, rentalAmountService, chargeMask, chargeCalculator, tierMinimumRentalDays, tierDiscountPercents);
+    }
+
+    /**
+     * Private helper method to compile the daily rental charges of each class of day, into a single count of charge
+     * days when every charged class of day has the same charge.
+     *
+     * @param dailyRentalChargeCents - daily rental charge of each class of day in cents, by ordinal
+     * @param chargedDayClasses      - whether each class of day is charged, by ordinal
+     * @param chargeMask             - charge mask of every charged class of day
+     * @return - charge calculator
+     */
+    private CompiledPricingRules.ChargeCalculator compileDayClassRates(long[] dailyRentalChargeCents, boolean[] chargedDayClasses, int chargeMask) {
+        List<Integer> dayClassChargeMasks = new ArrayList<>();
+        List<Long> dayClassChargeCents = new ArrayList<>();
+
+        for (DayClass dayClass : DayClass.values()) {
+            if (chargedDayClasses[dayClass.ordinal()]) {
+                dayClassChargeMasks.add(getChargeMask(dayClass));
+                dayClassChargeCents.add(dailyRentalChargeCents[dayClass.ordinal()]);
+            }
+        }
+
+        if (dayClassChargeMasks.isEmpty()) {
+            return (firstRentalDate, lastRentalDate) -> 0;
+        }
+
+        if (dayClassChargeCents.stream().distinct().count() == 1) {
+            long chargeCents = dayClassChargeCents.get(0);
+
+            return (firstRentalDate, lastRentalDate) -> Math.multiplyExact(chargeCents, countDays(chargeMask, firstRentalDate, lastRentalDate));
+        }
+
+        int[] chargeMasks = dayClassChargeMasks.stream().mapToInt(Integer::intValue).toArray();
+        long[] chargeCents = dayClassChargeCents.stream().mapToLong(Long::longValue).toArray();
+
+        return (firstRentalDate, lastRentalDate) -> {
+            long preDiscountChargeCents = 0;
+
+            for (int i = 0; i < chargeMasks.length; i++) {
+                preDiscountChargeCents = Math.addExact(preDiscountChargeCents,
+                        Math.multiplyExact(chargeCents[i], countDays(chargeMasks[i], firstRentalDate, lastRentalDate)));
+            }
+
+            return preDiscountChargeCents;
+        };
+    }
+
+    /**
+     * Private helper method to compile the seasonal rates. A rental is priced at the usual charges, and each part of
+     * the rental within a season is then priced again at the seasonal charges in place of the usual charges.
+     *
+     * @param seasonalRates          - seasonal rates
+     * @param dailyRentalChargeCents - daily rental charge of each class of day in cents, by ordinal
+     * @param chargedDayClasses      - whether each class of day is charged, by ordinal
+     * @param chargeMask             - charge mask of every charged class of day
+     * @param usualChargeCalculator  - charge calculator of the usual charges
+     * @return - charge calculator
+     */
+    private CompiledPricingRules.ChargeCalculator compileSeasonalRates(List<SeasonalRate> seasonalRates, long[] dailyRentalChargeCents,
+                                                                       boolean[] chargedDayClasses, int chargeMask,
+                                                                       CompiledPricingRules.ChargeCalculator usualChargeCalculator) {
+        int numberOfSeasons = seasonalRates.size();
+        MonthDay[] startDays = new MonthDay[numberOfSeasons];
+        MonthDay[] endDays = new MonthDay[numberOfSeasons];
+        CompiledPricingRules.ChargeCalculator[] seasonalChargeCalculators = new CompiledPricingRules.ChargeCalculator[numberOfSeasons];
+
+        for (int season = 0; season < numberOfSeasons; season++) {
+            SeasonalRate seasonalRate = seasonalRates.get(season);
+            long[] seasonalChargeCents = new long[dailyRentalChargeCents.length];
+
+            for (int dayClass = 0; dayClass < dailyRentalChargeCents.length; dayClass++) {
+                // Rounded half-up to whole cents
+                seasonalChargeCents[dayClass] = (Math.multiplyExact(dailyRentalChargeCents[dayClass], (long) seasonalRate.getRatePercent()) + 50) / 100;
+            }
+
+            startDays[season] = seasonalRate.getStartDay();
+            endDays[season] = seasonalRate.getEndDay();
+            seasonalChargeCalculators[season] = compileDayClassRates(seasonalChargeCents, chargedDayClasses, chargeMask);
+        }
+
+        return (firstRentalDate, lastRentalDate) -> {
+            long preDiscountChargeCents = usualChargeCalculator.calculatePreDiscountChargeCents(firstRentalDate, lastRentalDate);
+
+            // A season that runs over the end of the year starts in the year before its end
+            for (int year = firstRentalDate.getYear() - 1; year <= lastRentalDate.getYear(); year++) {
+                for (int season = 0; season < numberOfSeasons; season++) {
+                    LocalDate seasonStartDate = startDays[season].atYear(year);
+                    LocalDate seasonEndDate = endDays[season].atYear(endDays[season].isBefore(startDays[season]) ? year + 1 : year);
+
+                    LocalDate firstSeasonalDate = seasonStartDate.isAfter(firstRentalDate) ? seasonStartDate : firstRentalDate;
+                    LocalDate lastSeasonalDate = seasonEndDate.isBefore(lastRentalDate) ? seasonEndDate : lastRentalDate;
+
+                    if (!firstSeasonalDate.isAfter(lastSeasonalDate)) {
+                        preDiscountChargeCents = Math.addExact(preDiscountChargeCents, Math.subtractExact(
+                                seasonalChargeCalculators[season].calculatePreDiscountChargeCents(firstSeasonalDate, lastSeasonalDate),
+                                usualChargeCalculator.calculatePreDiscountChargeCents(firstSeasonalDate, lastSeasonalDate)));
+                    }
+                }
+            }
+
+            return preDiscountChargeCents;
+        };
+    }
+
+    private long countDays(int chargeMask, LocalDate firstRentalDate, LocalDate lastRentalDate) {
+        return rentalDateService.countChargeDays(chargeMask, firstRentalDate.minusDays(1),
+                Math.toIntExact(lastRentalDate.toEpochDay() - firstRentalDate.toEpochDay() + 1));
+    }
+
+    private int getChargeMask(DayClass dayClass) {
+        return switch (dayClass) {
+            case WEEKDAY -> ChargeDayIndex.WEEKDAY_CHARGE;
+            case WEEKEND -> ChargeDayIndex.WEEKEND_CHARGE;
+            case HOLIDAY -> ChargeDayIndex.HOLIDAY_CHARGE;
+        };
+    }
+
+    /**
+     * Validate the pricing rule set can be compiled.
+     *
+     * @param pricingRuleSet - pricing rule set to validate
+     */
+    private void validate(PricingRuleSet pricingRuleSet) {
+        if (pricingRuleSet == null
+                || pricingRuleSet.getDailyRentalCharges() == null
+                || pricingRuleSet.getSeasonalRates() == null
+                || pricingRuleSet.getRentalDiscountTiers() == null) {
+            throw new IllegalArgumentException("Pricing rule set and its rules cannot be null when compiling a pricing rule set.");
+        }
+
+        for (Map.Entry<DayClass, BigDecimal> dailyRentalCharge : pricingRuleSet.getDailyRentalCharges().entrySet()) {
+            if (dailyRentalCharge.getKey() == null || dailyRentalCharge.getValue() == null || dailyRentalCharge.getValue().signum() < 0
+                    || dailyRentalCharge.getValue().stripTrailingZeros().scale() > Money.CENTS_SCALE) {
+                throw new IllegalArgumentException("Daily rental charges must be whole cents of 0 or more when compiling a pricing rule set.");
+            }
+        }
+
+        MonthDay leapDay = MonthDay.of(Month.FEBRUARY, 29);
+
+        for (SeasonalRate seasonalRate : pricingRuleSet.getSeasonalRates()) {
+            if (seasonalRate == null || seasonalRate.getStartDay() == null || seasonalRate.getEndDay() == null
+                    || seasonalRate.getStartDay().equals(leapDay) || seasonalRate.getEndDay().equals(leapDay) || seasonalRate.getRatePercent() < 0) {
+                throw new IllegalArgumentException("Seasonal rates must have start and end days other than February 29 and a rate percent of 0 or more when compiling a pricing rule set.");
+            }
+        }
+
+        for (LocalDate date = LocalDate.of(LEAP_YEAR, 1, 1); date.getYear() == LEAP_YEAR; date = date.plusDays(1)) {
+            MonthDay day = MonthDay.from(date);
+
+            if (pricingRuleSet.getSeasonalRates().stream().filter(seasonalRate -> isInSeason(seasonalRate, day)).count() > 1) {
+                throw new IllegalArgumentException("Seasonal rates cannot overlap when compiling a pricing rule set, " + day + " is in more than one season.");
+            }
+        }
+
+        for (RentalDiscountTier rentalDiscountTier : pricingRuleSet.getRentalDiscountTiers()) {
+            if (rentalDiscountTier == null || rentalDiscountTier.getMinimumRentalDays() < 1
+                    || rentalDiscountTier.getDiscountPercent() < 0 || rentalDiscountTier.getDiscountPercent() > 100) {
+                throw new IllegalArgumentException("Rental discount tiers must have minimum rental days of 1 or more and a discount percent between 0 and 100 when compiling a pricing rule set.");
+            }
+        }
+    }
+
+    private boolean isInSeason(SeasonalRate seasonalRate, MonthDay day) {
+        if (seasonalRate.getEndDay().isBefore(seasonalRate.getStartDay())) {
+            return !day.isBefore(seasonalRate.getStartDay()) || !day.isAfter(seasonalRate.getEndDay());
+        }
+
+        return !day.isBefore(seasonalRate.getStartDay()) && !day.isAfter(seasonalRate.getEndDay());
+    }
+}
@@ -0,0 +1,239 @@
+package services;
+
+import models.QuoteCacheStatistics;
+import models.RentalPrice;
+import models.ToolTypeCharge;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the rental prices of the most recently used quotes, so that popular quotes (e.g. weekend ladder rentals or
+ * 3, 5 and 7 day jackhammer rentals) are answered without counting charge days or calculating amounts again.
+ * <p>
+ * A quote is keyed by the charge mask and daily rental charge of the tool type charge, the checkout date, the number
+ * of rental days and the discount percent, and caches the charge days together with every amount, so a hit replaces
+ * the charge day lookup and the decimal arithmetic of the amounts. Charge days alone are not cached, as the charge day
+ * lookup costs about as much as a lookup in the cache. The cache is split into segments by key, each a least recently
+ * used map guarded by its own lock, so threads only contend when they look up quotes in the same segment. Cached
+ * quotes are ignored once a holiday is registered with the holiday calendar.
+ * <p>
+ * Pass an instance to {@link ToolCheckoutService} to switch the cache on for that service. Only whole rentals are
+ * cached, the single day lookups of {@link ToolCheckoutService#quoteCheapestCheckoutDates} and the repriced rental
+ * agreements of extended or early returned rentals never go through the cache.
+ */
+public class QuoteCache {
+
+    private static final int MAX_SEGMENT_COUNT = 16;
+
+    private final HolidayCalendar holidayCalendar;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create a cache of up to the maximum number of quotes, priced with the holidays of the holiday calendar.
+     *
+     * @param holidayCalendar - holiday calendar of the rental date service the quotes are priced with
+     * @param maximumSize     - maximum number of quotes to cache
+     */
+    public QuoteCache(HolidayCalendar holidayCalendar, int maximumSize) {
+        if (holidayCalendar == null || maximumSize < 1) {
+            throw new IllegalArgumentException("Holiday calendar cannot be null and maximum size must be 1 or greater when creating a quote cache.");
+        }
+
+        this.holidayCalendar = holidayCalendar;
+
+        // The segments share the maximum size, so the cache never holds more than the maximum number of quotes
+        int segmentCount = Integer.highestOneBit(Math.min(MAX_SEGMENT_COUNT, maximumSize));
+        this.segments = new Segment[segmentCount];
+
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+        }
+    }
+
+    public HolidayCalendar getHolidayCalendar() {
+        return holidayCalendar;
+    }
+
+    /**
+     * Get the rental price of a quote, if the same quote was priced recently with the current holidays.
+     *
+     * @param toolTypeCharge  - tool type charge the quote is priced with
+     * @param checkoutDate    - date the tool is checked out
+     * @param rentalDays      - number of days for which the customer wants to rent the tool
+     * @param discountPercent - discount percent
+     * @return - cached rental price, or null if the quote is not cached
+     */
+    public RentalPrice get(ToolTypeCharge toolTypeCharge, LocalDate checkoutDate, int rentalDays, int discountPercent) {
+        QuoteKey quoteKey = new QuoteKey(toolTypeCharge, checkoutDate, rentalDays, discountPercent);
+        CachedQuote cachedQuote = getSegment(quoteKey).get(quoteKey);
+
+        if (cachedQuote != null && cachedQuote.calendarVersion == holidayCalendar.getVersion()) {
+            hits.increment();
+            return cachedQuote.rentalPrice;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Cache the rental price of a quote, evicting the least recently used quote of its segment when it is full.
+     *
+     * @param toolTypeCharge  - tool type charge the quote was priced with
+     * @param checkoutDate    - date the tool is checked out
+     * @param rentalDays      - number of days for which the customer wants to rent the tool
+     * @param rentalPrice     - rental price of the quote, with the discount percent of the quote
+     * @param calendarVersion - version of the holiday calendar when the quote was priced
+     */
+    public void put(ToolTypeCharge toolTypeCharge, LocalDate checkoutDate, int rentalDays, RentalPrice rentalPrice, int calendarVersion) {
+        if (rentalPrice == null) {
+            throw new IllegalArgumentException("Rental price cannot be null when caching a quote.");
+        }
+
+        QuoteKey quoteKey = new QuoteKey(toolTypeCharge, checkoutDate, rentalDays, rentalPrice.getDiscountPercent());
+        getSegment(quoteKey).put(quoteKey, new CachedQuote(calendarVersion, rentalPrice));
+    }
+
+    /**
+     * Get the hit, miss and eviction counts of the cache and the number of quotes it holds.
+     *
+     * @return - cache statistics
+     */
+    public QuoteCacheStatistics getStatistics() {
+        long size = 0;
+
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return new QuoteCacheStatistics(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    /**
+     * Remove every cached quote. The statistics are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Private helper method to spread the bits of a key, so neighbouring checkout dates land in different segments.
+     *
+     * @param quoteKey - key of the quote
+     * @return - segment holding the key
+     */
+    private Segment getSegment(QuoteKey quoteKey) {
+        long hash = quoteKey.hashCode() * 0x9E3779B97F4A7C15L;
+        return segments[(int) (hash >>> 32) & (segments.length - 1)];
+    }
+
+    /**
+     * Everything the rental price of a quote depends on, other than the holidays.
+     */
+    private static final class QuoteKey {
+
+        private final int chargeMask;
+        private final BigDecimal dailyRentalCharge;
+        private final long checkoutEpochDay;
+        private final int rentalDays;
+        private final int discountPercent;
+
+        private QuoteKey(ToolTypeCharge toolTypeCharge, LocalDate checkoutDate, int rentalDays, int discountPercent) {
+            if (toolTypeCharge == null || toolTypeCharge.getDailyRentalCharge() == null || checkoutDate == null) {
+                throw new IllegalArgumentException("Tool type charge, its daily rental charge and checkout date cannot be null when looking up a quote.");
+            }
+
+            this.chargeMask = ChargeDayIndex.getChargeMask(toolTypeCharge);
+            this.dailyRentalCharge = toolTypeCharge.getDailyRentalCharge();
+            this.checkoutEpochDay = checkoutDate.toEpochDay();
+            this.rentalDays = rentalDays;
+            this.discountPercent = discountPercent;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof QuoteKey)) {
+                return false;
+            }
+
+            QuoteKey quoteKey = (QuoteKey) other;
+
+            return chargeMask == quoteKey.chargeMask
+                    && checkoutEpochDay == quoteKey.checkoutEpochDay
+                    && rentalDays == quoteKey.rentalDays
+                    && discountPercent == quoteKey.discountPercent
+                    && dailyRentalCharge.equals(quoteKey.dailyRentalCharge);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Long.hashCode(checkoutEpochDay);
+            hash = 31 * hash + rentalDays;
+            hash = 31 * hash + discountPercent;
+            hash = 31 * hash + chargeMask;
+            return 31 * hash + dailyRentalCharge.hashCode();
+        }
+    }
+
+    /**
+     * Rental price of a quote and the holiday calendar version it was priced with.
+     */
+    private static final class CachedQuote {
+
+        private final int calendarVersion;
+        private final RentalPrice rentalPrice;
+
+        private CachedQuote(int calendarVersion, RentalPrice rentalPrice) {
+            this.calendarVersion = calendarVersion;
+            this.rentalPrice = rentalPrice;
+        }
+    }
+
+    /**
+     * Least recently used map of part of the cached quotes.
+     */
+    private final class Segment {
+
+        private final Map<QuoteKey, CachedQuote> cachedQuotes;
+
+        private Segment(int maximumSize) {
+            this.cachedQuotes = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<QuoteKey, CachedQuote> eldest) {
+                    if (size() > maximumSize) {
+                        evictions.increment();
+                        return true;
+                    }
+
+                    return false;
+                }
+            };
+        }
+
+        private synchronized CachedQuote get(QuoteKey quoteKey) {
+            return cachedQuotes.get(quoteKey);
+        }
+
+        private synchronized void put(QuoteKey quoteKey, CachedQuote cachedQuote) {
+            cachedQuotes.put(quoteKey, cachedQuote);
+        }
+
+        private synchronized int size() {
+            return cachedQuotes.size();
+        }
+
+        private synchronized void clear() {
+            cachedQuotes.clear();
+        }
+    }
+}
@@ -5,9 +5,21 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+/**
+ * Calculates the charges of a rental. Amounts with a scale of 0 - 2 (whole cents or coarser) are calculated with
+ * long arithmetic on their unscaled values, which gives the same value and scale as the BigDecimal calculation
+ * without its intermediate objects. Anything else, or a calculation that would overflow a long, is calculated with
+ * BigDecimal.
+ */
 @NoArgsConstructor
 public class RentalAmountService {
 
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    private static final int MAX_FAST_SCALE = 2;
+    private static final int MAX_FAST_PRECISION = 18;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100};
+
     /**
      * Calculate the pre-discount charge for the tool rental based on the number of chargeable days and daily rental charge.
      *
@@ -16,7 +28,20 @@ public class RentalAmountService {
      * @return - pre-discount charge, calculated from the number of chargeable days multiplied by the daily rental charge.
      */
     public BigDecimal calculatePreDiscountCharge(Integer numberOfChargeableDays, BigDecimal dailyRentalCharge) {
-        return dailyRentalCharge.multiply(new BigDecimal(numberOfChargeableDays));
+        if (numberOfChargeableDays == null || dailyRentalCharge == null) {
+            throw new IllegalArgumentException("Number of chargeable days or daily rental charge cannot be null when calculating the pre-discount charge.");
+        }
+
+        if (isFastAmount(dailyRentalCharge)) {
+            try {
+                long preDiscountCharge = Math.multiplyExact(getUnscaledValue(dailyRentalCharge), (long) numberOfChargeableDays);
+                return BigDecimal.valueOf(preDiscountCharge, dailyRentalCharge.scale());
+            } catch (ArithmeticException e) {
+                // Overflows a long, fall back to BigDecimal
+            }
+        }
+
+        return dailyRentalCharge.multiply(BigDecimal.valueOf(numberOfChargeableDays));
     }
 
 
@@ -34,8 +59,17 @@ public class RentalAmountService {
             throw new IllegalArgumentException("Discount percent or pre-discount charge cannot be null when calculating the discount amount.");
         }
 
+        if (isFastAmount(preDiscountCharge)) {
+            try {
+                long preDiscountChargeCents = Math.multiplyExact(getUnscaledValue(preDiscountCharge), POWERS_OF_TEN[MAX_FAST_SCALE - preDiscountCharge.scale()]);
+                return BigDecimal.valueOf(calculateDiscountAmountCents(discountPercent, preDiscountChargeCents), MAX_FAST_SCALE);
+            } catch (ArithmeticException e) {
+                // Overflows a long, fall back to BigDecimal
+            }
+        }
+
         // Calculate the discount amount by taking the pre-discount charge, minus the discount percent
-        return preDiscountCharge.multiply(new BigDecimal(discountPercent)).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+        return preDiscountCharge.multiply(BigDecimal.valueOf(discountPercent)).divide(ONE_HUNDRED, 2, RoundingMode.HALF_UP);
     }
 
     /**
@@ -50,6 +84,88 @@ public class RentalAmountService {
             throw new IllegalArgumentException("Pre-discount charge or discount amount cannot be null when calculating the final charge.");
         }
 
+        if (isFastAmount(preDiscountCharge) && isFastAmount(discountAmount)) {
+            int scale = Math.max(preDiscountCharge.scale(), discountAmount.scale());
+
+            try {
+                long finalCharge = Math.subtractExact(
+                        Math.multiplyExact(getUnscaledValue(preDiscountCharge), POWERS_OF_TEN[scale - preDiscountCharge.scale()]),
+                        Math.multiplyExact(getUnscaledValue(discountAmount), POWERS_OF_TEN[scale - discountAmount.scale()]));
+                return BigDecimal.valueOf(finalCharge, scale);
+            } catch (ArithmeticException e) {
+                // Overflows a long, fall back to BigDecimal
+            }
+        }
+
         return preDiscountCharge.subtract(discountAmount);
     }
+
+    /**
+     * Calculate the pre-discount charge in cents.
+     *
+     * @param numberOfChargeableDays - number of chargeable days for the tool rental
+     * @param dailyRentalChargeCents - daily rental charge in cents
+     * @return - pre-discount charge in cents
+     * @throws ArithmeticException if the charge overflows a long
+     */
+    public long calculatePreDiscountChargeCents(int numberOfChargeableDays, long dailyRentalChargeCents) {
+        return Math.multiplyExact(dailyRentalChargeCents, (long) numberOfChargeableDays);
+    }
+
+    /**
+     * Calculate the discount amount in cents, rounded half-up to whole cents.
+     *
+     * @param discountPercent        - discount percent
+     * @param preDiscountChargeCents - pre-discount charge in cents
+     * @return - discount amount in cents
+     * @throws ArithmeticException if the discount overflows a long
+     */
+    public long calculateDiscountAmountCents(int discountPercent, long preDiscountChargeCents) {
+        long discountHundredthsOfCents = Math.multiplyExact(preDiscountChargeCents, (long) discountPercent);
+
+        long discountCents = discountHundredthsOfCents / 100;
+        long remainder = Math.abs(discountHundredthsOfCents % 100);
+
+        // Half-up rounds a remainder of half a cent or more away from zero
+        if (remainder >= 50) {
+            discountCents += Long.signum(discountHundredthsOfCents);
+        }
+
+        return discountCents;
+    }
+
+    /**
+     * Calculate the final charge in cents.
+     *
+     * @param preDiscountChargeCents - pre-discount charge in cents
+     * @param discountAmountCents    - discount amount in cents
+     * @return - final charge in cents
+     * @throws ArithmeticException if the charge overflows a long
+     */
+    public long calculateFinalChargeCents(long preDiscountChargeCents, long discountAmountCents) {
+        return Math.subtractExact(preDiscountChargeCents, discountAmountCents);
+    }
+
+    /**
+     * Private helper method to determine if an amount can be calculated with long arithmetic.
+     *
+     * @param amount - amount to check
+     * @return - true if the amount has a scale of 0 - 2 and its unscaled value fits in a long
+     */
+    private boolean isFastAmount(BigDecimal amount) {
+        return amount.scale() >= 0 && amount.scale() <= MAX_FAST_SCALE && amount.precision() <= MAX_FAST_PRECISION;
+    }
+
+    /**
+     * Private helper method to get the unscaled value of an amount that passed {@link #isFastAmount(BigDecimal)}. The
+     * unscaled value is read as is rather than by moving the decimal point, so the scale of the amount is kept. Reading
+     * it still creates a BigInteger for most amounts.
+     *
+     * @param amount - amount with a scale of 0 - 2 and at most 18 digits
+     * @return - unscaled value of the amount
+     * @throws ArithmeticException if the unscaled value does not fit in a long
+     */
+    private long getUnscaledValue(BigDecimal amount) {
+        return amount.unscaledValue().longValueExact();
+    }
 }
@@ -1,181 +1,146 @@
 package services;
 
-import lombok.NoArgsConstructor;
 import models.ToolTypeCharge;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.Month;
-import java.util.ArrayList;
-import java.util.List;
 
-@NoArgsConstructor
 public class RentalDateService {
 
+    private final HolidayCalendar holidayCalendar;
+    private final ChargeDayIndex chargeDayIndex;
+
     /**
-     * Determine the number of charge days, based on the tool type charge, checkout date and number of rental days.
-     *
-     * @param toolTypeCharge - rental agreement for the specific tool type
-     * @param checkoutDate   - date the tool is checked out
-     * @param rentalDays     - number of days for which the customer wants to rent the tool. (e.g. 4 days)
-     * @return - number of days to charge for the tool rental
+     * Create a rental date service that observes the default holidays and answers charge day queries from the shared
+     * default calendar index.
      */
-    public Integer determineNumberOfChargeDays(ToolTypeCharge toolTypeCharge, LocalDate checkoutDate, Integer rentalDays) {
-
-        if (toolTypeCharge == null || checkoutDate == null || rentalDays == null) {
-            throw new IllegalArgumentException("Tool type charge, checkout date and rental days cannot be null when determining number of charge days.");
-        }
-
-        List<LocalDate> rentalDates = generateRentalDates(checkoutDate, rentalDays);
-
-        return rentalDates
-                .stream()
-                // If it's a chargeable day, then we should add 1, otherwise add 0 (not a chargeable day)
-                .mapToInt(rentalDate -> isChargeableDay(toolTypeCharge, rentalDate) ? 1 : 0)
-                .sum();
+    public RentalDateService() {
+        this(ChargeDayIndex.getDefaultIndex());
     }
 
     /**
-     * Private helper method to generate a list of rental dates based on the checkout date
-     * and the number of rentals days.
+     * Create a rental date service that answers charge day queries from the provided calendar index. Rentals
+     * outside the span of the index are calculated with calendar arithmetic.
      *
-     * @param checkoutDate - date the tool is checked out
-     * @param rentalDays   - number of days for which the customer wants to rent the tool. (e.g. 4 days)
-     * @return - list of dates generated from the checkout date and rental days
+     * @param chargeDayIndex - calendar index to use, null to always use calendar arithmetic with the default holidays
      */
-    private List<LocalDate> generateRentalDates(LocalDate checkoutDate, Integer rentalDays) {
-        List<LocalDate> rentalDates = new ArrayList<>();
-
-        if (checkoutDate == null
-                || rentalDays == null) {
-            throw new IllegalArgumentException("Checkout date or rental days cannot be null when generating the list of rental dates");
-        }
-
-        for (int i = 1; i <= rentalDays; i++) {
-            rentalDates.add(checkoutDate.plusDays(i));
-        }
-
-        return rentalDates;
+    public RentalDateService(ChargeDayIndex chargeDayIndex) {
+        this(chargeDayIndex == null ? HolidayCalendar.getDefaultCalendar() : chargeDayIndex.getHolidayCalendar(), chargeDayIndex);
     }
 
     /**
-     * Calculate the daily charge based on the tool type charge and what the date of rental is.
+     * Create a rental date service that observes the holidays of the provided holiday calendar.
      *
-     * @param toolTypeCharge - rental agreement for the specific tool type
-     * @param dateOfRental   - date of the rental
-     * @return - returns true if it's a chargeable day, otherwise false.
+     * @param holidayCalendar - holiday calendar to use
+     * @param chargeDayIndex  - calendar index built from the same holiday calendar, null to always use calendar arithmetic
      */
-    private boolean isChargeableDay(ToolTypeCharge toolTypeCharge, LocalDate dateOfRental) {
-
-        if (toolTypeCharge == null || dateOfRental == null) {
-            throw new IllegalArgumentException("Tool type charge or date of rental cannot be null when determining if date of rental is a chargeable day.");
-        }
-
-        if (isObservedAsHoliday(dateOfRental)) {
-            return toolTypeCharge.getHolidayCharge();
+    public RentalDateService(HolidayCalendar holidayCalendar, ChargeDayIndex chargeDayIndex) {
+        if (holidayCalendar == null) {
+            throw new IllegalArgumentException("Holiday calendar cannot be null when creating a rental date service.");
         }
 
-        if (isWeekend(dateOfRental)) {
-            return toolTypeCharge.getWeekendCharge();
+        if (chargeDayIndex != null && chargeDayIndex.getHolidayCalendar() != holidayCalendar) {
+            throw new IllegalArgumentException("Charge day index must be built from the same holiday calendar as the rental date service.");
         }
 
-        if (isWeekday(dateOfRental)) {
-            return toolTypeCharge.getWeekdayCharge();
-        }
+        this.holidayCalendar = holidayCalendar;
+        this.chargeDayIndex = chargeDayIndex;
+    }
 
-        return Boolean.FALSE;
+    public HolidayCalendar getHolidayCalendar() {
+        return holidayCalendar;
     }
 
     /**
-     * Private helper method to determine if the date of rental is a weekday or not.
+     * Determine the number of charge days, based on the tool type charge, checkout date and number of rental days.
+     * <p>
+     * The rental days are the days after the checkout date, up to and including the due date. Rather than visiting
+     * each rental day, the charge days are read from the calendar index, or when the rental falls outside the index,
+     * the number of weekdays, weekend days and observed holidays in that range are counted with calendar arithmetic.
+     * Either way the cost does not grow with the number of rental days.
      *
-     * @param dateOfRental - date of tool rental
-     * @return - true if the date of rental is a weekday, false otherwise
+     * @param toolTypeCharge - rental agreement for the specific tool type
+     * @param checkoutDate   - date the tool is checked out
+     * @param rentalDays     - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @return - number of days to charge for the tool rental
      */
-    private boolean isWeekday(LocalDate dateOfRental) {
-        if (dateOfRental == null) {
-            throw new IllegalArgumentException("Date of rental cannot be null when determining if date is a weekday.");
+    public Integer determineNumberOfChargeDays(ToolTypeCharge toolTypeCharge, LocalDate checkoutDate, Integer rentalDays) {
+
+        if (toolTypeCharge == null || checkoutDate == null || rentalDays == null) {
+            throw new IllegalArgumentException("Tool type charge, checkout date and rental days cannot be null when determining number of charge days.");
         }
 
-        return !isWeekend(dateOfRental);
+        return countChargeDays(ChargeDayIndex.getChargeMask(toolTypeCharge), checkoutDate, rentalDays);
     }
 
     /**
-     * Private helper method to determine if the date of rental is a weekend day or not.
+     * Count the charge days of the classes of day in a charge mask, the same as
+     * {@link #determineNumberOfChargeDays(ToolTypeCharge, LocalDate, Integer)} does for the classes of day a tool type
+     * charge charges for.
      *
-     * @param dateOfRental - date of tool rental
-     * @return - true if the date of rental is a weekend day, false otherwise.
+     * @param chargeMask   - combination of {@link ChargeDayIndex#WEEKDAY_CHARGE}, {@link ChargeDayIndex#WEEKEND_CHARGE}
+     *                     and {@link ChargeDayIndex#HOLIDAY_CHARGE}
+     * @param checkoutDate - date the tool is checked out
+     * @param rentalDays   - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @return - number of days to charge for the tool rental
      */
-    private boolean isWeekend(LocalDate dateOfRental) {
+    public int countChargeDays(int chargeMask, LocalDate checkoutDate, int rentalDays) {
 
-        if (dateOfRental == null) {
-            throw new IllegalArgumentException("Date of rental cannot be null when determining if date is a weekend day.");
+        if (checkoutDate == null) {
+            throw new IllegalArgumentException("Checkout date cannot be null when counting charge days.");
         }
 
-        return dateOfRental.getDayOfWeek() == DayOfWeek.SATURDAY
-                || dateOfRental.getDayOfWeek() == DayOfWeek.SUNDAY;
-    }
-
-    /**
-     * Private helper method to determine if the date of rental is observed as a holiday or not.
-     *
-     * @param dateOfRental - date of rental
-     * @return - true if date of rental is an observable holiday, false otherwise.
-     */
-    private boolean isObservedAsHoliday(LocalDate dateOfRental) {
-        if (dateOfRental == null) {
-            throw new IllegalArgumentException("Date of rental cannot be null when determining if date is a holiday.");
+        if (rentalDays < 1) {
+            return 0;
         }
 
-        return isMemorialDay(dateOfRental) || isObservedAsIndependenceDay(dateOfRental);
-    }
+        LocalDate firstRentalDate = checkoutDate.plusDays(1);
+        LocalDate lastRentalDate = checkoutDate.plusDays(rentalDays);
 
-    /**
-     * If the 4th of July falls on the weekend, the holiday rental day will be observed on the closest weekday.
-     * Friday if 4th of July falls on Saturday
-     * Monday if 4th of July falls on Sunday
-     *
-     * @param dateOfRental - date of rental
-     * @return - true if the date should be observed as independence day, false otherwise
-     */
-    private boolean isObservedAsIndependenceDay(LocalDate dateOfRental) {
-        if (dateOfRental == null) {
-            throw new IllegalArgumentException("Date of rental cannot be null when determining if date is in observation of Independence Day.");
-        }
+        long firstEpochDay = firstRentalDate.toEpochDay();
+        long lastEpochDay = lastRentalDate.toEpochDay();
 
-        // If month isn't July then we don't need to perform any additional logic to
-        // determine if the date of rental is observed as Independence Day
-        if (dateOfRental.getMonth() != Month.JULY) {
-            return false;
+        if (chargeDayIndex != null && chargeDayIndex.covers(firstEpochDay, lastEpochDay)) {
+            return chargeDayIndex.countChargeDays(chargeMask, firstEpochDay, lastEpochDay);
         }
 
-        LocalDate fourthOfJuly = LocalDate.of(dateOfRental.getYear(), Month.JULY, 4);
+        long weekendDays = countWeekendDaysBefore(lastEpochDay + 1) - countWeekendDaysBefore(firstEpochDay);
+        long weekdays = rentalDays - weekendDays;
 
-        if (fourthOfJuly.getDayOfWeek() == DayOfWeek.SATURDAY) {
-            return dateOfRental.equals(fourthOfJuly.minusDays(1));
+        // A holiday is charged as a holiday, so it is moved out of the weekday or weekend count it falls on
+        long holidays = holidayCalendar.countHolidays(firstRentalDate, lastRentalDate);
+        long weekendHolidays = holidayCalendar.countWeekendHolidays(firstRentalDate, lastRentalDate);
+
+        long chargeDays = 0;
+
+        if ((chargeMask & ChargeDayIndex.WEEKDAY_CHARGE) != 0) {
+            chargeDays += weekdays - (holidays - weekendHolidays);
+        }
+
+        if ((chargeMask & ChargeDayIndex.WEEKEND_CHARGE) != 0) {
+            chargeDays += weekendDays - weekendHolidays;
         }
 
-        if (fourthOfJuly.getDayOfWeek() == DayOfWeek.SUNDAY) {
-            return dateOfRental.equals(fourthOfJuly.plusDays(1));
+        if ((chargeMask & ChargeDayIndex.HOLIDAY_CHARGE) != 0) {
+            chargeDays += holidays;
         }
 
-        return dateOfRental.equals(fourthOfJuly);
+        return Math.toIntExact(chargeDays);
     }
 
     /**
-     * Private helper method to determine if the date of rental is Memorial Day or not.
-     * Memorial Day is defined as the first Monday in September.
+     * Private helper method to count the weekend days from an arbitrary Monday up to, but not including, the epoch day.
+     * Only the difference between two results is meaningful.
      *
-     * @param dateOfRental - date of rental
-     * @return - true if the date of rental is Memorial Day, false otherwise.
+     * @param epochDay - epoch day to count weekend days before
+     * @return - relative number of Saturdays and Sundays before the epoch day
      */
-    private boolean isMemorialDay(LocalDate dateOfRental) {
-        if (dateOfRental == null) {
-            throw new IllegalArgumentException("Date of rental cannot be null when determining if date is Memorial Day.");
-        }
-
-        return dateOfRental.getMonth() == Month.SEPTEMBER
-                && dateOfRental.getDayOfWeek() == DayOfWeek.MONDAY
-                && dateOfRental.getDayOfMonth() <= 7;
+    private long countWeekendDaysBefore(long epochDay) {
+        // 1970-01-01 is a Thursday, shifting by 3 days makes a remainder of 0 line up with Monday
+        long daysSinceMonday = epochDay + 3;
+        long fullWeeks = Math.floorDiv(daysSinceMonday, 7);
+        long remainingDays = Math.floorMod(daysSinceMonday, 7);
+
+        // Remainder of 6 includes Saturday, a remainder of 5 or less only includes weekdays
+        return fullWeeks * 2 + Math.max(0, remainingDays - 5);
     }
 }
@@ -0,0 +1,308 @@
+package services;
+
+import models.CheckoutRequest;
+import models.CheckoutResult;
+import models.constants.CheckoutErrorCode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks out tools for many stores, each with its own tool catalog, tool type charges and stock, partitioned into
+ * shards by store ID.
+ * <p>
+ * Stores are assigned to shards with a {@link ConsistentHashRing}, and each shard holds only the checkout services of
+ * its own stores and runs their checkouts on its own executor, so stores on different shards never share a map or a
+ * thread. The shards are in-process partitions, but a request only needs the store ID to be routed, so a shard could
+ * as well live in another process.
+ * <p>
+ * The ring and the stores of each shard are an immutable snapshot that is swapped in whole when a store is registered
+ * or a shard is added, so routing a request never locks. Adding a shard only moves the stores the ring assigns to it.
+ * <p>
+ * Every store records into the same {@link CheckoutMetrics}, so a store costs its catalogs rather than a set of latency
+ * histograms. Each shard queues at most its queue capacity of checkouts, and a checkout routed to a shard whose
+ * queue is full fails straight away with a {@link RejectedExecutionException}, so a slow shard cannot queue without
+ * limit.
+ */
+public class ShardedToolCheckoutService implements AutoCloseable {
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final RentalAmountService rentalAmountService;
+    private final RentalDateService rentalDateService;
+    private final CheckoutMetrics checkoutMetrics;
+    private final int threadsPerShard;
+    private final int queueCapacity;
+
+    private volatile Partitions partitions;
+
+    /**
+     * Create a sharded tool checkout service with no stores.
+     *
+     * @param shards              - number of shards
+     * @param threadsPerShard     - threads of the executor of each shard
+     * @param rentalAmountService - rental amount service shared by every store
+     * @param rentalDateService   - rental date service shared by every store
+     */
+    public ShardedToolCheckoutService(int shards, int threadsPerShard, RentalAmountService rentalAmountService, RentalDateService rentalDateService) {
+        this(shards, threadsPerShard, DEFAULT_QUEUE_CAPACITY, rentalAmountService, rentalDateService, new CheckoutMetrics());
+    }
+
+    /**
+     * Create a sharded tool checkout service with no stores.
+     *
+     * @param shards              - number of shards
+     * @param threadsPerShard     - threads of the executor of each shard
+     * @param queueCapacity       - number of checkouts each shard queues before rejecting checkouts
+     * @param rentalAmountService - rental amount service shared by every store
+     * @param rentalDateService   - rental date service shared by every store
+     * @param checkoutMetrics     - checkout metrics shared by every store
+     */
+    public ShardedToolCheckoutService(int shards, int threadsPerShard, int queueCapacity, RentalAmountService rentalAmountService,
+                                      RentalDateService rentalDateService, CheckoutMetrics checkoutMetrics) {
+        if (shards < 1 || threadsPerShard < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Shards, threads per shard and queue capacity must be 1 or greater when creating a sharded tool checkout service.");
+        }
+
+        if (rentalAmountService == null || rentalDateService == null || checkoutMetrics == null) {
+            throw new IllegalArgumentException("Rental amount service, rental date service and checkout metrics cannot be null when creating a sharded tool checkout service.");
+        }
+
+        this.rentalAmountService = rentalAmountService;
+        this.rentalDateService = rentalDateService;
+        this.checkoutMetrics = checkoutMetrics;
+        this.threadsPerShard = threadsPerShard;
+        this.queueCapacity = queueCapacity;
+
+        List<Shard> initialShards = new ArrayList<>();
+
+        for (int shard = 0; shard < shards; shard++) {
+            initialShards.add(new Shard(createShardExecutor(shard), Map.of()));
+        }
+
+        this.partitions = new Partitions(new ConsistentHashRing(shards, VIRTUAL_NODES), initialShards);
+    }
+
+    /**
+     * Register a store, or replace the catalogs of a store that is already registered.
+     *
+     * @param storeId               - ID of the store
+     * @param toolService           - tool catalog and stock of the store
+     * @param toolTypeChargeService - tool type charges of the store
+     */
+    public synchronized void registerStore(String storeId, ToolService toolService, ToolTypeChargeService toolTypeChargeService) {
+        if (storeId == null || toolService == null || toolTypeChargeService == null) {
+            throw new IllegalArgumentException("Store ID, tool service and tool type charge service cannot be null when registering a store.");
+        }
+
+        ToolCheckoutService toolCheckoutService = new ToolCheckoutService(toolService, toolTypeChargeService, rentalAmountService, rentalDateService, checkoutMetrics);
+
+        Partitions currentPartitions = partitions;
+        int shardIndex = currentPartitions.ring.getShard(storeId);
+        Shard shard = currentPartitions.shards.get(shardIndex);
+
+        Map<String, ToolCheckoutService> stores = new HashMap<>(shard.stores);
+        stores.put(storeId, toolCheckoutService);
+
+        List<Shard> shards = new ArrayList<>(currentPartitions.shards);
+        shards.set(shardIndex, new Shard(shard.executor, stores));
+
+        partitions = new Partitions(currentPartitions.ring, shards);
+    }
+
+    /**
+     * Add a shard, moving the stores the consistent hash ring now assigns to it. Checkouts already routed to the
+     * previous shard of a moved store finish there, against the same catalogs and stock.
+     *
+     * @return - index of the new shard
+     */
+    public synchronized int addShard() {
+        Partitions currentPartitions = partitions;
+        ConsistentHashRing ring = currentPartitions.ring.withAddedShard();
+
+        List<Map<String, ToolCheckoutService>> storesByShard = new ArrayList<>();
+
+        for (int shard = 0; shard < ring.getShards(); shard++) {
+            storesByShard.add(new HashMap<>());
+        }
+
+        for (Shard shard : currentPartitions.shards) {
+            shard.stores.forEach((storeId, toolCheckoutService) -> storesByShard.get(ring.getShard(storeId)).put(storeId, toolCheckoutService));
+        }
+
+        List<Shard> shards = new ArrayList<>();
+
+        for (int shard = 0; shard < ring.getShards(); shard++) {
+            ExecutorService executor = shard < currentPartitions.shards.size() ? currentPartitions.shards.get(shard).executor : createShardExecutor(shard);
+            shards.add(new Shard(executor, storesByShard.get(shard)));
+        }
+
+        partitions = new Partitions(ring, shards);
+
+        return ring.getShards() - 1;
+    }
+
+    public CheckoutMetrics getCheckoutMetrics() {
+        return checkoutMetrics;
+    }
+
+    public int getShards() {
+        return partitions.shards.size();
+    }
+
+    /**
+     * Get the shard a store is assigned to, whether or not the store is registered.
+     *
+     * @param storeId - ID of the store
+     * @return - index of the shard of the store
+     */
+    public int getShard(String storeId) {
+        return partitions.ring.getShard(storeId);
+    }
+
+    /**
+     * Get the checkout service of a store, e.g. to return a tool to the store.
+     *
+     * @param storeId - ID of the store
+     * @return - an optional that contains the tool checkout service of the store if the store is registered
+     */
+    public Optional<ToolCheckoutService> getToolCheckoutService(String storeId) {
+        if (storeId == null) {
+            throw new IllegalArgumentException("Store ID cannot be null when retrieving the tool checkout service of a store.");
+        }
+
+        Partitions currentPartitions = partitions;
+
+        return Optional.ofNullable(currentPartitions.shards.get(currentPartitions.ring.getShard(storeId)).stores.get(storeId));
+    }
+
+    /**
+     * Check out a tool from a store on the executor of the shard of the store, the same as
+     * {@link ToolCheckoutService#tryCheckout(String, Integer, Integer, LocalDate)}. A store that is not registered
+     * fails with {@link CheckoutErrorCode#STORE_NOT_FOUND}.
+     *
+     * @param storeId         - ID of the store to check out from
+     * @param toolCode        - code of the tool to checkout
+     * @param rentalDays      - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @param discountPercent - discount percent, must be between 0 and 100
+     * @param checkoutDate    - date the tool is checked out
+     * @return - a future of the checkout result, completed exceptionally with a {@link RejectedExecutionException} if
+     * the queue of the shard is full
+     */
+    public CompletableFuture<CheckoutResult> tryCheckout(String storeId, String toolCode, Integer rentalDays, Integer discountPercent,
+                                                         LocalDate checkoutDate) {
+        return routeCheckout(storeId, toolCode, rentalDays, discountPercent, checkoutDate, true);
+    }
+
+    /**
+     * Quote a tool of a store on the executor of the shard of the store, the same as
+     * {@link ToolCheckoutService#tryQuote(String, Integer, Integer, LocalDate)}. A store that is not registered fails
+     * with {@link CheckoutErrorCode#STORE_NOT_FOUND}.
+     *
+     * @param storeId         - ID of the store to quote from
+     * @param toolCode        - code of the tool to quote
+     * @param rentalDays      - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @param discountPercent - discount percent, must be between 0 and 100
+     * @param checkoutDate    - date the tool would be checked out
+     * @return - a future of the checkout result, completed exceptionally with a {@link RejectedExecutionException} if
+     * the queue of the shard is full
+     */
+    public CompletableFuture<CheckoutResult> tryQuote(String storeId, String toolCode, Integer rentalDays, Integer discountPercent,
+                                                      LocalDate checkoutDate) {
+        return routeCheckout(storeId, toolCode, rentalDays, discountPercent, checkoutDate, false);
+    }
+
+    /**
+     * Stop the executors of the shards. Checkouts already routed to a shard still finish.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : partitions.shards) {
+            shard.executor.shutdown();
+        }
+    }
+
+    /**
+     * Private helper method to route a checkout or quote to the shard of its store.
+     */
+    private CompletableFuture<CheckoutResult> routeCheckout(String storeId, String toolCode, Integer rentalDays, Integer discountPercent,
+                                                           LocalDate checkoutDate, boolean checkout) {
+        if (storeId == null) {
+            throw new IllegalArgumentException("Store ID cannot be null when checking out a tool from a store.");
+        }
+
+        Partitions currentPartitions = partitions;
+        Shard shard = currentPartitions.shards.get(currentPartitions.ring.getShard(storeId));
+        ToolCheckoutService toolCheckoutService = shard.stores.get(storeId);
+
+        if (toolCheckoutService == null) {
+            CheckoutRequest checkoutRequest = new CheckoutRequest(toolCode, rentalDays, discountPercent, checkoutDate);
+            return CompletableFuture.completedFuture(new CheckoutResult(checkoutRequest, null, null, List.of(CheckoutErrorCode.STORE_NOT_FOUND)));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> checkout
+                    ? toolCheckoutService.tryCheckout(toolCode, rentalDays, discountPercent, checkoutDate)
+                    : toolCheckoutService.tryQuote(toolCode, rentalDays, discountPercent, checkoutDate), shard.executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Shard of store " + storeId + " is busy, at most " + queueCapacity + " checkouts can be queued per shard."));
+        }
+    }
+
+    /**
+     * Private helper method to create the executor of a shard, with a bounded queue that rejects checkouts once full.
+     *
+     * @param shard - index of the shard
+     * @return - executor of the shard
+     */
+    private ExecutorService createShardExecutor(int shard) {
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return new ThreadPoolExecutor(threadsPerShard, threadsPerShard, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "catalog-shard-" + shard + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Executor and checkout services of the stores of a shard.
+     */
+    private static final class Shard {
+
+        private final ExecutorService executor;
+        private final Map<String, ToolCheckoutService> stores;
+
+        private Shard(ExecutorService executor, Map<String, ToolCheckoutService> stores) {
+            this.executor = executor;
+            this.stores = Map.copyOf(stores);
+        }
+    }
+
+    /**
+     * Ring and shards, swapped in together so a request is always routed to a shard that holds its store.
+     */
+    private static final class Partitions {
+
+        private final ConsistentHashRing ring;
+        private final List<Shard> shards;
+
+        private Partitions(ConsistentHashRing ring, List<Shard> shards) {
+            this.ring = ring;
+            this.shards = List.copyOf(shards);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package services;
+
+import models.ToolRentalAgreement;
+import models.constants.ToolType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Indexes the reservations of each tool by date, to answer which tools are free over a date range.
+ * <p>
+ * A reservation holds a tool from its checkout date up to, but not including, its due date, the same as a rental
+ * agreement, so a tool returned on its due date can be rented out again that day. A tool can hold many
+ * reservations, as long as no two of them overlap. The reservations of each tool are a tree of non-overlapping
+ * epoch-day intervals keyed by their start, so reserving, releasing and checking a tool are each a logarithmic lookup,
+ * and tools never contend with each other.
+ */
+public class ToolAvailabilityIndex {
+
+    private final ToolService toolService;
+
+    private final ConcurrentMap<String, ToolReservations> toolReservationsMap = new ConcurrentHashMap<>();
+
+    public ToolAvailabilityIndex(ToolService toolService) {
+        if (toolService == null) {
+            throw new IllegalArgumentException("Tool service cannot be null when creating a tool availability index.");
+        }
+
+        this.toolService = toolService;
+    }
+
+    /**
+     * Reserve a tool over a date range, if it is free.
+     *
+     * @param toolCode - code of the tool
+     * @param from     - first date of the reservation
+     * @param to       - date the tool is returned, after the first date
+     * @return - true if the tool was reserved, false if it is already reserved on a date of the range
+     */
+    public boolean reserve(String toolCode, LocalDate from, LocalDate to) {
+        validateToolCode(toolCode);
+        validateRange(from, to);
+
+        return toolReservationsMap
+                .computeIfAbsent(toolCode, code -> new ToolReservations())
+                .reserve(toEpochDay(from), toEpochDay(to));
+    }
+
+    /**
+     * Reserve the tool of a rental agreement from its checkout date to its due date, if it is free.
+     *
+     * @param toolRentalAgreement - rental agreement
+     * @return - true if the tool was reserved, false if it is already reserved on a date of the rental
+     */
+    public boolean reserve(ToolRentalAgreement toolRentalAgreement) {
+        if (toolRentalAgreement == null) {
+            throw new IllegalArgumentException("Tool rental agreement cannot be null when reserving a tool.");
+        }
+
+        return reserve(toolRentalAgreement.getToolCode(), toolRentalAgreement.getCheckoutDate(), toolRentalAgreement.getDueDate());
+    }
+
+    /**
+     * Release the reservation of a tool that starts on a date.
+     *
+     * @param toolCode - code of the tool
+     * @param from     - first date of the reservation
+     * @return - true if a reservation was released, false if the tool has no reservation starting on the date
+     */
+    public boolean release(String toolCode, LocalDate from) {
+        if (toolCode == null || from == null) {
+            throw new IllegalArgumentException("Tool code and from date cannot be null when releasing a reservation.");
+        }
+
+        ToolReservations toolReservations = toolReservationsMap.get(toolCode);
+
+        return toolReservations != null && toolReservations.release(toEpochDay(from));
+    }
+
+    /**
+     * Determine if a tool is free over a date range.
+     *
+     * @param toolCode - code of the tool
+     * @param from     - first date of the range
+     * @param to       - date the tool would be returned, after the first date
+     * @return - true if the tool has no reservation on any date of the range
+     */
+    public boolean isAvailable(String toolCode, LocalDate from, LocalDate to) {
+        validateToolCode(toolCode);
+        validateRange(from, to);
+
+        return isAvailable(toolCode, toEpochDay(from), toEpochDay(to));
+    }
+
+    /**
+     * Get the codes of the tools of a type that are free over a date range. The tools are checked in parallel.
+     *
+     * @param toolType - type of tool
+     * @param from     - first date of the range
+     * @param to       - date the tools would be returned, after the first date
+     * @return - codes of the free tools, in the order the tool catalog walks its tools, which is no particular order
+     */
+    public List<String> getAvailableToolCodes(ToolType toolType, LocalDate from, LocalDate to) {
+        if (toolType == null) {
+            throw new IllegalArgumentException("Tool type cannot be null when finding available tools.");
+        }
+
+        validateRange(from, to);
+
+        int fromEpochDay = toEpochDay(from);
+        int toEpochDay = toEpochDay(to);
+        List<String> toolCodes = new ArrayList<>();
+
+        toolService.getToolCatalog().forEach(tool -> {
+            if (tool.getToolType() == toolType) {
+                toolCodes.add(tool.getToolCode());
+            }
+        });
+
+        return toolCodes
+                .parallelStream()
+                .filter(toolCode -> isAvailable(toolCode, fromEpochDay, toEpochDay))
+                .toList();
+    }
+
+    private boolean isAvailable(String toolCode, int fromEpochDay, int toEpochDay) {
+        ToolReservations toolReservations = toolReservationsMap.get(toolCode);
+
+        return toolReservations == null || toolReservations.isAvailable(fromEpochDay, toEpochDay);
+    }
+
+    private void validateToolCode(String toolCode) {
+        if (toolCode == null || toolService.getTool(toolCode).isEmpty()) {
+            throw new IllegalArgumentException("Tool code must be a valid tool code when reserving or checking a tool.");
+        }
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Date range must have a from date before its to date when reserving or checking a tool.");
+        }
+    }
+
+    private int toEpochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    /**
+     * Non-overlapping reservations of a tool, as end epoch days keyed by start epoch days.
+     */
+    private static final class ToolReservations {
+
+        private final TreeMap<Integer, Integer> reservations = new TreeMap<>();
+
+        private synchronized boolean reserve(int fromEpochDay, int toEpochDay) {
+            if (!isAvailable(fromEpochDay, toEpochDay)) {
+                return false;
+            }
+
+            reservations.put(fromEpochDay, toEpochDay);
+            return true;
+        }
+
+        private synchronized boolean release(int fromEpochDay) {
+            return reservations.remove(fromEpochDay) != null;
+        }
+
+        /**
+         * The reservations never overlap, so only the last reservation starting before the end of the range can
+         * reach into it.
+         */
+        private synchronized boolean isAvailable(int fromEpochDay, int toEpochDay) {
+            Map.Entry<Integer, Integer> reservation = reservations.lowerEntry(toEpochDay);
+
+            return reservation == null || reservation.getValue() <= fromEpochDay;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package services;
+
+import models.Tool;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Immutable catalog of tools, stored compactly enough to hold millions of tool codes.
+ * <p>
+ * Tool codes of up to 12 uppercase letters and digits (e.g. CHNS) are packed into a long as base 37 digits, and each
+ * tool is stored as its packed tool code followed by the ordinals of its tool type and brand, in a 10 byte slot of an
+ * open addressing table. The table is a single {@link ByteBuffer}, on or off the heap, so the catalog costs 13 - 27
+ * bytes per tool rather than a map entry, a string and a tool object. Tool codes that cannot be packed are kept in an
+ * ordinary map.
+ */
+public class ToolCatalog {
+
+    private static final int SLOT_SIZE = 10;
+    private static final int TOOL_TYPE_OFFSET = 8;
+    private static final int BRAND_OFFSET = 9;
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    private static final int RADIX = 37;
+    private static final int MAX_PACKED_LENGTH = 12;
+
+    // Empty slots have a packed tool code of 0, which no tool code packs to
+    private static final long EMPTY_KEY = 0;
+    private static final byte NULL_ORDINAL = -1;
+
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final ToolBrand[] TOOL_BRANDS = ToolBrand.values();
+
+    private final ByteBuffer table;
+    private final int mask;
+    private final int size;
+    private final Map<String, Tool> unpackedTools = new HashMap<>();
+
+    /**
+     * Create a tool catalog on the heap.
+     *
+     * @param tools - tools of the catalog, a later tool replaces an earlier tool with the same tool code
+     */
+    public ToolCatalog(Collection<Tool> tools) {
+        this(tools, false);
+    }
+
+    /**
+     * Create a tool catalog.
+     *
+     * @param tools   - tools of the catalog, a later tool replaces an earlier tool with the same tool code
+     * @param offHeap - true to store the table in a direct buffer outside the heap
+     */
+    public ToolCatalog(Collection<Tool> tools, boolean offHeap) {
+        if (tools == null || tools.stream().anyMatch(tool -> tool == null || tool.getToolCode() == null)) {
+            throw new IllegalArgumentException("Tools and their tool codes cannot be null when creating a tool catalog.");
+        }
+
+        int capacity = getCapacity(tools.size());
+
+        this.table = offHeap ? ByteBuffer.allocateDirect(capacity * SLOT_SIZE) : ByteBuffer.allocate(capacity * SLOT_SIZE);
+        this.mask = capacity - 1;
+
+        int packedTools = 0;
+
+        for (Tool tool : tools) {
+            long key = packToolCode(tool.getToolCode());
+
+            if (key == EMPTY_KEY) {
+                unpackedTools.put(tool.getToolCode(), tool);
+                continue;
+            }
+
+            int slot = findSlot(key);
+
+            if (table.getLong(slot * SLOT_SIZE) == EMPTY_KEY) {
+                packedTools++;
+            }
+
+            table.putLong(slot * SLOT_SIZE, key);
+            table.put(slot * SLOT_SIZE + TOOL_TYPE_OFFSET, tool.getToolType() == null ? NULL_ORDINAL : (byte) tool.getToolType().ordinal());
+            table.put(slot * SLOT_SIZE + BRAND_OFFSET, tool.getBrand() == null ? NULL_ORDINAL : (byte) tool.getBrand().ordinal());
+        }
+
+        this.size = packedTools + unpackedTools.size();
+    }
+
+    /**
+     * Create a tool catalog over a table written by another tool catalog, e.g. mapped from a snapshot file. The table
+     * is used as is, without copying it.
+     *
+     * @param table         - table of a tool catalog, as returned by {@link #getTable()}
+     * @param size          - number of tools of the catalog
+     * @param unpackedTools - tools whose tool codes cannot be packed
+     */
+    ToolCatalog(ByteBuffer table, int size, Collection<Tool> unpackedTools) {
+        int capacity = table.capacity() / SLOT_SIZE;
+
+        if (capacity * SLOT_SIZE != table.capacity() || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Table must have a power of two number of slots when creating a tool catalog.");
+        }
+
+        // The table may have been written by a build with other tool types or brands
+        for (int slot = 0; slot < capacity; slot++) {
+            if (table.getLong(slot * SLOT_SIZE) != EMPTY_KEY
+                    && (!isValidOrdinal(table.get(slot * SLOT_SIZE + TOOL_TYPE_OFFSET), TOOL_TYPES.length)
+                    || !isValidOrdinal(table.get(slot * SLOT_SIZE + BRAND_OFFSET), TOOL_BRANDS.length))) {
+                throw new IllegalArgumentException("Table must only hold tool type and brand ordinals of this build when creating a tool catalog.");
+            }
+        }
+
+        this.table = table;
+        this.mask = capacity - 1;
+        this.size = size;
+
+        unpackedTools.forEach(tool -> this.unpackedTools.put(tool.getToolCode(), tool));
+    }
+
+    /**
+     * Get an optional that contains a tool if it exists for the provided tool code.
+     *
+     * @param toolCode - code of the tool
+     * @return - an optional that contains a tool if found for the provided tool code
+     */
+    public Optional<Tool> getTool(String toolCode) {
+        if (toolCode == null) {
+            return Optional.empty();
+        }
+
+        long key = packToolCode(toolCode);
+
+        if (key == EMPTY_KEY) {
+            return Optional.ofNullable(unpackedTools.get(toolCode));
+        }
+
+        int slot = findSlot(key);
+
+        if (table.getLong(slot * SLOT_SIZE) == EMPTY_KEY) {
+            return Optional.empty();
+        }
+
+        return Optional.of(getTool(toolCode, slot));
+    }
+
+    /**
+     * Pass every tool of the catalog to the action, in no particular order.
+     *
+     * @param action - action to perform on each tool
+     */
+    public void forEach(Consumer<Tool> action) {
+        for (int slot = 0; slot <= mask; slot++) {
+            long key = table.getLong(slot * SLOT_SIZE);
+
+            if (key != EMPTY_KEY) {
+                action.accept(getTool(unpackToolCode(key), slot));
+            }
+        }
+
+        unpackedTools.values().forEach(action);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get a read only view of the table of packed tools.
+     *
+     * @return - table, from index 0 to its capacity
+     */
+    ByteBuffer getTable() {
+        return table.asReadOnlyBuffer().clear();
+    }
+
+    Collection<Tool> getUnpackedTools() {
+        return unpackedTools.values();
+    }
+
+    /**
+     * Pack a tool code of up to 12 uppercase letters and digits into a long.
+     * <p>
+     * ex. CHNS to 163,448
+     *
+     * @param toolCode - code of the tool
+     * @return - packed tool code, 0 if the tool code cannot be packed
+     */
+    static long packToolCode(String toolCode) {
+        int length = toolCode.length();
+
+        if (length == 0 || length > MAX_PACKED_LENGTH) {
+            return EMPTY_KEY;
+        }
+
+        long key = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = toolCode.charAt(i);
+            int digit;
+
+            if (c >= 'A' && c <= 'Z') {
+                digit = c - 'A' + 1;
+            } else if (c >= '0' && c <= '9') {
+                digit = c - '0' + 27;
+            } else {
+                return EMPTY_KEY;
+            }
+
+            key = key * RADIX + digit;
+        }
+
+        return key;
+    }
+
+    /**
+     * Unpack a tool code packed by {@link #packToolCode(String)}.
+     *
+     * @param key - packed tool code
+     * @return - code of the tool
+     */
+    static String unpackToolCode(long key) {
+        char[] toolCode = new char[MAX_PACKED_LENGTH];
+        int start = MAX_PACKED_LENGTH;
+
+        for (long remaining = key; remaining != 0; remaining /= RADIX) {
+            int digit = (int) (remaining % RADIX);
+            toolCode[--start] = digit <= 26 ? (char) ('A' + digit - 1) : (char) ('0' + digit - 27);
+        }
+
+        return new String(toolCode, start, MAX_PACKED_LENGTH - start);
+    }
+
+    /**
+     * Private helper method to find the slot holding a packed tool code, or the empty slot it would be stored in.
+     *
+     * @param key - packed tool code
+     * @return - index of the slot
+     */
+    private int findSlot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while (true) {
+            long slotKey = table.getLong(slot * SLOT_SIZE);
+
+            if (slotKey == key || slotKey == EMPTY_KEY) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Private helper method to create the tool stored in a slot.
+     *
+     * @param toolCode - code of the tool
+     * @param slot     - index of the slot
+     * @return - tool stored in the slot
+     */
+    private Tool getTool(String toolCode, int slot) {
+        byte toolType = table.get(slot * SLOT_SIZE + TOOL_TYPE_OFFSET);
+        byte brand = table.get(slot * SLOT_SIZE + BRAND_OFFSET);
+
+        return new Tool(toolCode, toolType == NULL_ORDINAL ? null : TOOL_TYPES[toolType], brand == NULL_ORDINAL ? null : TOOL_BRANDS[brand]);
+    }
+
+    /**
+     * Private helper method to size the table so it is at most three quarters full.
+     *
+     * @param numberOfTools - number of tools to store
+     * @return - number of slots, a power of two
+     */
+    private static int getCapacity(int numberOfTools) {
+        long minimumCapacity = Math.max(2, (long) numberOfTools * 4 / 3 + 1);
+
+        if (minimumCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Tool catalog cannot hold more than " + MAX_CAPACITY * 3 / 4 + " tools.");
+        }
+
+        return Integer.highestOneBit((int) minimumCapacity - 1) << 1;
+    }
+
+    /**
+     * Private helper method to check an ordinal stored in the table.
+     *
+     * @param ordinal        - ordinal of a tool type or brand, or the null ordinal
+     * @param numberOfValues - number of values of the enum
+     * @return - true if the ordinal is the null ordinal or an ordinal of the enum
+     */
+    private static boolean isValidOrdinal(byte ordinal, int numberOfValues) {
+        return ordinal == NULL_ORDINAL || (ordinal >= 0 && ordinal < numberOfValues);
+    }
+}
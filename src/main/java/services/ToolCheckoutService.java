@@ -1,14 +1,31 @@
 package services;
 
 import exceptions.NotFoundException;
+import exceptions.OutOfStockException;
 import exceptions.SystemErrorException;
+import models.CheckoutRequest;
+import models.CheckoutResult;
+import models.RentalPrice;
 import models.Tool;
 import models.ToolRentalAgreement;
 import models.ToolTypeCharge;
+import models.constants.CheckoutErrorCode;
+import models.constants.CheckoutStage;
+import models.constants.ToolType;
 import org.apache.commons.lang3.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class ToolCheckoutService {
 
@@ -16,16 +33,80 @@ public class ToolCheckoutService {
     private final ToolTypeChargeService toolTypeChargeService;
     private final RentalAmountService rentalAmountService;
     private final RentalDateService rentalDateService;
+    private final CheckoutMetrics checkoutMetrics;
+    private final QuoteCache quoteCache;
+    private final ToolTypePricingService toolTypePricingService;
 
     public ToolCheckoutService(ToolService toolService, ToolTypeChargeService toolTypeChargeService, RentalAmountService rentalAmountService, RentalDateService rentalDateService) {
+        this(toolService, toolTypeChargeService, rentalAmountService, rentalDateService, new CheckoutMetrics());
+    }
+
+    public ToolCheckoutService(ToolService toolService, ToolTypeChargeService toolTypeChargeService, RentalAmountService rentalAmountService,
+                               RentalDateService rentalDateService, CheckoutMetrics checkoutMetrics) {
+        this(toolService, toolTypeChargeService, rentalAmountService, rentalDateService, checkoutMetrics, null);
+    }
+
+    /**
+     * Create a tool checkout service that answers repeated quotes from a quote cache.
+     *
+     * @param toolService           - tool service to look up tools with
+     * @param toolTypeChargeService - tool type charge service to look up tool type charges with
+     * @param rentalAmountService   - rental amount service to calculate the amounts with
+     * @param rentalDateService     - rental date service to count the charge days with
+     * @param checkoutMetrics       - checkout metrics to record every checkout in
+     * @param quoteCache            - quote cache using the holiday calendar of the rental date service, null to price every quote
+     */
+    public ToolCheckoutService(ToolService toolService, ToolTypeChargeService toolTypeChargeService, RentalAmountService rentalAmountService,
+                               RentalDateService rentalDateService, CheckoutMetrics checkoutMetrics, QuoteCache quoteCache) {
+        this(toolService, toolTypeChargeService, rentalAmountService, rentalDateService, checkoutMetrics, quoteCache, null);
+    }
+
+    /**
+     * Create a tool checkout service that prices the tool types with a pricing rule set attached through their compiled
+     * rules, and the other tool types with their tool type charge. Every tool type still needs a tool type charge, for
+     * the daily rental charge shown on its rental agreements.
+     *
+     * @param toolService            - tool service to look up tools with
+     * @param toolTypeChargeService  - tool type charge service to look up tool type charges with
+     * @param rentalAmountService    - rental amount service to calculate the amounts with
+     * @param rentalDateService      - rental date service to count the charge days with
+     * @param checkoutMetrics        - checkout metrics to record every checkout in
+     * @param quoteCache             - quote cache using the holiday calendar of the rental date service, null to price every quote
+     * @param toolTypePricingService - tool type pricing service holding the attached rule sets, null to price every tool
+     *                               type with its tool type charge
+     */
+    public ToolCheckoutService(ToolService toolService, ToolTypeChargeService toolTypeChargeService, RentalAmountService rentalAmountService,
+                               RentalDateService rentalDateService, CheckoutMetrics checkoutMetrics, QuoteCache quoteCache,
+                               ToolTypePricingService toolTypePricingService) {
+        if (checkoutMetrics == null) {
+            throw new IllegalArgumentException("Checkout metrics cannot be null when creating the tool checkout service.");
+        }
+
+        if (quoteCache != null && quoteCache.getHolidayCalendar() != rentalDateService.getHolidayCalendar()) {
+            throw new IllegalArgumentException("Quote cache must use the same holiday calendar as the rental date service.");
+        }
+
         this.toolService = toolService;
         this.toolTypeChargeService = toolTypeChargeService;
         this.rentalAmountService = rentalAmountService;
         this.rentalDateService = rentalDateService;
+        this.checkoutMetrics = checkoutMetrics;
+        this.quoteCache = quoteCache;
+        this.toolTypePricingService = toolTypePricingService;
     }
 
     /**
-     * Checking out a tool creates a new rental agreement based on the passed in parameters.
+     * Get the metrics recorded for every checkout of this service.
+     *
+     * @return - checkout metrics
+     */
+    public CheckoutMetrics getCheckoutMetrics() {
+        return checkoutMetrics;
+    }
+
+    /**
+     * Checking out a tool creates a new rental agreement based on the passed in parameters, and reserves a unit of
+     * the tool when its stock is tracked.
      *
      * @param toolCode        - code of the tool to checkout
      * @param rentalDays      - number of days for which the customer wants to rent the tool. (e.g. 4 days)
@@ -36,36 +117,862 @@ public class ToolCheckoutService {
     public ToolRentalAgreement checkoutTool(String toolCode, Integer rentalDays,
                                             Integer discountPercent, LocalDate checkoutDate) {
 
+        long startNanos = readClock();
+
+        try {
+            validate(toolCode, rentalDays, discountPercent, checkoutDate);
+            long stageStartNanos = checkoutMetrics.recordStage(CheckoutStage.VALIDATION, startNanos);
+
+            Tool toolToRent = getTool(toolCode);
+            stageStartNanos = checkoutMetrics.recordStage(CheckoutStage.TOOL_LOOKUP, stageStartNanos);
+
+            ToolTypeCharge toolTypeCharge = getToolTypeCharge(toolToRent.getToolType());
+            stageStartNanos = checkoutMetrics.recordStage(CheckoutStage.CHARGE_LOOKUP, stageStartNanos);
+
+            ToolRentalAgreement toolRentalAgreement = createToolRentalAgreement(toolToRent, toolTypeCharge, rentalDays, discountPercent, checkoutDate,
+                    true, stageStartNanos);
+            stageStartNanos = readClock();
+
+            reserveTool(toolToRent.getToolCode());
+            checkoutMetrics.recordStage(CheckoutStage.RESERVATION, stageStartNanos);
+            checkoutMetrics.recordCompletedCheckout(toolToRent.getToolType(), startNanos);
+
+            return toolRentalAgreement;
+        } catch (RuntimeException e) {
+            checkoutMetrics.recordFailedCheckout();
+            throw e;
+        }
+    }
+
+    /**
+     * Checking out a tool asynchronously creates the same rental agreement as
+     * {@link #checkoutTool(String, Integer, Integer, LocalDate)}. The tool and tool type charge are looked up with
+     * the async lookups of their services, so a slow backing store never blocks the calling thread, and the rental
+     * agreement is created on the executor.
+     *
+     * @param toolCode        - code of the tool to checkout
+     * @param rentalDays      - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @param discountPercent - discount percent, must be between 0 and 100
+     * @param checkoutDate    - date the tool is checked out
+     * @param executor        - executor to create the rental agreement on
+     * @return - future of the tool rental agreement, completed exceptionally with the exception
+     * {@link #checkoutTool(String, Integer, Integer, LocalDate)} would have thrown if the checkout fails
+     */
+    public CompletableFuture<ToolRentalAgreement> checkoutToolAsync(String toolCode, Integer rentalDays, Integer discountPercent,
+                                                                    LocalDate checkoutDate, Executor executor) {
+
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null when checking out a tool asynchronously.");
+        }
+
+        long startNanos = readClock();
+
+        try {
+            validate(toolCode, rentalDays, discountPercent, checkoutDate);
+        } catch (RuntimeException e) {
+            checkoutMetrics.recordFailedCheckout();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long validatedNanos = checkoutMetrics.recordStage(CheckoutStage.VALIDATION, startNanos);
+
+        return toolService.getToolAsync(toolCode)
+                .thenCompose(tool -> {
+                    Tool toolToRent = tool.orElseThrow(() -> new NotFoundException(CheckoutErrorCode.TOOL_NOT_FOUND.getMessage()));
+                    long toolFoundNanos = checkoutMetrics.recordStage(CheckoutStage.TOOL_LOOKUP, validatedNanos);
+
+                    return toolTypeChargeService.getToolTypeChargeAsync(toolToRent.getToolType())
+                            .thenApply(toolTypeCharge -> {
+                                checkoutMetrics.recordStage(CheckoutStage.CHARGE_LOOKUP, toolFoundNanos);
+
+                                return new ResolvedTool(toolToRent, toolTypeCharge.orElseThrow(() -> createToolTypeChargeNotFoundException(toolToRent.getToolType())), null);
+                            });
+                })
+                .thenApplyAsync(resolvedTool -> {
+                    ToolRentalAgreement toolRentalAgreement = createToolRentalAgreement(resolvedTool.tool, resolvedTool.toolTypeCharge,
+                            rentalDays, discountPercent, checkoutDate, true, readClock());
+                    long stageStartNanos = readClock();
+
+                    reserveTool(resolvedTool.tool.getToolCode());
+                    checkoutMetrics.recordStage(CheckoutStage.RESERVATION, stageStartNanos);
+                    checkoutMetrics.recordCompletedCheckout(resolvedTool.tool.getToolType(), startNanos);
+
+                    return toolRentalAgreement;
+                }, executor)
+                .whenComplete((toolRentalAgreement, e) -> {
+                    if (e != null) {
+                        checkoutMetrics.recordFailedCheckout();
+                    }
+                });
+    }
+
+    /**
+     * Quoting a tool creates the rental agreement that checking out the tool would create, without reserving a unit
+     * of the tool or counting as a checkout.
+     *
+     * @param toolCode        - code of the tool to quote
+     * @param rentalDays      - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @param discountPercent - discount percent, must be between 0 and 100
+     * @param checkoutDate    - date the tool would be checked out
+     * @return - tool rental agreement created based on the input parameters
+     */
+    public ToolRentalAgreement quoteTool(String toolCode, Integer rentalDays,
+                                         Integer discountPercent, LocalDate checkoutDate) {
+
         validate(toolCode, rentalDays, discountPercent, checkoutDate);
 
-        Tool toolToRent = toolService.getTool(toolCode)
-                .orElseThrow(() -> new NotFoundException("Tool code entered must be a valid tool code, could not find matching tool."));
+        Tool toolToRent = getTool(toolCode);
+        ToolTypeCharge toolTypeCharge = getToolTypeCharge(toolToRent.getToolType());
+
+        return createToolRentalAgreement(toolToRent, toolTypeCharge, rentalDays, discountPercent, checkoutDate, false, 0L);
+    }
+
+    /**
+     * Trying to check out a tool creates the same rental agreement as
+     * {@link #checkoutTool(String, Integer, Integer, LocalDate)}, but reports a failed checkout in its result rather
+     * than by throwing. Every invalid parameter is reported at once, and the failures are error codes rather than
+     * exceptions, so rejecting a checkout costs no more than accepting one.
+     *
+     * @param toolCode        - code of the tool to checkout
+     * @param rentalDays      - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @param discountPercent - discount percent, must be between 0 and 100
+     * @param checkoutDate    - date the tool is checked out
+     * @return - checkout result holding either the tool rental agreement or the error codes of the failed checkout
+     */
+    public CheckoutResult tryCheckout(String toolCode, Integer rentalDays, Integer discountPercent, LocalDate checkoutDate) {
+        return tryCreateToolRentalAgreement(toolCode, rentalDays, discountPercent, checkoutDate, true);
+    }
+
+    /**
+     * Trying to quote a tool creates the same rental agreement as
+     * {@link #quoteTool(String, Integer, Integer, LocalDate)}, but reports a failed quote in its result rather than by
+     * throwing, the same as {@link #tryCheckout(String, Integer, Integer, LocalDate)}.
+     *
+     * @param toolCode        - code of the tool to quote
+     * @param rentalDays      - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @param discountPercent - discount percent, must be between 0 and 100
+     * @param checkoutDate    - date the tool would be checked out
+     * @return - checkout result holding either the tool rental agreement or the error codes of the failed quote
+     */
+    public CheckoutResult tryQuote(String toolCode, Integer rentalDays, Integer discountPercent, LocalDate checkoutDate) {
+        return tryCreateToolRentalAgreement(toolCode, rentalDays, discountPercent, checkoutDate, false);
+    }
+
+    /**
+     * Quoting the cheapest checkout dates creates the rental agreement of every checkout date within a window that
+     * has the lowest final charge, without reserving a unit of the tool or counting as a checkout.
+     * <p>
+     * The charge days of the first checkout date are counted once. Each later checkout date slides the rental days
+     * forward by one day, dropping its first rental day and adding the day after its last, so each extra checkout date
+     * costs two single day lookups however long the rental is. Only the rental agreements of the cheapest checkout
+     * dates so far are kept, so a long window costs time but no memory beyond its result. A tool type with a pricing
+     * rule set attached is priced in full for each checkout date with its rule set instead.
+     *
+     * @param toolCode             - code of the tool to quote
+     * @param rentalDays           - number of days for which the customer wants to rent the tool. (e.g. 4 days)
+     * @param discountPercent      - discount percent, must be between 0 and 100
+     * @param earliestCheckoutDate - earliest date the tool could be checked out
+     * @param latestCheckoutDate   - latest date the tool could be checked out, on or after the earliest date
+     * @return - tool rental agreements of the cheapest checkout dates, in date order
+     */
+    public List<ToolRentalAgreement> quoteCheapestCheckoutDates(String toolCode, Integer rentalDays, Integer discountPercent,
+                                                                LocalDate earliestCheckoutDate, LocalDate latestCheckoutDate) {
+
+        validate(toolCode, rentalDays, discountPercent, earliestCheckoutDate);
+
+        if (latestCheckoutDate == null || latestCheckoutDate.isBefore(earliestCheckoutDate)) {
+            throw new IllegalArgumentException("Latest checkout date must be on or after the earliest checkout date when quoting the cheapest checkout dates.");
+        }
+
+        validateRentalPeriod(rentalDays, latestCheckoutDate);
+
+        Tool toolToRent = getTool(toolCode);
+        ToolTypeCharge toolTypeCharge = getToolTypeCharge(toolToRent.getToolType());
+
+        // Final charges are compared rather than charge days, as rounding the discount can make them tie
+        Map<Integer, BigDecimal> finalCharges = new HashMap<>();
+        BigDecimal cheapestFinalCharge = null;
+        List<ToolRentalAgreement> toolRentalAgreements = new ArrayList<>();
+
+        CompiledPricingRules pricingRules = getPricingRules(toolToRent.getToolType());
+        int chargeDays = pricingRules == null ? rentalDateService.determineNumberOfChargeDays(toolTypeCharge, earliestCheckoutDate, rentalDays) : 0;
+
+        for (LocalDate checkoutDate = earliestCheckoutDate; !checkoutDate.isAfter(latestCheckoutDate); checkoutDate = checkoutDate.plusDays(1)) {
+            RentalPrice rentalPrice = null;
+            BigDecimal finalCharge;
+
+            if (pricingRules != null) {
+                // Seasonal rates price each day differently, so each checkout date of a rule set is priced in full
+                rentalPrice = pricingRules.price(checkoutDate, rentalDays, discountPercent);
+                finalCharge = rentalPrice.getFinalCharge();
+            } else {
+                if (checkoutDate.isAfter(earliestCheckoutDate)) {
+                    // The checkout date was the first rental day of the previous checkout date, and a new last rental day is added
+                    chargeDays = chargeDays
+                            - countChargeDay(toolTypeCharge, checkoutDate)
+                            + countChargeDay(toolTypeCharge, checkoutDate.plusDays(rentalDays));
+                }
+
+                finalCharge = finalCharges.computeIfAbsent(chargeDays,
+                        days -> calculateFinalCharge(days, toolTypeCharge.getDailyRentalCharge(), discountPercent));
+            }
+
+            int comparison = cheapestFinalCharge == null ? -1 : finalCharge.compareTo(cheapestFinalCharge);
+
+            if (comparison < 0) {
+                cheapestFinalCharge = finalCharge;
+                toolRentalAgreements.clear();
+            }
+
+            if (comparison <= 0) {
+                if (rentalPrice == null) {
+                    rentalPrice = calculateRentalPrice(chargeDays, toolTypeCharge.getDailyRentalCharge(), discountPercent);
+                }
+
+                toolRentalAgreements.add(buildToolRentalAgreement(toolToRent, toolTypeCharge.getDailyRentalCharge(), rentalDays, checkoutDate,
+                        rentalPrice, false, 0L));
+            }
+        }
+
+        return toolRentalAgreements;
+    }
+
+    /**
+     * Returning a tool checks the tool back in, releasing the unit reserved when it was checked out so the tool can be
+     * checked out again. Nothing is released when the stock of the tool is not tracked.
+     *
+     * @param toolRentalAgreement - rental agreement of the tool being returned, created by checking out the tool
+     * @throws IllegalStateException if no unit of the tool is reserved
+     */
+    public void returnTool(ToolRentalAgreement toolRentalAgreement) {
+        if (toolRentalAgreement == null || StringUtils.isBlank(toolRentalAgreement.getToolCode())) {
+            throw new IllegalArgumentException("Tool rental agreement and its tool code cannot be null when returning a tool.");
+        }
+
+        toolService.release(toolRentalAgreement.getToolCode());
+    }
+
+    /**
+     * Extending a rental creates the rental agreement for the same checkout with more rental days. Only the charge
+     * days of the added days are counted, so extending a long rental costs the same as extending a short one, and the
+     * result is the same as checking out the tool for the combined number of days at the daily rental charge of the
+     * original agreement.
+     * <p>
+     * A rental agreement records its daily rental charge but not which days were charged, so the added days are
+     * counted with the weekday, weekend and holiday charges of the current tool type charge, while the price stays the
+     * daily rental charge the customer agreed to. A tool type charge whose charge days changed since checkout changes
+     * the charge days of the added days only. A tool type with a pricing rule set attached is priced again in full for
+     * the combined number of days with its rule set, which can reach a longer rental discount tier.
+     *
+     * @param toolRentalAgreement - rental agreement to extend
+     * @param extraDays           - number of rental days to add, must be 1 or greater
+     * @return - tool rental agreement for the extended rental
+     */
+    public ToolRentalAgreement extendRental(ToolRentalAgreement toolRentalAgreement, int extraDays) {
+        validateRentalAgreement(toolRentalAgreement);
+
+        if (extraDays < 1) {
+            throw new IllegalArgumentException("Extra days must be 1 or greater when extending a rental.");
+        }
+
+        int rentalDays = Math.addExact(toolRentalAgreement.getRentalDays(), extraDays);
+        CompiledPricingRules pricingRules = getPricingRules(toolRentalAgreement.getToolType());
+
+        if (pricingRules != null) {
+            return repriceToolRentalAgreement(toolRentalAgreement, rentalDays, pricingRules);
+        }
+
+        int addedChargeDays = rentalDateService.determineNumberOfChargeDays(getToolTypeCharge(toolRentalAgreement.getToolType()),
+                toolRentalAgreement.getDueDate(), extraDays);
+
+        return repriceToolRentalAgreement(toolRentalAgreement, rentalDays, toolRentalAgreement.getChargeDays() + addedChargeDays);
+    }
+
+    /**
+     * Returning a tool early creates the rental agreement for the same checkout ending on the return date, and
+     * releases the unit reserved when the tool was checked out, the same as {@link #returnTool(ToolRentalAgreement)}.
+     * Only the charge days of the removed days are counted, and the result is the same as checking out the tool until
+     * the return date at the daily rental charge of the original agreement. The removed days are counted with the
+     * current tool type charge, and a tool type with a pricing rule set is priced again in full, the same as
+     * {@link #extendRental(ToolRentalAgreement, int)}.
+     *
+     * @param toolRentalAgreement - rental agreement of the tool being returned
+     * @param returnDate          - date the tool is returned, after the checkout date and before the due date
+     * @return - tool rental agreement ending on the return date
+     * @throws IllegalStateException if no unit of the tool is reserved
+     */
+    public ToolRentalAgreement returnToolEarly(ToolRentalAgreement toolRentalAgreement, LocalDate returnDate) {
+        validateRentalAgreement(toolRentalAgreement);
+
+        if (returnDate == null || !returnDate.isAfter(toolRentalAgreement.getCheckoutDate()) || !returnDate.isBefore(toolRentalAgreement.getDueDate())) {
+            throw new IllegalArgumentException("Return date must be after the checkout date and before the due date when returning a tool early.");
+        }
+
+        int removedDays = Math.toIntExact(toolRentalAgreement.getDueDate().toEpochDay() - returnDate.toEpochDay());
+        int rentalDays = toolRentalAgreement.getRentalDays() - removedDays;
+        CompiledPricingRules pricingRules = getPricingRules(toolRentalAgreement.getToolType());
+        ToolRentalAgreement returnedToolRentalAgreement;
+
+        if (pricingRules != null) {
+            returnedToolRentalAgreement = repriceToolRentalAgreement(toolRentalAgreement, rentalDays, pricingRules);
+        } else {
+            int removedChargeDays = rentalDateService.determineNumberOfChargeDays(getToolTypeCharge(toolRentalAgreement.getToolType()),
+                    returnDate, removedDays);
+            returnedToolRentalAgreement = repriceToolRentalAgreement(toolRentalAgreement, rentalDays, toolRentalAgreement.getChargeDays() - removedChargeDays);
+        }
+
+        toolService.release(toolRentalAgreement.getToolCode());
+
+        return returnedToolRentalAgreement;
+    }
+
+    /**
+     * Checking out a batch of tools creates a new rental agreement for each checkout request, and reserves a unit of
+     * the tool of each successful request when its stock is tracked, the same as
+     * {@link #checkoutTool(String, Integer, Integer, LocalDate)}. Tool and tool type charge lookups are only performed
+     * once per tool code and tool type, and the rental agreements are created in parallel. A batch that only prices
+     * its requests should use {@link #quoteTools(Collection)}, which reserves nothing.
+     * <p>
+     * A checkout request that fails does not fail the batch, its result holds the exception that
+     * {@link #checkoutTool(String, Integer, Integer, LocalDate)} would have thrown instead.
+     *
+     * @param checkoutRequests - checkout requests to create rental agreements for
+     * @return - checkout results, in the same order as the checkout requests
+     */
+    public List<CheckoutResult> checkoutTools(Collection<CheckoutRequest> checkoutRequests) {
+
+        if (checkoutRequests == null) {
+            throw new IllegalArgumentException("Checkout requests cannot be null when checking out tools.");
+        }
+
+        return createToolRentalAgreements(checkoutRequests, true);
+    }
+
+    /**
+     * Quoting a batch of tools creates the rental agreements that {@link #checkoutTools(Collection)} would create,
+     * without reserving a unit of any tool or counting as checkouts, the same as
+     * {@link #quoteTool(String, Integer, Integer, LocalDate)}.
+     * <p>
+     * A checkout request that fails does not fail the batch, its result holds the exception that
+     * {@link #quoteTool(String, Integer, Integer, LocalDate)} would have thrown instead.
+     *
+     * @param checkoutRequests - checkout requests to quote
+     * @return - checkout results, in the same order as the checkout requests
+     */
+    public List<CheckoutResult> quoteTools(Collection<CheckoutRequest> checkoutRequests) {
+
+        if (checkoutRequests == null) {
+            throw new IllegalArgumentException("Checkout requests cannot be null when quoting tools.");
+        }
+
+        return createToolRentalAgreements(checkoutRequests, false);
+    }
+
+    /**
+     * Private helper method to create the rental agreements of a batch, looking up each tool code and tool type once.
+     *
+     * @param checkoutRequests - checkout requests to create rental agreements for
+     * @param checkout         - true to reserve a unit of each tool and count the checkouts, false to only quote them
+     * @return - checkout results, in the same order as the checkout requests
+     */
+    private List<CheckoutResult> createToolRentalAgreements(Collection<CheckoutRequest> checkoutRequests, boolean checkout) {
+        CheckoutRequest[] requests = checkoutRequests.toArray(new CheckoutRequest[0]);
+
+        Map<String, ResolvedTool> resolvedTools = resolveTools(requests, checkout);
+
+        return IntStream.range(0, requests.length)
+                .parallel()
+                .mapToObj(index -> createToolRentalAgreement(requests[index], resolvedTools, checkout))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Private helper method to check out or quote a single request of a batch, using the tools resolved for the batch.
+     *
+     * @param checkoutRequest - checkout request to create a rental agreement for
+     * @param resolvedTools   - tools and tool type charges resolved for the batch, by tool code
+     * @param checkout        - true to reserve a unit of the tool and count the checkout, false to only quote it
+     * @return - checkout result holding either the rental agreement or the reason the request failed
+     */
+    private CheckoutResult createToolRentalAgreement(CheckoutRequest checkoutRequest, Map<String, ResolvedTool> resolvedTools, boolean checkout) {
+        long startNanos = checkout ? readClock() : 0L;
+
+        try {
+            if (checkoutRequest == null) {
+                throw new IllegalArgumentException("Checkout request cannot be null when " + (checkout ? "checking out" : "quoting") + " a tool.");
+            }
+
+            validate(checkoutRequest.getToolCode(), checkoutRequest.getRentalDays(), checkoutRequest.getDiscountPercent(), checkoutRequest.getCheckoutDate());
+            long stageStartNanos = recordCheckoutStage(checkout, CheckoutStage.VALIDATION, startNanos);
+
+            ResolvedTool resolvedTool = resolvedTools.get(checkoutRequest.getToolCode());
+
+            // A lookup that failed unexpectedly is not cached, it is repeated so each request fails with its own exception
+            if (resolvedTool == null) {
+                Tool tool = getTool(checkoutRequest.getToolCode());
+                resolvedTool = new ResolvedTool(tool, getToolTypeCharge(tool.getToolType()), null);
+            }
+
+            if (resolvedTool.errorCode == CheckoutErrorCode.TOOL_NOT_FOUND) {
+                throw new NotFoundException(CheckoutErrorCode.TOOL_NOT_FOUND.getMessage());
+            }
+
+            if (resolvedTool.errorCode == CheckoutErrorCode.TOOL_TYPE_CHARGE_NOT_FOUND) {
+                throw createToolTypeChargeNotFoundException(resolvedTool.tool.getToolType());
+            }
+
+            ToolRentalAgreement toolRentalAgreement = createToolRentalAgreement(resolvedTool.tool, resolvedTool.toolTypeCharge,
+                    checkoutRequest.getRentalDays(), checkoutRequest.getDiscountPercent(), checkoutRequest.getCheckoutDate(), checkout, stageStartNanos);
+
+            if (checkout) {
+                stageStartNanos = readClock();
+
+                reserveTool(resolvedTool.tool.getToolCode());
+                checkoutMetrics.recordStage(CheckoutStage.RESERVATION, stageStartNanos);
+                checkoutMetrics.recordCompletedCheckout(resolvedTool.tool.getToolType(), startNanos);
+            }
+
+            return new CheckoutResult(checkoutRequest, toolRentalAgreement, null);
+        } catch (RuntimeException e) {
+            if (checkout) {
+                checkoutMetrics.recordFailedCheckout();
+            }
+
+            return new CheckoutResult(checkoutRequest, null, e);
+        }
+    }
+
+    /**
+     * Private helper method to look up the tool and tool type charge once for every distinct tool code in a batch. A
+     * tool or tool type charge that is not found is kept as an error code rather than an exception, so each request
+     * that fails gets its own exception. A tool code whose lookup throws is left out.
+     *
+     * @param checkoutRequests - checkout requests of the batch
+     * @param checkout         - true to record the lookups as stages of the checkouts, false for quotes
+     * @return - tools and tool type charges, or the error code of the one that could not be found, by tool code
+     */
+    private Map<String, ResolvedTool> resolveTools(CheckoutRequest[] checkoutRequests, boolean checkout) {
+        Map<String, ResolvedTool> resolvedTools = new HashMap<>();
+        Map<ToolType, Optional<ToolTypeCharge>> toolTypeCharges = new HashMap<>();
+
+        for (CheckoutRequest checkoutRequest : checkoutRequests) {
+            if (checkoutRequest == null
+                    || StringUtils.isBlank(checkoutRequest.getToolCode())
+                    || resolvedTools.containsKey(checkoutRequest.getToolCode())) {
+                continue;
+            }
 
-        ToolTypeCharge toolTypeCharge = toolTypeChargeService.getToolTypeCharge(toolToRent.getToolType())
-                .orElseThrow(() -> new SystemErrorException("Could not find tool type charge for the specific tool. A tool type charge may not have been setup for tool type: " + toolToRent.getToolType()));
+            try {
+                long startNanos = checkout ? readClock() : 0L;
+                Tool tool = toolService.getTool(checkoutRequest.getToolCode()).orElse(null);
+                recordCheckoutStage(checkout, CheckoutStage.TOOL_LOOKUP, startNanos);
 
-        LocalDate dueDate = checkoutDate.plusDays(rentalDays);
+                if (tool == null) {
+                    resolvedTools.put(checkoutRequest.getToolCode(), new ResolvedTool(null, null, CheckoutErrorCode.TOOL_NOT_FOUND));
+                    continue;
+                }
 
-        Integer numberOfChargeDays = rentalDateService.determineNumberOfChargeDays(toolTypeCharge, checkoutDate, rentalDays);
-        BigDecimal preDiscountCharge = rentalAmountService.calculatePreDiscountCharge(numberOfChargeDays, toolTypeCharge.getDailyRentalCharge());
+                ToolTypeCharge toolTypeCharge = toolTypeCharges.computeIfAbsent(tool.getToolType(), toolType -> {
+                    long chargeStartNanos = checkout ? readClock() : 0L;
+                    Optional<ToolTypeCharge> charge = toolTypeChargeService.getToolTypeCharge(toolType);
+                    recordCheckoutStage(checkout, CheckoutStage.CHARGE_LOOKUP, chargeStartNanos);
+
+                    return charge;
+                }).orElse(null);
+
+                resolvedTools.put(checkoutRequest.getToolCode(),
+                        new ResolvedTool(tool, toolTypeCharge, toolTypeCharge == null ? CheckoutErrorCode.TOOL_TYPE_CHARGE_NOT_FOUND : null));
+            } catch (RuntimeException e) {
+                // Left unresolved, so the lookup is repeated for each request of the tool code
+            }
+        }
+
+        return resolvedTools;
+    }
+
+    /**
+     * Private helper method to get the tool for a tool code.
+     *
+     * @param toolCode - code of the tool
+     * @return - tool for the tool code
+     */
+    private Tool getTool(String toolCode) {
+        return toolService.getTool(toolCode)
+                .orElseThrow(() -> new NotFoundException(CheckoutErrorCode.TOOL_NOT_FOUND.getMessage()));
+    }
+
+    /**
+     * Private helper method to get the tool type charge for a tool type.
+     *
+     * @param toolType - type of tool
+     * @return - tool type charge for the tool type
+     */
+    private ToolTypeCharge getToolTypeCharge(ToolType toolType) {
+        return toolTypeChargeService.getToolTypeCharge(toolType)
+                .orElseThrow(() -> createToolTypeChargeNotFoundException(toolType));
+    }
+
+    /**
+     * Private helper method to create the exception thrown when a tool type has no tool type charge, with the message
+     * of {@link CheckoutErrorCode#TOOL_TYPE_CHARGE_NOT_FOUND} followed by the tool type.
+     *
+     * @param toolType - type of tool
+     * @return - exception for the missing tool type charge
+     */
+    private SystemErrorException createToolTypeChargeNotFoundException(ToolType toolType) {
+        return new SystemErrorException(CheckoutErrorCode.TOOL_TYPE_CHARGE_NOT_FOUND.getMessage() + " Tool type: " + toolType);
+    }
+
+    /**
+     * Private helper method to reserve a unit of the tool being checked out.
+     *
+     * @param toolCode - code of the tool
+     */
+    private void reserveTool(String toolCode) {
+        if (!toolService.reserve(toolCode)) {
+            throw new OutOfStockException("Tool code " + toolCode + " is out of stock, every unit is already rented.");
+        }
+    }
+
+    /**
+     * Private helper method to create the rental agreement once the parameters have been validated and the tool and
+     * tool type charge have been found. A tool type with a pricing rule set attached is priced with its rule set,
+     * otherwise the rental price of the quote cache is used when it holds the same quote.
+     *
+     * @param toolToRent      - tool to rent
+     * @param toolTypeCharge  - tool type charge for the type of the tool
+     * @param rentalDays      - number of days for which the customer wants to rent the tool
+     * @param discountPercent - discount percent
+     * @param checkoutDate    - date the tool is checked out
+     * @param checkout        - true to record the stages of a checkout, false for a quote
+     * @param startNanos      - {@link System#nanoTime()} at the start of creating the rental agreement
+     * @return - tool rental agreement
+     */
+    private ToolRentalAgreement createToolRentalAgreement(Tool toolToRent, ToolTypeCharge toolTypeCharge, Integer rentalDays,
+                                                          Integer discountPercent, LocalDate checkoutDate, boolean checkout, long startNanos) {
+
+        CompiledPricingRules pricingRules = getPricingRules(toolToRent.getToolType());
+
+        if (pricingRules != null) {
+            // A rule set counts the charge days and calculates the amounts at once, so both are recorded as the charge days
+            RentalPrice rentalPrice = pricingRules.price(checkoutDate, rentalDays, discountPercent);
+            long stageStartNanos = recordCheckoutStage(checkout, CheckoutStage.CHARGE_DAYS, startNanos);
+            stageStartNanos = recordCheckoutStage(checkout, CheckoutStage.AMOUNTS, stageStartNanos);
+
+            return buildToolRentalAgreement(toolToRent, toolTypeCharge.getDailyRentalCharge(), rentalDays, checkoutDate, rentalPrice, checkout, stageStartNanos);
+        }
+
+        // The calendar version is read before pricing, so a quote priced while a holiday is registered is never current
+        int calendarVersion = quoteCache == null ? 0 : quoteCache.getHolidayCalendar().getVersion();
+        RentalPrice rentalPrice = quoteCache == null ? null : quoteCache.get(toolTypeCharge, checkoutDate, rentalDays, discountPercent);
+        long stageStartNanos;
+
+        if (rentalPrice == null) {
+            int numberOfChargeDays = rentalDateService.determineNumberOfChargeDays(toolTypeCharge, checkoutDate, rentalDays);
+            stageStartNanos = recordCheckoutStage(checkout, CheckoutStage.CHARGE_DAYS, startNanos);
+
+            rentalPrice = calculateRentalPrice(numberOfChargeDays, toolTypeCharge.getDailyRentalCharge(), discountPercent);
+
+            if (quoteCache != null) {
+                quoteCache.put(toolTypeCharge, checkoutDate, rentalDays, rentalPrice, calendarVersion);
+            }
+        } else {
+            // A cached quote answers the charge days and the amounts at once, so the lookup is recorded as the charge days
+            stageStartNanos = recordCheckoutStage(checkout, CheckoutStage.CHARGE_DAYS, startNanos);
+        }
+
+        stageStartNanos = recordCheckoutStage(checkout, CheckoutStage.AMOUNTS, stageStartNanos);
+
+        return buildToolRentalAgreement(toolToRent, toolTypeCharge.getDailyRentalCharge(), rentalDays, checkoutDate, rentalPrice, checkout, stageStartNanos);
+    }
+
+    /**
+     * Private helper method to create a rental agreement, reporting a failure as error codes in the checkout result.
+     *
+     * @param toolCode        - code of the tool to checkout
+     * @param rentalDays      - number of days for which the customer wants to rent the tool
+     * @param discountPercent - discount percent
+     * @param checkoutDate    - date the tool is checked out
+     * @param checkout        - true to reserve a unit of the tool and count the checkout, false to only quote it
+     * @return - checkout result
+     */
+    private CheckoutResult tryCreateToolRentalAgreement(String toolCode, Integer rentalDays, Integer discountPercent,
+                                                        LocalDate checkoutDate, boolean checkout) {
+
+        long startNanos = checkout ? readClock() : 0L;
+        CheckoutRequest checkoutRequest = new CheckoutRequest(toolCode, rentalDays, discountPercent, checkoutDate);
+
+        List<CheckoutErrorCode> errorCodes = getValidationErrorCodes(toolCode, rentalDays, discountPercent, checkoutDate);
+        CheckoutErrorCode errorCode = null;
+
+        Tool toolToRent = null;
+        ToolTypeCharge toolTypeCharge = null;
+        long stageStartNanos = startNanos;
+
+        if (errorCodes.isEmpty()) {
+            stageStartNanos = recordCheckoutStage(checkout, CheckoutStage.VALIDATION, stageStartNanos);
+            toolToRent = toolService.getTool(toolCode).orElse(null);
+            errorCode = toolToRent == null ? CheckoutErrorCode.TOOL_NOT_FOUND : null;
+        }
+
+        if (toolToRent != null) {
+            stageStartNanos = recordCheckoutStage(checkout, CheckoutStage.TOOL_LOOKUP, stageStartNanos);
+            toolTypeCharge = toolTypeChargeService.getToolTypeCharge(toolToRent.getToolType()).orElse(null);
+            errorCode = toolTypeCharge == null ? CheckoutErrorCode.TOOL_TYPE_CHARGE_NOT_FOUND : null;
+        }
+
+        ToolRentalAgreement toolRentalAgreement = null;
+
+        if (toolTypeCharge != null) {
+            stageStartNanos = recordCheckoutStage(checkout, CheckoutStage.CHARGE_LOOKUP, stageStartNanos);
+            toolRentalAgreement = createToolRentalAgreement(toolToRent, toolTypeCharge, rentalDays, discountPercent, checkoutDate, checkout, stageStartNanos);
+
+            if (checkout) {
+                stageStartNanos = readClock();
+
+                if (toolService.reserve(toolToRent.getToolCode())) {
+                    checkoutMetrics.recordStage(CheckoutStage.RESERVATION, stageStartNanos);
+                } else {
+                    toolRentalAgreement = null;
+                    errorCode = CheckoutErrorCode.OUT_OF_STOCK;
+                }
+            }
+        }
+
+        if (errorCode != null) {
+            errorCodes = List.of(errorCode);
+        }
+
+        if (checkout) {
+            if (toolRentalAgreement != null) {
+                checkoutMetrics.recordCompletedCheckout(toolToRent.getToolType(), startNanos);
+            } else {
+                checkoutMetrics.recordFailedCheckout();
+            }
+        }
+
+        return new CheckoutResult(checkoutRequest, toolRentalAgreement, null, errorCodes);
+    }
+
+    /**
+     * Private helper method to record a stage of a checkout. Quotes, and the rental agreements repriced from an
+     * existing one, record no stages, so the stage latencies only ever describe checkouts.
+     *
+     * @param checkout      - true if the stage belongs to a checkout, false if it belongs to a quote
+     * @param checkoutStage - stage that finished
+     * @param startNanos    - {@link System#nanoTime()} at the start of the stage
+     * @return - {@link System#nanoTime()} at the end of the stage, the start of the next stage, or the start of the
+     * stage if it is not recorded
+     */
+    private long recordCheckoutStage(boolean checkout, CheckoutStage checkoutStage, long startNanos) {
+        return checkout ? checkoutMetrics.recordStage(checkoutStage, startNanos) : startNanos;
+    }
+
+    /**
+     * Private helper method to read the clock at the start of a checkout or a stage. The clock is only read when the
+     * checkout metrics are enabled, so checking out with {@link CheckoutMetrics#disabled()} metrics never reads it.
+     *
+     * @return - {@link System#nanoTime()}, or 0 when the checkout metrics are disabled
+     */
+    private long readClock() {
+        return checkoutMetrics.isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Private helper method to find every invalid checkout parameter.
+     *
+     * @param toolCode        - code of the tool to validate
+     * @param rentalDays      - number of rental days to validate
+     * @param discountPercent - discount percent to validate
+     * @param checkoutDate    - checkout date to validate
+     * @return - error codes of the invalid parameters, empty if every parameter is valid
+     */
+    private List<CheckoutErrorCode> getValidationErrorCodes(String toolCode, Integer rentalDays, Integer discountPercent, LocalDate checkoutDate) {
+        boolean validToolCode = isValidToolCode(toolCode);
+        boolean validRentalDays = isValidRentalDays(rentalDays);
+        boolean validDiscountPercent = isValidDiscountPercent(discountPercent);
+        boolean validCheckoutDate = checkoutDate != null;
+        boolean validRentalPeriod = !validRentalDays || !validCheckoutDate || isValidRentalPeriod(rentalDays, checkoutDate);
+
+        if (validToolCode && validRentalDays && validDiscountPercent && validCheckoutDate && validRentalPeriod) {
+            return List.of();
+        }
+
+        List<CheckoutErrorCode> errorCodes = new ArrayList<>(5);
+
+        if (!validToolCode) {
+            errorCodes.add(CheckoutErrorCode.BLANK_TOOL_CODE);
+        }
+
+        if (!validRentalDays) {
+            errorCodes.add(CheckoutErrorCode.INVALID_RENTAL_DAYS);
+        }
+
+        if (!validDiscountPercent) {
+            errorCodes.add(CheckoutErrorCode.INVALID_DISCOUNT_PERCENT);
+        }
+
+        if (!validCheckoutDate) {
+            errorCodes.add(CheckoutErrorCode.MISSING_CHECKOUT_DATE);
+        }
+
+        if (!validRentalPeriod) {
+            errorCodes.add(CheckoutErrorCode.RENTAL_PERIOD_OUT_OF_RANGE);
+        }
+
+        return errorCodes;
+    }
+
+    /**
+     * Private helper method to count a single rental date as a charge day.
+     *
+     * @param toolTypeCharge - tool type charge for the type of the tool
+     * @param rentalDate     - rental date to count
+     * @return - 1 if the rental date is a charge day, otherwise 0
+     */
+    private int countChargeDay(ToolTypeCharge toolTypeCharge, LocalDate rentalDate) {
+        return rentalDateService.determineNumberOfChargeDays(toolTypeCharge, rentalDate.minusDays(1), 1);
+    }
+
+    /**
+     * Private helper method to calculate the final charge of a number of charge days, without building the rental
+     * agreement.
+     *
+     * @param chargeDays        - charge days of the rental
+     * @param dailyRentalCharge - daily rental charge of the tool
+     * @param discountPercent   - discount percent
+     * @return - final charge of the rental
+     */
+    private BigDecimal calculateFinalCharge(int chargeDays, BigDecimal dailyRentalCharge, int discountPercent) {
+        BigDecimal preDiscountCharge = rentalAmountService.calculatePreDiscountCharge(chargeDays, dailyRentalCharge);
+        return rentalAmountService.calculateFinalCharge(preDiscountCharge, rentalAmountService.calculateDiscountAmount(discountPercent, preDiscountCharge));
+    }
+
+    /**
+     * Private helper method to calculate the amounts of a rental once its charge days have been counted.
+     *
+     * @param chargeDays        - charge days of the rental
+     * @param dailyRentalCharge - daily rental charge of the tool
+     * @param discountPercent   - discount percent
+     * @return - rental price
+     */
+    private RentalPrice calculateRentalPrice(int chargeDays, BigDecimal dailyRentalCharge, int discountPercent) {
+        BigDecimal preDiscountCharge = rentalAmountService.calculatePreDiscountCharge(chargeDays, dailyRentalCharge);
         BigDecimal discountAmount = rentalAmountService.calculateDiscountAmount(discountPercent, preDiscountCharge);
         BigDecimal finalCharge = rentalAmountService.calculateFinalCharge(preDiscountCharge, discountAmount);
 
-        return ToolRentalAgreement
+        return new RentalPrice(chargeDays, preDiscountCharge, discountPercent, discountAmount, finalCharge);
+    }
+
+    /**
+     * Private helper method to build a rental agreement once it has been priced. Every rental agreement is built here,
+     * whether it is checked out, quoted or repriced.
+     *
+     * @param toolToRent        - tool to rent
+     * @param dailyRentalCharge - daily rental charge of the tool
+     * @param rentalDays        - number of days for which the customer wants to rent the tool
+     * @param checkoutDate      - date the tool is checked out
+     * @param rentalPrice       - charge days and amounts of the rental
+     * @param checkout          - true to record the stages of a checkout, false for a quote or a reprice
+     * @param startNanos        - {@link System#nanoTime()} at the start of building the rental agreement
+     * @return - tool rental agreement
+     */
+    private ToolRentalAgreement buildToolRentalAgreement(Tool toolToRent, BigDecimal dailyRentalCharge, int rentalDays, LocalDate checkoutDate,
+                                                         RentalPrice rentalPrice, boolean checkout, long startNanos) {
+
+        ToolRentalAgreement toolRentalAgreement = ToolRentalAgreement
                 .builder()
-                .toolCode(toolCode)
+                .toolCode(toolToRent.getToolCode())
                 .toolType(toolToRent.getToolType())
                 .toolBrand(toolToRent.getBrand())
                 .rentalDays(rentalDays)
                 .checkoutDate(checkoutDate)
-                .dueDate(dueDate)
-                .dailyRentalCharge(toolTypeCharge.getDailyRentalCharge())
-                .chargeDays(numberOfChargeDays)
-                .preDiscountCharge(preDiscountCharge)
-                .discountPercent(discountPercent)
-                .discountAmount(discountAmount)
-                .finalCharge(finalCharge)
+                .dueDate(checkoutDate.plusDays(rentalDays))
+                .dailyRentalCharge(dailyRentalCharge)
+                .chargeDays(rentalPrice.getChargeDays())
+                .preDiscountCharge(rentalPrice.getPreDiscountCharge())
+                .discountPercent(rentalPrice.getDiscountPercent())
+                .discountAmount(rentalPrice.getDiscountAmount())
+                .finalCharge(rentalPrice.getFinalCharge())
                 .build();
+        recordCheckoutStage(checkout, CheckoutStage.AGREEMENT_BUILD, startNanos);
+
+        return toolRentalAgreement;
+    }
+
+    /**
+     * Private helper method to build the rental agreement for the same checkout with a different number of rental
+     * days, once its charge days have been counted, at the daily rental charge and discount of the original agreement.
+     *
+     * @param toolRentalAgreement - original rental agreement
+     * @param rentalDays          - new number of rental days
+     * @param chargeDays          - charge days of the new number of rental days
+     * @return - repriced tool rental agreement
+     */
+    private ToolRentalAgreement repriceToolRentalAgreement(ToolRentalAgreement toolRentalAgreement, int rentalDays, int chargeDays) {
+        return buildToolRentalAgreement(toolRentalAgreement, rentalDays,
+                calculateRentalPrice(chargeDays, toolRentalAgreement.getDailyRentalCharge(), toolRentalAgreement.getDiscountPercent()));
+    }
+
+    /**
+     * Private helper method to build the rental agreement for the same checkout with a different number of rental
+     * days, priced in full with the pricing rule set of its tool type.
+     *
+     * @param toolRentalAgreement - original rental agreement
+     * @param rentalDays          - new number of rental days
+     * @param pricingRules        - compiled rules of the pricing rule set attached to the tool type
+     * @return - repriced tool rental agreement
+     */
+    private ToolRentalAgreement repriceToolRentalAgreement(ToolRentalAgreement toolRentalAgreement, int rentalDays, CompiledPricingRules pricingRules) {
+        // The agreement records the customer discount plus the tier discount, so the tier discount of the original rental
+        // is taken off. A total capped at 100 percent is taken as the smallest customer discount that reaches it.
+        int discountPercent = Math.max(0, toolRentalAgreement.getDiscountPercent() - pricingRules.getTierDiscountPercent(toolRentalAgreement.getRentalDays()));
+
+        return buildToolRentalAgreement(toolRentalAgreement, rentalDays, pricingRules.price(toolRentalAgreement.getCheckoutDate(), rentalDays, discountPercent));
+    }
+
+    /**
+     * Private helper method to build the repriced rental agreement for the same checkout, at the daily rental charge of
+     * the original agreement.
+     *
+     * @param toolRentalAgreement - original rental agreement
+     * @param rentalDays          - new number of rental days
+     * @param rentalPrice         - price of the new number of rental days
+     * @return - repriced tool rental agreement
+     */
+    private ToolRentalAgreement buildToolRentalAgreement(ToolRentalAgreement toolRentalAgreement, int rentalDays, RentalPrice rentalPrice) {
+        Tool rentedTool = new Tool(toolRentalAgreement.getToolCode(), toolRentalAgreement.getToolType(), toolRentalAgreement.getToolBrand());
+
+        return buildToolRentalAgreement(rentedTool, toolRentalAgreement.getDailyRentalCharge(), rentalDays, toolRentalAgreement.getCheckoutDate(),
+                rentalPrice, false, 0L);
+    }
+
+    /**
+     * Private helper method to get the compiled rules of the pricing rule set attached to a tool type.
+     *
+     * @param toolType - type of tool
+     * @return - compiled pricing rules, or null if no rule set is attached or the service has no tool type pricing service
+     */
+    private CompiledPricingRules getPricingRules(ToolType toolType) {
+        return toolTypePricingService == null ? null : toolTypePricingService.getPricingRules(toolType).orElse(null);
+    }
+
+    /**
+     * Validate the rental agreement has the fields needed to reprice it
+     *
+     * @param toolRentalAgreement - rental agreement to validate
+     */
+    private void validateRentalAgreement(ToolRentalAgreement toolRentalAgreement) {
+        if (toolRentalAgreement == null
+                || toolRentalAgreement.getToolType() == null
+                || toolRentalAgreement.getRentalDays() == null
+                || toolRentalAgreement.getCheckoutDate() == null
+                || toolRentalAgreement.getDueDate() == null
+                || toolRentalAgreement.getDailyRentalCharge() == null
+                || toolRentalAgreement.getChargeDays() == null
+                || toolRentalAgreement.getDiscountPercent() == null) {
+            throw new IllegalArgumentException("Tool rental agreement must be a complete rental agreement when repricing a rental.");
+        }
     }
 
     /**
@@ -81,6 +988,7 @@ public class ToolCheckoutService {
         validateRentalDays(rentalDays);
         validateDiscountPercent(discountPercent);
         validateCheckoutDate(checkoutDate);
+        validateRentalPeriod(rentalDays, checkoutDate);
     }
 
     /**
@@ -89,8 +997,8 @@ public class ToolCheckoutService {
      * @param toolCode - code of the tool to validate
      */
     private void validateToolCode(String toolCode) {
-        if (StringUtils.isBlank(toolCode)) {
-            throw new IllegalArgumentException("Tool code cannot be blank when checking out a tool.");
+        if (!isValidToolCode(toolCode)) {
+            throw new IllegalArgumentException(CheckoutErrorCode.BLANK_TOOL_CODE.getMessage());
         }
     }
 
@@ -100,8 +1008,8 @@ public class ToolCheckoutService {
      * @param rentalDays - rental days to validate
      */
     private void validateRentalDays(Integer rentalDays) {
-        if (rentalDays == null || rentalDays < 1) {
-            throw new IllegalArgumentException("Rental days must be 1 or greater when checking out a tool.");
+        if (!isValidRentalDays(rentalDays)) {
+            throw new IllegalArgumentException(CheckoutErrorCode.INVALID_RENTAL_DAYS.getMessage());
         }
     }
 
@@ -111,8 +1019,8 @@ public class ToolCheckoutService {
      * @param discountPercent - discount percent to validate
      */
     private void validateDiscountPercent(Integer discountPercent) {
-        if (discountPercent == null || discountPercent < 0 || discountPercent > 100) {
-            throw new IllegalArgumentException("Discount percent must be between 0 and 100 when checking out a tool.");
+        if (!isValidDiscountPercent(discountPercent)) {
+            throw new IllegalArgumentException(CheckoutErrorCode.INVALID_DISCOUNT_PERCENT.getMessage());
         }
     }
 
@@ -123,7 +1031,51 @@ public class ToolCheckoutService {
      */
     private void validateCheckoutDate(LocalDate checkoutDate) {
         if (checkoutDate == null) {
-            throw new IllegalArgumentException("Checkout date cannot be null when when checking out a tool.");
+            throw new IllegalArgumentException(CheckoutErrorCode.MISSING_CHECKOUT_DATE.getMessage());
+        }
+    }
+
+    /**
+     * Validate the due date of the rental days from the checkout date is a supported date
+     *
+     * @param rentalDays   - rental days to validate
+     * @param checkoutDate - checkout date to validate
+     */
+    private void validateRentalPeriod(Integer rentalDays, LocalDate checkoutDate) {
+        if (!isValidRentalPeriod(rentalDays, checkoutDate)) {
+            throw new IllegalArgumentException(CheckoutErrorCode.RENTAL_PERIOD_OUT_OF_RANGE.getMessage());
+        }
+    }
+
+    private boolean isValidToolCode(String toolCode) {
+        return !StringUtils.isBlank(toolCode);
+    }
+
+    private boolean isValidRentalDays(Integer rentalDays) {
+        return rentalDays != null && rentalDays >= 1;
+    }
+
+    private boolean isValidRentalPeriod(long rentalDays, LocalDate checkoutDate) {
+        return checkoutDate.toEpochDay() + rentalDays <= LocalDate.MAX.toEpochDay();
+    }
+
+    private boolean isValidDiscountPercent(Integer discountPercent) {
+        return discountPercent != null && discountPercent >= 0 && discountPercent <= 100;
+    }
+
+    /**
+     * Tool and tool type charge looked up for a tool code of a batch, or the error code of the one not found.
+     */
+    private static final class ResolvedTool {
+
+        private final Tool tool;
+        private final ToolTypeCharge toolTypeCharge;
+        private final CheckoutErrorCode errorCode;
+
+        private ResolvedTool(Tool tool, ToolTypeCharge toolTypeCharge, CheckoutErrorCode errorCode) {
+            this.tool = tool;
+            this.toolTypeCharge = toolTypeCharge;
+            this.errorCode = errorCode;
         }
     }
 }
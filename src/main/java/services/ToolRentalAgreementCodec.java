@@ -0,0 +1,327 @@
+package services;
+
+import lombok.NoArgsConstructor;
+import models.Money;
+import models.ToolRentalAgreement;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Encodes rental agreements into a fixed layout binary record of {@link #RECORD_SIZE} bytes, and decodes them back.
+ * <p>
+ * Dates are stored as epoch days, amounts as cents, the tool type and brand as ordinals and the tool code packed as
+ * described by {@link ToolCatalog}, so only tool codes of up to 12 uppercase letters and digits and amounts in whole
+ * cents can be encoded. A flag per field records whether it is null. Every field is at a fixed offset, read and
+ * written with the absolute methods of the byte buffer in its byte order.
+ * <p>
+ * Records can be decoded into a rental agreement, or read in place through a {@link View} that
+ * only decodes the fields that are read.
+ */
+@NoArgsConstructor
+public class ToolRentalAgreementCodec {
+
+    public static final int RECORD_SIZE = 64;
+
+    private static final int TOOL_CODE_OFFSET = 0;
+    private static final int DAILY_RENTAL_CHARGE_OFFSET = 8;
+    private static final int PRE_DISCOUNT_CHARGE_OFFSET = 16;
+    private static final int DISCOUNT_AMOUNT_OFFSET = 24;
+    private static final int FINAL_CHARGE_OFFSET = 32;
+    private static final int RENTAL_DAYS_OFFSET = 40;
+    private static final int CHECKOUT_DATE_OFFSET = 44;
+    private static final int DUE_DATE_OFFSET = 48;
+    private static final int CHARGE_DAYS_OFFSET = 52;
+    private static final int DISCOUNT_PERCENT_OFFSET = 56;
+    private static final int PRESENT_FIELDS_OFFSET = 60;
+    private static final int TOOL_TYPE_OFFSET = 62;
+    private static final int TOOL_BRAND_OFFSET = 63;
+
+    // Flags of the present fields, in the order of the fields of a rental agreement
+    private static final int TOOL_CODE = 1;
+    private static final int TOOL_TYPE = 1 << 1;
+    private static final int TOOL_BRAND = 1 << 2;
+    private static final int RENTAL_DAYS = 1 << 3;
+    private static final int CHECKOUT_DATE = 1 << 4;
+    private static final int DUE_DATE = 1 << 5;
+    private static final int DAILY_RENTAL_CHARGE = 1 << 6;
+    private static final int CHARGE_DAYS = 1 << 7;
+    private static final int PRE_DISCOUNT_CHARGE = 1 << 8;
+    private static final int DISCOUNT_PERCENT = 1 << 9;
+    private static final int DISCOUNT_AMOUNT = 1 << 10;
+    private static final int FINAL_CHARGE = 1 << 11;
+
+    /**
+     * Encode a rental agreement at the position of the byte buffer, and advance the position past the record.
+     * Nothing is written if the rental agreement cannot be encoded or does not fit.
+     *
+     * @param toolRentalAgreement - rental agreement to encode
+     * @param output              - byte buffer to write to
+     * @throws BufferOverflowException if the byte buffer has less than {@link #RECORD_SIZE} bytes remaining
+     */
+    public void encode(ToolRentalAgreement toolRentalAgreement, ByteBuffer output) {
+        if (toolRentalAgreement == null || output == null) {
+            throw new IllegalArgumentException("Tool rental agreement and output cannot be null when encoding a tool rental agreement.");
+        }
+
+        long toolCode = 0;
+
+        if (toolRentalAgreement.getToolCode() != null) {
+            toolCode = ToolCatalog.packToolCode(toolRentalAgreement.getToolCode());
+
+            if (toolCode == 0) {
+                throw new IllegalArgumentException("Tool code must be up to 12 uppercase letters and digits when encoding a tool rental agreement.");
+            }
+        }
+
+        // Converted before anything is written, so an amount with fractions of a cent leaves the buffer unchanged
+        long dailyRentalChargeCents = toolRentalAgreement.getDailyRentalCharge() == null ? 0 : Money.toCents(toolRentalAgreement.getDailyRentalCharge());
+        long preDiscountChargeCents = toolRentalAgreement.getPreDiscountCharge() == null ? 0 : Money.toCents(toolRentalAgreement.getPreDiscountCharge());
+        long discountAmountCents = toolRentalAgreement.getDiscountAmount() == null ? 0 : Money.toCents(toolRentalAgreement.getDiscountAmount());
+        long finalChargeCents = toolRentalAgreement.getFinalCharge() == null ? 0 : Money.toCents(toolRentalAgreement.getFinalCharge());
+        int checkoutEpochDay = toolRentalAgreement.getCheckoutDate() == null ? 0 : Math.toIntExact(toolRentalAgreement.getCheckoutDate().toEpochDay());
+        int dueEpochDay = toolRentalAgreement.getDueDate() == null ? 0 : Math.toIntExact(toolRentalAgreement.getDueDate().toEpochDay());
+
+        if (output.remaining() < RECORD_SIZE) {
+            throw new BufferOverflowException();
+        }
+
+        int presentFields = 0;
+        presentFields |= toolRentalAgreement.getToolCode() == null ? 0 : TOOL_CODE;
+        presentFields |= toolRentalAgreement.getToolType() == null ? 0 : TOOL_TYPE;
+        presentFields |= toolRentalAgreement.getToolBrand() == null ? 0 : TOOL_BRAND;
+        presentFields |= toolRentalAgreement.getRentalDays() == null ? 0 : RENTAL_DAYS;
+        presentFields |= toolRentalAgreement.getCheckoutDate() == null ? 0 : CHECKOUT_DATE;
+        presentFields |= toolRentalAgreement.getDueDate() == null ? 0 : DUE_DATE;
+        presentFields |= toolRentalAgreement.getDailyRentalCharge() == null ? 0 : DAILY_RENTAL_CHARGE;
+        presentFields |= toolRentalAgreement.getChargeDays() == null ? 0 : CHARGE_DAYS;
+        presentFields |= toolRentalAgreement.getPreDiscountCharge() == null ? 0 : PRE_DISCOUNT_CHARGE;
+        presentFields |= toolRentalAgreement.getDiscountPercent() == null ? 0 : DISCOUNT_PERCENT;
+        presentFields |= toolRentalAgreement.getDiscountAmount() == null ? 0 : DISCOUNT_AMOUNT;
+        presentFields |= toolRentalAgreement.getFinalCharge() == null ? 0 : FINAL_CHARGE;
+
+        int offset = output.position();
+
+        output.putLong(offset + TOOL_CODE_OFFSET, toolCode);
+        output.putLong(offset + DAILY_RENTAL_CHARGE_OFFSET, dailyRentalChargeCents);
+        output.putLong(offset + PRE_DISCOUNT_CHARGE_OFFSET, preDiscountChargeCents);
+        output.putLong(offset + DISCOUNT_AMOUNT_OFFSET, discountAmountCents);
+        output.putLong(offset + FINAL_CHARGE_OFFSET, finalChargeCents);
+        output.putInt(offset + RENTAL_DAYS_OFFSET, toolRentalAgreement.getRentalDays() == null ? 0 : toolRentalAgreement.getRentalDays());
+        output.putInt(offset + CHECKOUT_DATE_OFFSET, checkoutEpochDay);
+        output.putInt(offset + DUE_DATE_OFFSET, dueEpochDay);
+        output.putInt(offset + CHARGE_DAYS_OFFSET, toolRentalAgreement.getChargeDays() == null ? 0 : toolRentalAgreement.getChargeDays());
+        output.putInt(offset + DISCOUNT_PERCENT_OFFSET, toolRentalAgreement.getDiscountPercent() == null ? 0 : toolRentalAgreement.getDiscountPercent());
+        output.putShort(offset + PRESENT_FIELDS_OFFSET, (short) presentFields);
+        output.put(offset + TOOL_TYPE_OFFSET, toolRentalAgreement.getToolType() == null ? 0 : (byte) toolRentalAgreement.getToolType().ordinal());
+        output.put(offset + TOOL_BRAND_OFFSET, toolRentalAgreement.getToolBrand() == null ? 0 : (byte) toolRentalAgreement.getToolBrand().ordinal());
+
+        output.position(offset + RECORD_SIZE);
+    }
+
+    /**
+     * Decode the rental agreement at the position of the byte buffer, and advance the position past the record.
+     *
+     * @param input - byte buffer to read from
+     * @return - rental agreement, with amounts at a scale of 2
+     * @throws BufferUnderflowException if the byte buffer has less than {@link #RECORD_SIZE} bytes remaining
+     */
+    public ToolRentalAgreement decode(ByteBuffer input) {
+        return view(input).toToolRentalAgreement();
+    }
+
+    /**
+     * View the rental agreement at the position of the byte buffer without decoding it, and advance the position
+     * past the record. The view reads from the byte buffer, so it changes if the record is overwritten.
+     *
+     * @param input - byte buffer to read from
+     * @return - view of the rental agreement
+     * @throws BufferUnderflowException if the byte buffer has less than {@link #RECORD_SIZE} bytes remaining
+     */
+    public View view(ByteBuffer input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input cannot be null when decoding a tool rental agreement.");
+        }
+
+        if (input.remaining() < RECORD_SIZE) {
+            throw new BufferUnderflowException();
+        }
+
+        View view = new View(input, input.position());
+        input.position(input.position() + RECORD_SIZE);
+
+        return view;
+    }
+
+    /**
+     * Reads the fields of a rental agreement encoded by {@link ToolRentalAgreementCodec} straight from its byte buffer.
+     * Each field is decoded when it is read, so a reader of a few fields never decodes the rest. Fields that were null
+     * when encoded read as null, or as 0 from the primitive getters. A tool type or brand ordinal that is not of this
+     * build is rejected with an {@link IllegalArgumentException} when it is read.
+     * <p>
+     * A view can be moved to another record with {@link #moveTo(int)}, so a single view can read every record of a
+     * buffer without creating an object per record.
+     */
+    public static final class View {
+
+        private static final ToolType[] TOOL_TYPES = ToolType.values();
+        private static final ToolBrand[] TOOL_BRANDS = ToolBrand.values();
+
+        private final ByteBuffer buffer;
+        private int offset;
+
+        /**
+         * Create a view of the record at an offset of a byte buffer.
+         *
+         * @param buffer - byte buffer holding the record
+         * @param offset - index of the first byte of the record
+         */
+        public View(ByteBuffer buffer, int offset) {
+            if (buffer == null) {
+                throw new IllegalArgumentException("Buffer cannot be null when viewing a tool rental agreement.");
+            }
+
+            this.buffer = buffer;
+            moveTo(offset);
+        }
+
+        /**
+         * Move the view to the record at another offset of its byte buffer.
+         *
+         * @param offset - index of the first byte of the record
+         * @return - this view
+         */
+        public View moveTo(int offset) {
+            if (offset < 0 || offset > buffer.limit() - RECORD_SIZE) {
+                throw new IndexOutOfBoundsException("Offset " + offset + " does not leave room for a record in a buffer with a limit of " + buffer.limit() + ".");
+            }
+
+            this.offset = offset;
+            return this;
+        }
+
+        public String getToolCode() {
+            return isPresent(TOOL_CODE) ? ToolCatalog.unpackToolCode(buffer.getLong(offset + TOOL_CODE_OFFSET)) : null;
+        }
+
+        public ToolType getToolType() {
+            if (!isPresent(TOOL_TYPE)) {
+                return null;
+            }
+
+            byte ordinal = buffer.get(offset + TOOL_TYPE_OFFSET);
+
+            if (ordinal < 0 || ordinal >= TOOL_TYPES.length) {
+                throw new IllegalArgumentException("Tool type ordinal " + ordinal + " is not a tool type of this build.");
+            }
+
+            return TOOL_TYPES[ordinal];
+        }
+
+        public ToolBrand getToolBrand() {
+            if (!isPresent(TOOL_BRAND)) {
+                return null;
+            }
+
+            byte ordinal = buffer.get(offset + TOOL_BRAND_OFFSET);
+
+            if (ordinal < 0 || ordinal >= TOOL_BRANDS.length) {
+                throw new IllegalArgumentException("Tool brand ordinal " + ordinal + " is not a tool brand of this build.");
+            }
+
+            return TOOL_BRANDS[ordinal];
+        }
+
+        public Integer getRentalDays() {
+            return isPresent(RENTAL_DAYS) ? buffer.getInt(offset + RENTAL_DAYS_OFFSET) : null;
+        }
+
+        public LocalDate getCheckoutDate() {
+            return isPresent(CHECKOUT_DATE) ? LocalDate.ofEpochDay(getCheckoutEpochDay()) : null;
+        }
+
+        public int getCheckoutEpochDay() {
+            return buffer.getInt(offset + CHECKOUT_DATE_OFFSET);
+        }
+
+        public LocalDate getDueDate() {
+            return isPresent(DUE_DATE) ? LocalDate.ofEpochDay(getDueEpochDay()) : null;
+        }
+
+        public int getDueEpochDay() {
+            return buffer.getInt(offset + DUE_DATE_OFFSET);
+        }
+
+        public BigDecimal getDailyRentalCharge() {
+            return isPresent(DAILY_RENTAL_CHARGE) ? Money.fromCents(getDailyRentalChargeCents()) : null;
+        }
+
+        public long getDailyRentalChargeCents() {
+            return buffer.getLong(offset + DAILY_RENTAL_CHARGE_OFFSET);
+        }
+
+        public Integer getChargeDays() {
+            return isPresent(CHARGE_DAYS) ? buffer.getInt(offset + CHARGE_DAYS_OFFSET) : null;
+        }
+
+        public BigDecimal getPreDiscountCharge() {
+            return isPresent(PRE_DISCOUNT_CHARGE) ? Money.fromCents(getPreDiscountChargeCents()) : null;
+        }
+
+        public long getPreDiscountChargeCents() {
+            return buffer.getLong(offset + PRE_DISCOUNT_CHARGE_OFFSET);
+        }
+
+        public Integer getDiscountPercent() {
+            return isPresent(DISCOUNT_PERCENT) ? buffer.getInt(offset + DISCOUNT_PERCENT_OFFSET) : null;
+        }
+
+        public BigDecimal getDiscountAmount() {
+            return isPresent(DISCOUNT_AMOUNT) ? Money.fromCents(getDiscountAmountCents()) : null;
+        }
+
+        public long getDiscountAmountCents() {
+            return buffer.getLong(offset + DISCOUNT_AMOUNT_OFFSET);
+        }
+
+        public BigDecimal getFinalCharge() {
+            return isPresent(FINAL_CHARGE) ? Money.fromCents(getFinalChargeCents()) : null;
+        }
+
+        public long getFinalChargeCents() {
+            return buffer.getLong(offset + FINAL_CHARGE_OFFSET);
+        }
+
+        /**
+         * Decode every field of the viewed record into a rental agreement.
+         *
+         * @return - rental agreement, with amounts at a scale of 2
+         */
+        public ToolRentalAgreement toToolRentalAgreement() {
+            return ToolRentalAgreement
+                    .builder()
+                    .toolCode(getToolCode())
+                    .toolType(getToolType())
+                    .toolBrand(getToolBrand())
+                    .rentalDays(getRentalDays())
+                    .checkoutDate(getCheckoutDate())
+                    .dueDate(getDueDate())
+                    .dailyRentalCharge(getDailyRentalCharge())
+                    .chargeDays(getChargeDays())
+                    .preDiscountCharge(getPreDiscountCharge())
+                    .discountPercent(getDiscountPercent())
+                    .discountAmount(getDiscountAmount())
+                    .finalCharge(getFinalCharge())
+                    .build();
+        }
+
+        private boolean isPresent(int field) {
+            return (buffer.getShort(offset + PRESENT_FIELDS_OFFSET) & field) != 0;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package services;
+
+import exceptions.SystemErrorException;
+import models.ToolRentalAgreement;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Renders a rental agreement in the format of {@link ToolRentalAgreement#print()}, into any {@link Appendable},
+ * {@link CharBuffer} or {@link ByteBuffer}.
+ * <p>
+ * Dates, amounts and percents are encoded by hand rather than through {@link NumberFormat} and
+ * {@link java.time.format.DateTimeFormatter}, and each thread renders into its own reusable buffer, so a single
+ * renderer can be shared between threads. Reading the cents of an amount with at most two decimals creates at most
+ * one BigInteger, so rendering an agreement allocates at most four small objects; amounts with more decimals are
+ * rounded first, which allocates more.
+ */
+public class ToolRentalAgreementRenderer {
+
+    private static final int MAX_FAST_PRECISION = 18;
+    private static final int CENTS_SCALE = 2;
+    private static final long[] CENTS_MULTIPLIERS = {100, 10, 1};
+
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    // Only used for amounts too large for a long number of cents
+    private static final ThreadLocal<NumberFormat> CURRENCY_FORMAT = ThreadLocal.withInitial(() -> NumberFormat.getCurrencyInstance(Locale.US));
+
+    /**
+     * Render the rental agreement into a string builder.
+     *
+     * @param toolRentalAgreement - rental agreement to render
+     * @param output              - string builder to append to
+     */
+    public void render(ToolRentalAgreement toolRentalAgreement, StringBuilder output) {
+        if (toolRentalAgreement == null || output == null) {
+            throw new IllegalArgumentException("Tool rental agreement and output cannot be null when rendering a tool rental agreement.");
+        }
+
+        int start = output.length();
+
+        appendLine("Tool code: ", toolRentalAgreement.getToolCode(), start, output);
+        appendLine("Tool type: ", toolRentalAgreement.getToolType() == null ? null : toolRentalAgreement.getToolType().getToolType(), start, output);
+        appendLine("Tool brand: ", toolRentalAgreement.getToolBrand() == null ? null : toolRentalAgreement.getToolBrand().getToolBrand(), start, output);
+        appendIntegerLine("Rental days: ", toolRentalAgreement.getRentalDays(), start, output);
+        appendDateLine("Checkout date: ", toolRentalAgreement.getCheckoutDate(), start, output);
+        appendDateLine("Due date: ", toolRentalAgreement.getDueDate(), start, output);
+        appendAmountLine("Daily rental charge: ", toolRentalAgreement.getDailyRentalCharge(), start, output);
+        appendIntegerLine("Charge days: ", toolRentalAgreement.getChargeDays(), start, output);
+        appendAmountLine("Pre-discount charge: ", toolRentalAgreement.getPreDiscountCharge(), start, output);
+        appendPercentLine("Discount percent: ", toolRentalAgreement.getDiscountPercent(), start, output);
+        appendAmountLine("Discount amount: ", toolRentalAgreement.getDiscountAmount(), start, output);
+        appendAmountLine("Final charge: ", toolRentalAgreement.getFinalCharge(), start, output);
+    }
+
+    /**
+     * Render the rental agreement into an appendable, such as a writer or print stream.
+     *
+     * @param toolRentalAgreement - rental agreement to render
+     * @param output              - appendable to append to
+     */
+    public void render(ToolRentalAgreement toolRentalAgreement, Appendable output) {
+        if (output == null) {
+            throw new IllegalArgumentException("Output cannot be null when rendering a tool rental agreement.");
+        }
+
+        StringBuilder renderBuffer = renderToBuffer(toolRentalAgreement);
+
+        try {
+            output.append(renderBuffer);
+        } catch (IOException e) {
+            throw new SystemErrorException("Could not render tool rental agreement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Render the rental agreement into a char buffer. Nothing is written if the rendered agreement does not fit.
+     *
+     * @param toolRentalAgreement - rental agreement to render
+     * @param output              - char buffer to write to
+     * @throws BufferOverflowException if the char buffer does not have enough space remaining
+     */
+    public void render(ToolRentalAgreement toolRentalAgreement, CharBuffer output) {
+        if (output == null) {
+            throw new IllegalArgumentException("Output cannot be null when rendering a tool rental agreement.");
+        }
+
+        StringBuilder renderBuffer = renderToBuffer(toolRentalAgreement);
+
+        if (output.remaining() < renderBuffer.length()) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < renderBuffer.length(); i++) {
+            output.put(renderBuffer.charAt(i));
+        }
+    }
+
+    /**
+     * Render the rental agreement into a byte buffer, encoded as UTF-8. Nothing is written if the rendered agreement
+     * does not fit.
+     *
+     * @param toolRentalAgreement - rental agreement to render
+     * @param output              - byte buffer to write to
+     * @throws BufferOverflowException if the byte buffer does not have enough space remaining
+     */
+    public void render(ToolRentalAgreement toolRentalAgreement, ByteBuffer output) {
+        if (output == null) {
+            throw new IllegalArgumentException("Output cannot be null when rendering a tool rental agreement.");
+        }
+
+        StringBuilder renderBuffer = renderToBuffer(toolRentalAgreement);
+
+        if (output.remaining() < getEncodedLength(renderBuffer)) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < renderBuffer.length(); i++) {
+            char c = renderBuffer.charAt(i);
+
+            if (c < 0x80) {
+                output.put((byte) c);
+            } else if (c < 0x800) {
+                output.put((byte) (0xC0 | (c >> 6)));
+                output.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < renderBuffer.length() && Character.isLowSurrogate(renderBuffer.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, renderBuffer.charAt(++i));
+                output.put((byte) (0xF0 | (codePoint >> 18)));
+                output.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                output.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                output.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                output.put((byte) (0xE0 | (c >> 12)));
+                output.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                output.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Private helper method to render the rental agreement into the reusable buffer of the current thread.
+     *
+     * @param toolRentalAgreement - rental agreement to render
+     * @return - buffer holding the rendered rental agreement
+     */
+    private StringBuilder renderToBuffer(ToolRentalAgreement toolRentalAgreement) {
+        StringBuilder renderBuffer = RENDER_BUFFER.get();
+        renderBuffer.setLength(0);
+        render(toolRentalAgreement, renderBuffer);
+        return renderBuffer;
+    }
+
+    /**
+     * Private helper method to get the number of bytes the text takes up when encoded as UTF-8.
+     *
+     * @param text - text to measure
+     * @return - number of UTF-8 bytes
+     */
+    private int getEncodedLength(CharSequence text) {
+        int length = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Private helper method to start a line with its label, with a new line first if the rendered agreement already
+     * has any lines.
+     *
+     * @param labelText - text of label
+     * @param start     - position in the output the rendered agreement started at
+     * @param output    - string builder to append to
+     * @return - the string builder
+     */
+    private StringBuilder startLine(String labelText, int start, StringBuilder output) {
+        if (output.length() > start) {
+            output.append('\n');
+        }
+
+        return output.append(labelText);
+    }
+
+    /**
+     * Private helper method to append a line of text.
+     *
+     * @param labelText - text of label
+     * @param value     - text of the line, the line is left out if null
+     * @param start     - position in the output the rendered agreement started at
+     * @param output    - string builder to append to
+     */
+    private void appendLine(String labelText, String value, int start, StringBuilder output) {
+        if (value != null) {
+            startLine(labelText, start, output).append(value);
+        }
+    }
+
+    /**
+     * Private helper method to append a whole number line.
+     *
+     * @param labelText - text of label
+     * @param value     - whole number of the line, the line is left out if null
+     * @param start     - position in the output the rendered agreement started at
+     * @param output    - string builder to append to
+     */
+    private void appendIntegerLine(String labelText, Integer value, int start, StringBuilder output) {
+        if (value != null) {
+            startLine(labelText, start, output).append(value.intValue());
+        }
+    }
+
+    /**
+     * Private helper method to append a percent line.
+     * <p>
+     * ex. 20%
+     *
+     * @param labelText - text of label
+     * @param percent   - percent of the line, the line is left out if null
+     * @param start     - position in the output the rendered agreement started at
+     * @param output    - string builder to append to
+     */
+    private void appendPercentLine(String labelText, Integer percent, int start, StringBuilder output) {
+        if (percent != null) {
+            startLine(labelText, start, output).append(percent.intValue()).append('%');
+        }
+    }
+
+    /**
+     * Private helper method to append a date line, formatted as MM/dd/yy. The two digit year is the year of the era,
+     * matching {@link java.time.format.DateTimeFormatter}.
+     * <p>
+     * ex. 07/15/23
+     *
+     * @param labelText - text of label
+     * @param date      - date of the line, the line is left out if null
+     * @param start     - position in the output the rendered agreement started at
+     * @param output    - string builder to append to
+     */
+    private void appendDateLine(String labelText, LocalDate date, int start, StringBuilder output) {
+        if (date == null) {
+            return;
+        }
+
+        int yearOfEra = date.getYear() > 0 ? date.getYear() : 1 - date.getYear();
+
+        startLine(labelText, start, output);
+        appendTwoDigits(date.getMonthValue(), output).append('/');
+        appendTwoDigits(date.getDayOfMonth(), output).append('/');
+        appendTwoDigits(yearOfEra % 100, output);
+    }
+
+    /**
+     * Private helper method to append an amount line, formatted as US currency rounded half-even to cents, matching
+     * {@link NumberFormat#getCurrencyInstance(Locale)}.
+     * <p>
+     * ex. $1,234.56 or -$1.49
+     *
+     * @param labelText - text of label
+     * @param amount    - amount of the line, the line is left out if null
+     * @param start     - position in the output the rendered agreement started at
+     * @param output    - string builder to append to
+     */
+    private void appendAmountLine(String labelText, BigDecimal amount, int start, StringBuilder output) {
+        if (amount == null) {
+            return;
+        }
+
+        startLine(labelText, start, output);
+
+        long cents;
+
+        // An amount with at most two decimals is already in cents, only an amount with more decimals is rounded
+        if (amount.scale() >= 0 && amount.scale() <= CENTS_SCALE && amount.precision() <= MAX_FAST_PRECISION - CENTS_SCALE) {
+            cents = Math.abs(amount.unscaledValue().longValueExact() * CENTS_MULTIPLIERS[amount.scale()]);
+        } else {
+            BigDecimal roundedAmount = amount.setScale(CENTS_SCALE, RoundingMode.HALF_EVEN);
+
+            if (roundedAmount.precision() > MAX_FAST_PRECISION) {
+                output.append(CURRENCY_FORMAT.get().format(amount));
+                return;
+            }
+
+            cents = Math.abs(roundedAmount.unscaledValue().longValueExact());
+        }
+
+        // The sign comes from the amount before rounding, so -0.001 is formatted as -$0.00
+        if (amount.signum() < 0) {
+            output.append('-');
+        }
+
+        output.append('$');
+        appendGroupedDigits(cents / 100, output).append('.');
+        appendTwoDigits((int) (cents % 100), output);
+    }
+
+    /**
+     * Private helper method to append a whole number with a comma between each group of three digits.
+     *
+     * @param value  - whole number, 0 or greater
+     * @param output - string builder to append to
+     * @return - the string builder
+     */
+    private StringBuilder appendGroupedDigits(long value, StringBuilder output) {
+        if (value < 1000) {
+            return output.append(value);
+        }
+
+        appendGroupedDigits(value / 1000, output).append(',');
+
+        int group = (int) (value % 1000);
+
+        return output.append((char) ('0' + group / 100)).append((char) ('0' + group / 10 % 10)).append((char) ('0' + group % 10));
+    }
+
+    /**
+     * Private helper method to append a number with a leading zero if it is below 10.
+     *
+     * @param value  - number between 0 and 99
+     * @param output - string builder to append to
+     * @return - the string builder
+     */
+    private StringBuilder appendTwoDigits(int value, StringBuilder output) {
+        return output.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
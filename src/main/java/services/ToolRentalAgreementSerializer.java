@@ -0,0 +1,199 @@
+package services;
+
+import lombok.NoArgsConstructor;
+import models.CheckoutResult;
+import models.ToolRentalAgreement;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+public class ToolRentalAgreementSerializer {
+
+    public static final String CSV_HEADER = "toolCode,toolType,toolBrand,rentalDays,checkoutDate,dueDate,dailyRentalCharge,"
+            + "chargeDays,preDiscountCharge,discountPercent,discountAmount,finalCharge";
+
+    /**
+     * Append a rental agreement as a CSV row, with the columns in the order of {@link #CSV_HEADER}. Null fields
+     * are written as empty columns.
+     * <p>
+     * ex. LADW,LADDER,Werner,3,2015-07-02,2015-07-05,1.99,2,3.98,10,0.40,3.58
+     *
+     * @param toolRentalAgreement - rental agreement to append
+     * @param output              - string builder to append to
+     * @return - the string builder
+     */
+    public StringBuilder appendCsv(ToolRentalAgreement toolRentalAgreement, StringBuilder output) {
+        if (toolRentalAgreement == null || output == null) {
+            throw new IllegalArgumentException("Tool rental agreement and output cannot be null when serializing a tool rental agreement.");
+        }
+
+        appendCsvValue(toolRentalAgreement.getToolCode(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getToolType(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getToolBrand(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getRentalDays(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getCheckoutDate(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getDueDate(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getDailyRentalCharge(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getChargeDays(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getPreDiscountCharge(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getDiscountPercent(), output).append(',');
+        appendCsvValue(toolRentalAgreement.getDiscountAmount(), output).append(',');
+        return appendCsvValue(toolRentalAgreement.getFinalCharge(), output);
+    }
+
+    /**
+     * Append a rental agreement as a JSON object. Amounts are written as numbers, dates as yyyy-MM-dd strings and
+     * the tool type and brand by their constant names.
+     * <p>
+     * ex. {"toolCode":"LADW","toolType":"LADDER",...,"finalCharge":3.58}
+     *
+     * @param toolRentalAgreement - rental agreement to append
+     * @param output              - string builder to append to
+     * @return - the string builder
+     */
+    public StringBuilder appendJson(ToolRentalAgreement toolRentalAgreement, StringBuilder output) {
+        if (toolRentalAgreement == null || output == null) {
+            throw new IllegalArgumentException("Tool rental agreement and output cannot be null when serializing a tool rental agreement.");
+        }
+
+        output.append('{');
+        appendJsonString("toolCode", toolRentalAgreement.getToolCode(), output).append(',');
+        appendJsonString("toolType", toolRentalAgreement.getToolType(), output).append(',');
+        appendJsonString("toolBrand", toolRentalAgreement.getToolBrand(), output).append(',');
+        appendJsonNumber("rentalDays", toolRentalAgreement.getRentalDays(), output).append(',');
+        appendJsonString("checkoutDate", toolRentalAgreement.getCheckoutDate(), output).append(',');
+        appendJsonString("dueDate", toolRentalAgreement.getDueDate(), output).append(',');
+        appendJsonNumber("dailyRentalCharge", toolRentalAgreement.getDailyRentalCharge(), output).append(',');
+        appendJsonNumber("chargeDays", toolRentalAgreement.getChargeDays(), output).append(',');
+        appendJsonNumber("preDiscountCharge", toolRentalAgreement.getPreDiscountCharge(), output).append(',');
+        appendJsonNumber("discountPercent", toolRentalAgreement.getDiscountPercent(), output).append(',');
+        appendJsonNumber("discountAmount", toolRentalAgreement.getDiscountAmount(), output).append(',');
+        appendJsonNumber("finalCharge", toolRentalAgreement.getFinalCharge(), output);
+        return output.append('}');
+    }
+
+    /**
+     * Append a checkout result as a JSON object, holding the line number of its checkout request and either the
+     * rental agreement or the reason the checkout request failed.
+     * <p>
+     * ex. {"line":1,"toolRentalAgreement":{...}} or {"line":2,"error":"..."}
+     *
+     * @param lineNumber - line number of the checkout request
+     * @param result     - checkout result to append
+     * @param output     - string builder to append to
+     * @return - the string builder
+     */
+    public StringBuilder appendJsonResult(long lineNumber, CheckoutResult result, StringBuilder output) {
+        if (result == null || output == null) {
+            throw new IllegalArgumentException("Checkout result and output cannot be null when serializing a checkout result.");
+        }
+
+        output.append("{\"line\":").append(lineNumber).append(',');
+
+        if (result.isSuccessful()) {
+            output.append("\"toolRentalAgreement\":");
+            appendJson(result.getToolRentalAgreement(), output);
+        } else {
+            output.append("\"error\":");
+            appendJsonString(result.getErrorMessage(), output);
+        }
+
+        return output.append('}');
+    }
+
+    /**
+     * Append a CSV column, quoting it if it contains a comma, quote or line break.
+     *
+     * @param value  - value of the column, may be null
+     * @param output - string builder to append to
+     * @return - the string builder
+     */
+    public StringBuilder appendCsvValue(Object value, StringBuilder output) {
+        if (value == null) {
+            return output;
+        }
+
+        String text = toText(value);
+
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return output.append(text);
+        }
+
+        return output.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * Append a JSON string, escaping quotes, backslashes and control characters.
+     *
+     * @param value  - value of the string, may be null
+     * @param output - string builder to append to
+     * @return - the string builder
+     */
+    public StringBuilder appendJsonString(Object value, StringBuilder output) {
+        if (value == null) {
+            return output.append("null");
+        }
+
+        String text = toText(value);
+
+        output.append('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                output.append('\\').append(c);
+            } else if (c < 0x20) {
+                output.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                output.append(c);
+            }
+        }
+
+        return output.append('"');
+    }
+
+    /**
+     * Private helper method to append a JSON field with a string value.
+     *
+     * @param name   - name of the field
+     * @param value  - value of the field, may be null
+     * @param output - string builder to append to
+     * @return - the string builder
+     */
+    private StringBuilder appendJsonString(String name, Object value, StringBuilder output) {
+        output.append('"').append(name).append("\":");
+        return appendJsonString(value, output);
+    }
+
+    /**
+     * Private helper method to append a JSON field with a number value.
+     *
+     * @param name   - name of the field
+     * @param value  - value of the field, may be null
+     * @param output - string builder to append to
+     * @return - the string builder
+     */
+    private StringBuilder appendJsonNumber(String name, Object value, StringBuilder output) {
+        output.append('"').append(name).append("\":");
+        return value == null ? output.append("null") : output.append(toText(value));
+    }
+
+    /**
+     * Private helper method to convert a value to text, without exponents for amounts.
+     *
+     * @param value - value to convert
+     * @return - value as text
+     */
+    private String toText(Object value) {
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+
+        return value.toString();
+    }
+}
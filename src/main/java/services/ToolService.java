@@ -5,21 +5,69 @@ import models.constants.ToolBrand;
 import models.constants.ToolType;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Looks up tools by tool code and tracks how many units of each tool are in stock.
+ * <p>
+ * Tools are looked up in an immutable tool catalog that can be replaced at runtime, e.g. reloaded from a file. The
+ * catalog is swapped in atomically, so a lookup never locks and always sees either the old or the new catalog.
+ * <p>
+ * Stock is only tracked for tools that have had their stock set, any other tool has unlimited units. The reserved
+ * units of each tool are an atomic counter of their own, so reserving and releasing units never locks and threads
+ * working on different tool codes never contend.
+ */
 public class ToolService {
 
-    private final Map<String, Tool> toolMap;
+    private final AtomicReference<ToolCatalog> toolCatalog = new AtomicReference<>();
+    private final CatalogFileParser catalogFileParser = new CatalogFileParser();
+    private final ConcurrentMap<String, ToolStock> toolStockMap = new ConcurrentHashMap<>();
 
     public ToolService() {
-        this.toolMap = new HashMap<>();
+        this(new ToolCatalog(List.of(
+                new Tool("CHNS", ToolType.CHAINSAW, ToolBrand.STIHL),
+                new Tool("LADW", ToolType.LADDER, ToolBrand.Werner),
+                new Tool("JAKD", ToolType.JACKHAMMER, ToolBrand.DE_WALT),
+                new Tool("JAKR", ToolType.JACKHAMMER, ToolBrand.RIDGID))));
+    }
+
+    public ToolService(ToolCatalog toolCatalog) {
+        setToolCatalog(toolCatalog);
+    }
+
+    public ToolCatalog getToolCatalog() {
+        return toolCatalog.get();
+    }
+
+    /**
+     * Replace the tool catalog. Lookups already in progress finish with the previous catalog.
+     *
+     * @param toolCatalog - new tool catalog
+     */
+    public void setToolCatalog(ToolCatalog toolCatalog) {
+        if (toolCatalog == null) {
+            throw new IllegalArgumentException("Tool catalog cannot be null when setting the tool catalog.");
+        }
 
-        toolMap.put("CHNS", new Tool("CHNS", ToolType.CHAINSAW, ToolBrand.STIHL));
-        toolMap.put("LADW", new Tool("LADW", ToolType.LADDER, ToolBrand.Werner));
-        toolMap.put("JAKD", new Tool("JAKD", ToolType.JACKHAMMER, ToolBrand.DE_WALT));
-        toolMap.put("JAKR", new Tool("JAKR", ToolType.JACKHAMMER, ToolBrand.RIDGID));
+        this.toolCatalog.set(toolCatalog);
+    }
+
+    /**
+     * Replace the tool catalog with the tools of a tool catalog file, formatted as described by
+     * {@link CatalogFileParser}. The current catalog is kept if the file cannot be parsed.
+     *
+     * @param path - path of the tool catalog file
+     */
+    public void reloadTools(Path path) {
+        setToolCatalog(new ToolCatalog(catalogFileParser.parseTools(path)));
     }
 
     /**
@@ -34,7 +82,129 @@ public class ToolService {
             throw new IllegalArgumentException("Tool code cannot be blank when retrieving tool by tool code.");
         }
 
-        return Optional.ofNullable(toolMap.get(toolCode));
+        return toolCatalog.get().getTool(toolCode);
     }
 
+    /**
+     * Get a future of an optional that contains a tool if it exists for the provided tool code. The catalog is held
+     * in memory, so the future is already complete; a tool service backed by a slower store can override this to look
+     * the tool up without blocking the calling thread.
+     *
+     * @param toolCode - code of the tool
+     * @return - a future of an optional that contains a tool if found for the provided tool code.
+     */
+    public CompletableFuture<Optional<Tool>> getToolAsync(String toolCode) {
+        try {
+            return CompletableFuture.completedFuture(getTool(toolCode));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Set the number of units of a tool, starting to track its stock. Units that are already reserved stay reserved,
+     * so if fewer units than that are set, no unit can be reserved until enough are released.
+     *
+     * @param toolCode - code of the tool
+     * @param units    - number of units of the tool, 0 or greater
+     */
+    public void setStock(String toolCode, int units) {
+        if (units < 0) {
+            throw new IllegalArgumentException("Units must be 0 or greater when setting the stock of a tool.");
+        }
+
+        if (getTool(toolCode).isEmpty()) {
+            throw new IllegalArgumentException("Tool code must be a valid tool code when setting the stock of a tool.");
+        }
+
+        toolStockMap.computeIfAbsent(toolCode, code -> new ToolStock()).units = units;
+    }
+
+    /**
+     * Get the number of units of a tool that are not reserved.
+     *
+     * @param toolCode - code of the tool
+     * @return - an optional int that contains the available units, empty if the stock of the tool is not tracked
+     */
+    public OptionalInt getAvailableStock(String toolCode) {
+        ToolStock toolStock = getToolStock(toolCode);
+
+        if (toolStock == null) {
+            return OptionalInt.empty();
+        }
+
+        return OptionalInt.of(Math.max(0, toolStock.units - toolStock.reservedUnits.get()));
+    }
+
+    /**
+     * Reserve a unit of a tool, if one is available.
+     *
+     * @param toolCode - code of the tool
+     * @return - true if a unit was reserved or the stock of the tool is not tracked, false if every unit is reserved
+     */
+    public boolean reserve(String toolCode) {
+        ToolStock toolStock = getToolStock(toolCode);
+
+        if (toolStock == null) {
+            return true;
+        }
+
+        int reservedUnits;
+
+        do {
+            reservedUnits = toolStock.reservedUnits.get();
+
+            if (reservedUnits >= toolStock.units) {
+                return false;
+            }
+        } while (!toolStock.reservedUnits.compareAndSet(reservedUnits, reservedUnits + 1));
+
+        return true;
+    }
+
+    /**
+     * Release a reserved unit of a tool, making it available again.
+     *
+     * @param toolCode - code of the tool
+     */
+    public void release(String toolCode) {
+        ToolStock toolStock = getToolStock(toolCode);
+
+        if (toolStock == null) {
+            return;
+        }
+
+        int reservedUnits;
+
+        do {
+            reservedUnits = toolStock.reservedUnits.get();
+
+            if (reservedUnits == 0) {
+                throw new IllegalStateException("No unit of tool code " + toolCode + " is reserved, could not release a unit.");
+            }
+        } while (!toolStock.reservedUnits.compareAndSet(reservedUnits, reservedUnits - 1));
+    }
+
+    /**
+     * Private helper method to get the stock of a tool.
+     *
+     * @param toolCode - code of the tool
+     * @return - stock of the tool, null if the stock of the tool is not tracked
+     */
+    private ToolStock getToolStock(String toolCode) {
+        if (StringUtils.isBlank(toolCode)) {
+            throw new IllegalArgumentException("Tool code cannot be blank when reserving or releasing a tool.");
+        }
+
+        return toolStockMap.get(toolCode);
+    }
+
+    /**
+     * Units of a tool and how many of them are reserved.
+     */
+    private static final class ToolStock {
+
+        private final AtomicInteger reservedUnits = new AtomicInteger();
+        private volatile int units;
+    }
 }
@@ -4,19 +4,36 @@ import models.ToolTypeCharge;
 import models.constants.ToolType;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Looks up tool type charges by tool type.
+ * <p>
+ * The tool type charges are an immutable snapshot that can be replaced at runtime, e.g. reloaded from a file. The
+ * snapshot is swapped in atomically, so a lookup never locks and always sees either the old or the new charges.
+ */
 public class ToolTypeChargeService {
 
-    private final Map<ToolType, ToolTypeCharge> toolTypeChargeMap;
+    private final AtomicReference<Map<ToolType, ToolTypeCharge>> toolTypeChargeMap = new AtomicReference<>();
+    private final CatalogFileParser catalogFileParser = new CatalogFileParser();
 
     public ToolTypeChargeService() {
-        this.toolTypeChargeMap = new HashMap<>();
-        toolTypeChargeMap.put(ToolType.LADDER, new ToolTypeCharge(ToolType.LADDER, new BigDecimal("1.99"), Boolean.TRUE, Boolean.TRUE, Boolean.FALSE));
-        toolTypeChargeMap.put(ToolType.CHAINSAW, new ToolTypeCharge(ToolType.CHAINSAW, new BigDecimal("1.49"), Boolean.TRUE, Boolean.FALSE, Boolean.TRUE));
-        toolTypeChargeMap.put(ToolType.JACKHAMMER, new ToolTypeCharge(ToolType.JACKHAMMER, new BigDecimal("2.99"), Boolean.TRUE, Boolean.FALSE, Boolean.FALSE));
+        this(List.of(
+                new ToolTypeCharge(ToolType.LADDER, new BigDecimal("1.99"), Boolean.TRUE, Boolean.TRUE, Boolean.FALSE),
+                new ToolTypeCharge(ToolType.CHAINSAW, new BigDecimal("1.49"), Boolean.TRUE, Boolean.FALSE, Boolean.TRUE),
+                new ToolTypeCharge(ToolType.JACKHAMMER, new BigDecimal("2.99"), Boolean.TRUE, Boolean.FALSE, Boolean.FALSE)));
+    }
+
+    public ToolTypeChargeService(Collection<ToolTypeCharge> toolTypeCharges) {
+        setToolTypeCharges(toolTypeCharges);
     }
 
     /**
@@ -31,6 +48,51 @@ public class ToolTypeChargeService {
             throw new IllegalArgumentException("Tool type cannot be null when retrieving tool type charge`.");
         }
 
-        return Optional.ofNullable(toolTypeChargeMap.get(toolType));
+        return Optional.ofNullable(toolTypeChargeMap.get().get(toolType));
+    }
+
+    /**
+     * Get a future of an optional that contains a tool type charge by the type of tool. The charges are held in
+     * memory, so the future is already complete; a tool type charge service backed by a slower store can override
+     * this to look the charge up without blocking the calling thread.
+     *
+     * @param toolType - type of tool
+     * @return - a future of an optional that contains a tool type charge if found for the type of tool.
+     */
+    public CompletableFuture<Optional<ToolTypeCharge>> getToolTypeChargeAsync(ToolType toolType) {
+        try {
+            return CompletableFuture.completedFuture(getToolTypeCharge(toolType));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Replace every tool type charge. Lookups already in progress finish with the previous charges.
+     *
+     * @param toolTypeCharges - new tool type charges, a later charge replaces an earlier charge for the same tool type
+     */
+    public void setToolTypeCharges(Collection<ToolTypeCharge> toolTypeCharges) {
+        if (toolTypeCharges == null || toolTypeCharges.stream().anyMatch(toolTypeCharge -> toolTypeCharge == null || toolTypeCharge.getToolType() == null)) {
+            throw new IllegalArgumentException("Tool type charges and their tool types cannot be null when setting the tool type charges.");
+        }
+
+        Map<ToolType, ToolTypeCharge> snapshot = new EnumMap<>(ToolType.class);
+
+        for (ToolTypeCharge toolTypeCharge : toolTypeCharges) {
+            snapshot.put(toolTypeCharge.getToolType(), toolTypeCharge);
+        }
+
+        toolTypeChargeMap.set(Collections.unmodifiableMap(snapshot));
+    }
+
+    /**
+     * Replace every tool type charge with the charges of a tool type charge catalog file, formatted as described by
+     * {@link CatalogFileParser}. The current charges are kept if the file cannot be parsed.
+     *
+     * @param path - path of the tool type charge catalog file
+     */
+    public void reloadToolTypeCharges(Path path) {
+        setToolTypeCharges(catalogFileParser.parseToolTypeCharges(path));
     }
 }
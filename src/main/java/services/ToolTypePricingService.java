@@ -0,0 +1,162 @@
+package services;
+
+import models.PricingRuleSet;
+import models.RentalPrice;
+import models.ToolTypeCharge;
+import models.constants.ToolType;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prices rentals of a tool type with the pricing rule set attached to the tool type, e.g. with seasonal rates or long
+ * rental discounts, or with the rule set of its tool type charge when no rule set is attached.
+ * <p>
+ * A {@link ToolCheckoutService} created with a tool type pricing service prices the checkouts of a tool type with an
+ * attached rule set through its compiled rules, and keeps pricing the other tool types with their tool type charge. A
+ * rule set is compiled once when it is attached, and the attached rule sets are an immutable snapshot swapped in
+ * atomically, so pricing never locks.
+ */
+public class ToolTypePricingService {
+
+    private final ToolTypeChargeService toolTypeChargeService;
+    private final PricingRuleEngine pricingRuleEngine;
+
+    private final AtomicReference<Map<ToolType, CompiledPricingRules>> pricingRulesMap = new AtomicReference<>(Map.of());
+    private final ConcurrentMap<ToolType, ToolTypeChargeRules> toolTypeChargeRulesMap = new ConcurrentHashMap<>();
+
+    /**
+     * Create a tool type pricing service with no rule sets attached.
+     *
+     * @param toolTypeChargeService - tool type charges of the tool types without a rule set
+     * @param pricingRuleEngine     - pricing rule engine to compile the rule sets with
+     */
+    public ToolTypePricingService(ToolTypeChargeService toolTypeChargeService, PricingRuleEngine pricingRuleEngine) {
+        if (toolTypeChargeService == null || pricingRuleEngine == null) {
+            throw new IllegalArgumentException("Tool type charge service and pricing rule engine cannot be null when creating a tool type pricing service.");
+        }
+
+        this.toolTypeChargeService = toolTypeChargeService;
+        this.pricingRuleEngine = pricingRuleEngine;
+    }
+
+    /**
+     * Attach a pricing rule set to a tool type, replacing the rule set already attached to it. The rule set is
+     * compiled before it is attached, so an invalid rule set leaves the attached rule sets as they were.
+     *
+     * @param toolType       - type of tool
+     * @param pricingRuleSet - pricing rule set to price the rentals of the tool type with
+     */
+    public synchronized void setPricingRuleSet(ToolType toolType, PricingRuleSet pricingRuleSet) {
+        if (toolType == null) {
+            throw new IllegalArgumentException("Tool type cannot be null when attaching a pricing rule set.");
+        }
+
+        CompiledPricingRules compiledPricingRules = pricingRuleEngine.compile(pricingRuleSet);
+
+        Map<ToolType, CompiledPricingRules> snapshot = new EnumMap<>(ToolType.class);
+        snapshot.putAll(pricingRulesMap.get());
+        snapshot.put(toolType, compiledPricingRules);
+
+        pricingRulesMap.set(Collections.unmodifiableMap(snapshot));
+    }
+
+    /**
+     * Detach the pricing rule set of a tool type, so its rentals are priced with its tool type charge again.
+     *
+     * @param toolType - type of tool
+     */
+    public synchronized void removePricingRuleSet(ToolType toolType) {
+        if (toolType == null) {
+            throw new IllegalArgumentException("Tool type cannot be null when detaching a pricing rule set.");
+        }
+
+        Map<ToolType, CompiledPricingRules> snapshot = new EnumMap<>(ToolType.class);
+        snapshot.putAll(pricingRulesMap.get());
+        snapshot.remove(toolType);
+
+        pricingRulesMap.set(Collections.unmodifiableMap(snapshot));
+    }
+
+    public boolean hasPricingRuleSet(ToolType toolType) {
+        return pricingRulesMap.get().containsKey(toolType);
+    }
+
+    /**
+     * Get the compiled rules of the pricing rule set attached to a tool type.
+     *
+     * @param toolType - type of tool
+     * @return - an optional that contains the compiled rules, empty if no rule set is attached to the tool type
+     */
+    public Optional<CompiledPricingRules> getPricingRules(ToolType toolType) {
+        return Optional.ofNullable(pricingRulesMap.get().get(toolType));
+    }
+
+    /**
+     * Price a rental of a tool type, with the rule set attached to the tool type or else with its tool type charge.
+     *
+     * @param toolType        - type of tool
+     * @param checkoutDate    - date the tool is checked out
+     * @param rentalDays      - number of days for which the customer wants to rent the tool, must be 1 or greater
+     * @param discountPercent - discount percent of the customer, must be between 0 and 100
+     * @return - an optional that contains the price of the rental, empty if the tool type has neither a rule set nor a
+     * tool type charge
+     */
+    public Optional<RentalPrice> price(ToolType toolType, LocalDate checkoutDate, int rentalDays, int discountPercent) {
+        if (toolType == null) {
+            throw new IllegalArgumentException("Tool type cannot be null when pricing a rental.");
+        }
+
+        CompiledPricingRules compiledPricingRules = pricingRulesMap.get().get(toolType);
+
+        if (compiledPricingRules == null) {
+            Optional<ToolTypeCharge> toolTypeCharge = toolTypeChargeService.getToolTypeCharge(toolType);
+
+            if (toolTypeCharge.isEmpty()) {
+                return Optional.empty();
+            }
+
+            compiledPricingRules = getToolTypeChargeRules(toolTypeCharge.get());
+        }
+
+        return Optional.of(compiledPricingRules.price(checkoutDate, rentalDays, discountPercent));
+    }
+
+    /**
+     * Private helper method to get the compiled rule set of a tool type charge, compiling it again only when the tool
+     * type charges have been replaced.
+     *
+     * @param toolTypeCharge - current tool type charge of the tool type
+     * @return - compiled rule set of the tool type charge
+     */
+    private CompiledPricingRules getToolTypeChargeRules(ToolTypeCharge toolTypeCharge) {
+        ToolTypeChargeRules toolTypeChargeRules = toolTypeChargeRulesMap.get(toolTypeCharge.getToolType());
+
+        if (toolTypeChargeRules == null || toolTypeChargeRules.toolTypeCharge != toolTypeCharge) {
+            toolTypeChargeRules = new ToolTypeChargeRules(toolTypeCharge, pricingRuleEngine.compile(PricingRuleSet.fromToolTypeCharge(toolTypeCharge)));
+            toolTypeChargeRulesMap.put(toolTypeCharge.getToolType(), toolTypeChargeRules);
+        }
+
+        return toolTypeChargeRules.compiledPricingRules;
+    }
+
+    /**
+     * Compiled rule set of a tool type charge, kept with the tool type charge it was compiled from.
+     */
+    private static final class ToolTypeChargeRules {
+
+        private final ToolTypeCharge toolTypeCharge;
+        private final CompiledPricingRules compiledPricingRules;
+
+        private ToolTypeChargeRules(ToolTypeCharge toolTypeCharge, CompiledPricingRules compiledPricingRules) {
+            this.toolTypeCharge = toolTypeCharge;
+            this.compiledPricingRules = compiledPricingRules;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package services;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates virtual thread executors when the JVM supports them (Java 21 and later). The executor is looked up
+ * reflectively so the project still builds on Java 17.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Create an executor with a virtual thread per task.
+     *
+     * @return - an optional that contains the virtual thread executor if the JVM supports virtual threads
+     */
+    static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package services;
+
+import models.ToolRentalAgreement;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestAgreementStore {
+
+    private final ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+    // Test Case 1 verifies that the aggregations over several chunks of rows match totalling the agreements directly
+    @Test
+    public void test1() {
+
+        Random random = new Random(17);
+        String[] toolCodes = {"CHNS", "LADW", "JAKD", "JAKR"};
+        List<ToolRentalAgreement> toolRentalAgreements = new ArrayList<>();
+
+        for (int i = 0; i < 150_000; i++) {
+            toolRentalAgreements.add(toolCheckoutService.checkoutTool(toolCodes[random.nextInt(toolCodes.length)],
+                    1 + random.nextInt(10), random.nextInt(101), LocalDate.of(2015, 1, 1).plusDays(random.nextInt(730))));
+        }
+
+        AgreementStore agreementStore = new AgreementStore();
+        agreementStore.addAll(toolRentalAgreements);
+
+        LocalDate from = LocalDate.of(2015, 3, 15);
+        LocalDate to = LocalDate.of(2016, 2, 10);
+        List<ToolRentalAgreement> inRange = toolRentalAgreements.stream()
+                .filter(agreement -> !agreement.getCheckoutDate().isBefore(from) && !agreement.getCheckoutDate().isAfter(to))
+                .toList();
+
+        for (ToolType toolType : ToolType.values()) {
+            assertThat(agreementStore.getRevenueByToolType(from, to).get(toolType))
+                    .isEqualByComparingTo(sumFinalCharges(inRange.stream().filter(agreement -> agreement.getToolType() == toolType).toList()));
+        }
+
+        for (ToolBrand toolBrand : ToolBrand.values()) {
+            assertThat(agreementStore.getRevenueByToolBrand(from, to).get(toolBrand))
+                    .isEqualByComparingTo(sumFinalCharges(inRange.stream().filter(agreement -> agreement.getToolBrand() == toolBrand).toList()));
+        }
+
+        assertThat(agreementStore.getRevenueByMonth(from, to)).hasSize(12);
+        assertThat(agreementStore.getRevenueByMonth(from, to).firstKey()).isEqualTo(YearMonth.of(2015, 3));
+        assertThat(agreementStore.getRevenueByMonth(from, to).get(YearMonth.of(2015, 7)))
+                .isEqualByComparingTo(sumFinalCharges(inRange.stream().filter(agreement -> YearMonth.from(agreement.getCheckoutDate()).equals(YearMonth.of(2015, 7))).toList()));
+
+        assertThat(agreementStore.getDiscountTotal(from, to))
+                .isEqualByComparingTo(inRange.stream().map(ToolRentalAgreement::getDiscountAmount).reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    // Test Case 2 verifies that a stored agreement reads back unchanged, and that an agreement with fractions of a
+    // cent is rejected without adding a row
+    @Test
+    public void test2() {
+
+        AgreementStore agreementStore = new AgreementStore();
+        ToolRentalAgreement toolRentalAgreement = toolCheckoutService.checkoutTool("JAKR", 9, 0, LocalDate.of(2015, 7, 2));
+
+        agreementStore.add(toolRentalAgreement);
+        assertThat(agreementStore.get(0)).isEqualTo(toolRentalAgreement);
+
+        ToolRentalAgreement fractionalAgreement = ToolRentalAgreement.builder()
+                .toolCode("LADW")
+                .rentalDays(1)
+                .checkoutDate(LocalDate.of(2015, 7, 2))
+                .dailyRentalCharge(new BigDecimal("1.999"))
+                .chargeDays(1)
+                .preDiscountCharge(new BigDecimal("1.999"))
+                .discountPercent(0)
+                .discountAmount(new BigDecimal("0.00"))
+                .finalCharge(new BigDecimal("1.999"))
+                .build();
+
+        assertThatThrownBy(() -> agreementStore.add(fractionalAgreement)).isInstanceOf(ArithmeticException.class);
+        assertThat(agreementStore.size()).isEqualTo(1);
+    }
+
+    private BigDecimal sumFinalCharges(List<ToolRentalAgreement> toolRentalAgreements) {
+        return toolRentalAgreements.stream().map(ToolRentalAgreement::getFinalCharge).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
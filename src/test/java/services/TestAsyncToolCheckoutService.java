@@ -0,0 +1,202 @@
+package services;
+
+import models.CheckoutRequest;
+import models.CheckoutResult;
+import models.ToolRentalAgreement;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestAsyncToolCheckoutService {
+
+    private final ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+    // Test Case 1 verifies that an async checkout creates the same rental agreement as a checkout, and that checkouts
+    // beyond the in flight limit are rejected until a checkout completes
+    @Test
+    public void test1() throws Exception {
+
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        Executor manualExecutor = tasks::add;
+        AsyncToolCheckoutService asyncToolCheckoutService = new AsyncToolCheckoutService(toolCheckoutService, manualExecutor, 1);
+
+        CompletableFuture<ToolRentalAgreement> first = asyncToolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+        CompletableFuture<ToolRentalAgreement> second = asyncToolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+
+        assertThatThrownBy(second::get).hasCauseInstanceOf(RejectedExecutionException.class);
+
+        tasks.poll().run();
+
+        assertThat(first.get()).isEqualTo(toolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2020, 7, 2)));
+
+        CompletableFuture<ToolRentalAgreement> notFound = asyncToolCheckoutService.checkoutTool("NOPE", 3, 10, LocalDate.of(2020, 7, 2));
+
+        assertThatThrownBy(notFound::get).isInstanceOf(ExecutionException.class).hasMessageContaining("could not find matching tool");
+        assertThat(tasks).isEmpty();
+    }
+
+    // Test Case 2 verifies that a stream of checkout requests is checked out without more than the in flight limit
+    // being requested from the publisher at once
+    @Test
+    public void test2() throws Exception {
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        AsyncToolCheckoutService asyncToolCheckoutService = new AsyncToolCheckoutService(toolCheckoutService, executorService, 8);
+
+        String[] toolCodes = {"CHNS", "LADW", "JAKD", "JAKR", "NOPE"};
+        AtomicInteger requested = new AtomicInteger();
+        AtomicInteger maxOutstanding = new AtomicInteger();
+        AtomicInteger published = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+
+        Flow.Publisher<CheckoutRequest> checkoutRequests = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requested.addAndGet((int) n);
+                maxOutstanding.accumulateAndGet(requested.get() - completed.get(), Math::max);
+
+                ForkJoinPool.commonPool().execute(() -> {
+                    synchronized (this) {
+                        for (int i = 0; i < n && published.get() < 1000; i++) {
+                            int index = published.getAndIncrement();
+                            subscriber.onNext(new CheckoutRequest(toolCodes[index % toolCodes.length], 1 + index % 30, index % 101, LocalDate.of(2015, 1, 1).plusDays(index)));
+                        }
+
+                        if (published.get() == 1000) {
+                            published.incrementAndGet();
+                            subscriber.onComplete();
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        List<CheckoutResult> results = new ArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        asyncToolCheckoutService.checkoutTools(checkoutRequests).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(3);
+            }
+
+            @Override
+            public void onNext(CheckoutResult item) {
+                results.add(item);
+                completed.incrementAndGet();
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+
+        try {
+            done.get(30, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertThat(results).hasSize(1000);
+        assertThat(results.stream().filter(CheckoutResult::isSuccessful).count()).isEqualTo(800);
+        assertThat(maxOutstanding.get()).isLessThanOrEqualTo(8);
+
+        for (CheckoutResult result : results) {
+            if (result.isSuccessful()) {
+                CheckoutRequest checkoutRequest = result.getCheckoutRequest();
+                assertThat(result.getToolRentalAgreement()).isEqualTo(toolCheckoutService.checkoutTool(checkoutRequest.getToolCode(),
+                        checkoutRequest.getRentalDays(), checkoutRequest.getDiscountPercent(), checkoutRequest.getCheckoutDate()));
+            }
+        }
+    }
+
+    // Test Case 3 verifies that requesting 0 checkout results signals an error straight away, even with results
+    // pending and no demand left
+    @Test
+    public void test3() throws Exception {
+
+        AsyncToolCheckoutService asyncToolCheckoutService = new AsyncToolCheckoutService(toolCheckoutService, Runnable::run, 8);
+        AtomicInteger cancelled = new AtomicInteger();
+
+        Flow.Publisher<CheckoutRequest> checkoutRequests = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                for (int i = 0; i < n; i++) {
+                    subscriber.onNext(new CheckoutRequest("LADW", 3, 10, LocalDate.of(2015, 7, 2)));
+                }
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.incrementAndGet();
+            }
+        });
+
+        List<CheckoutResult> results = new ArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        asyncToolCheckoutService.checkoutTools(checkoutRequests).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(2);
+            }
+
+            @Override
+            public void onNext(CheckoutResult item) {
+                results.add(item);
+
+                if (results.size() == 2) {
+                    subscription.request(0);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+
+        assertThatThrownBy(() -> done.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(results).hasSize(2);
+        assertThat(cancelled.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,135 @@
+package services;
+
+import exceptions.SystemErrorException;
+import models.BulkCheckoutSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestBulkCheckoutService {
+
+    private final ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+    // Small chunks, so the test files are handed between the stages in several chunks
+    private final BulkCheckoutService bulkCheckoutService = new BulkCheckoutService(toolCheckoutService, 2, 1);
+
+    @TempDir
+    Path tempDir;
+
+    // Test Case 1 verifies that a CSV file is checked out line by line, skipping the header and blank lines,
+    // and that bad lines are written as errors without stopping the rest of the file
+    @Test
+    public void test1() throws IOException {
+
+        Path input = tempDir.resolve("requests.csv");
+        Path output = tempDir.resolve("agreements.csv");
+
+        Files.write(input, List.of(
+                "toolCode,rentalDays,discountPercent,checkoutDate",
+                "LADW,3,10,2020-07-02",
+                "",
+                "JAKR,5,101,2015-09-03",
+                "CHNS,5,25,2015-07-02",
+                "CHNS,five,25,2015-07-02",
+                "JAKR,4,50,2020-07-02"));
+
+        BulkCheckoutSummary summary = bulkCheckoutService.checkoutTools(input, output);
+
+        assertThat(summary).isEqualTo(new BulkCheckoutSummary(5, 3, 2));
+        assertThat(Files.readAllLines(output)).containsExactly(
+                "line,toolCode,toolType,toolBrand,rentalDays,checkoutDate,dueDate,dailyRentalCharge,chargeDays,preDiscountCharge,discountPercent,discountAmount,finalCharge,error",
+                "2,LADW,LADDER,Werner,3,2020-07-02,2020-07-05,1.99,2,3.98,10,0.40,3.58,",
+                "4,,,,,,,,,,,,,Discount percent must be between 0 and 100 when checking out a tool.",
+                "5,CHNS,CHAINSAW,STIHL,5,2015-07-02,2015-07-07,1.49,3,4.47,25,1.12,3.35,",
+                "6,,,,,,,,,,,,,Rental days must be a whole number when parsing a checkout request.",
+                "7,JAKR,JACKHAMMER,RIDGID,4,2020-07-02,2020-07-06,2.99,1,2.99,50,1.50,1.49,");
+    }
+
+    // Test Case 2 verifies that an NDJSON file is checked out line by line
+    @Test
+    public void test2() throws IOException {
+
+        Path input = tempDir.resolve("requests.ndjson");
+        Path output = tempDir.resolve("agreements.ndjson");
+
+        Files.write(input, List.of(
+                "{\"toolCode\":\"JAKD\",\"rentalDays\":6,\"discountPercent\":0,\"checkoutDate\":\"2015-09-03\"}",
+                "{ \"checkoutDate\" : \"2015-07-02\", \"toolCode\" : \"NOPE\", \"rentalDays\" : 9, \"discountPercent\" : 0 }",
+                "not json"));
+
+        BulkCheckoutSummary summary = bulkCheckoutService.checkoutTools(input, output);
+
+        assertThat(summary).isEqualTo(new BulkCheckoutSummary(3, 1, 2));
+        assertThat(Files.readAllLines(output)).containsExactly(
+                "{\"line\":1,\"toolRentalAgreement\":{\"toolCode\":\"JAKD\",\"toolType\":\"JACKHAMMER\",\"toolBrand\":\"DE_WALT\","
+                        + "\"rentalDays\":6,\"checkoutDate\":\"2015-09-03\",\"dueDate\":\"2015-09-09\",\"dailyRentalCharge\":2.99,"
+                        + "\"chargeDays\":3,\"preDiscountCharge\":8.97,\"discountPercent\":0,\"discountAmount\":0.00,\"finalCharge\":8.97}}",
+                "{\"line\":2,\"error\":\"Tool code entered must be a valid tool code, could not find matching tool.\"}",
+                "{\"line\":3,\"error\":\"Line must be a JSON object when parsing a checkout request.\"}");
+    }
+
+    // Test Case 3 verifies that a writer that fails on a file of many chunks fails the bulk checkout, without
+    // leaving the other stages blocked on their full queues
+    @Test
+    public void test3() throws IOException, InterruptedException {
+
+        Path input = tempDir.resolve("requests.csv");
+        Path output = Files.createDirectory(tempDir.resolve("agreements.csv"));
+
+        Files.write(input, Collections.nCopies(10_000, "LADW,3,10,2020-07-02"));
+
+        assertThatThrownBy(() -> bulkCheckoutService.checkoutTools(input, output))
+                .isInstanceOf(SystemErrorException.class)
+                .hasMessageStartingWith("Could not write rental agreements to");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (hasBulkCheckoutThreads() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(hasBulkCheckoutThreads()).isFalse();
+    }
+
+    // Test Case 4 verifies that quoting a file in bulk prices every line without reserving stock, so the same file can
+    // be repriced again, while checking it out reserves a unit per rental agreement
+    @Test
+    public void test4() throws IOException {
+
+        ToolService toolService = new ToolService();
+        toolService.setStock("LADW", 2);
+
+        BulkCheckoutService stockedBulkCheckoutService = new BulkCheckoutService(new ToolCheckoutService(toolService, new ToolTypeChargeService(),
+                new RentalAmountService(), new RentalDateService()), 2, 1);
+
+        Path input = tempDir.resolve("requests.csv");
+        Path quotes = tempDir.resolve("quotes.csv");
+        Path agreements = tempDir.resolve("agreements.csv");
+
+        Files.write(input, List.of(
+                "LADW,3,10,2020-07-02",
+                "LADW,5,0,2015-07-02",
+                "NOPE,3,10,2020-07-02"));
+
+        assertThat(stockedBulkCheckoutService.quoteTools(input, quotes)).isEqualTo(new BulkCheckoutSummary(3, 2, 1));
+        assertThat(stockedBulkCheckoutService.quoteTools(input, quotes)).isEqualTo(new BulkCheckoutSummary(3, 2, 1));
+        assertThat(toolService.getAvailableStock("LADW")).hasValue(2);
+
+        assertThat(stockedBulkCheckoutService.checkoutTools(input, agreements)).isEqualTo(new BulkCheckoutSummary(3, 2, 1));
+        assertThat(Files.readAllLines(agreements)).isEqualTo(Files.readAllLines(quotes));
+        assertThat(toolService.getAvailableStock("LADW")).hasValue(0);
+    }
+
+    private boolean hasBulkCheckoutThreads() {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().startsWith("bulk-checkout-"));
+    }
+}
@@ -0,0 +1,81 @@
+package services;
+
+import models.Tool;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestCatalogReloader {
+
+    @TempDir
+    Path tempDir;
+
+    // Test Case 1 verifies that the catalogs are loaded from their files, and reloaded once a file is modified
+    @Test
+    public void test1() throws IOException {
+
+        Path toolsPath = tempDir.resolve("tools.csv");
+        Path toolTypeChargesPath = tempDir.resolve("charges.csv");
+
+        Files.write(toolsPath, List.of(CatalogFileParser.TOOLS_CSV_HEADER, "LADW,LADDER,Werner", "", "LADR,LADDER,RIDGID"));
+        Files.write(toolTypeChargesPath, List.of(CatalogFileParser.TOOL_TYPE_CHARGES_CSV_HEADER, "LADDER,1.99,true,true,false"));
+
+        ToolService toolService = new ToolService();
+        ToolTypeChargeService toolTypeChargeService = new ToolTypeChargeService();
+        ToolCheckoutService toolCheckoutService = new ToolCheckoutService(toolService, toolTypeChargeService, new RentalAmountService(), new RentalDateService());
+
+        try (CatalogReloader catalogReloader = new CatalogReloader(toolService, toolsPath, toolTypeChargeService, toolTypeChargesPath, Duration.ofHours(1))) {
+
+            assertThat(toolService.getTool("LADR")).isEqualTo(Optional.of(new Tool("LADR", ToolType.LADDER, ToolBrand.RIDGID)));
+            assertThat(toolService.getTool("CHNS")).isEmpty();
+            assertThat(toolCheckoutService.checkoutTool("LADW", 3, 0, LocalDate.of(2015, 7, 2)).getFinalCharge()).isEqualTo(new BigDecimal("3.98"));
+
+            Files.write(toolTypeChargesPath, List.of(CatalogFileParser.TOOL_TYPE_CHARGES_CSV_HEADER, "LADDER,2.49,true,true,false"));
+            Files.setLastModifiedTime(toolTypeChargesPath, FileTime.fromMillis(Files.getLastModifiedTime(toolTypeChargesPath).toMillis() + 1000));
+            catalogReloader.reloadModifiedCatalogs();
+
+            assertThat(catalogReloader.getLastError()).isNull();
+            assertThat(toolCheckoutService.checkoutTool("LADW", 3, 0, LocalDate.of(2015, 7, 2)).getFinalCharge()).isEqualTo(new BigDecimal("4.98"));
+        }
+    }
+
+    // Test Case 2 verifies that a catalog file that cannot be parsed leaves the current catalog in place
+    @Test
+    public void test2() throws IOException {
+
+        Path toolsPath = tempDir.resolve("tools.csv");
+        Path toolTypeChargesPath = tempDir.resolve("charges.csv");
+
+        Files.write(toolsPath, List.of(CatalogFileParser.TOOLS_CSV_HEADER, "JAKR,JACKHAMMER,RIDGID"));
+        Files.write(toolTypeChargesPath, List.of(CatalogFileParser.TOOL_TYPE_CHARGES_CSV_HEADER, "JACKHAMMER,2.99,true,false,false"));
+
+        ToolService toolService = new ToolService();
+        ToolTypeChargeService toolTypeChargeService = new ToolTypeChargeService();
+
+        try (CatalogReloader catalogReloader = new CatalogReloader(toolService, toolsPath, toolTypeChargeService, toolTypeChargesPath, Duration.ofHours(1))) {
+
+            Files.write(toolsPath, List.of(CatalogFileParser.TOOLS_CSV_HEADER, "JAKR,JACKHAMMER,RIDGID", "JAKX,HAMMER,RIDGID"));
+            Files.setLastModifiedTime(toolsPath, FileTime.fromMillis(Files.getLastModifiedTime(toolsPath).toMillis() + 1000));
+            catalogReloader.reloadModifiedCatalogs();
+
+            assertThat(catalogReloader.getLastError())
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("Line 3 of ");
+            assertThat(toolService.getTool("JAKR")).isPresent();
+            assertThat(toolService.getTool("JAKX")).isEmpty();
+        }
+    }
+}
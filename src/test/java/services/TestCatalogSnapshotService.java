@@ -0,0 +1,135 @@
+package services;
+
+import models.Tool;
+import models.ToolTypeCharge;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestCatalogSnapshotService {
+
+    private final CatalogSnapshotService catalogSnapshotService = new CatalogSnapshotService();
+
+    @TempDir
+    Path tempDir;
+
+    // Test Case 1 verifies that a loaded snapshot holds the same tools, tool type charges and charge days as the
+    // services and index it was written from
+    @Test
+    public void test1() {
+
+        List<Tool> tools = List.of(
+                new Tool("CHNS", ToolType.CHAINSAW, ToolBrand.STIHL),
+                new Tool("LADW", ToolType.LADDER, ToolBrand.Werner),
+                new Tool("ladder-1", ToolType.LADDER, null));
+        List<ToolTypeCharge> toolTypeCharges = List.of(
+                new ToolTypeCharge(ToolType.LADDER, new BigDecimal("2"), Boolean.TRUE, Boolean.TRUE, Boolean.FALSE),
+                new ToolTypeCharge(ToolType.CHAINSAW, new BigDecimal("1.49"), Boolean.TRUE, Boolean.FALSE, Boolean.TRUE));
+        ChargeDayIndex chargeDayIndex = new ChargeDayIndex(1990, 2030);
+
+        Path path = tempDir.resolve("catalog.snapshot");
+        catalogSnapshotService.write(path, new ToolService(new ToolCatalog(tools)), new ToolTypeChargeService(toolTypeCharges), chargeDayIndex);
+
+        ToolService toolService = new ToolService();
+        ToolTypeChargeService toolTypeChargeService = new ToolTypeChargeService();
+        ChargeDayIndex loadedChargeDayIndex = catalogSnapshotService.load(path, toolService, toolTypeChargeService, HolidayCalendar.getDefaultCalendar());
+
+        for (Tool tool : tools) {
+            assertThat(toolService.getTool(tool.getToolCode())).contains(tool);
+        }
+
+        assertThat(toolService.getTool("JAKR")).isEmpty();
+        assertThat(toolService.getToolCatalog().size()).isEqualTo(3);
+
+        for (ToolTypeCharge toolTypeCharge : toolTypeCharges) {
+            assertThat(toolTypeChargeService.getToolTypeCharge(toolTypeCharge.getToolType())).contains(toolTypeCharge);
+        }
+
+        assertThat(toolTypeChargeService.getToolTypeCharge(ToolType.JACKHAMMER)).isEmpty();
+
+        for (int chargeMask = 0; chargeMask < 8; chargeMask++) {
+            for (long firstEpochDay = 7305; firstEpochDay < 21800; firstEpochDay += 97) {
+                assertThat(loadedChargeDayIndex.countChargeDays(chargeMask, firstEpochDay, firstEpochDay + 400))
+                        .isEqualTo(chargeDayIndex.countChargeDays(chargeMask, firstEpochDay, firstEpochDay + 400));
+            }
+        }
+    }
+
+    // Test Case 2 verifies that a snapshot is not loaded with a calendar that observes other holidays, or from a
+    // file that is not a snapshot, and that nothing is loaded into the services either way
+    @Test
+    public void test2() throws IOException {
+
+        Path path = tempDir.resolve("catalog.snapshot");
+        catalogSnapshotService.write(path, new ToolService(), new ToolTypeChargeService(), new ChargeDayIndex(2000, 2020));
+
+        ToolService toolService = new ToolService(new ToolCatalog(List.of()));
+        HolidayCalendar holidayCalendar = new HolidayCalendar(List.of(HolidayCalendar.OBSERVED_INDEPENDENCE_DAY));
+
+        assertThatThrownBy(() -> catalogSnapshotService.load(path, toolService, new ToolTypeChargeService(), holidayCalendar))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Catalog snapshot " + path + ": Holiday calendar must observe the same holidays as the calendar the snapshot was written with.");
+
+        Path textPath = tempDir.resolve("tools.csv");
+        Files.writeString(textPath, "toolCode,toolType,brand\n");
+
+        assertThatThrownBy(() -> catalogSnapshotService.load(textPath, toolService, new ToolTypeChargeService(), HolidayCalendar.getDefaultCalendar()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Catalog snapshot " + textPath + ": File is not a catalog snapshot of format version 2.");
+
+        assertThat(toolService.getToolCatalog().size()).isEqualTo(0);
+    }
+
+    // Test Case 3 verifies that a snapshot whose tool table holds a tool type ordinal this build does not have is
+    // not loaded
+    @Test
+    public void test3() throws IOException {
+
+        ToolCatalog toolCatalog = new ToolCatalog(List.of(new Tool("LADW", ToolType.LADDER, ToolBrand.Werner)));
+        Path path = tempDir.resolve("catalog.snapshot");
+        catalogSnapshotService.write(path, new ToolService(toolCatalog), new ToolTypeChargeService(), new ChargeDayIndex(2000, 2020));
+
+        byte[] table = new byte[toolCatalog.getTable().capacity()];
+        toolCatalog.getTable().get(table);
+
+        byte[] snapshot = Files.readAllBytes(path);
+        int tableOffset = indexOf(snapshot, table);
+        int toolTypeOffset = 8;
+
+        for (int slot = 0; slot < table.length; slot += 10) {
+            if (table[slot + toolTypeOffset] == ToolType.LADDER.ordinal()) {
+                snapshot[tableOffset + slot + toolTypeOffset] = (byte) ToolType.values().length;
+            }
+        }
+
+        Files.write(path, snapshot);
+
+        ToolService toolService = new ToolService(new ToolCatalog(List.of()));
+
+        assertThatThrownBy(() -> catalogSnapshotService.load(path, toolService, new ToolTypeChargeService(), HolidayCalendar.getDefaultCalendar()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Catalog snapshot " + path + ": Table must only hold tool type and brand ordinals of this build when creating a tool catalog.");
+        assertThat(toolService.getToolCatalog().size()).isEqualTo(0);
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        for (int i = 0; i + part.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+
+        throw new AssertionError("Snapshot does not hold the table.");
+    }
+}
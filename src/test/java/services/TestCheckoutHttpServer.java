@@ -0,0 +1,128 @@
+package services;
+
+import models.CheckoutHttpServerConfig;
+import models.ToolTypeCharge;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestCheckoutHttpServer {
+
+    private static final String LADW_AGREEMENT = "{\"toolCode\":\"LADW\",\"toolType\":\"LADDER\",\"toolBrand\":\"Werner\",\"rentalDays\":3,"
+            + "\"checkoutDate\":\"2020-07-02\",\"dueDate\":\"2020-07-05\",\"dailyRentalCharge\":1.99,\"chargeDays\":2,"
+            + "\"preDiscountCharge\":3.98,\"discountPercent\":10,\"discountAmount\":0.40,\"finalCharge\":3.58}";
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+    // Test Case 1 verifies that tools are checked out, checked out in batches and quoted over HTTP
+    @Test
+    public void test1() throws Exception {
+
+        try (CheckoutHttpServer checkoutHttpServer = new CheckoutHttpServer(toolCheckoutService, CheckoutHttpServerConfig.builder().port(0).build())) {
+
+            HttpResponse<String> checkoutResponse = post(checkoutHttpServer, "/checkout",
+                    "{\"toolCode\":\"LADW\",\"rentalDays\":3,\"discountPercent\":10,\"checkoutDate\":\"2020-07-02\"}");
+
+            assertThat(checkoutResponse.statusCode()).isEqualTo(200);
+            assertThat(checkoutResponse.body()).isEqualTo(LADW_AGREEMENT);
+
+            HttpResponse<String> quoteResponse = get(checkoutHttpServer, "/quote?toolCode=LADW&rentalDays=3&discountPercent=10&checkoutDate=2020-07-02");
+
+            assertThat(quoteResponse.statusCode()).isEqualTo(200);
+            assertThat(quoteResponse.body()).isEqualTo(LADW_AGREEMENT);
+
+            HttpResponse<String> batchResponse = post(checkoutHttpServer, "/checkouts",
+                    "{\"toolCode\":\"LADW\",\"rentalDays\":3,\"discountPercent\":10,\"checkoutDate\":\"2020-07-02\"}\n\nnot json\n");
+
+            assertThat(batchResponse.statusCode()).isEqualTo(200);
+            assertThat(batchResponse.body()).isEqualTo("{\"line\":1,\"toolRentalAgreement\":" + LADW_AGREEMENT + "}\n"
+                    + "{\"line\":3,\"error\":\"Line must be a JSON object when parsing a checkout request.\"}\n");
+        }
+    }
+
+    // Test Case 2 verifies that failed requests are answered with their status and error
+    @Test
+    public void test2() throws Exception {
+
+        CheckoutHttpServerConfig config = CheckoutHttpServerConfig.builder().port(0).maxRequestBytes(64).build();
+
+        try (CheckoutHttpServer checkoutHttpServer = new CheckoutHttpServer(toolCheckoutService, config)) {
+
+            HttpResponse<String> badRequest = get(checkoutHttpServer, "/quote?toolCode=LADW&rentalDays=3&discountPercent=101&checkoutDate=2020-07-02");
+            assertThat(badRequest.statusCode()).isEqualTo(400);
+            assertThat(badRequest.body()).isEqualTo("{\"error\":\"Discount percent must be between 0 and 100 when checking out a tool.\"}");
+
+            assertThat(get(checkoutHttpServer, "/quote?toolCode=NOPE&rentalDays=3&discountPercent=0&checkoutDate=2020-07-02").statusCode()).isEqualTo(404);
+            assertThat(get(checkoutHttpServer, "/checkout").statusCode()).isEqualTo(405);
+            assertThat(post(checkoutHttpServer, "/checkout", "{\"toolCode\":\"" + "L".repeat(64) + "\"}").statusCode()).isEqualTo(413);
+        }
+    }
+
+    // Test Case 3 verifies that requests beyond the pending request limit are answered with 503, and that closing the
+    // server waits for the pending request to finish
+    @Test
+    public void test3() throws Exception {
+
+        CountDownLatch pricingStarted = new CountDownLatch(1);
+        CountDownLatch releasePricing = new CountDownLatch(1);
+
+        RentalDateService blockingRentalDateService = new RentalDateService() {
+            @Override
+            public Integer determineNumberOfChargeDays(ToolTypeCharge toolTypeCharge, LocalDate checkoutDate, Integer rentalDays) {
+                pricingStarted.countDown();
+
+                try {
+                    releasePricing.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return super.determineNumberOfChargeDays(toolTypeCharge, checkoutDate, rentalDays);
+            }
+        };
+
+        ToolCheckoutService blockingToolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), blockingRentalDateService);
+        CheckoutHttpServer checkoutHttpServer = new CheckoutHttpServer(blockingToolCheckoutService, CheckoutHttpServerConfig.builder().port(0).maxPendingRequests(1).build());
+
+        CompletableFuture<HttpResponse<String>> pendingResponse = httpClient.sendAsync(
+                HttpRequest.newBuilder(uri(checkoutHttpServer, "/quote?toolCode=LADW&rentalDays=3&discountPercent=10&checkoutDate=2020-07-02")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(pricingStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        HttpResponse<String> rejectedResponse = get(checkoutHttpServer, "/quote?toolCode=LADW&rentalDays=3&discountPercent=10&checkoutDate=2020-07-02");
+        assertThat(rejectedResponse.statusCode()).isEqualTo(503);
+        assertThat(rejectedResponse.headers().firstValue("Retry-After")).contains("1");
+
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(checkoutHttpServer::close);
+        releasePricing.countDown();
+        closed.get(10, TimeUnit.SECONDS);
+
+        assertThat(pendingResponse.get(10, TimeUnit.SECONDS).body()).isEqualTo(LADW_AGREEMENT);
+    }
+
+    private HttpResponse<String> get(CheckoutHttpServer checkoutHttpServer, String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(uri(checkoutHttpServer, path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(CheckoutHttpServer checkoutHttpServer, String path, String body) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(uri(checkoutHttpServer, path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(CheckoutHttpServer checkoutHttpServer, String path) {
+        return URI.create("http://localhost:" + checkoutHttpServer.getPort() + path);
+    }
+}
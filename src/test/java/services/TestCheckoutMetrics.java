@@ -0,0 +1,166 @@
+package services;
+
+import models.CheckoutMetricsSnapshot;
+import models.LatencyHistogram;
+import models.ToolRentalAgreement;
+import models.constants.CheckoutStage;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class TestCheckoutMetrics {
+
+    private final CheckoutMetrics checkoutMetrics = new CheckoutMetrics();
+
+    private final ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(),
+            new RentalAmountService(), new RentalDateService(), checkoutMetrics);
+
+    // Test Case 1 verifies that every stage of a completed checkout is recorded, along with the checkout latency by
+    // tool type, and that a failed checkout is counted
+    @Test
+    public void test1() {
+
+        toolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+        toolCheckoutService.checkoutTool("JAKR", 9, 0, LocalDate.of(2015, 7, 2));
+        assertThatThrownBy(() -> toolCheckoutService.checkoutTool("NOPE", 3, 10, LocalDate.of(2015, 7, 2)));
+
+        CheckoutMetricsSnapshot snapshot = checkoutMetrics.getSnapshot();
+
+        assertThat(snapshot.getCompletedCheckouts()).isEqualTo(2);
+        assertThat(snapshot.getFailedCheckouts()).isEqualTo(1);
+        assertThat(snapshot.getStageLatencies().get(CheckoutStage.VALIDATION).getCount()).isEqualTo(3);
+        assertThat(snapshot.getStageLatencies().get(CheckoutStage.TOOL_LOOKUP).getCount()).isEqualTo(2);
+        assertThat(snapshot.getStageLatencies().get(CheckoutStage.AGREEMENT_BUILD).getCount()).isEqualTo(2);
+        assertThat(snapshot.getToolTypeLatencies().get(ToolType.LADDER).getCount()).isEqualTo(1);
+        assertThat(snapshot.getToolTypeLatencies().get(ToolType.JACKHAMMER).getCount()).isEqualTo(1);
+        assertThat(snapshot.getToolTypeLatencies().get(ToolType.CHAINSAW).getCount()).isEqualTo(0);
+
+        toolCheckoutService.checkoutTool("CHNS", 5, 25, LocalDate.of(2015, 7, 2));
+
+        CheckoutMetricsSnapshot intervalSnapshot = checkoutMetrics.getSnapshot().minus(snapshot);
+
+        assertThat(intervalSnapshot.getCompletedCheckouts()).isEqualTo(1);
+        assertThat(intervalSnapshot.getFailedCheckouts()).isEqualTo(0);
+        assertThat(intervalSnapshot.getStageLatencies().get(CheckoutStage.CHARGE_DAYS).getCount()).isEqualTo(1);
+        assertThat(intervalSnapshot.getToolTypeLatencies().get(ToolType.CHAINSAW).getCount()).isEqualTo(1);
+    }
+
+    // Test Case 2 verifies that histogram percentiles are within the precision of their bucket
+    @Test
+    public void test2() {
+
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        long[] values = new long[100_000];
+        Random random = new Random(7);
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            latencyHistogram.record(values[i]);
+        }
+
+        Arrays.sort(values);
+        LatencyHistogram.Snapshot snapshot = latencyHistogram.getSnapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(values.length);
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            assertThat((double) snapshot.getValueAtPercentile(percentile)).isCloseTo(expected, within(expected * 0.035 + 1));
+        }
+        assertThat(snapshot.getMaxNanos()).isGreaterThanOrEqualTo(values[values.length - 1]);
+    }
+
+    // Test Case 3 verifies that the checkout metrics are readable through JMX once registered
+    @Test
+    public void test3() throws Exception {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("sc0623:type=CheckoutMetrics,name=\"test3\"");
+        ObjectName stageObjectName = new ObjectName("sc0623:type=CheckoutMetrics,name=\"test3\",stage=VALIDATION");
+
+        checkoutMetrics.registerMBeans("test3");
+        try {
+            toolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+
+            assertThat(mBeanServer.getAttribute(objectName, "CompletedCheckouts")).isEqualTo(1L);
+            assertThat(mBeanServer.getAttribute(stageObjectName, "Count")).isEqualTo(1L);
+        } finally {
+            checkoutMetrics.unregisterMBeans();
+        }
+
+        assertThat(mBeanServer.isRegistered(objectName)).isFalse();
+    }
+
+    // Test Case 4 verifies that latencies recorded from many threads add up across the stripes of a histogram, and
+    // that disabled checkout metrics record nothing
+    @Test
+    public void test4() throws InterruptedException {
+
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        Thread[] threads = new Thread[16];
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int value = 1; value <= 10_000; value++) {
+                    latencyHistogram.record(value);
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        LatencyHistogram.Snapshot snapshot = latencyHistogram.getSnapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(160_000);
+        assertThat(snapshot.getTotalNanos()).isEqualTo(16 * 10_000L * 10_001 / 2);
+        assertThat(snapshot.getValueAtPercentile(50)).isCloseTo(5_000, within(5_000L * 35 / 1000));
+
+        CheckoutMetrics disabledMetrics = CheckoutMetrics.disabled();
+        ToolCheckoutService unmeasuredService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(),
+                new RentalAmountService(), new RentalDateService(), disabledMetrics);
+
+        unmeasuredService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+        assertThat(unmeasuredService.tryCheckout("NOPE", 3, 10, LocalDate.of(2015, 7, 2)).isSuccessful()).isFalse();
+
+        CheckoutMetricsSnapshot disabledSnapshot = disabledMetrics.getSnapshot();
+
+        assertThat(disabledMetrics.isEnabled()).isFalse();
+        assertThat(disabledSnapshot.getCompletedCheckouts()).isZero();
+        assertThat(disabledSnapshot.getFailedCheckouts()).isZero();
+        assertThat(disabledSnapshot.getStageLatencies().get(CheckoutStage.VALIDATION).getCount()).isZero();
+    }
+
+    // Test Case 5 verifies that quotes and repriced rental agreements record no stages, so only checkouts are measured
+    @Test
+    public void test5() {
+
+        ToolRentalAgreement toolRentalAgreement = toolCheckoutService.checkoutTool("LADW", 5, 10, LocalDate.of(2015, 7, 2));
+        CheckoutMetricsSnapshot snapshot = checkoutMetrics.getSnapshot();
+
+        toolCheckoutService.quoteTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+        toolCheckoutService.tryQuote("JAKR", 9, 0, LocalDate.of(2015, 7, 2));
+        toolCheckoutService.quoteCheapestCheckoutDates("CHNS", 5, 25, LocalDate.of(2015, 7, 1), LocalDate.of(2015, 7, 10));
+        toolCheckoutService.extendRental(toolRentalAgreement, 2);
+        toolCheckoutService.returnToolEarly(toolRentalAgreement, LocalDate.of(2015, 7, 4));
+
+        CheckoutMetricsSnapshot intervalSnapshot = checkoutMetrics.getSnapshot().minus(snapshot);
+
+        assertThat(snapshot.getStageLatencies().get(CheckoutStage.AMOUNTS).getCount()).isEqualTo(1);
+        for (CheckoutStage checkoutStage : CheckoutStage.values()) {
+            assertThat(intervalSnapshot.getStageLatencies().get(checkoutStage).getCount()).isZero();
+        }
+        assertThat(intervalSnapshot.getCompletedCheckouts()).isZero();
+    }
+}
@@ -0,0 +1,40 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestConsistentHashRing {
+
+    // Test Case 1 verifies that keys are spread evenly over the shards, and that adding a shard only moves keys
+    // onto the new shard
+    @Test
+    public void test1() {
+
+        ConsistentHashRing ring = new ConsistentHashRing(8, 128);
+        ConsistentHashRing largerRing = ring.withAddedShard();
+
+        int[] keysByShard = new int[ring.getShards()];
+        int movedKeys = 0;
+
+        for (int store = 0; store < 80_000; store++) {
+            String storeId = "store-" + store;
+            int shard = ring.getShard(storeId);
+            int largerShard = largerRing.getShard(storeId);
+
+            keysByShard[shard]++;
+
+            if (largerShard != shard) {
+                assertThat(largerShard).isEqualTo(8);
+                movedKeys++;
+            }
+        }
+
+        for (int keys : keysByShard) {
+            assertThat(keys).isBetween(8_000, 12_000);
+        }
+
+        assertThat(movedKeys).isBetween(80_000 / 9 / 2, 80_000 / 9 * 3 / 2);
+        assertThat(ring.getShard("store-1")).isEqualTo(new ConsistentHashRing(8, 128).getShard("store-1"));
+    }
+}
@@ -0,0 +1,77 @@
+package services;
+
+import models.CheckoutRequest;
+import models.LoadTestConfig;
+import models.LoadTestReport;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestLoadGenerator {
+
+    private final LoadGenerator loadGenerator = new LoadGenerator(
+            new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService()));
+
+    // Test Case 1 verifies that generated checkout requests stay within the workload, and that holiday heavy
+    // checkouts are rented over a holiday
+    @Test
+    public void test1() {
+
+        LoadTestConfig config = LoadTestConfig
+                .builder()
+                .toolCodes(List.of("LADW", "JAKR"))
+                .maxRentalDays(10)
+                .holidayPercent(100)
+                .discountedPercent(50)
+                .maxDiscountPercent(20)
+                .firstCheckoutYear(2015)
+                .lastCheckoutYear(2016)
+                .build();
+
+        HolidayCalendar holidayCalendar = HolidayCalendar.getDefaultCalendar();
+        SplittableRandom random = new SplittableRandom(config.getSeed());
+        int discountedCheckouts = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            CheckoutRequest checkoutRequest = loadGenerator.nextCheckoutRequest(config, random);
+            LocalDate checkoutDate = checkoutRequest.getCheckoutDate();
+
+            assertThat(checkoutRequest.getToolCode()).isIn("LADW", "JAKR");
+            assertThat(checkoutRequest.getRentalDays()).isBetween(1, 10);
+            assertThat(checkoutRequest.getDiscountPercent()).isBetween(0, 20);
+            assertThat(holidayCalendar.countHolidays(checkoutDate.plusDays(1), checkoutDate.plusDays(checkoutRequest.getRentalDays()))).isEqualTo(1);
+
+            if (checkoutRequest.getDiscountPercent() > 0) {
+                discountedCheckouts++;
+            }
+        }
+
+        assertThat(discountedCheckouts).isBetween(4_500, 5_500);
+    }
+
+    // Test Case 2 verifies that a load test counts every measured checkout in its latencies
+    @Test
+    public void test2() {
+
+        LoadTestConfig config = LoadTestConfig
+                .builder()
+                .threads(2)
+                .warmup(Duration.ofMillis(50))
+                .duration(Duration.ofMillis(200))
+                .build();
+
+        LoadTestReport loadTestReport = loadGenerator.run(config);
+
+        assertThat(loadTestReport.getToolRentalAgreements()).isPositive();
+        assertThat(loadTestReport.getFailedCheckouts()).isZero();
+        assertThat(loadTestReport.getThroughput()).isPositive();
+        assertThat(loadTestReport.getLatency().getValueAtPercentile(50))
+                .isLessThanOrEqualTo(loadTestReport.getLatency().getValueAtPercentile(99.9));
+        assertThat(loadTestReport.isVirtualThreads()).isFalse();
+    }
+}
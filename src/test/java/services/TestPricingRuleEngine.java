@@ -0,0 +1,105 @@
+package services;
+
+import models.PricingRuleSet;
+import models.RentalDiscountTier;
+import models.RentalPrice;
+import models.SeasonalRate;
+import models.ToolRentalAgreement;
+import models.constants.DayClass;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestPricingRuleEngine {
+
+    private final PricingRuleEngine pricingRuleEngine = new PricingRuleEngine(new RentalDateService(), new RentalAmountService());
+
+    // Test Case 1 verifies that the rule set of a tool type charge prices a rental the same as checking out the tool
+    @Test
+    public void test1() {
+
+        ToolTypeChargeService toolTypeChargeService = new ToolTypeChargeService();
+        ToolService toolService = new ToolService();
+        ToolCheckoutService toolCheckoutService = new ToolCheckoutService(toolService, toolTypeChargeService, new RentalAmountService(), new RentalDateService());
+
+        for (String toolCode : new String[]{"CHNS", "LADW", "JAKR"}) {
+            CompiledPricingRules compiledPricingRules = pricingRuleEngine.compile(PricingRuleSet.fromToolTypeCharge(
+                    toolTypeChargeService.getToolTypeCharge(toolService.getTool(toolCode).orElseThrow().getToolType()).orElseThrow()));
+
+            for (LocalDate checkoutDate = LocalDate.of(2015, 6, 25); checkoutDate.isBefore(LocalDate.of(2015, 9, 10)); checkoutDate = checkoutDate.plusDays(2)) {
+                for (int rentalDays : new int[]{1, 3, 6, 40}) {
+                    ToolRentalAgreement toolRentalAgreement = toolCheckoutService.quoteTool(toolCode, rentalDays, 15, checkoutDate);
+
+                    assertThat(compiledPricingRules.price(checkoutDate, rentalDays, 15))
+                            .isEqualTo(new RentalPrice(toolRentalAgreement.getChargeDays(), toolRentalAgreement.getPreDiscountCharge(), 15,
+                                    toolRentalAgreement.getDiscountAmount(), toolRentalAgreement.getFinalCharge()));
+                }
+            }
+        }
+    }
+
+    // Test Case 2 verifies that per day class rates, seasonal rates and rental discount tiers match pricing each
+    // rental day on its own, and that overlapping seasons are rejected
+    @Test
+    public void test2() {
+
+        Map<DayClass, BigDecimal> dailyRentalCharges = Map.of(DayClass.WEEKDAY, new BigDecimal("2.99"), DayClass.WEEKEND, new BigDecimal("4.49"));
+        List<SeasonalRate> seasonalRates = List.of(
+                new SeasonalRate(MonthDay.of(12, 20), MonthDay.of(1, 5), 150),
+                new SeasonalRate(MonthDay.of(7, 1), MonthDay.of(8, 31), 85));
+
+        CompiledPricingRules compiledPricingRules = pricingRuleEngine.compile(PricingRuleSet.builder()
+                .dailyRentalCharges(dailyRentalCharges)
+                .seasonalRates(seasonalRates)
+                .rentalDiscountTiers(List.of(new RentalDiscountTier(7, 5), new RentalDiscountTier(30, 10)))
+                .build());
+
+        HolidayCalendar holidayCalendar = HolidayCalendar.getDefaultCalendar();
+
+        for (LocalDate checkoutDate = LocalDate.of(2014, 12, 1); checkoutDate.isBefore(LocalDate.of(2016, 2, 1)); checkoutDate = checkoutDate.plusDays(5)) {
+            for (int rentalDays : new int[]{1, 4, 7, 29, 30, 400}) {
+                long expectedCents = 0;
+
+                for (int day = 1; day <= rentalDays; day++) {
+                    LocalDate rentalDate = checkoutDate.plusDays(day);
+                    boolean weekend = rentalDate.getDayOfWeek() == DayOfWeek.SATURDAY || rentalDate.getDayOfWeek() == DayOfWeek.SUNDAY;
+                    BigDecimal dailyRentalCharge = holidayCalendar.isObservedHoliday(rentalDate) ? null
+                            : dailyRentalCharges.get(weekend ? DayClass.WEEKEND : DayClass.WEEKDAY);
+
+                    if (dailyRentalCharge != null) {
+                        long cents = dailyRentalCharge.movePointRight(2).longValueExact();
+                        MonthDay monthDay = MonthDay.from(rentalDate);
+
+                        if (!monthDay.isBefore(MonthDay.of(12, 20)) || !monthDay.isAfter(MonthDay.of(1, 5))) {
+                            cents = (cents * 150 + 50) / 100;
+                        } else if (!monthDay.isBefore(MonthDay.of(7, 1)) && !monthDay.isAfter(MonthDay.of(8, 31))) {
+                            cents = (cents * 85 + 50) / 100;
+                        }
+
+                        expectedCents += cents;
+                    }
+                }
+
+                int expectedDiscountPercent = 20 + (rentalDays >= 30 ? 10 : rentalDays >= 7 ? 5 : 0);
+                RentalPrice rentalPrice = compiledPricingRules.price(checkoutDate, rentalDays, 20);
+
+                assertThat(rentalPrice.getPreDiscountCharge()).isEqualTo(BigDecimal.valueOf(expectedCents, 2));
+                assertThat(rentalPrice.getDiscountPercent()).isEqualTo(expectedDiscountPercent);
+            }
+        }
+
+        assertThatThrownBy(() -> pricingRuleEngine.compile(PricingRuleSet.builder()
+                .seasonalRates(List.of(new SeasonalRate(MonthDay.of(12, 20), MonthDay.of(1, 5), 150), new SeasonalRate(MonthDay.of(1, 5), MonthDay.of(2, 1), 90)))
+                .build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Seasonal rates cannot overlap when compiling a pricing rule set, --01-05 is in more than one season.");
+    }
+}
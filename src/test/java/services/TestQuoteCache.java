@@ -0,0 +1,84 @@
+package services;
+
+import models.QuoteCacheStatistics;
+import models.ToolRentalAgreement;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestQuoteCache {
+
+    private final ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+    // Test Case 1 verifies that cached quotes match the uncached tool checkout service and that repeated quotes are hits
+    @Test
+    public void test1() {
+
+        RentalDateService rentalDateService = new RentalDateService();
+        QuoteCache quoteCache = new QuoteCache(rentalDateService.getHolidayCalendar(), 1000);
+        ToolCheckoutService cachingToolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(),
+                new RentalAmountService(), rentalDateService, new CheckoutMetrics(), quoteCache);
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (LocalDate checkoutDate = LocalDate.of(2015, 6, 28); checkoutDate.isBefore(LocalDate.of(2015, 7, 8)); checkoutDate = checkoutDate.plusDays(1)) {
+                for (int rentalDays : new int[]{3, 5, 7}) {
+                    for (String toolCode : List.of("LADW", "JAKR")) {
+                        assertThat(cachingToolCheckoutService.quoteTool(toolCode, rentalDays, 10, checkoutDate))
+                                .isEqualTo(toolCheckoutService.quoteTool(toolCode, rentalDays, 10, checkoutDate));
+                    }
+                }
+            }
+        }
+
+        assertThat(quoteCache.getStatistics()).isEqualTo(new QuoteCacheStatistics(60, 60, 0, 60));
+
+        // A different discount is a different quote, and the same quote checked out is a hit
+        cachingToolCheckoutService.quoteTool("LADW", 3, 20, LocalDate.of(2015, 6, 28));
+        cachingToolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 6, 28));
+
+        assertThat(quoteCache.getStatistics()).isEqualTo(new QuoteCacheStatistics(61, 61, 0, 61));
+    }
+
+    // Test Case 2 verifies that the cache never holds more than its maximum size, that cached quotes are not used once
+    // a holiday is registered, and that the cheapest checkout dates and repriced rentals never go through the cache
+    @Test
+    public void test2() {
+
+        HolidayCalendar holidayCalendar = new HolidayCalendar(List.of(HolidayCalendar.OBSERVED_INDEPENDENCE_DAY));
+        QuoteCache quoteCache = new QuoteCache(holidayCalendar, 20);
+        ToolCheckoutService cachingToolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(),
+                new RentalAmountService(), new RentalDateService(holidayCalendar, null), new CheckoutMetrics(), quoteCache);
+
+        for (int i = 0; i < 100; i++) {
+            cachingToolCheckoutService.quoteTool("JAKR", 5, 0, LocalDate.of(2015, 1, 1).plusDays(i));
+        }
+
+        QuoteCacheStatistics statistics = quoteCache.getStatistics();
+        assertThat(statistics.getSize()).isLessThanOrEqualTo(20);
+        assertThat(statistics.getEvictions()).isEqualTo(100 - statistics.getSize());
+
+        LocalDate checkoutDate = LocalDate.of(2015, 12, 24);
+        assertThat(cachingToolCheckoutService.quoteTool("JAKR", 3, 0, checkoutDate).getChargeDays()).isEqualTo(1);
+
+        holidayCalendar.registerHoliday(year -> LocalDate.of(year, 12, 25));
+        assertThat(cachingToolCheckoutService.quoteTool("JAKR", 3, 0, checkoutDate).getChargeDays()).isEqualTo(0);
+
+        QuoteCacheStatistics quotedStatistics = quoteCache.getStatistics();
+        ToolRentalAgreement toolRentalAgreement = cachingToolCheckoutService.quoteTool("JAKR", 9, 0, LocalDate.of(2015, 7, 2));
+
+        cachingToolCheckoutService.quoteCheapestCheckoutDates("JAKR", 9, 0, LocalDate.of(2015, 7, 1), LocalDate.of(2015, 8, 1));
+        cachingToolCheckoutService.extendRental(toolRentalAgreement, 3);
+
+        assertThat(quoteCache.getStatistics().getMisses()).isEqualTo(quotedStatistics.getMisses() + 1);
+        assertThat(quoteCache.getStatistics().getHits()).isEqualTo(quotedStatistics.getHits());
+
+        assertThatThrownBy(() -> new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(),
+                new RentalDateService(), new CheckoutMetrics(), quoteCache))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Quote cache must use the same holiday calendar as the rental date service.");
+    }
+}
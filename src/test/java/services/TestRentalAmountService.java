@@ -0,0 +1,55 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestRentalAmountService {
+
+    private static final List<BigDecimal> DAILY_RENTAL_CHARGES = List.of(
+            new BigDecimal("1.99"), new BigDecimal("1.49"), new BigDecimal("2.99"), new BigDecimal("0.01"),
+            new BigDecimal("2"), new BigDecimal("2.5"), new BigDecimal("19.999"), new BigDecimal("-1.99"),
+            new BigDecimal("1E+1"), new BigDecimal("92233720368547758.07"), new BigDecimal("99999999999999999999.99"));
+
+    private final RentalAmountService rentalAmountService = new RentalAmountService();
+
+    // Test Case 1 verifies that the calculated charges have the same value and scale as calculating them
+    // with BigDecimal, including amounts that are too large for long arithmetic
+    @Test
+    public void test1() {
+
+        for (BigDecimal dailyRentalCharge : DAILY_RENTAL_CHARGES) {
+            for (int chargeDays = 0; chargeDays <= 400; chargeDays++) {
+                for (int discountPercent = 0; discountPercent <= 100; discountPercent += 3) {
+                    BigDecimal expectedPreDiscountCharge = dailyRentalCharge.multiply(new BigDecimal(chargeDays));
+                    BigDecimal expectedDiscountAmount = expectedPreDiscountCharge.multiply(new BigDecimal(discountPercent)).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+                    BigDecimal expectedFinalCharge = expectedPreDiscountCharge.subtract(expectedDiscountAmount);
+
+                    BigDecimal preDiscountCharge = rentalAmountService.calculatePreDiscountCharge(chargeDays, dailyRentalCharge);
+                    BigDecimal discountAmount = rentalAmountService.calculateDiscountAmount(discountPercent, preDiscountCharge);
+                    BigDecimal finalCharge = rentalAmountService.calculateFinalCharge(preDiscountCharge, discountAmount);
+
+                    // BigDecimal::equals compares the scale as well as the value
+                    assertThat(preDiscountCharge).isEqualTo(expectedPreDiscountCharge);
+                    assertThat(discountAmount).isEqualTo(expectedDiscountAmount);
+                    assertThat(finalCharge).isEqualTo(expectedFinalCharge);
+                }
+            }
+        }
+    }
+
+    // Test Case 2 verifies that the discount amount is rounded half-up to cents
+    @Test
+    public void test2() {
+
+        assertThat(rentalAmountService.calculateDiscountAmountCents(50, 299)).isEqualTo(150);
+        assertThat(rentalAmountService.calculateDiscountAmountCents(25, 447)).isEqualTo(112);
+        assertThat(rentalAmountService.calculateDiscountAmountCents(10, 398)).isEqualTo(40);
+        assertThat(rentalAmountService.calculateDiscountAmountCents(50, -299)).isEqualTo(-150);
+        assertThat(rentalAmountService.calculateDiscountAmount(50, new BigDecimal("2.99"))).isEqualTo(new BigDecimal("1.50"));
+    }
+}
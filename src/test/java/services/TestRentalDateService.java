@@ -0,0 +1,199 @@
+package services;
+
+import models.ToolTypeCharge;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestRentalDateService {
+
+    private static final int[] RENTAL_DAYS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 13, 14, 29, 30, 31, 60, 364, 365, 366, 730, 3653};
+
+    private final RentalDateService rentalDateService = new RentalDateService();
+
+    // Test Case 1 verifies that RentalDateService::determineNumberOfChargeDays matches a day by day
+    // count for every combination of weekday, weekend and holiday charges
+    @Test
+    public void test1() {
+
+        for (ToolTypeCharge toolTypeCharge : getAllToolTypeCharges()) {
+            for (LocalDate checkoutDate = LocalDate.of(2014, 12, 20); checkoutDate.isBefore(LocalDate.of(2017, 1, 10)); checkoutDate = checkoutDate.plusDays(1)) {
+                for (int rentalDays : RENTAL_DAYS) {
+                    assertThat(rentalDateService.determineNumberOfChargeDays(toolTypeCharge, checkoutDate, rentalDays))
+                            .as("%s, checkout date %s, rental days %d", toolTypeCharge, checkoutDate, rentalDays)
+                            .isEqualTo(countChargeDaysByDay(toolTypeCharge, checkoutDate, rentalDays));
+                }
+            }
+        }
+    }
+
+    // Test Case 2 verifies that Independence Day is observed on the closest weekday when the 4th of July
+    // falls on the weekend
+    @Test
+    public void test2() {
+
+        ToolTypeCharge holidayOnly = new ToolTypeCharge(ToolType.CHAINSAW, new BigDecimal("1.49"), Boolean.FALSE, Boolean.FALSE, Boolean.TRUE);
+
+        // Saturday, observed Friday 07/03/2015
+        assertThat(rentalDateService.determineNumberOfChargeDays(holidayOnly, LocalDate.of(2015, 7, 2), 1)).isEqualTo(1);
+        // Sunday, observed Monday 07/05/2021
+        assertThat(rentalDateService.determineNumberOfChargeDays(holidayOnly, LocalDate.of(2021, 7, 4), 1)).isEqualTo(1);
+        // Tuesday, observed on the day
+        assertThat(rentalDateService.determineNumberOfChargeDays(holidayOnly, LocalDate.of(2023, 7, 3), 1)).isEqualTo(1);
+    }
+
+    // Test Case 3 verifies that a multi-year rental counts each observed holiday once per year
+    @Test
+    public void test3() {
+
+        ToolTypeCharge holidayOnly = new ToolTypeCharge(ToolType.CHAINSAW, new BigDecimal("1.49"), Boolean.FALSE, Boolean.FALSE, Boolean.TRUE);
+
+        assertThat(rentalDateService.determineNumberOfChargeDays(holidayOnly, LocalDate.of(2000, 1, 1), 365 * 10))
+                .isEqualTo(20);
+    }
+
+    // Test Case 4 verifies that rentals inside, outside and straddling the span of a calendar index
+    // match a day by day count, as does a service without an index
+    @Test
+    public void test4() {
+
+        RentalDateService indexedService = new RentalDateService(new ChargeDayIndex(2015, 2016));
+        RentalDateService unindexedService = new RentalDateService(null);
+
+        for (ToolTypeCharge toolTypeCharge : getAllToolTypeCharges()) {
+            for (LocalDate checkoutDate = LocalDate.of(2014, 11, 1); checkoutDate.isBefore(LocalDate.of(2017, 2, 1)); checkoutDate = checkoutDate.plusDays(3)) {
+                for (int rentalDays : RENTAL_DAYS) {
+                    int expected = countChargeDaysByDay(toolTypeCharge, checkoutDate, rentalDays);
+
+                    assertThat(indexedService.determineNumberOfChargeDays(toolTypeCharge, checkoutDate, rentalDays))
+                            .as("indexed %s, checkout date %s, rental days %d", toolTypeCharge, checkoutDate, rentalDays)
+                            .isEqualTo(expected);
+                    assertThat(unindexedService.determineNumberOfChargeDays(toolTypeCharge, checkoutDate, rentalDays))
+                            .as("unindexed %s, checkout date %s, rental days %d", toolTypeCharge, checkoutDate, rentalDays)
+                            .isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    // Test Case 5 verifies that holidays registered on a holiday calendar, including ones on the weekend,
+    // are charged as holidays by both the calendar index and calendar arithmetic, and that the shared default
+    // calendar cannot be changed
+    @Test
+    public void test5() {
+
+        HolidayCalendar holidayCalendar = new HolidayCalendar(List.of(HolidayCalendar.OBSERVED_INDEPENDENCE_DAY, HolidayCalendar.MEMORIAL_DAY));
+        ChargeDayIndex chargeDayIndex = new ChargeDayIndex(holidayCalendar, 2015, 2016);
+        RentalDateService indexedService = new RentalDateService(holidayCalendar, chargeDayIndex);
+        RentalDateService unindexedService = new RentalDateService(holidayCalendar, null);
+
+        ToolTypeCharge weekendOnly = new ToolTypeCharge(ToolType.LADDER, new BigDecimal("1.99"), Boolean.FALSE, Boolean.TRUE, Boolean.FALSE);
+
+        // Warm up the index and the cached holiday years before registering the new holidays
+        assertThat(indexedService.determineNumberOfChargeDays(weekendOnly, LocalDate.of(2015, 12, 24), 3)).isEqualTo(2);
+
+        holidayCalendar.registerHoliday(year -> LocalDate.of(year, Month.DECEMBER, 26));
+        holidayCalendar.registerHoliday(year -> LocalDate.of(year, Month.JANUARY, 1).minusDays(1));
+
+        // Saturday 12/26/2015 is now charged as a holiday rather than a weekend day
+        assertThat(indexedService.determineNumberOfChargeDays(weekendOnly, LocalDate.of(2015, 12, 24), 3)).isEqualTo(1);
+        assertThat(holidayCalendar.isObservedHoliday(LocalDate.of(2015, 12, 31))).isTrue();
+
+        for (ToolTypeCharge toolTypeCharge : getAllToolTypeCharges()) {
+            for (LocalDate checkoutDate = LocalDate.of(2014, 11, 1); checkoutDate.isBefore(LocalDate.of(2017, 2, 1)); checkoutDate = checkoutDate.plusDays(5)) {
+                for (int rentalDays : RENTAL_DAYS) {
+                    int expected = countChargeDaysByDay(toolTypeCharge, checkoutDate, rentalDays, holidayCalendar);
+
+                    assertThat(indexedService.determineNumberOfChargeDays(toolTypeCharge, checkoutDate, rentalDays))
+                            .as("indexed %s, checkout date %s, rental days %d", toolTypeCharge, checkoutDate, rentalDays)
+                            .isEqualTo(expected);
+                    assertThat(unindexedService.determineNumberOfChargeDays(toolTypeCharge, checkoutDate, rentalDays))
+                            .as("unindexed %s, checkout date %s, rental days %d", toolTypeCharge, checkoutDate, rentalDays)
+                            .isEqualTo(expected);
+                }
+            }
+        }
+
+        // The shared default calendar cannot be changed, so other rental date services are not affected
+        assertThatThrownBy(() -> HolidayCalendar.getDefaultCalendar().registerHoliday(year -> LocalDate.of(year, Month.DECEMBER, 26)))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(HolidayCalendar.getDefaultCalendar().isObservedHoliday(LocalDate.of(2015, 12, 26))).isFalse();
+    }
+
+    private List<ToolTypeCharge> getAllToolTypeCharges() {
+        List<ToolTypeCharge> toolTypeCharges = new ArrayList<>();
+
+        for (int flags = 0; flags < 8; flags++) {
+            toolTypeCharges.add(new ToolTypeCharge(ToolType.LADDER, new BigDecimal("1.99"),
+                    (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0));
+        }
+
+        return toolTypeCharges;
+    }
+
+    // Reference implementation, visits every rental day
+    private int countChargeDaysByDay(ToolTypeCharge toolTypeCharge, LocalDate checkoutDate, int rentalDays) {
+        return countChargeDaysByDay(toolTypeCharge, checkoutDate, rentalDays, null);
+    }
+
+    private int countChargeDaysByDay(ToolTypeCharge toolTypeCharge, LocalDate checkoutDate, int rentalDays, HolidayCalendar holidayCalendar) {
+        int chargeDays = 0;
+
+        for (int i = 1; i <= rentalDays; i++) {
+            LocalDate rentalDate = checkoutDate.plusDays(i);
+            boolean weekend = rentalDate.getDayOfWeek() == DayOfWeek.SATURDAY || rentalDate.getDayOfWeek() == DayOfWeek.SUNDAY;
+
+            boolean chargeable;
+            boolean holiday = holidayCalendar == null
+                    ? isMemorialDay(rentalDate) || isObservedAsIndependenceDay(rentalDate)
+                    : holidayCalendar.isObservedHoliday(rentalDate);
+
+            if (holiday) {
+                chargeable = toolTypeCharge.getHolidayCharge();
+            } else if (weekend) {
+                chargeable = toolTypeCharge.getWeekendCharge();
+            } else {
+                chargeable = toolTypeCharge.getWeekdayCharge();
+            }
+
+            if (chargeable) {
+                chargeDays++;
+            }
+        }
+
+        return chargeDays;
+    }
+
+    private boolean isObservedAsIndependenceDay(LocalDate date) {
+        if (date.getMonth() != Month.JULY) {
+            return false;
+        }
+
+        LocalDate fourthOfJuly = LocalDate.of(date.getYear(), Month.JULY, 4);
+
+        if (fourthOfJuly.getDayOfWeek() == DayOfWeek.SATURDAY) {
+            return date.equals(fourthOfJuly.minusDays(1));
+        }
+
+        if (fourthOfJuly.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            return date.equals(fourthOfJuly.plusDays(1));
+        }
+
+        return date.equals(fourthOfJuly);
+    }
+
+    private boolean isMemorialDay(LocalDate date) {
+        return date.getMonth() == Month.SEPTEMBER
+                && date.getDayOfWeek() == DayOfWeek.MONDAY
+                && date.getDayOfMonth() <= 7;
+    }
+}
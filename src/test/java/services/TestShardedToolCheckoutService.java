@@ -0,0 +1,139 @@
+package services;
+
+import models.CheckoutResult;
+import models.Tool;
+import models.ToolTypeCharge;
+import models.constants.CheckoutErrorCode;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestShardedToolCheckoutService {
+
+    // Test Case 1 verifies that each store checks out with its own prices and stock, and that an unregistered store
+    // fails with an error code
+    @Test
+    public void test1() {
+
+        try (ShardedToolCheckoutService shardedToolCheckoutService = new ShardedToolCheckoutService(4, 1, new RentalAmountService(), new RentalDateService())) {
+            ToolService store2ToolService = new ToolService();
+            store2ToolService.setStock("LADW", 1);
+
+            shardedToolCheckoutService.registerStore("store-1", new ToolService(), new ToolTypeChargeService());
+            shardedToolCheckoutService.registerStore("store-2", store2ToolService, new ToolTypeChargeService(List.of(
+                    new ToolTypeCharge(ToolType.LADDER, new BigDecimal("2.49"), Boolean.TRUE, Boolean.TRUE, Boolean.FALSE))));
+
+            CheckoutResult store1Result = shardedToolCheckoutService.tryCheckout("store-1", "LADW", 3, 10, LocalDate.of(2015, 7, 2)).join();
+            CheckoutResult store2Result = shardedToolCheckoutService.tryCheckout("store-2", "LADW", 3, 10, LocalDate.of(2015, 7, 2)).join();
+            CheckoutResult outOfStockResult = shardedToolCheckoutService.tryCheckout("store-2", "LADW", 3, 10, LocalDate.of(2015, 7, 2)).join();
+            CheckoutResult unknownStoreResult = shardedToolCheckoutService.tryQuote("store-3", "LADW", 3, 10, LocalDate.of(2015, 7, 2)).join();
+
+            assertThat(store1Result.getToolRentalAgreement().getFinalCharge()).isEqualTo(new BigDecimal("3.58"));
+            assertThat(store2Result.getToolRentalAgreement().getFinalCharge()).isEqualTo(new BigDecimal("4.48"));
+            assertThat(outOfStockResult.getErrorCodes()).containsExactly(CheckoutErrorCode.OUT_OF_STOCK);
+            assertThat(unknownStoreResult.getErrorCodes()).containsExactly(CheckoutErrorCode.STORE_NOT_FOUND);
+        }
+    }
+
+    // Test Case 2 verifies that stores moved by adding a shard keep their catalogs and stock
+    @Test
+    public void test2() {
+
+        try (ShardedToolCheckoutService shardedToolCheckoutService = new ShardedToolCheckoutService(2, 1, new RentalAmountService(), new RentalDateService())) {
+            for (int store = 0; store < 100; store++) {
+                ToolService toolService = new ToolService();
+                toolService.setStock("JAKR", 1);
+
+                shardedToolCheckoutService.registerStore("store-" + store, toolService, new ToolTypeChargeService());
+            }
+
+            assertThat(shardedToolCheckoutService.addShard()).isEqualTo(2);
+            assertThat(shardedToolCheckoutService.getShards()).isEqualTo(3);
+
+            long storesOnNewShard = 0;
+
+            for (int store = 0; store < 100; store++) {
+                String storeId = "store-" + store;
+
+                if (shardedToolCheckoutService.getShard(storeId) == 2) {
+                    storesOnNewShard++;
+                }
+
+                assertThat(shardedToolCheckoutService.tryCheckout(storeId, "JAKR", 9, 0, LocalDate.of(2015, 7, 2)).join().isSuccessful()).isTrue();
+                assertThat(shardedToolCheckoutService.tryCheckout(storeId, "JAKR", 9, 0, LocalDate.of(2015, 7, 2)).join().getErrorCodes())
+                        .containsExactly(CheckoutErrorCode.OUT_OF_STOCK);
+            }
+
+            assertThat(storesOnNewShard).isPositive();
+        }
+    }
+
+    // Test Case 3 verifies that every store records into the shared checkout metrics, and that a checkout routed to a
+    // shard whose queue is full is rejected rather than queued
+    @Test
+    public void test3() throws InterruptedException {
+
+        CheckoutMetrics checkoutMetrics = new CheckoutMetrics();
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingToolService blockingToolService = new BlockingToolService(release);
+
+        try (ShardedToolCheckoutService shardedToolCheckoutService = new ShardedToolCheckoutService(1, 1, 1, new RentalAmountService(), new RentalDateService(), checkoutMetrics)) {
+            shardedToolCheckoutService.registerStore("store-1", new ToolService(), new ToolTypeChargeService());
+            shardedToolCheckoutService.registerStore("store-2", blockingToolService, new ToolTypeChargeService());
+
+            assertThat(shardedToolCheckoutService.tryCheckout("store-1", "LADW", 3, 10, LocalDate.of(2015, 7, 2)).join().isSuccessful()).isTrue();
+            assertThat(shardedToolCheckoutService.getToolCheckoutService("store-2").orElseThrow().getCheckoutMetrics()).isSameAs(checkoutMetrics);
+
+            CompletableFuture<CheckoutResult> runningResult = shardedToolCheckoutService.tryCheckout("store-2", "LADW", 3, 10, LocalDate.of(2015, 7, 2));
+            blockingToolService.started.await();
+
+            CompletableFuture<CheckoutResult> queuedResult = shardedToolCheckoutService.tryCheckout("store-1", "LADW", 3, 10, LocalDate.of(2015, 7, 2));
+            CompletableFuture<CheckoutResult> rejectedResult = shardedToolCheckoutService.tryCheckout("store-1", "LADW", 3, 10, LocalDate.of(2015, 7, 2));
+
+            assertThat(rejectedResult).isCompletedExceptionally();
+            assertThatThrownBy(rejectedResult::join).hasCauseInstanceOf(RejectedExecutionException.class);
+
+            release.countDown();
+
+            assertThat(runningResult.join().isSuccessful()).isTrue();
+            assertThat(queuedResult.join().isSuccessful()).isTrue();
+            assertThat(checkoutMetrics.getCompletedCheckouts()).isEqualTo(3);
+        }
+    }
+
+    /**
+     * Tool service whose tool lookups wait until they are released, to keep the thread of a shard busy.
+     */
+    private static final class BlockingToolService extends ToolService {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        private BlockingToolService(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public Optional<Tool> getTool(String toolCode) {
+            started.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return super.getTool(toolCode);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package services;
+
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestToolAvailabilityIndex {
+
+    private final ToolAvailabilityIndex toolAvailabilityIndex = new ToolAvailabilityIndex(new ToolService());
+
+    // Test Case 1 verifies that a reserved tool is only unavailable from its checkout date up to its due date, and
+    // is available again once released
+    @Test
+    public void test1() {
+
+        LocalDate checkoutDate = LocalDate.of(2015, 7, 1);
+        LocalDate dueDate = LocalDate.of(2015, 7, 5);
+
+        assertThat(toolAvailabilityIndex.reserve("JAKD", checkoutDate, dueDate)).isTrue();
+        assertThat(toolAvailabilityIndex.reserve("JAKD", LocalDate.of(2015, 6, 28), LocalDate.of(2015, 7, 2))).isFalse();
+
+        assertThat(toolAvailabilityIndex.getAvailableToolCodes(ToolType.JACKHAMMER, LocalDate.of(2015, 7, 3), LocalDate.of(2015, 7, 4)))
+                .containsExactlyInAnyOrder("JAKR");
+        assertThat(toolAvailabilityIndex.getAvailableToolCodes(ToolType.JACKHAMMER, dueDate, LocalDate.of(2015, 7, 8)))
+                .containsExactlyInAnyOrder("JAKD", "JAKR");
+        assertThat(toolAvailabilityIndex.isAvailable("JAKD", LocalDate.of(2015, 6, 28), checkoutDate)).isTrue();
+
+        assertThat(toolAvailabilityIndex.release("JAKD", checkoutDate)).isTrue();
+        assertThat(toolAvailabilityIndex.release("JAKD", checkoutDate)).isFalse();
+        assertThat(toolAvailabilityIndex.isAvailable("JAKD", checkoutDate, dueDate)).isTrue();
+    }
+
+    // Test Case 2 verifies that reservations and availability match a scan over every reservation
+    @Test
+    public void test2() {
+
+        Random random = new Random(3);
+        List<int[]> reservations = new ArrayList<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            int from = random.nextInt(2_000);
+            int to = from + 1 + random.nextInt(15);
+            boolean expectedAvailable = reservations.stream().noneMatch(reservation -> reservation[0] < to && from < reservation[1]);
+
+            assertThat(toolAvailabilityIndex.isAvailable("LADW", LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to))).isEqualTo(expectedAvailable);
+
+            if (random.nextBoolean()) {
+                assertThat(toolAvailabilityIndex.reserve("LADW", LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to))).isEqualTo(expectedAvailable);
+
+                if (expectedAvailable) {
+                    reservations.add(new int[]{from, to});
+                }
+            } else if (!reservations.isEmpty()) {
+                int[] reservation = reservations.remove(random.nextInt(reservations.size()));
+                assertThat(toolAvailabilityIndex.release("LADW", LocalDate.ofEpochDay(reservation[0]))).isTrue();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package services;
+
+import models.Tool;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestToolCatalog {
+
+    private static final String TOOL_CODE_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    // Test Case 1 verifies that ToolCatalog::getTool matches a map of the same tools, on and off the heap,
+    // including tool codes that cannot be packed and tool codes that are not in the catalog
+    @Test
+    public void test1() {
+
+        Random random = new Random(7);
+        List<Tool> tools = new ArrayList<>();
+        Map<String, Tool> toolMap = new HashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            Tool tool = new Tool(randomToolCode(random, 1 + random.nextInt(14)),
+                    ToolType.values()[random.nextInt(ToolType.values().length)],
+                    ToolBrand.values()[random.nextInt(ToolBrand.values().length)]);
+
+            tools.add(tool);
+            toolMap.put(tool.getToolCode(), tool);
+        }
+
+        tools.add(new Tool("ladder-w", ToolType.LADDER, null));
+        toolMap.put("ladder-w", tools.get(tools.size() - 1));
+
+        for (boolean offHeap : new boolean[]{false, true}) {
+            ToolCatalog toolCatalog = new ToolCatalog(tools, offHeap);
+
+            assertThat(toolCatalog.size()).isEqualTo(toolMap.size());
+
+            for (String toolCode : toolMap.keySet()) {
+                assertThat(toolCatalog.getTool(toolCode)).isEqualTo(Optional.of(toolMap.get(toolCode)));
+            }
+
+            for (int i = 0; i < 10_000; i++) {
+                String toolCode = randomToolCode(random, 1 + random.nextInt(14));
+                assertThat(toolCatalog.getTool(toolCode)).isEqualTo(Optional.ofNullable(toolMap.get(toolCode)));
+            }
+
+            Map<String, Tool> catalogTools = new HashMap<>();
+            toolCatalog.forEach(tool -> catalogTools.put(tool.getToolCode(), tool));
+            assertThat(catalogTools).isEqualTo(toolMap);
+        }
+    }
+
+    // Test Case 2 verifies that tool codes are packed and unpacked
+    @Test
+    public void test2() {
+
+        assertThat(ToolCatalog.packToolCode("CHNS")).isEqualTo(163_448);
+        assertThat(ToolCatalog.unpackToolCode(163_448)).isEqualTo("CHNS");
+        assertThat(ToolCatalog.unpackToolCode(ToolCatalog.packToolCode("999999999999"))).isEqualTo("999999999999");
+        assertThat(ToolCatalog.packToolCode("")).isEqualTo(0);
+        assertThat(ToolCatalog.packToolCode("JAKR-1")).isEqualTo(0);
+        assertThat(ToolCatalog.packToolCode("ABCDEFGHIJKLM")).isEqualTo(0);
+    }
+
+    private String randomToolCode(Random random, int length) {
+        StringBuilder toolCode = new StringBuilder();
+
+        for (int i = 0; i < length; i++) {
+            toolCode.append(TOOL_CODE_CHARACTERS.charAt(random.nextInt(TOOL_CODE_CHARACTERS.length())));
+        }
+
+        return toolCode.toString();
+    }
+}
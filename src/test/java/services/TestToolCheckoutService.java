@@ -1,12 +1,22 @@
 package services;
 
+import exceptions.NotFoundException;
+import exceptions.OutOfStockException;
+import exceptions.SystemErrorException;
+import models.CheckoutMetricsSnapshot;
+import models.CheckoutRequest;
+import models.CheckoutResult;
 import models.ToolRentalAgreement;
+import models.constants.CheckoutErrorCode;
+import models.constants.CheckoutStage;
 import models.constants.ToolBrand;
 import models.constants.ToolType;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -175,4 +185,296 @@ public class TestToolCheckoutService {
                 .isEqualTo(expected);
     }
 
+    // Batch Tests
+
+    // Test Case 7 verifies that ToolCheckoutService::checkoutTools returns results in the same order as the
+    // requests, with failed requests reported without failing the rest of the batch
+    @Test
+    public void test7() {
+
+        List<CheckoutRequest> checkoutRequests = new ArrayList<>();
+        checkoutRequests.add(new CheckoutRequest("LADW", 3, 10, LocalDate.of(2020, 7, 2)));
+        checkoutRequests.add(new CheckoutRequest("JAKR", 5, 101, LocalDate.of(2015, 9, 3)));
+        checkoutRequests.add(new CheckoutRequest("CHNS", 5, 25, LocalDate.of(2015, 7, 2)));
+        checkoutRequests.add(new CheckoutRequest("NOPE", 5, 25, LocalDate.of(2015, 7, 2)));
+        checkoutRequests.add(null);
+        checkoutRequests.add(new CheckoutRequest("JAKR", 4, 50, LocalDate.of(2020, 7, 2)));
+
+        List<CheckoutResult> results = toolCheckoutService.checkoutTools(checkoutRequests);
+
+        assertThat(results).hasSize(6);
+
+        assertThat(results.get(0).getToolRentalAgreement())
+                .isEqualTo(toolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2020, 7, 2)));
+        assertThat(results.get(1).getError())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Discount percent must be between 0 and 100 when checking out a tool.");
+        assertThat(results.get(2).getToolRentalAgreement())
+                .isEqualTo(toolCheckoutService.checkoutTool("CHNS", 5, 25, LocalDate.of(2015, 7, 2)));
+        assertThat(results.get(3).getError())
+                .isInstanceOf(NotFoundException.class);
+        assertThat(results.get(4).isSuccessful()).isFalse();
+        assertThat(results.get(5).getToolRentalAgreement())
+                .isEqualTo(toolCheckoutService.checkoutTool("JAKR", 4, 50, LocalDate.of(2020, 7, 2)));
+    }
+
+    // Test Case 8 verifies that a large batch matches checking out each tool individually
+    @Test
+    public void test8() {
+
+        String[] toolCodes = {"CHNS", "LADW", "JAKD", "JAKR"};
+        List<CheckoutRequest> checkoutRequests = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            checkoutRequests.add(new CheckoutRequest(toolCodes[i % toolCodes.length], 1 + i % 60, i % 101, LocalDate.of(2015, 1, 1).plusDays(i)));
+        }
+
+        List<CheckoutResult> results = toolCheckoutService.checkoutTools(checkoutRequests);
+
+        for (int i = 0; i < checkoutRequests.size(); i++) {
+            CheckoutRequest checkoutRequest = checkoutRequests.get(i);
+
+            assertThat(results.get(i).getCheckoutRequest()).isSameAs(checkoutRequest);
+            assertThat(results.get(i).getToolRentalAgreement())
+                    .isEqualTo(toolCheckoutService.checkoutTool(checkoutRequest.getToolCode(), checkoutRequest.getRentalDays(),
+                            checkoutRequest.getDiscountPercent(), checkoutRequest.getCheckoutDate()));
+        }
+    }
+
+    // Inventory Tests
+
+    // Test Case 9 verifies that ToolCheckoutService::checkoutTool refuses a tool once every unit is rented, in both
+    // single and batch checkouts
+    @Test
+    public void test9() {
+
+        ToolService toolService = new ToolService();
+        toolService.setStock("LADW", 2);
+
+        ToolCheckoutService stockedToolCheckoutService = new ToolCheckoutService(toolService, new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+        stockedToolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+
+        List<CheckoutResult> results = stockedToolCheckoutService.checkoutTools(List.of(
+                new CheckoutRequest("LADW", 3, 10, LocalDate.of(2015, 7, 2)),
+                new CheckoutRequest("LADW", 3, 10, LocalDate.of(2015, 7, 2)),
+                new CheckoutRequest("CHNS", 3, 10, LocalDate.of(2015, 7, 2))));
+
+        assertThat(results.stream().filter(CheckoutResult::isSuccessful).count()).isEqualTo(2);
+        assertThat(results.get(2).isSuccessful()).isTrue();
+        assertThatThrownBy(() -> stockedToolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2)))
+                .isInstanceOf(OutOfStockException.class)
+                .hasMessage("Tool code LADW is out of stock, every unit is already rented.");
+
+        toolService.release("LADW");
+
+        assertThat(stockedToolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2))).isNotNull();
+    }
+
+    // Rental Change Tests
+
+    // Test Case 10 verifies that ToolCheckoutService::extendRental matches checking out the tool for the combined
+    // number of days, including extensions of an extended rental
+    @Test
+    public void test10() {
+
+        for (String toolCode : new String[]{"CHNS", "LADW", "JAKR"}) {
+            for (LocalDate checkoutDate = LocalDate.of(2015, 6, 25); checkoutDate.isBefore(LocalDate.of(2015, 9, 10)); checkoutDate = checkoutDate.plusDays(3)) {
+                ToolRentalAgreement toolRentalAgreement = toolCheckoutService.quoteTool(toolCode, 2, 15, checkoutDate);
+
+                for (int extraDays : new int[]{1, 2, 5, 9, 31}) {
+                    toolRentalAgreement = toolCheckoutService.extendRental(toolRentalAgreement, extraDays);
+
+                    assertThat(toolRentalAgreement).isEqualTo(toolCheckoutService.quoteTool(toolCode, toolRentalAgreement.getRentalDays(), 15, checkoutDate));
+                }
+            }
+        }
+
+        assertThatThrownBy(() -> toolCheckoutService.extendRental(toolCheckoutService.quoteTool("LADW", 3, 10, LocalDate.of(2015, 7, 2)), 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Extra days must be 1 or greater when extending a rental.");
+    }
+
+    // Test Case 11 verifies that ToolCheckoutService::returnToolEarly matches checking out the tool until the
+    // return date
+    @Test
+    public void test11() {
+
+        for (String toolCode : new String[]{"CHNS", "LADW", "JAKR"}) {
+            for (LocalDate checkoutDate = LocalDate.of(2015, 6, 25); checkoutDate.isBefore(LocalDate.of(2015, 9, 10)); checkoutDate = checkoutDate.plusDays(3)) {
+                ToolRentalAgreement toolRentalAgreement = toolCheckoutService.quoteTool(toolCode, 20, 15, checkoutDate);
+
+                for (int rentalDays = 1; rentalDays < 20; rentalDays++) {
+                    assertThat(toolCheckoutService.returnToolEarly(toolRentalAgreement, checkoutDate.plusDays(rentalDays)))
+                            .isEqualTo(toolCheckoutService.quoteTool(toolCode, rentalDays, 15, checkoutDate));
+                }
+            }
+        }
+
+        ToolRentalAgreement toolRentalAgreement = toolCheckoutService.quoteTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+
+        assertThatThrownBy(() -> toolCheckoutService.returnToolEarly(toolRentalAgreement, LocalDate.of(2015, 7, 5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Return date must be after the checkout date and before the due date when returning a tool early.");
+
+        ToolService toolService = new ToolService();
+        toolService.setStock("LADW", 1);
+        ToolCheckoutService stockedToolCheckoutService = new ToolCheckoutService(toolService, new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+        ToolRentalAgreement checkedOutToolRentalAgreement = stockedToolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+        stockedToolCheckoutService.returnToolEarly(checkedOutToolRentalAgreement, LocalDate.of(2015, 7, 3));
+
+        assertThat(toolService.getAvailableStock("LADW")).hasValue(1);
+    }
+
+    // Test Case 12 verifies that ToolCheckoutService::quoteCheapestCheckoutDates returns the quotes of every
+    // checkout date in the window with the lowest final charge
+    @Test
+    public void test12() {
+
+        LocalDate earliestCheckoutDate = LocalDate.of(2015, 6, 20);
+        LocalDate latestCheckoutDate = LocalDate.of(2015, 9, 15);
+
+        for (String toolCode : new String[]{"CHNS", "LADW", "JAKR"}) {
+            for (int rentalDays : new int[]{1, 2, 4, 9}) {
+                List<ToolRentalAgreement> quotes = new ArrayList<>();
+
+                for (LocalDate checkoutDate = earliestCheckoutDate; !checkoutDate.isAfter(latestCheckoutDate); checkoutDate = checkoutDate.plusDays(1)) {
+                    quotes.add(toolCheckoutService.quoteTool(toolCode, rentalDays, 15, checkoutDate));
+                }
+
+                BigDecimal cheapestFinalCharge = quotes.stream().map(ToolRentalAgreement::getFinalCharge).min(BigDecimal::compareTo).orElseThrow();
+
+                assertThat(toolCheckoutService.quoteCheapestCheckoutDates(toolCode, rentalDays, 15, earliestCheckoutDate, latestCheckoutDate))
+                        .isEqualTo(quotes.stream().filter(quote -> quote.getFinalCharge().compareTo(cheapestFinalCharge) == 0).toList());
+            }
+        }
+
+        assertThat(toolCheckoutService.quoteCheapestCheckoutDates("JAKR", 3, 0, LocalDate.of(2015, 7, 1), LocalDate.of(2015, 7, 3)))
+                .extracting(ToolRentalAgreement::getCheckoutDate)
+                .containsExactly(LocalDate.of(2015, 7, 2));
+
+        // A window longer than an int array could hold is rejected by its due date rather than its length
+        assertThatThrownBy(() -> toolCheckoutService.quoteCheapestCheckoutDates("LADW", 3, 0, LocalDate.MIN, LocalDate.MAX))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(CheckoutErrorCode.RENTAL_PERIOD_OUT_OF_RANGE.getMessage());
+        assertThat(toolCheckoutService.quoteCheapestCheckoutDates("LADW", 3, 0, LocalDate.of(2015, 1, 1), LocalDate.of(2044, 12, 31)))
+                .isNotEmpty()
+                .allMatch(quote -> quote.getChargeDays() == 2);
+    }
+
+    // Test Case 13 verifies that ToolCheckoutService::tryCheckout reports every invalid parameter, an unknown tool
+    // and an out of stock tool as error codes, and otherwise creates the same agreement as checkoutTool
+    @Test
+    public void test13() {
+
+        CheckoutResult invalidResult = toolCheckoutService.tryCheckout(" ", 0, 101, null);
+
+        assertThat(invalidResult.isSuccessful()).isFalse();
+        assertThat(invalidResult.getErrorCodes()).containsExactly(CheckoutErrorCode.BLANK_TOOL_CODE, CheckoutErrorCode.INVALID_RENTAL_DAYS,
+                CheckoutErrorCode.INVALID_DISCOUNT_PERCENT, CheckoutErrorCode.MISSING_CHECKOUT_DATE);
+        assertThatThrownBy(() -> toolCheckoutService.checkoutTool("LADW", 3, 101, LocalDate.of(2015, 7, 2)))
+                .hasMessage(CheckoutErrorCode.INVALID_DISCOUNT_PERCENT.getMessage());
+
+        assertThat(toolCheckoutService.tryCheckout("NOPE", 3, 10, LocalDate.of(2015, 7, 2)).getErrorCodes())
+                .containsExactly(CheckoutErrorCode.TOOL_NOT_FOUND);
+
+        CheckoutResult result = toolCheckoutService.tryCheckout("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.getToolRentalAgreement()).isEqualTo(toolCheckoutService.quoteTool("LADW", 3, 10, LocalDate.of(2015, 7, 2)));
+
+        ToolService toolService = new ToolService();
+        toolService.setStock("JAKR", 0);
+        ToolCheckoutService stockedToolCheckoutService = new ToolCheckoutService(toolService, new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+        CheckoutResult outOfStockResult = stockedToolCheckoutService.tryCheckout("JAKR", 3, 10, LocalDate.of(2015, 7, 2));
+
+        assertThat(outOfStockResult.getToolRentalAgreement()).isNull();
+        assertThat(outOfStockResult.getErrorCodes()).containsExactly(CheckoutErrorCode.OUT_OF_STOCK);
+        assertThat(stockedToolCheckoutService.getCheckoutMetrics().getSnapshot().getFailedCheckouts()).isEqualTo(1);
+    }
+
+    // Test Case 14 verifies that returning a tool releases its reserved unit, so a tool with tracked stock can be
+    // checked out again
+    @Test
+    public void test14() {
+
+        ToolService toolService = new ToolService();
+        toolService.setStock("LADW", 1);
+        ToolCheckoutService stockedToolCheckoutService = new ToolCheckoutService(toolService, new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+        ToolRentalAgreement toolRentalAgreement = stockedToolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+
+        assertThat(stockedToolCheckoutService.tryCheckout("LADW", 3, 10, LocalDate.of(2015, 7, 6)).getErrorCodes())
+                .containsExactly(CheckoutErrorCode.OUT_OF_STOCK);
+
+        stockedToolCheckoutService.returnTool(toolRentalAgreement);
+
+        assertThat(toolService.getAvailableStock("LADW")).hasValue(1);
+        assertThat(stockedToolCheckoutService.tryCheckout("LADW", 3, 10, LocalDate.of(2015, 7, 6)).isSuccessful()).isTrue();
+        assertThat(toolService.getAvailableStock("LADW")).hasValue(0);
+
+        stockedToolCheckoutService.returnTool(toolRentalAgreement);
+
+        assertThatThrownBy(() -> stockedToolCheckoutService.returnTool(toolRentalAgreement))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // Test Case 15 verifies that a due date past the last supported date is rejected with an error code rather than
+    // a date time exception, and that ToolCheckoutService::tryCheckout records the same stages as checkoutTool
+    @Test
+    public void test15() {
+
+        assertThat(toolCheckoutService.tryQuote("LADW", 1, 0, LocalDate.MAX).getErrorCodes())
+                .containsExactly(CheckoutErrorCode.RENTAL_PERIOD_OUT_OF_RANGE);
+        assertThat(toolCheckoutService.tryCheckout("LADW", Integer.MAX_VALUE, 0, LocalDate.MAX.minusYears(1)).getErrorCodes())
+                .containsExactly(CheckoutErrorCode.RENTAL_PERIOD_OUT_OF_RANGE);
+        assertThatThrownBy(() -> toolCheckoutService.checkoutTool("LADW", 1, 0, LocalDate.MAX))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(CheckoutErrorCode.RENTAL_PERIOD_OUT_OF_RANGE.getMessage());
+
+        assertThat(toolCheckoutService.tryQuote("LADW", 1, 0, LocalDate.MAX.minusDays(1)).isSuccessful()).isTrue();
+
+        ToolCheckoutService meteredToolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+        meteredToolCheckoutService.tryCheckout("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+
+        CheckoutMetricsSnapshot snapshot = meteredToolCheckoutService.getCheckoutMetrics().getSnapshot();
+
+        for (CheckoutStage checkoutStage : CheckoutStage.values()) {
+            assertThat(snapshot.getStageLatencies().get(checkoutStage).getCount()).isEqualTo(1);
+        }
+    }
+
+    // Test Case 16 verifies that a tool type without a tool type charge fails with the message of its error code,
+    // followed by the tool type when the failure is thrown
+    @Test
+    public void test16() {
+
+        ToolTypeChargeService toolTypeChargeService = new ToolTypeChargeService(List.of());
+        ToolCheckoutService unchargedToolCheckoutService = new ToolCheckoutService(new ToolService(), toolTypeChargeService, new RentalAmountService(), new RentalDateService());
+
+        assertThat(unchargedToolCheckoutService.tryCheckout("LADW", 3, 10, LocalDate.of(2015, 7, 2)).getErrorCodes())
+                .containsExactly(CheckoutErrorCode.TOOL_TYPE_CHARGE_NOT_FOUND);
+        assertThatThrownBy(() -> unchargedToolCheckoutService.checkoutTool("LADW", 3, 10, LocalDate.of(2015, 7, 2)))
+                .isInstanceOf(SystemErrorException.class)
+                .hasMessage(CheckoutErrorCode.TOOL_TYPE_CHARGE_NOT_FOUND.getMessage() + " Tool type: " + ToolType.LADDER);
+        assertThatThrownBy(() -> unchargedToolCheckoutService.checkoutToolAsync("LADW", 3, 10, LocalDate.of(2015, 7, 2), Runnable::run).join())
+                .hasCauseInstanceOf(SystemErrorException.class)
+                .hasMessageEndingWith("Tool type: " + ToolType.LADDER);
+
+        // Every failed request of a batch gets its own exception
+        List<CheckoutResult> results = unchargedToolCheckoutService.checkoutTools(List.of(
+                new CheckoutRequest("LADW", 3, 10, LocalDate.of(2015, 7, 2)),
+                new CheckoutRequest("LADW", 4, 10, LocalDate.of(2015, 7, 2)),
+                new CheckoutRequest("NOPE", 3, 10, LocalDate.of(2015, 7, 2)),
+                new CheckoutRequest("NOPE", 4, 10, LocalDate.of(2015, 7, 2))));
+
+        assertThat(results.get(0).getError()).isInstanceOf(SystemErrorException.class)
+                .hasMessageEndingWith("Tool type: " + ToolType.LADDER)
+                .isNotSameAs(results.get(1).getError());
+        assertThat(results.get(2).getError()).isInstanceOf(NotFoundException.class)
+                .hasMessage(CheckoutErrorCode.TOOL_NOT_FOUND.getMessage())
+                .isNotSameAs(results.get(3).getError());
+    }
 }
@@ -0,0 +1,99 @@
+package services;
+
+import models.ToolRentalAgreement;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestToolRentalAgreementCodec {
+
+    private final ToolRentalAgreementCodec toolRentalAgreementCodec = new ToolRentalAgreementCodec();
+    private final ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), new ToolTypeChargeService(), new RentalAmountService(), new RentalDateService());
+
+    // Test Case 1 verifies that encoded rental agreements decode unchanged, including null fields, and that a
+    // single view reads the fields of every record in place
+    @Test
+    public void test1() {
+
+        List<ToolRentalAgreement> toolRentalAgreements = new ArrayList<>();
+
+        for (String toolCode : new String[]{"CHNS", "LADW", "JAKD", "JAKR"}) {
+            toolRentalAgreements.add(toolCheckoutService.quoteTool(toolCode, 5, 20, LocalDate.of(2015, 7, 2)));
+        }
+
+        toolRentalAgreements.add(ToolRentalAgreement.builder().toolType(ToolType.LADDER).discountPercent(10).build());
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(toolRentalAgreements.size() * ToolRentalAgreementCodec.RECORD_SIZE);
+        toolRentalAgreements.forEach(toolRentalAgreement -> toolRentalAgreementCodec.encode(toolRentalAgreement, buffer));
+        buffer.flip();
+
+        for (ToolRentalAgreement toolRentalAgreement : toolRentalAgreements) {
+            assertThat(toolRentalAgreementCodec.decode(buffer)).isEqualTo(toolRentalAgreement);
+        }
+
+        ToolRentalAgreementCodec.View view = new ToolRentalAgreementCodec.View(buffer, 0);
+
+        for (int i = 0; i < toolRentalAgreements.size(); i++) {
+            view.moveTo(i * ToolRentalAgreementCodec.RECORD_SIZE);
+
+            assertThat(view.getToolCode()).isEqualTo(toolRentalAgreements.get(i).getToolCode());
+            assertThat(view.getFinalCharge()).isEqualTo(toolRentalAgreements.get(i).getFinalCharge());
+        }
+
+        assertThat(view.getCheckoutDate()).isNull();
+        assertThat(view.getDiscountPercent()).isEqualTo(10);
+    }
+
+    // Test Case 2 verifies that nothing is written for a rental agreement that cannot be encoded or does not fit
+    @Test
+    public void test2() {
+
+        ToolRentalAgreement toolRentalAgreement = toolCheckoutService.quoteTool("LADW", 3, 10, LocalDate.of(2015, 7, 2));
+        ByteBuffer smallBuffer = ByteBuffer.allocate(ToolRentalAgreementCodec.RECORD_SIZE - 1);
+
+        assertThatThrownBy(() -> toolRentalAgreementCodec.encode(toolRentalAgreement, smallBuffer))
+                .isInstanceOf(BufferOverflowException.class);
+        assertThat(smallBuffer.position()).isEqualTo(0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(ToolRentalAgreementCodec.RECORD_SIZE);
+
+        assertThatThrownBy(() -> toolRentalAgreementCodec.encode(ToolRentalAgreement.builder().toolCode("ladw").build(), buffer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Tool code must be up to 12 uppercase letters and digits when encoding a tool rental agreement.");
+        assertThatThrownBy(() -> toolRentalAgreementCodec.encode(ToolRentalAgreement.builder().finalCharge(new BigDecimal("1.999")).build(), buffer))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(buffer.position()).isEqualTo(0);
+    }
+
+    // Test Case 3 verifies that a record holding a tool type or brand ordinal that is not of this build cannot be decoded
+    @Test
+    public void test3() {
+
+        ByteBuffer buffer = ByteBuffer.allocate(ToolRentalAgreementCodec.RECORD_SIZE);
+        toolRentalAgreementCodec.encode(toolCheckoutService.quoteTool("LADW", 3, 10, LocalDate.of(2015, 7, 2)), buffer);
+        buffer.put(62, (byte) -1);
+        buffer.put(63, (byte) ToolBrand.values().length);
+
+        ToolRentalAgreementCodec.View view = new ToolRentalAgreementCodec.View(buffer, 0);
+
+        assertThatThrownBy(view::getToolType)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Tool type ordinal -1 is not a tool type of this build.");
+        assertThatThrownBy(view::getToolBrand)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Tool brand ordinal " + ToolBrand.values().length + " is not a tool brand of this build.");
+        assertThatThrownBy(() -> toolRentalAgreementCodec.decode(buffer.flip()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(view.getToolCode()).isEqualTo("LADW");
+    }
+}
@@ -0,0 +1,120 @@
+package services;
+
+import models.ToolRentalAgreement;
+import models.constants.ToolBrand;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestToolRentalAgreementRenderer {
+
+    private final ToolRentalAgreementRenderer renderer = new ToolRentalAgreementRenderer();
+
+    // Test Case 1 verifies that amounts and dates are rendered the same as NumberFormat and DateTimeFormatter
+    @Test
+    public void test1() {
+
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "US"));
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("MM/dd/yy");
+        Random random = new Random(7);
+
+        String[] amounts = {"0", "0.00", "0.005", "0.015", "-0.001", "-1.49", "999.995", "1000", "1234567.89",
+                "100000000000000.00", "9999999999999999.99", "12345678901234567890.555", "1E+3", "2.5"};
+
+        for (String amount : amounts) {
+            assertRendered(new BigDecimal(amount), LocalDate.of(2015, 7, 2), currencyFormat, dateFormat);
+        }
+
+        for (int year : new int[]{-12345, -5, 0, 1, 5, 99, 100, 2000, 2015, 12345}) {
+            assertRendered(new BigDecimal("1.99"), LocalDate.of(year, 12, 31), currencyFormat, dateFormat);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong() % 100_000_000_000L, random.nextInt(5));
+            LocalDate date = LocalDate.ofEpochDay(random.nextInt(200_000) - 100_000);
+
+            assertRendered(amount, date, currencyFormat, dateFormat);
+        }
+    }
+
+    // Test Case 2 verifies that null fields are left out
+    @Test
+    public void test2() {
+
+        ToolRentalAgreement toolRentalAgreement = ToolRentalAgreement
+                .builder()
+                .toolType(ToolType.LADDER)
+                .discountPercent(10)
+                .build();
+
+        StringBuilder output = new StringBuilder();
+        renderer.render(toolRentalAgreement, output);
+
+        assertThat(output.toString()).isEqualTo("Tool type: Ladder\nDiscount percent: 10%");
+    }
+
+    // Test Case 3 verifies that rendering into char and byte buffers matches rendering into a string builder,
+    // and that nothing is written into a buffer that is too small
+    @Test
+    public void test3() {
+
+        ToolRentalAgreement toolRentalAgreement = ToolRentalAgreement
+                .builder()
+                .toolCode("\u00C9CHELLE-\u0800-\uD83D\uDD27")
+                .toolType(ToolType.LADDER)
+                .toolBrand(ToolBrand.Werner)
+                .rentalDays(3)
+                .checkoutDate(LocalDate.of(2015, 7, 2))
+                .dueDate(LocalDate.of(2015, 7, 5))
+                .dailyRentalCharge(new BigDecimal("1.99"))
+                .chargeDays(2)
+                .preDiscountCharge(new BigDecimal("3.98"))
+                .discountPercent(10)
+                .discountAmount(new BigDecimal("0.40"))
+                .finalCharge(new BigDecimal("3.58"))
+                .build();
+
+        StringBuilder expected = new StringBuilder();
+        renderer.render(toolRentalAgreement, expected);
+
+        CharBuffer charBuffer = CharBuffer.allocate(1024);
+        renderer.render(toolRentalAgreement, charBuffer);
+        assertThat(charBuffer.flip().toString()).isEqualTo(expected.toString());
+
+        ByteBuffer byteBuffer = ByteBuffer.allocate(1024);
+        renderer.render(toolRentalAgreement, byteBuffer);
+        assertThat(StandardCharsets.UTF_8.decode(byteBuffer.flip()).toString()).isEqualTo(expected.toString());
+
+        ByteBuffer smallBuffer = ByteBuffer.allocate(expected.length());
+        assertThatThrownBy(() -> renderer.render(toolRentalAgreement, smallBuffer))
+                .isInstanceOf(BufferOverflowException.class);
+        assertThat(smallBuffer.position()).isEqualTo(0);
+    }
+
+    private void assertRendered(BigDecimal amount, LocalDate date, NumberFormat currencyFormat, DateTimeFormatter dateFormat) {
+        ToolRentalAgreement toolRentalAgreement = ToolRentalAgreement
+                .builder()
+                .checkoutDate(date)
+                .finalCharge(amount)
+                .build();
+
+        StringBuilder output = new StringBuilder();
+        renderer.render(toolRentalAgreement, output);
+
+        assertThat(output.toString())
+                .isEqualTo("Checkout date: " + date.format(dateFormat) + "\nFinal charge: " + currencyFormat.format(amount));
+    }
+}
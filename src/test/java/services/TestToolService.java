@@ -0,0 +1,91 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestToolService {
+
+    private final ToolService toolService = new ToolService();
+
+    // Test Case 1 verifies that a tool without tracked stock can always be reserved, and that a tracked tool can
+    // only be reserved until its units run out
+    @Test
+    public void test1() {
+
+        assertThat(toolService.getAvailableStock("LADW")).isEqualTo(OptionalInt.empty());
+        assertThat(toolService.reserve("LADW")).isTrue();
+
+        toolService.setStock("CHNS", 2);
+
+        assertThat(toolService.reserve("CHNS")).isTrue();
+        assertThat(toolService.reserve("CHNS")).isTrue();
+        assertThat(toolService.reserve("CHNS")).isFalse();
+        assertThat(toolService.getAvailableStock("CHNS")).isEqualTo(OptionalInt.of(0));
+
+        toolService.release("CHNS");
+
+        assertThat(toolService.getAvailableStock("CHNS")).isEqualTo(OptionalInt.of(1));
+        assertThat(toolService.reserve("CHNS")).isTrue();
+
+        toolService.release("CHNS");
+        toolService.release("CHNS");
+
+        assertThatThrownBy(() -> toolService.release("CHNS")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> toolService.setStock("NOPE", 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Test Case 2 verifies that concurrent threads never reserve more units than are in stock
+    @Test
+    public void test2() throws Exception {
+
+        toolService.setStock("JAKR", 100);
+        toolService.setStock("JAKD", 100);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(200);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 200; i++) {
+                String toolCode = i % 2 == 0 ? "JAKR" : "JAKD";
+
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+
+                    int reservedUnits = 0;
+                    for (int j = 0; j < 10; j++) {
+                        if (toolService.reserve(toolCode)) {
+                            reservedUnits++;
+                        }
+                    }
+                    return reservedUnits;
+                }));
+            }
+
+            startLatch.countDown();
+
+            int reservedUnits = 0;
+            for (Future<Integer> future : futures) {
+                reservedUnits += future.get();
+            }
+
+            assertThat(reservedUnits).isEqualTo(200);
+            assertThat(toolService.getAvailableStock("JAKR")).isEqualTo(OptionalInt.of(0));
+            assertThat(toolService.getAvailableStock("JAKD")).isEqualTo(OptionalInt.of(0));
+        } finally {
+            executorService.shutdownNow();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
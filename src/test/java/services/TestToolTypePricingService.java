@@ -0,0 +1,118 @@
+package services;
+
+import models.CheckoutRequest;
+import models.PricingRuleSet;
+import models.RentalDiscountTier;
+import models.RentalPrice;
+import models.SeasonalRate;
+import models.ToolRentalAgreement;
+import models.ToolTypeCharge;
+import models.constants.DayClass;
+import models.constants.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestToolTypePricingService {
+
+    // Test Case 1 verifies that a tool type without a rule set is priced with its tool type charge, that an attached
+    // rule set prices its tool type until it is detached, and that an invalid rule set is not attached
+    @Test
+    public void test1() {
+
+        ToolTypeChargeService toolTypeChargeService = new ToolTypeChargeService();
+        PricingRuleEngine pricingRuleEngine = new PricingRuleEngine(new RentalDateService(), new RentalAmountService());
+        ToolTypePricingService toolTypePricingService = new ToolTypePricingService(toolTypeChargeService, pricingRuleEngine);
+        ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), toolTypeChargeService, new RentalAmountService(), new RentalDateService());
+
+        LocalDate checkoutDate = LocalDate.of(2015, 7, 2);
+        ToolRentalAgreement toolRentalAgreement = toolCheckoutService.quoteTool("LADW", 10, 15, checkoutDate);
+        RentalPrice toolTypeChargePrice = new RentalPrice(toolRentalAgreement.getChargeDays(), toolRentalAgreement.getPreDiscountCharge(), 15,
+                toolRentalAgreement.getDiscountAmount(), toolRentalAgreement.getFinalCharge());
+
+        assertThat(toolTypePricingService.price(ToolType.LADDER, checkoutDate, 10, 15)).contains(toolTypeChargePrice);
+
+        PricingRuleSet pricingRuleSet = PricingRuleSet.builder()
+                .dailyRentalCharges(Map.of(DayClass.WEEKDAY, new BigDecimal("1.99"), DayClass.WEEKEND, new BigDecimal("1.99")))
+                .rentalDiscountTiers(List.of(new RentalDiscountTier(7, 5)))
+                .build();
+        toolTypePricingService.setPricingRuleSet(ToolType.LADDER, pricingRuleSet);
+
+        assertThat(toolTypePricingService.hasPricingRuleSet(ToolType.LADDER)).isTrue();
+        assertThat(toolTypePricingService.price(ToolType.LADDER, checkoutDate, 10, 15))
+                .contains(pricingRuleEngine.compile(pricingRuleSet).price(checkoutDate, 10, 15));
+        assertThat(toolTypePricingService.price(ToolType.LADDER, checkoutDate, 10, 15).orElseThrow().getDiscountPercent()).isEqualTo(20);
+
+        PricingRuleSet overlappingSeasons = PricingRuleSet.builder()
+                .seasonalRates(List.of(new SeasonalRate(MonthDay.of(12, 20), MonthDay.of(1, 5), 150), new SeasonalRate(MonthDay.of(1, 5), MonthDay.of(2, 1), 90)))
+                .build();
+
+        assertThatThrownBy(() -> toolTypePricingService.setPricingRuleSet(ToolType.LADDER, overlappingSeasons))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(toolTypePricingService.price(ToolType.LADDER, checkoutDate, 10, 15).orElseThrow().getDiscountPercent()).isEqualTo(20);
+
+        toolTypePricingService.removePricingRuleSet(ToolType.LADDER);
+
+        assertThat(toolTypePricingService.price(ToolType.LADDER, checkoutDate, 10, 15)).contains(toolTypeChargePrice);
+
+        toolTypeChargeService.setToolTypeCharges(List.of(new ToolTypeCharge(ToolType.LADDER, new BigDecimal("2.49"), Boolean.TRUE, Boolean.TRUE, Boolean.FALSE)));
+
+        assertThat(toolTypePricingService.price(ToolType.LADDER, checkoutDate, 10, 15).orElseThrow().getPreDiscountCharge())
+                .isEqualTo(new BigDecimal("2.49").multiply(BigDecimal.valueOf(toolRentalAgreement.getChargeDays())));
+        assertThat(toolTypePricingService.price(ToolType.JACKHAMMER, checkoutDate, 10, 15)).isEmpty();
+    }
+
+    // Test Case 2 verifies that checkouts, quotes, extensions and early returns of a tool type with a rule set are
+    // priced with the rule set, while tool types without one keep their tool type charge price
+    @Test
+    public void test2() {
+
+        ToolTypeChargeService toolTypeChargeService = new ToolTypeChargeService();
+        PricingRuleEngine pricingRuleEngine = new PricingRuleEngine(new RentalDateService(), new RentalAmountService());
+        ToolTypePricingService toolTypePricingService = new ToolTypePricingService(toolTypeChargeService, pricingRuleEngine);
+        ToolCheckoutService toolCheckoutService = new ToolCheckoutService(new ToolService(), toolTypeChargeService, new RentalAmountService(),
+                new RentalDateService(), new CheckoutMetrics(), null, toolTypePricingService);
+        ToolCheckoutService toolTypeChargeCheckoutService = new ToolCheckoutService(new ToolService(), toolTypeChargeService, new RentalAmountService(), new RentalDateService());
+
+        PricingRuleSet pricingRuleSet = PricingRuleSet.builder()
+                .dailyRentalCharges(Map.of(DayClass.WEEKDAY, new BigDecimal("1.99"), DayClass.WEEKEND, new BigDecimal("2.99")))
+                .seasonalRates(List.of(new SeasonalRate(MonthDay.of(7, 1), MonthDay.of(7, 4), 150)))
+                .rentalDiscountTiers(List.of(new RentalDiscountTier(7, 5)))
+                .build();
+        CompiledPricingRules compiledPricingRules = pricingRuleEngine.compile(pricingRuleSet);
+        toolTypePricingService.setPricingRuleSet(ToolType.LADDER, pricingRuleSet);
+
+        LocalDate checkoutDate = LocalDate.of(2015, 7, 2);
+        ToolRentalAgreement toolRentalAgreement = toolCheckoutService.checkoutTool("LADW", 10, 15, checkoutDate);
+
+        assertThat(toRentalPrice(toolRentalAgreement)).isEqualTo(compiledPricingRules.price(checkoutDate, 10, 15));
+        assertThat(toolRentalAgreement.getDiscountPercent()).isEqualTo(20);
+        assertThat(toolRentalAgreement.getDailyRentalCharge()).isEqualTo(new BigDecimal("1.99"));
+        assertThat(toolCheckoutService.tryCheckout("LADW", 10, 15, checkoutDate).getToolRentalAgreement()).isEqualTo(toolRentalAgreement);
+        assertThat(toolCheckoutService.checkoutTools(List.of(new CheckoutRequest("LADW", 10, 15, checkoutDate))).get(0).getToolRentalAgreement())
+                .isEqualTo(toolRentalAgreement);
+        assertThat(toolCheckoutService.quoteTool("JAKR", 10, 15, checkoutDate)).isEqualTo(toolTypeChargeCheckoutService.quoteTool("JAKR", 10, 15, checkoutDate));
+
+        ToolRentalAgreement shortRentalAgreement = toolCheckoutService.checkoutTool("LADW", 5, 15, checkoutDate);
+
+        assertThat(toRentalPrice(toolCheckoutService.extendRental(shortRentalAgreement, 3))).isEqualTo(compiledPricingRules.price(checkoutDate, 8, 15));
+        assertThat(toRentalPrice(toolCheckoutService.returnToolEarly(toolRentalAgreement, checkoutDate.plusDays(5))))
+                .isEqualTo(compiledPricingRules.price(checkoutDate, 5, 15));
+
+        for (ToolRentalAgreement cheapestRentalAgreement : toolCheckoutService.quoteCheapestCheckoutDates("LADW", 5, 15, LocalDate.of(2015, 6, 25), LocalDate.of(2015, 7, 10))) {
+            assertThat(toRentalPrice(cheapestRentalAgreement)).isEqualTo(compiledPricingRules.price(cheapestRentalAgreement.getCheckoutDate(), 5, 15));
+        }
+    }
+
+    private RentalPrice toRentalPrice(ToolRentalAgreement toolRentalAgreement) {
+        return new RentalPrice(toolRentalAgreement.getChargeDays(), toolRentalAgreement.getPreDiscountCharge(), toolRentalAgreement.getDiscountPercent(),
+                toolRentalAgreement.getDiscountAmount(), toolRentalAgreement.getFinalCharge());
+    }
+}